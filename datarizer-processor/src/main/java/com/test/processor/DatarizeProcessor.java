@@ -0,0 +1,371 @@
+package com.test.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes a reflection-free {@code com.test.Generator} for every class annotated with {@code
+ * com.test.Datarize}. The generated code follows the same strategy order DataRizer uses at runtime:
+ * a non-private no-argument constructor, otherwise the first public constructor, otherwise a public
+ * static {@code of} factory, followed by every public setter.
+ *
+ * <p>Values are produced by the helpers of {@code com.test.AbstractGenerator}. Classes the
+ * generator can't write code for are generated reflectively through its {@code nextObject} helper.
+ * Arrays, type variables, wildcards and references that would recurse back into the class being
+ * generated are left null, with a warning.
+ *
+ * <p>Constructors and setters written by Lombok are only seen when Lombok runs first, ie, when it's
+ * listed before this processor on the annotation processor path.
+ */
+@SupportedAnnotationTypes(DatarizeProcessor.DATARIZE)
+public final class DatarizeProcessor extends AbstractProcessor {
+
+  static final String DATARIZE = "com.test.Datarize";
+  private static final String ABSTRACT_GENERATOR = "com.test.AbstractGenerator";
+
+  private static final Map<String, String> VALUES =
+      Map.ofEntries(
+          Map.entry("java.lang.String", "nextString()"),
+          Map.entry("java.lang.Integer", "nextInteger()"),
+          Map.entry("java.lang.Long", "nextLong()"),
+          Map.entry("java.lang.Short", "nextShort()"),
+          Map.entry("java.lang.Byte", "nextByte()"),
+          Map.entry("java.lang.Character", "nextCharacter()"),
+          Map.entry("java.lang.Boolean", "nextBoolean()"),
+          Map.entry("java.lang.Float", "nextFloat()"),
+          Map.entry("java.lang.Double", "nextDouble()"),
+          Map.entry("java.math.BigDecimal", "nextBigDecimal()"),
+          Map.entry("java.time.Instant", "nextInstant()"),
+          Map.entry("java.time.LocalDate", "nextLocalDate()"),
+          Map.entry("java.time.LocalDateTime", "nextLocalDateTime()"),
+          Map.entry("java.time.LocalTime", "nextLocalTime()"),
+          Map.entry("java.time.Duration", "nextDuration()"),
+          Map.entry("java.lang.Object", "new java.lang.Object()"));
+
+  private static final Set<String> LISTS =
+      Set.of("java.util.List", "java.util.Collection", "java.lang.Iterable", "java.util.ArrayList");
+  private static final Set<String> SETS = Set.of("java.util.Set", "java.util.HashSet");
+  private static final Set<String> MAPS = Set.of("java.util.Map", "java.util.HashMap");
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(datarize()))) {
+      if (isSupported(type)) {
+        write(type);
+      }
+    }
+    return true;
+  }
+
+  private TypeElement datarize() {
+    return processingEnv.getElementUtils().getTypeElement(DATARIZE);
+  }
+
+  private boolean isSupported(TypeElement type) {
+    String problem = null;
+    if (type.getKind() != ElementKind.CLASS) {
+      problem = "only classes can be generated";
+    } else if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      problem = "abstract classes can't be generated";
+    } else if (type.getModifiers().contains(Modifier.PRIVATE)) {
+      problem = "private classes can't be generated";
+    } else if (type.getNestingKind() != NestingKind.TOP_LEVEL
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      problem = "inner classes must be static to be generated";
+    } else if (creator(type) == null) {
+      problem = "no accessible constructor or public static of() factory";
+    }
+    if (problem != null) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.ERROR, "@Datarize: " + problem, type);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * The constructor or factory the generated code calls, chosen in runtime order
+   *
+   * @param type annotated class
+   * @return constructor or static factory, null if none is accessible
+   */
+  private ExecutableElement creator(TypeElement type) {
+    List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+    for (ExecutableElement constructor : constructors) {
+      if (constructor.getParameters().isEmpty()
+          && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        return constructor;
+      }
+    }
+    for (ExecutableElement constructor : constructors) {
+      if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        return constructor;
+      }
+    }
+    for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      if (method.getSimpleName().contentEquals("of")
+          && method.getModifiers().containsAll(Set.of(Modifier.PUBLIC, Modifier.STATIC))
+          && processingEnv.getTypeUtils().isSameType(method.getReturnType(), type.asType())) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private List<ExecutableElement> setters(TypeElement type) {
+    List<ExecutableElement> setters = new ArrayList<>();
+    for (ExecutableElement method :
+        ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (method.getSimpleName().toString().startsWith("set")
+          && method.getParameters().size() == 1
+          && method.getModifiers().contains(Modifier.PUBLIC)
+          && !method.getModifiers().contains(Modifier.STATIC)) {
+        setters.add(method);
+      }
+    }
+    return setters;
+  }
+
+  private void write(TypeElement type) {
+    String packageName =
+        processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String generatorName = binaryName.replace('$', '_') + "Generator";
+    String simpleName = generatorName.substring(generatorName.lastIndexOf('.') + 1);
+    String typeName = type.getQualifiedName().toString();
+    String visibility = type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source
+        .append("@javax.annotation.processing.Generated(\"")
+        .append(DatarizeProcessor.class.getName())
+        .append("\")\n")
+        .append(visibility)
+        .append("final class ")
+        .append(simpleName)
+        .append(" extends ")
+        .append(ABSTRACT_GENERATOR)
+        .append('<')
+        .append(typeName)
+        .append("> {\n\n");
+    source.append("  ").append(visibility).append(simpleName).append("() {\n");
+    source.append("    super();\n  }\n\n");
+    source.append("  ").append(visibility).append(simpleName);
+    source.append("(java.util.Random random) {\n    super(random);\n  }\n\n");
+    source.append("  @Override\n  public ").append(typeName).append(" generate() {\n");
+
+    ExecutableElement creator = creator(type);
+    List<String> arguments = new ArrayList<>();
+    for (VariableElement parameter : creator.getParameters()) {
+      arguments.add(value(parameter.asType(), type));
+    }
+    source.append("    ").append(typeName).append(" value = ");
+    if (creator.getKind() == ElementKind.CONSTRUCTOR) {
+      source.append("new ").append(typeName);
+    } else {
+      source.append(typeName).append(".of");
+    }
+    source.append('(').append(String.join(", ", arguments)).append(");\n");
+    for (ExecutableElement setter : setters(type)) {
+      source
+          .append("    value.")
+          .append(setter.getSimpleName())
+          .append('(')
+          .append(value(setter.getParameters().get(0).asType(), type))
+          .append(");\n");
+    }
+    source.append("    return value;\n  }\n}\n");
+
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(generatorName, type).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.ERROR, "@Datarize: can't write generator: " + e, type);
+    }
+  }
+
+  /**
+   * Java expression producing a random value of the given type
+   *
+   * @param type declared parameter type
+   * @param owner class whose generator is being written
+   * @return expression, "null" if the type can't be generated at all
+   */
+  private String value(TypeMirror type, TypeElement owner) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "nextBoolean()";
+      case BYTE:
+        return "nextByte()";
+      case SHORT:
+        return "nextShort()";
+      case CHAR:
+        return "nextCharacter()";
+      case INT:
+        return "nextInteger()";
+      case LONG:
+        return "nextLong()";
+      case FLOAT:
+        return "nextFloat()";
+      case DOUBLE:
+        return "nextDouble()";
+      case DECLARED:
+        return declaredValue((DeclaredType) type, owner);
+      case ARRAY:
+        // DataRizer doesn't generate arrays either
+        return unsupported(type, owner, "arrays aren't generated");
+      default:
+        return unsupported(type, owner, "it has no class to generate");
+    }
+  }
+
+  private String declaredValue(DeclaredType type, TypeElement owner) {
+    TypeElement element = (TypeElement) type.asElement();
+    String name = element.getQualifiedName().toString();
+    List<? extends TypeMirror> arguments = type.getTypeArguments();
+    if (VALUES.containsKey(name)) {
+      return VALUES.get(name);
+    } else if (element.getKind() == ElementKind.ENUM) {
+      return "nextEnum(" + name + ".values())";
+    } else if (LISTS.contains(name) && isConcrete(arguments, 1)) {
+      return "this.<"
+          + arguments.get(0)
+          + ">nextList(() -> "
+          + value(arguments.get(0), owner)
+          + ")";
+    } else if (SETS.contains(name) && isConcrete(arguments, 1)) {
+      return "this.<" + arguments.get(0) + ">nextSet(() -> " + value(arguments.get(0), owner) + ")";
+    } else if (MAPS.contains(name) && isConcrete(arguments, 2)) {
+      return "this.<"
+          + arguments.get(0)
+          + ", "
+          + arguments.get(1)
+          + ">nextMap(() -> "
+          + value(arguments.get(0), owner)
+          + ", () -> "
+          + value(arguments.get(1), owner)
+          + ")";
+    } else if (isAnnotated(element) && arguments.isEmpty() && !reaches(element, owner)) {
+      String binaryName = processingEnv.getElementUtils().getBinaryName(element).toString();
+      return "new " + binaryName.replace('$', '_') + "Generator(random).generate()";
+    }
+    return reflectiveValue(type, owner);
+  }
+
+  // classes and interfaces without helpers of their own, unless they lead back to owner
+  private String reflectiveValue(DeclaredType type, TypeElement owner) {
+    if (reaches((TypeElement) type.asElement(), owner)) {
+      return unsupported(type, owner, "it refers back to " + owner.getSimpleName());
+    }
+    return "nextObject(" + processingEnv.getTypeUtils().erasure(type) + ".class)";
+  }
+
+  private String unsupported(TypeMirror type, TypeElement owner, String reason) {
+    processingEnv
+        .getMessager()
+        .printMessage(
+            Diagnostic.Kind.WARNING, "@Datarize: " + type + " is left null, " + reason, owner);
+    return "null";
+  }
+
+  private static boolean isConcrete(List<? extends TypeMirror> arguments, int expected) {
+    if (arguments.size() != expected) {
+      return false;
+    }
+    for (TypeMirror argument : arguments) {
+      if (argument.getKind() != TypeKind.DECLARED) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isAnnotated(Element element) {
+    TypeElement datarize = datarize();
+    return element.getAnnotationMirrors().stream()
+        .anyMatch(mirror -> mirror.getAnnotationType().asElement().equals(datarize));
+  }
+
+  /**
+   * Whether generating {@code from} would end up generating {@code target} again, in which case
+   * the reference is left null to keep generation finite. Classes outside the JDK that aren't
+   * annotated are generated reflectively, so their fields are followed as well.
+   */
+  private boolean reaches(TypeElement from, TypeElement target) {
+    Set<TypeElement> visited = new HashSet<>();
+    Deque<TypeElement> pending = new ArrayDeque<>();
+    pending.push(from);
+    while (!pending.isEmpty()) {
+      TypeElement current = pending.pop();
+      if (current.equals(target)) {
+        return true;
+      }
+      if (!visited.add(current)) {
+        continue;
+      }
+      ExecutableElement creator = creator(current);
+      List<TypeMirror> referenced = new ArrayList<>();
+      if (creator != null) {
+        creator.getParameters().forEach(parameter -> referenced.add(parameter.asType()));
+      }
+      setters(current).forEach(setter -> referenced.add(setter.getParameters().get(0).asType()));
+      if (!isAnnotated(current)) {
+        for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+          if (!field.getModifiers().contains(Modifier.STATIC)) {
+            referenced.add(field.asType());
+          }
+        }
+      }
+      while (!referenced.isEmpty()) {
+        TypeMirror mirror = referenced.remove(referenced.size() - 1);
+        if (mirror.getKind() == TypeKind.ARRAY) {
+          referenced.add(((ArrayType) mirror).getComponentType());
+        } else if (mirror.getKind() == TypeKind.DECLARED) {
+          DeclaredType declared = (DeclaredType) mirror;
+          TypeElement element = (TypeElement) declared.asElement();
+          referenced.addAll(declared.getTypeArguments());
+          if (isAnnotated(element)
+              || !element.getQualifiedName().toString().startsWith("java.")) {
+            pending.push(element);
+          }
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,249 @@
+package com.test.processor;
+
+import com.test.Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatarizeProcessorTest {
+
+  @TempDir Path tempDir;
+
+  private static JavaFileObject source(String className, String code) {
+    return new SimpleJavaFileObject(
+        URI.create("string:///" + className.replace('.', '/') + ".java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+
+  private DiagnosticCollector<JavaFileObject> compile(JavaFileObject... sources) throws Exception {
+    return compile(List.of(new DatarizeProcessor()), sources);
+  }
+
+  private DiagnosticCollector<JavaFileObject> compile(
+      List<Processor> processors, JavaFileObject... sources) throws Exception {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              files,
+              diagnostics,
+              List.of(
+                  "-d", tempDir.toString(),
+                  "-s", tempDir.toString(),
+                  "-classpath", System.getProperty("java.class.path")),
+              null,
+              List.of(sources));
+      task.setProcessors(processors);
+      task.call();
+    }
+    return diagnostics;
+  }
+
+  // Lombok hides its processor class, it's loaded the way javac's service lookup does
+  private static Processor lombok() throws Exception {
+    return (Processor)
+        Class.forName("lombok.launch.AnnotationProcessorHider$AnnotationProcessor")
+            .getConstructor()
+            .newInstance();
+  }
+
+  private Generator<?> generator(String className) throws Exception {
+    URLClassLoader loader =
+        new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader());
+    Class<?> generatorClass = loader.loadClass(className);
+    return (Generator<?>) generatorClass.getConstructor(Random.class).newInstance(new Random(1));
+  }
+
+  private static Object get(Object target, String getter) throws Exception {
+    return target.getClass().getMethod(getter).invoke(target);
+  }
+
+  @Test
+  void testGeneratesSetterBasedClass() throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            source(
+                "sample.Person",
+                "package sample;\n"
+                    + "import java.util.*;\n"
+                    + "@com.test.Datarize\n"
+                    + "public class Person {\n"
+                    + "  public enum Color { RED, GREEN }\n"
+                    + "  private String name; private int age; private Color color;\n"
+                    + "  private List<List<String>> tags; private Map<String, Long> scores;\n"
+                    + "  private Address address; private Person parent;\n"
+                    + "  public String getName() { return name; }\n"
+                    + "  public void setName(String name) { this.name = name; }\n"
+                    + "  public int getAge() { return age; }\n"
+                    + "  public void setAge(int age) { this.age = age; }\n"
+                    + "  public Color getColor() { return color; }\n"
+                    + "  public void setColor(Color color) { this.color = color; }\n"
+                    + "  public List<List<String>> getTags() { return tags; }\n"
+                    + "  public void setTags(List<List<String>> tags) { this.tags = tags; }\n"
+                    + "  public Map<String, Long> getScores() { return scores; }\n"
+                    + "  public void setScores(Map<String, Long> scores) {\n"
+                    + "    this.scores = scores;\n"
+                    + "  }\n"
+                    + "  public Address getAddress() { return address; }\n"
+                    + "  public void setAddress(Address address) { this.address = address; }\n"
+                    + "  public Person getParent() { return parent; }\n"
+                    + "  public void setParent(Person parent) { this.parent = parent; }\n"
+                    + "}\n"),
+            source(
+                "sample.Address",
+                "package sample;\n"
+                    + "@com.test.Datarize\n"
+                    + "public class Address {\n"
+                    + "  private final String street;\n"
+                    + "  private Address(String street) { this.street = street; }\n"
+                    + "  public static Address of(String street) { return new Address(street); }\n"
+                    + "  public String getStreet() { return street; }\n"
+                    + "}\n"));
+    // the self reference is the only thing left null
+    assertEquals(1, diagnostics.getDiagnostics().size(), diagnostics.getDiagnostics().toString());
+    Diagnostic<?> warning = diagnostics.getDiagnostics().get(0);
+    assertEquals(Diagnostic.Kind.WARNING, warning.getKind());
+    assertTrue(warning.getMessage(null).contains("sample.Person is left null"));
+    assertTrue(Files.exists(tempDir.resolve("sample" + File.separator + "PersonGenerator.java")));
+
+    Object person = generator("sample.PersonGenerator").generate();
+    assertEquals("sample.Person", person.getClass().getName());
+    assertEquals(10, ((String) get(person, "getName")).length());
+    assertNotNull(get(person, "getColor"));
+    assertFalse(((List<?>) get(person, "getTags")).isEmpty());
+    assertFalse(((java.util.Map<?, ?>) get(person, "getScores")).isEmpty());
+    assertNotNull(get(get(person, "getAddress"), "getStreet"));
+    assertNull(get(person, "getParent"));
+  }
+
+  @Test
+  void testGeneratesConstructorBasedNestedClass() throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            source(
+                "sample.Outer",
+                "package sample;\n"
+                    + "public class Outer {\n"
+                    + "  @com.test.Datarize\n"
+                    + "  public static class Point {\n"
+                    + "    final double x; final java.time.Instant at;\n"
+                    + "    public Point(double x, java.time.Instant at) {\n"
+                    + "      this.x = x; this.at = at;\n"
+                    + "    }\n"
+                    + "    public java.time.Instant getAt() { return at; }\n"
+                    + "  }\n"
+                    + "}\n"));
+    assertTrue(diagnostics.getDiagnostics().isEmpty(), diagnostics.getDiagnostics().toString());
+
+    Object point = generator("sample.Outer_PointGenerator").generate();
+    assertNotNull(get(point, "getAt"));
+  }
+
+  @Test
+  void testGeneratesNestedClassesReflectively() throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            source(
+                "sample.Order",
+                "package sample;\n"
+                    + "@com.test.Datarize\n"
+                    + "public class Order {\n"
+                    + "  private final Customer customer; private final long[] amounts;\n"
+                    + "  public Order(Customer customer, long[] amounts) {\n"
+                    + "    this.customer = customer; this.amounts = amounts;\n"
+                    + "  }\n"
+                    + "  public Customer getCustomer() { return customer; }\n"
+                    + "  public long[] getAmounts() { return amounts; }\n"
+                    + "}\n"),
+            source(
+                "sample.Customer",
+                "package sample;\n"
+                    + "public class Customer {\n"
+                    + "  private String name;\n"
+                    + "  public String getName() { return name; }\n"
+                    + "  public void setName(String name) { this.name = name; }\n"
+                    + "}\n"));
+    assertEquals(1, diagnostics.getDiagnostics().size(), diagnostics.getDiagnostics().toString());
+    assertEquals(Diagnostic.Kind.WARNING, diagnostics.getDiagnostics().get(0).getKind());
+    assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).contains("long[]"));
+
+    Object order = generator("sample.OrderGenerator").generate();
+    assertNotNull(get(get(order, "getCustomer"), "getName"));
+    assertNull(get(order, "getAmounts"));
+  }
+
+  @Test
+  void testGeneratesLombokAccessors() throws Exception {
+    // Lombok has to run first, as it does when it's listed first on the processor path
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            List.of(lombok(), new DatarizeProcessor()),
+            source(
+                "sample.Account",
+                "package sample;\n"
+                    + "@com.test.Datarize\n"
+                    + "@lombok.NoArgsConstructor @lombok.Getter @lombok.Setter\n"
+                    + "public class Account {\n"
+                    + "  private String owner; private long balance;\n"
+                    + "  private java.util.List<String> tags;\n"
+                    + "}\n"),
+            source(
+                "sample.Entry",
+                "package sample;\n"
+                    + "@com.test.Datarize\n"
+                    + "@lombok.Getter @lombok.RequiredArgsConstructor\n"
+                    + "public class Entry {\n"
+                    + "  private final String label; private final Account account;\n"
+                    + "}\n"));
+    assertTrue(
+        diagnostics.getDiagnostics().stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR),
+        diagnostics.getDiagnostics().toString());
+
+    Object account = generator("sample.AccountGenerator").generate();
+    assertEquals(10, ((String) get(account, "getOwner")).length());
+    assertFalse(((List<?>) get(account, "getTags")).isEmpty());
+    Object entry = generator("sample.EntryGenerator").generate();
+    assertNotNull(get(entry, "getLabel"));
+    assertNotNull(get(get(entry, "getAccount"), "getOwner"));
+  }
+
+  @Test
+  void testReportsUnsupportedClass() throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            source(
+                "sample.Hidden",
+                "package sample;\n"
+                    + "@com.test.Datarize\n"
+                    + "public class Hidden {\n"
+                    + "  private Hidden() {}\n"
+                    + "}\n"));
+    assertEquals(1, diagnostics.getDiagnostics().size());
+    assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).contains("@Datarize"));
+  }
+}
@@ -0,0 +1,154 @@
+package com.test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Base class of compile-time generated generators. The value helpers draw from the same
+ * definitions as {@link DataRizer}'s base objects, see {@link DataRizer#baseValue(Class, Random)},
+ * without any reflection: they use distributions and pools registered for a type and count against
+ * the session's budget. Only {@link #nextObject(Class)}, for classes the processor has no helper
+ * for, generates reflectively.
+ *
+ * <p>Everything that needs a field's metadata at runtime doesn't apply to generated code: Bean
+ * Validation constraints, distributions and pools registered for a single field, and the
+ * session's depth and null rate. Collections get their size up front rather than shrinking as the
+ * budget runs low, and nested generated objects are counted only through their values. Classes
+ * that need any of these are better left to reflective generation, without {@link Datarize}.
+ *
+ * @param <T> generated type
+ */
+public abstract class AbstractGenerator<T> implements Generator<T> {
+
+  /** Random of this generator, null to follow the active {@link GenerationContext}. */
+  protected final Random random;
+
+  /** Generator following the random source of the active generation. */
+  protected AbstractGenerator() {
+    this(null);
+  }
+
+  /**
+   * @param random random source, null to follow the active generation
+   */
+  protected AbstractGenerator(Random random) {
+    this.random = random;
+  }
+
+  protected Random random() {
+    return random != null ? random : DataRizer.random();
+  }
+
+  protected String nextString() {
+    return DataRizer.baseValue(String.class, random());
+  }
+
+  protected Integer nextInteger() {
+    return DataRizer.baseValue(Integer.class, random());
+  }
+
+  protected Long nextLong() {
+    return DataRizer.baseValue(Long.class, random());
+  }
+
+  protected Short nextShort() {
+    return DataRizer.baseValue(Short.class, random());
+  }
+
+  protected Byte nextByte() {
+    return DataRizer.baseValue(Byte.class, random());
+  }
+
+  protected Character nextCharacter() {
+    return DataRizer.baseValue(Character.class, random());
+  }
+
+  protected Boolean nextBoolean() {
+    return DataRizer.baseValue(Boolean.class, random());
+  }
+
+  protected Float nextFloat() {
+    return DataRizer.baseValue(Float.class, random());
+  }
+
+  protected Double nextDouble() {
+    return DataRizer.baseValue(Double.class, random());
+  }
+
+  protected BigDecimal nextBigDecimal() {
+    return DataRizer.baseValue(BigDecimal.class, random());
+  }
+
+  protected Instant nextInstant() {
+    return DataRizer.baseValue(Instant.class, random());
+  }
+
+  protected LocalDate nextLocalDate() {
+    return DataRizer.baseValue(LocalDate.class, random());
+  }
+
+  protected LocalDateTime nextLocalDateTime() {
+    return DataRizer.baseValue(LocalDateTime.class, random());
+  }
+
+  protected LocalTime nextLocalTime() {
+    return DataRizer.baseValue(LocalTime.class, random());
+  }
+
+  protected Duration nextDuration() {
+    return DataRizer.baseValue(Duration.class, random());
+  }
+
+  protected <E> E nextEnum(E[] values) {
+    return values.length == 0 ? null : values[random().nextInt(values.length)];
+  }
+
+  // classes the processor has no helper for are generated reflectively, from this random
+  protected <E> E nextObject(Class<E> type) {
+    GenerationContext context = GenerationContext.current();
+    if (random != null) {
+      context = context.subtree(random.nextLong());
+    }
+    try {
+      return context.call(() -> DataRizer.instantiate(type));
+    } catch (ReflectiveOperationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  protected <E> ArrayList<E> nextList(Supplier<E> element) {
+    int size = random().nextInt(DataRizer.config().maxCollectionSize()) + 1;
+    ArrayList<E> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(element.get());
+    }
+    return list;
+  }
+
+  protected <E> HashSet<E> nextSet(Supplier<E> element) {
+    int size = random().nextInt(DataRizer.config().maxCollectionSize()) + 1;
+    HashSet<E> set = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      set.add(element.get());
+    }
+    return set;
+  }
+
+  protected <K, V> HashMap<K, V> nextMap(Supplier<K> key, Supplier<V> value) {
+    int size = random().nextInt(DataRizer.config().maxCollectionSize()) + 1;
+    HashMap<K, V> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(key.get(), value.get());
+    }
+    return map;
+  }
+}
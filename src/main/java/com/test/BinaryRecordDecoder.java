@@ -0,0 +1,234 @@
+package com.test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/** Reads values written by {@link BinaryRecordEncoder} back into objects. */
+final class BinaryRecordDecoder {
+
+  private BinaryRecordDecoder() {}
+
+  /**
+   * Read a length-prefixed record
+   *
+   * @param in buffer positioned at the record length
+   * @param clazz record class
+   * @param <T> record type
+   * @return decoded record
+   */
+  static <T> T readRecord(ByteBuffer in, Class<T> clazz) {
+    in.getInt();
+    return clazz.cast(readValue(in, clazz));
+  }
+
+  /**
+   * Read a tagged value
+   *
+   * @param in buffer positioned at the value tag
+   * @param declaredType type the value was written as
+   * @return decoded value, may be null
+   */
+  static Object readValue(ByteBuffer in, Type declaredType) {
+    byte tag = in.get();
+    switch (tag) {
+      case BinaryRecordEncoder.NULL:
+        return null;
+      case BinaryRecordEncoder.BOOLEAN:
+        return in.get() != 0;
+      case BinaryRecordEncoder.BYTE:
+        return in.get();
+      case BinaryRecordEncoder.SHORT:
+        return in.getShort();
+      case BinaryRecordEncoder.CHAR:
+        return in.getChar();
+      case BinaryRecordEncoder.INT:
+        return in.getInt();
+      case BinaryRecordEncoder.LONG:
+        return in.getLong();
+      case BinaryRecordEncoder.FLOAT:
+        return in.getFloat();
+      case BinaryRecordEncoder.DOUBLE:
+        return in.getDouble();
+      case BinaryRecordEncoder.STRING:
+        return readString(in);
+      case BinaryRecordEncoder.BIG_DECIMAL:
+        return new BigDecimal(readString(in));
+      case BinaryRecordEncoder.INSTANT:
+        return Instant.ofEpochSecond(in.getLong(), in.getInt());
+      case BinaryRecordEncoder.LOCAL_DATE:
+        return LocalDate.ofEpochDay(in.getLong());
+      case BinaryRecordEncoder.LOCAL_DATE_TIME:
+        return LocalDateTime.of(
+            LocalDate.ofEpochDay(in.getLong()), LocalTime.ofNanoOfDay(in.getLong()));
+      case BinaryRecordEncoder.LOCAL_TIME:
+        return LocalTime.ofNanoOfDay(in.getLong());
+      case BinaryRecordEncoder.DURATION:
+        return Duration.ofSeconds(in.getLong(), in.getInt());
+      case BinaryRecordEncoder.ENUM:
+        return readEnum(readString(in), ClassPlan.rawType(declaredType));
+      case BinaryRecordEncoder.TYPED_ENUM:
+        Class<?> enumClass = loadClass(readString(in));
+        return readEnum(readString(in), enumClass);
+      case BinaryRecordEncoder.LEAF_TEXT:
+        return parseLeaf(readString(in), ClassPlan.rawType(declaredType));
+      case BinaryRecordEncoder.LIST:
+      case BinaryRecordEncoder.SET:
+        return readCollection(in, declaredType, tag);
+      case BinaryRecordEncoder.MAP:
+        return readMap(in, declaredType);
+      case BinaryRecordEncoder.OBJECT:
+        return readObject(in, ClassPlan.rawType(declaredType));
+      case BinaryRecordEncoder.TYPED_OBJECT:
+        return readObject(in, loadClass(readString(in)));
+      default:
+        throw new DataRizerException("Unknown value tag " + tag + " at " + (in.position() - 1));
+    }
+  }
+
+  private static Object readObject(ByteBuffer in, Class<?> clazz) {
+    ClassPlan<?> plan = ClassPlan.of(clazz);
+    Object instance = plan.newEmptyInstance();
+    try {
+      for (FieldPlan field : plan.fields()) {
+        field.field().set(instance, readValue(in, field.genericType()));
+      }
+    } catch (IllegalAccessException e) {
+      throw new DataRizerException(e);
+    }
+    return instance;
+  }
+
+  private static Object readCollection(ByteBuffer in, Type declaredType, byte tag) {
+    int size = in.getInt();
+    Class<?> raw = ClassPlan.rawType(declaredType);
+    if (raw.isArray()) {
+      Type componentType =
+          declaredType instanceof GenericArrayType
+              ? ((GenericArrayType) declaredType).getGenericComponentType()
+              : raw.getComponentType();
+      Object array = Array.newInstance(raw.getComponentType(), size);
+      for (int i = 0; i < size; i++) {
+        Array.set(array, i, readValue(in, componentType));
+      }
+      return array;
+    }
+    Collection<Object> collection = newCollection(raw, tag, size);
+    Type elementType = ClassPlan.typeArgument(declaredType, 0);
+    for (int i = 0; i < size; i++) {
+      collection.add(readValue(in, elementType));
+    }
+    return collection;
+  }
+
+  private static Map<Object, Object> readMap(ByteBuffer in, Type declaredType) {
+    int size = in.getInt();
+    Map<Object, Object> map = newMap(ClassPlan.rawType(declaredType), size);
+    Type keyType = ClassPlan.typeArgument(declaredType, 0);
+    Type valueType = ClassPlan.typeArgument(declaredType, 1);
+    for (int i = 0; i < size; i++) {
+      Object key = readValue(in, keyType);
+      map.put(key, readValue(in, valueType));
+    }
+    return map;
+  }
+
+  // the collection only ever holds values decoded for its declared element type
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> newCollection(Class<?> raw, byte tag, int size) {
+    if (isConcrete(raw) && Collection.class.isAssignableFrom(raw)) {
+      return (Collection<Object>) ClassPlan.of(raw).newEmptyInstance();
+    } else if (SortedSet.class.isAssignableFrom(raw)) {
+      return new TreeSet<>();
+    } else if (List.class.isAssignableFrom(raw) || tag == BinaryRecordEncoder.LIST) {
+      return new ArrayList<>(size);
+    }
+    return new HashSet<>();
+  }
+
+  // the map only ever holds keys and values decoded for its declared types
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> newMap(Class<?> raw, int size) {
+    if (isConcrete(raw) && Map.class.isAssignableFrom(raw)) {
+      return (Map<Object, Object>) ClassPlan.of(raw).newEmptyInstance();
+    } else if (SortedMap.class.isAssignableFrom(raw)) {
+      return new TreeMap<>();
+    }
+    return new HashMap<>();
+  }
+
+  private static boolean isConcrete(Class<?> clazz) {
+    return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+  }
+
+  private static Object readEnum(String name, Class<?> declared) {
+    if (!declared.isEnum()) {
+      throw new DataRizerException("Constant " + name + " of unknown enum for " + declared);
+    }
+    for (Object constant : ClassPlan.of(declared).enumConstants()) {
+      if (((Enum<?>) constant).name().equals(name)) {
+        return constant;
+      }
+    }
+    throw new DataRizerException("No constant " + name + " in " + declared.getName());
+  }
+
+  // Leaf types without a dedicated tag are restored through their own valueOf or parse methods
+  private static Object parseLeaf(String text, Class<?> declared) {
+    for (String name : new String[] {"valueOf", "parse"}) {
+      for (Class<?> parameter : new Class<?>[] {String.class, CharSequence.class}) {
+        try {
+          Method method = declared.getMethod(name, parameter);
+          if (Modifier.isStatic(method.getModifiers())) {
+            return method.invoke(null, text);
+          }
+        } catch (ReflectiveOperationException e) {
+          // try the next candidate
+        }
+      }
+    }
+    return text;
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (in.hasArray()) {
+      String value =
+          new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+      in.position(in.position() + length);
+      return value;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Class<?> loadClass(String name) {
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      return Class.forName(name, false, loader == null ? DataRizer.class.getClassLoader() : loader);
+    } catch (ClassNotFoundException e) {
+      throw new DataRizerException(e);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format. A file starts with {@link #MAGIC} and {@link #VERSION}; each record is an
+ * int byte length followed by a tagged value. Objects are written as their fields in {@link
+ * ClassPlan#fields()} order, prefixed by the class name only when the runtime class differs from
+ * the declared type; enum constants are written by name, prefixed the same way.
+ */
+final class BinaryRecordEncoder implements RecordEncoder {
+
+  static final int MAGIC = 0x44525A42; // "DRZB"
+  static final byte VERSION = 1;
+
+  static final byte NULL = 0;
+  static final byte BOOLEAN = 1;
+  static final byte BYTE = 2;
+  static final byte SHORT = 3;
+  static final byte CHAR = 4;
+  static final byte INT = 5;
+  static final byte LONG = 6;
+  static final byte FLOAT = 7;
+  static final byte DOUBLE = 8;
+  static final byte STRING = 9;
+  static final byte BIG_DECIMAL = 10;
+  static final byte INSTANT = 11;
+  static final byte LOCAL_DATE = 12;
+  static final byte LOCAL_DATE_TIME = 13;
+  static final byte LOCAL_TIME = 14;
+  static final byte DURATION = 15;
+  static final byte ENUM = 16;
+  static final byte LEAF_TEXT = 17;
+  static final byte LIST = 18;
+  static final byte SET = 19;
+  static final byte MAP = 20;
+  static final byte OBJECT = 21;
+  static final byte TYPED_OBJECT = 22;
+  static final byte TYPED_ENUM = 23;
+
+  @Override
+  public void header(ClassPlan<?> plan, ByteSink sink) {
+    sink.putInt(MAGIC);
+    sink.put(VERSION);
+  }
+
+  @Override
+  public void encode(Object record, ClassPlan<?> plan, ByteSink sink) {
+    int start = sink.position();
+    sink.putInt(0);
+    writeValue(record, plan.type(), sink);
+    sink.putInt(start, sink.position() - start - 4);
+  }
+
+  /**
+   * Write a tagged value
+   *
+   * @param value value to write, may be null
+   * @param declaredType type the reader will expect, used to avoid writing class names
+   * @param sink destination buffer
+   */
+  static void writeValue(Object value, Type declaredType, ByteSink sink) {
+    if (value == null) {
+      sink.put(NULL);
+    } else if (value instanceof Boolean) {
+      sink.put(BOOLEAN);
+      sink.put((byte) (((Boolean) value) ? 1 : 0));
+    } else if (value instanceof Byte) {
+      sink.put(BYTE);
+      sink.put((Byte) value);
+    } else if (value instanceof Short) {
+      sink.put(SHORT);
+      sink.putShort((Short) value);
+    } else if (value instanceof Character) {
+      sink.put(CHAR);
+      sink.putChar((Character) value);
+    } else if (value instanceof Integer) {
+      sink.put(INT);
+      sink.putInt((Integer) value);
+    } else if (value instanceof Long) {
+      sink.put(LONG);
+      sink.putLong((Long) value);
+    } else if (value instanceof Float) {
+      sink.put(FLOAT);
+      sink.putFloat((Float) value);
+    } else if (value instanceof Double) {
+      sink.put(DOUBLE);
+      sink.putDouble((Double) value);
+    } else if (value instanceof String) {
+      sink.put(STRING);
+      writeString((String) value, sink);
+    } else if (value instanceof BigDecimal) {
+      sink.put(BIG_DECIMAL);
+      writeString(value.toString(), sink);
+    } else if (value instanceof Instant) {
+      sink.put(INSTANT);
+      sink.putLong(((Instant) value).getEpochSecond());
+      sink.putInt(((Instant) value).getNano());
+    } else if (value instanceof LocalDate) {
+      sink.put(LOCAL_DATE);
+      sink.putLong(((LocalDate) value).toEpochDay());
+    } else if (value instanceof LocalDateTime) {
+      sink.put(LOCAL_DATE_TIME);
+      sink.putLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+      sink.putLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+    } else if (value instanceof LocalTime) {
+      sink.put(LOCAL_TIME);
+      sink.putLong(((LocalTime) value).toNanoOfDay());
+    } else if (value instanceof Duration) {
+      sink.put(DURATION);
+      sink.putLong(((Duration) value).getSeconds());
+      sink.putInt(((Duration) value).getNano());
+    } else if (value instanceof Enum) {
+      Class<?> enumClass = ((Enum<?>) value).getDeclaringClass();
+      if (enumClass == ClassPlan.rawType(declaredType)) {
+        sink.put(ENUM);
+      } else {
+        // ie, an Object or interface field holding a constant
+        sink.put(TYPED_ENUM);
+        writeString(enumClass.getName(), sink);
+      }
+      writeString(((Enum<?>) value).name(), sink);
+    } else if (ClassPlan.isLeaf(value.getClass())) {
+      sink.put(LEAF_TEXT);
+      writeString(value.toString(), sink);
+    } else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      sink.put(value instanceof List ? LIST : SET);
+      sink.putInt(collection.size());
+      Type elementType = ClassPlan.typeArgument(declaredType, 0);
+      for (Object element : collection) {
+        writeValue(element, elementType, sink);
+      }
+    } else if (value.getClass().isArray()) {
+      int length = Array.getLength(value);
+      sink.put(LIST);
+      sink.putInt(length);
+      Type elementType =
+          declaredType instanceof GenericArrayType
+              ? ((GenericArrayType) declaredType).getGenericComponentType()
+              : value.getClass().getComponentType();
+      for (int i = 0; i < length; i++) {
+        writeValue(Array.get(value, i), elementType, sink);
+      }
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      sink.put(MAP);
+      sink.putInt(map.size());
+      Type keyType = ClassPlan.typeArgument(declaredType, 0);
+      Type valueType = ClassPlan.typeArgument(declaredType, 1);
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(entry.getKey(), keyType, sink);
+        writeValue(entry.getValue(), valueType, sink);
+      }
+    } else {
+      if (value.getClass() == ClassPlan.rawType(declaredType)) {
+        sink.put(OBJECT);
+      } else {
+        sink.put(TYPED_OBJECT);
+        writeString(value.getClass().getName(), sink);
+      }
+      for (FieldPlan field : ClassPlan.of(value.getClass()).fields()) {
+        writeValue(field.get(value), field.genericType(), sink);
+      }
+    }
+  }
+
+  private static void writeString(String value, ByteSink sink) {
+    sink.putInt(ByteSink.utf8Length(value));
+    sink.putUtf8(value);
+  }
+}
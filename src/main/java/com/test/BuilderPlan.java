@@ -0,0 +1,201 @@
+package com.test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fluent builder of a planned class, ie, Lombok's Builder: a static builder() factory, one
+ * method per field named after the field and returning the builder, and build(). The chain is
+ * discovered once and its methods are turned into method handles adapted to Object signatures, so
+ * building an instance costs a few direct calls rather than reflective lookups and invocations.
+ */
+final class BuilderPlan {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType FACTORY = MethodType.methodType(Object.class);
+  private static final MethodType STEP =
+      MethodType.methodType(Object.class, Object.class, Object.class);
+  private static final MethodType BUILD = MethodType.methodType(Object.class, Object.class);
+
+  private final MethodHandle factory;
+  private final List<Step> steps;
+  private final MethodHandle build;
+
+  private BuilderPlan(MethodHandle factory, List<Step> steps, MethodHandle build) {
+    this.factory = factory;
+    this.steps = steps;
+    this.build = build;
+  }
+
+  /**
+   * Discover the fluent builder of a class
+   *
+   * @param clazz planned class
+   * @param fields fields of the class, a step is looked up for each
+   * @return plan, null if the class has no usable builder() and build() pair
+   */
+  static BuilderPlan of(Class<?> clazz, List<FieldPlan> fields) {
+    Method factory = publicMethod(clazz, "builder");
+    if (factory == null
+        || !Modifier.isStatic(factory.getModifiers())
+        || factory.getParameterCount() != 0) {
+      return null;
+    }
+    Class<?> builderType = factory.getReturnType();
+    Method build = publicMethod(builderType, "build");
+    if (build == null
+        || Modifier.isStatic(build.getModifiers())
+        || build.getParameterCount() != 0
+        || !clazz.isAssignableFrom(build.getReturnType())) {
+      return null;
+    }
+    List<Step> steps = new ArrayList<>();
+    try {
+      for (FieldPlan field : fields) {
+        Method method = stepMethod(builderType, field);
+        if (method != null) {
+          steps.add(
+              new Step(
+                  handle(method, STEP),
+                  field,
+                  method.getGenericParameterTypes()[0],
+                  Constraints.of(
+                      method.getParameterAnnotations()[0], field.field().getAnnotations())));
+        }
+      }
+      return new BuilderPlan(handle(factory, FACTORY), List.copyOf(steps), handle(build, BUILD));
+    } catch (IllegalAccessException | RuntimeException e) {
+      // the builder isn't accessible, ie, it's in a module that isn't open to us
+      return null;
+    }
+  }
+
+  /**
+   * One step per field that has a builder method, in field order
+   *
+   * @return immutable list of steps
+   */
+  List<Step> steps() {
+    return steps;
+  }
+
+  /**
+   * Create a new builder
+   *
+   * @return builder
+   * @throws InvocationTargetException if builder() throws
+   */
+  Object newBuilder() throws InvocationTargetException {
+    try {
+      return (Object) factory.invokeExact();
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  /**
+   * Build the instance
+   *
+   * @param builder builder whose steps have been applied
+   * @return built instance
+   * @throws InvocationTargetException if build() throws, ie, a required value is missing
+   */
+  Object build(Object builder) throws InvocationTargetException {
+    try {
+      return (Object) build.invokeExact(builder);
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  private static Method publicMethod(Class<?> type, String name) {
+    for (Method method : type.getMethods()) {
+      if (method.getName().equals(name) && method.getParameterCount() == 0) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  // Lombok names the method after the field and takes the field's exact type
+  private static Method stepMethod(Class<?> builderType, FieldPlan field) {
+    for (Method method : builderType.getMethods()) {
+      if (method.getName().equals(field.name())
+          && method.getParameterCount() == 1
+          && method.getParameterTypes()[0] == field.type()
+          && builderType.isAssignableFrom(method.getReturnType())
+          && !Modifier.isStatic(method.getModifiers())) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  // builders are public nested classes of classes that often aren't, so access is opened first
+  private static MethodHandle handle(Method method, MethodType type)
+      throws IllegalAccessException {
+    method.setAccessible(true);
+    return LOOKUP.unreflect(method).asType(type);
+  }
+
+  /** A builder method setting one field. */
+  static final class Step {
+    private final MethodHandle handle;
+    private final FieldPlan field;
+    private final Type parameterType;
+    private final Constraints constraints;
+
+    private Step(
+        MethodHandle handle, FieldPlan field, Type parameterType, Constraints constraints) {
+      this.handle = handle;
+      this.field = field;
+      this.parameterType = parameterType;
+      this.constraints = constraints;
+    }
+
+    FieldPlan field() {
+      return field;
+    }
+
+    /**
+     * Generic parameter type of the builder method
+     *
+     * @return parameter type
+     */
+    Type parameterType() {
+      return parameterType;
+    }
+
+    /**
+     * Bean Validation constraints of the value, from the parameter and the field
+     *
+     * @return constraints, {@link Constraints#NONE} if there aren't any
+     */
+    Constraints constraints() {
+      return constraints;
+    }
+
+    /**
+     * Apply the step
+     *
+     * @param builder builder
+     * @param value field value, not null for primitive fields
+     * @return builder returned by the method
+     * @throws InvocationTargetException if the builder method throws, ie, on a null NonNull value
+     */
+    Object apply(Object builder, Object value) throws InvocationTargetException {
+      try {
+        return (Object) handle.invokeExact(builder, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Growable wrapper around a reusable direct ByteBuffer. Encoders append to it and the owner drains
+ * and clears it, so the same native memory is reused for every batch.
+ */
+final class ByteSink {
+
+  private ByteBuffer buffer;
+
+  ByteSink(int capacity) {
+    this.buffer = ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Make sure at least the given number of bytes can be appended, growing the buffer if needed
+   *
+   * @param bytes number of bytes about to be written
+   */
+  void ensure(int bytes) {
+    if (buffer.remaining() < bytes) {
+      int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+      ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+      buffer.flip();
+      larger.put(buffer);
+      buffer = larger;
+    }
+  }
+
+  int position() {
+    return buffer.position();
+  }
+
+  void put(byte value) {
+    ensure(1);
+    buffer.put(value);
+  }
+
+  void putShort(short value) {
+    ensure(2);
+    buffer.putShort(value);
+  }
+
+  void putChar(char value) {
+    ensure(2);
+    buffer.putChar(value);
+  }
+
+  void putInt(int value) {
+    ensure(4);
+    buffer.putInt(value);
+  }
+
+  void putInt(int index, int value) {
+    buffer.putInt(index, value);
+  }
+
+  void putLong(long value) {
+    ensure(8);
+    buffer.putLong(value);
+  }
+
+  void putFloat(float value) {
+    ensure(4);
+    buffer.putFloat(value);
+  }
+
+  void putDouble(double value) {
+    ensure(8);
+    buffer.putDouble(value);
+  }
+
+  /**
+   * Append the characters of a String that is known to be ASCII (numbers, field names, ...)
+   *
+   * @param value ASCII text
+   */
+  void putAscii(CharSequence value) {
+    int length = value.length();
+    ensure(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put((byte) value.charAt(i));
+    }
+  }
+
+  /**
+   * Append text as UTF-8 without going through an intermediate byte[]
+   *
+   * @param value text to encode
+   */
+  void putUtf8(CharSequence value) {
+    int length = value.length();
+    ensure(utf8Length(value));
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+
+  /**
+   * Number of bytes the text takes once encoded as UTF-8
+   *
+   * @param value text to measure
+   * @return encoded length in bytes
+   */
+  static int utf8Length(CharSequence value) {
+    int length = value.length();
+    int bytes = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        bytes++;
+      } else if (c < 0x800) {
+        bytes += 2;
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        bytes += 4;
+        i++;
+      } else {
+        bytes += 3;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Flip the buffer for reading. The caller drains it and then calls {@link #clear()}.
+   *
+   * @return the underlying buffer ready to be read
+   */
+  ByteBuffer flip() {
+    buffer.flip();
+    return buffer;
+  }
+
+  void clear() {
+    buffer.clear();
+  }
+}
@@ -0,0 +1,145 @@
+package com.test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/** Finds the classes of a package, and its sub-packages, in directories and jars. */
+final class ClassPathScanner {
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private ClassPathScanner() {}
+
+  /**
+   * Load, without initializing, every named class of a package and its sub-packages. Anonymous and
+   * local classes, package-info and module-info are skipped, as are classes that fail to link.
+   *
+   * @param loader class loader to search and load with
+   * @param packageName package name (ie, com.acme.model)
+   * @return classes sorted by name
+   */
+  static List<Class<?>> classes(ClassLoader loader, String packageName) {
+    List<Class<?>> classes = new ArrayList<>();
+    for (String name : classNames(loader, packageName)) {
+      try {
+        classes.add(Class.forName(name, false, loader));
+      } catch (ClassNotFoundException | LinkageError e) {
+        // not loadable from this loader, skip it
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Binary names of every named class of a package and its sub-packages
+   *
+   * @param loader class loader to search
+   * @param packageName package name (ie, com.acme.model)
+   * @return class names, sorted
+   */
+  static TreeSet<String> classNames(ClassLoader loader, String packageName) {
+    TreeSet<String> names = new TreeSet<>();
+    scan(loader, packageName, (resource, lastModified, size) -> addClassName(resource, names));
+    return names;
+  }
+
+  /**
+   * Hash of the class files of a package and its sub-packages: their names, sizes and modification
+   * times. Reading it lists the files without loading any class, so it is a cheap way to tell
+   * whether something derived from the classes is still current.
+   *
+   * @param loader class loader to search
+   * @param packageName package name (ie, com.acme.model)
+   * @return 64 bit hash, the same as long as no class file is added, removed or rewritten
+   */
+  static long fingerprint(ClassLoader loader, String packageName) {
+    TreeMap<String, String> files = new TreeMap<>();
+    scan(
+        loader,
+        packageName,
+        (resource, lastModified, size) -> files.put(resource, lastModified + ":" + size));
+    long hash = ClassPlan.FNV_OFFSET_BASIS;
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      hash = ClassPlan.hash(ClassPlan.hash(hash, file.getKey()), file.getValue());
+    }
+    return hash;
+  }
+
+  private static void scan(ClassLoader loader, String packageName, ClassFileVisitor visitor) {
+    String path = packageName.replace('.', '/');
+    try {
+      Enumeration<URL> resources = loader.getResources(path);
+      while (resources.hasMoreElements()) {
+        URL url = resources.nextElement();
+        if ("file".equals(url.getProtocol())) {
+          scanDirectory(Paths.get(url.toURI()), path, visitor);
+        } else if ("jar".equals(url.getProtocol())) {
+          scanJar(((JarURLConnection) url.openConnection()).getJarFile(), path, visitor);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (URISyntaxException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  private static void scanDirectory(Path directory, String path, ClassFileVisitor visitor)
+      throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        if (file.getFileName().toString().endsWith(CLASS_SUFFIX)) {
+          String relative = directory.relativize(file).toString().replace('\\', '/');
+          visitor.visit(
+              path + "/" + relative, Files.getLastModifiedTime(file).toMillis(), Files.size(file));
+        }
+      }
+    }
+  }
+
+  private static void scanJar(JarFile jar, String path, ClassFileVisitor visitor) {
+    Enumeration<JarEntry> entries = jar.entries();
+    while (entries.hasMoreElements()) {
+      JarEntry entry = entries.nextElement();
+      String name = entry.getName();
+      if (name.startsWith(path + "/") && name.endsWith(CLASS_SUFFIX)) {
+        visitor.visit(name, entry.getTime(), entry.getSize());
+      }
+    }
+  }
+
+  private static void addClassName(String resource, TreeSet<String> names) {
+    String name = resource.substring(0, resource.length() - CLASS_SUFFIX.length());
+    String simpleName = name.substring(name.lastIndexOf('/') + 1);
+    if (simpleName.equals("package-info") || simpleName.equals("module-info")) {
+      return;
+    }
+    // anonymous and local classes have a digit after a '$'
+    for (int i = simpleName.indexOf('$'); i >= 0; i = simpleName.indexOf('$', i + 1)) {
+      if (i + 1 < simpleName.length() && Character.isDigit(simpleName.charAt(i + 1))) {
+        return;
+      }
+    }
+    names.add(name.replace('/', '.'));
+  }
+
+  @FunctionalInterface
+  private interface ClassFileVisitor {
+    void visit(String resource, long lastModified, long size);
+  }
+}
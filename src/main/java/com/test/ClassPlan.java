@@ -0,0 +1,786 @@
+package com.test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reflection data for a class, gathered the first time the class is seen and cached for the life
+ * of the JVM so repeated generation doesn't pay for the same scans again.
+ *
+ * @param <T> planned class
+ */
+final class ClassPlan<T> {
+
+  private static final Map<Class<?>, ClassPlan<?>> PLANS = new ConcurrentHashMap<>();
+  static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final Map<Class<?>, Object> PLACEHOLDERS =
+      Map.ofEntries(
+          Map.entry(String.class, ""),
+          Map.entry(Boolean.class, false),
+          Map.entry(Character.class, '\0'),
+          Map.entry(Byte.class, (byte) 0),
+          Map.entry(Short.class, (short) 0),
+          Map.entry(Integer.class, 0),
+          Map.entry(Long.class, 0L),
+          Map.entry(Float.class, 0f),
+          Map.entry(Double.class, 0d),
+          Map.entry(BigInteger.class, BigInteger.ZERO),
+          Map.entry(BigDecimal.class, BigDecimal.ZERO),
+          Map.entry(Instant.class, Instant.EPOCH),
+          Map.entry(LocalDate.class, LocalDate.EPOCH),
+          Map.entry(LocalDateTime.class, LocalDateTime.of(LocalDate.EPOCH, LocalTime.MIDNIGHT)),
+          Map.entry(LocalTime.class, LocalTime.MIDNIGHT),
+          Map.entry(Duration.class, Duration.ZERO),
+          Map.entry(UUID.class, new UUID(0, 0)));
+  // failures already recorded by the plan of the class that threw them, so the plans of the
+  // enclosing classes they pass through on their way out leave them alone
+  private static final Set<Throwable> RECORDED =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private final Class<T> clazz;
+  private final List<FieldPlan> fields;
+  private final Constructor<?> noArgConstructor;
+  private final Constructor<?> publicConstructor;
+  private final Class<?>[] constructorParameterTypes;
+  private final Type[] constructorGenericParameterTypes;
+  private final FieldPlan[] constructorFields;
+  private final Constraints[] constructorConstraints;
+  private final Method ofBuilder;
+  private final FieldPlan[] ofBuilderFields;
+  private final Constraints[] ofBuilderConstraints;
+  private final List<SetterPlan> setters;
+  private final Object[] enumConstants;
+  private volatile Optional<Constructor<?>> emptyConstructor;
+  private volatile Long schemaHash;
+  private volatile Optional<Generator<T>> generator;
+  private volatile Optional<BuilderPlan> fluentBuilder;
+  private volatile CopyPlan copyPlan;
+  // by string length, the only part of the config a layout depends on
+  private final Map<Integer, OffHeapLayout> offHeapLayouts = new ConcurrentHashMap<>();
+  private volatile Class<?>[] implementations;
+  // configs are compared by identity, a config that is no longer used takes its failures along
+  private final Map<GenerationConfig, Failures> failures =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private ClassPlan(Class<T> clazz) {
+    this.clazz = clazz;
+    this.fields = Collections.unmodifiableList(collectFields(clazz));
+    Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+    this.noArgConstructor =
+        Arrays.stream(constructors)
+            .filter(
+                constructor ->
+                    constructor.getParameterCount() == 0
+                        && (constructor.getModifiers() & Modifier.PRIVATE) != Modifier.PRIVATE)
+            .findAny()
+            .orElse(null);
+    this.publicConstructor =
+        Arrays.stream(constructors)
+            .filter(constructor -> (constructor.getModifiers() & Modifier.PUBLIC) != 0)
+            .findFirst()
+            .orElse(null);
+    this.constructorParameterTypes =
+        publicConstructor == null ? new Class<?>[0] : publicConstructor.getParameterTypes();
+    this.constructorGenericParameterTypes =
+        publicConstructor == null ? new Type[0] : publicConstructor.getGenericParameterTypes();
+    this.constructorFields =
+        publicConstructor == null ? new FieldPlan[0] : parameterFields(publicConstructor, fields);
+    this.constructorConstraints =
+        publicConstructor == null
+            ? new Constraints[0]
+            : parameterConstraints(publicConstructor, constructorFields);
+    this.ofBuilder = DataRizer.getStaticBuilderMethods(clazz, List.of("of"));
+    this.ofBuilderFields =
+        ofBuilder == null ? new FieldPlan[0] : parameterFields(ofBuilder, fields);
+    this.ofBuilderConstraints =
+        ofBuilder == null ? new Constraints[0] : parameterConstraints(ofBuilder, ofBuilderFields);
+    this.setters =
+        Arrays.stream(clazz.getMethods())
+            .filter(
+                method ->
+                    method.getName().startsWith("set")
+                        && (method.getModifiers() & Modifier.PRIVATE) == 0)
+            .map(method -> setterPlan(method, fields))
+            .collect(Collectors.toUnmodifiableList());
+    this.enumConstants = clazz.isEnum() ? clazz.getEnumConstants() : null;
+  }
+
+  /**
+   * Get the cached plan for a class, building it on first use
+   *
+   * @param clazz Class object wrapping the generic
+   * @param <T> planned class
+   * @return plan for clazz
+   */
+  // a plan is only ever stored under its own class
+  @SuppressWarnings("unchecked")
+  static <T> ClassPlan<T> of(Class<T> clazz) {
+    ClassPlan<?> plan = PLANS.get(clazz);
+    if (plan == null) {
+      plan = new ClassPlan<>(clazz);
+      ClassPlan<?> existing = PLANS.putIfAbsent(clazz, plan);
+      if (existing != null) {
+        plan = existing;
+      }
+    }
+    return (ClassPlan<T>) plan;
+  }
+
+  /**
+   * Whether the plan of a class has already been built
+   *
+   * @param clazz class to check
+   * @return true if the plan is cached
+   */
+  static boolean isPlanned(Class<?> clazz) {
+    return PLANS.containsKey(clazz);
+  }
+
+  Class<T> type() {
+    return clazz;
+  }
+
+  /**
+   * Non-private constructor without arguments
+   *
+   * @return constructor or null if there is none
+   */
+  Constructor<?> noArgConstructor() {
+    return noArgConstructor;
+  }
+
+  /**
+   * First public constructor, used when there is no constructor without arguments
+   *
+   * @return constructor or null if there is none
+   */
+  Constructor<?> publicConstructor() {
+    return publicConstructor;
+  }
+
+  /**
+   * Parameter classes of {@link #publicConstructor()}. The array is shared, don't modify it.
+   *
+   * @return parameter classes, empty if there is no public constructor
+   */
+  Class<?>[] constructorParameterTypes() {
+    return constructorParameterTypes;
+  }
+
+  /**
+   * Generic parameter types of {@link #publicConstructor()}. The array is shared, don't modify it.
+   *
+   * @return parameter types, empty if there is no public constructor
+   */
+  Type[] constructorGenericParameterTypes() {
+    return constructorGenericParameterTypes;
+  }
+
+  /**
+   * Field initialized by each {@link #publicConstructor()} parameter. The array is shared, don't
+   * modify it.
+   *
+   * @return field per parameter, null entries when the parameter couldn't be matched to a field
+   */
+  FieldPlan[] constructorFields() {
+    return constructorFields;
+  }
+
+  /**
+   * Bean Validation constraints of each {@link #publicConstructor()} parameter. The array is
+   * shared, don't modify it.
+   *
+   * @return constraints per parameter, empty if there is no public constructor
+   */
+  Constraints[] constructorConstraints() {
+    return constructorConstraints;
+  }
+
+  /**
+   * Public static "of" factory returning the class
+   *
+   * @return factory method or null if there is none
+   */
+  Method ofBuilder() {
+    return ofBuilder;
+  }
+
+  /**
+   * Field initialized by each {@link #ofBuilder()} parameter. The array is shared, don't modify
+   * it.
+   *
+   * @return field per parameter, null entries when the parameter couldn't be matched to a field
+   */
+  FieldPlan[] ofBuilderFields() {
+    return ofBuilderFields;
+  }
+
+  /**
+   * Bean Validation constraints of each {@link #ofBuilder()} parameter. The array is shared, don't
+   * modify it.
+   *
+   * @return constraints per parameter, empty if there is no "of" factory
+   */
+  Constraints[] ofBuilderConstraints() {
+    return ofBuilderConstraints;
+  }
+
+  /**
+   * Fluent builder of the class (builder() then one call per field then build()), discovered the
+   * first time it's needed
+   *
+   * @return builder plan, empty if the class has no builder() factory
+   */
+  Optional<BuilderPlan> fluentBuilder() {
+    Optional<BuilderPlan> result = fluentBuilder;
+    if (result == null) {
+      result = Optional.ofNullable(BuilderPlan.of(clazz, fields));
+      fluentBuilder = result;
+    }
+    return result;
+  }
+
+  /**
+   * Field handles used to copy instances of the class, resolved the first time it's needed
+   *
+   * @return copy plan
+   * @throws DataRizerException if a field can't be written, ie, a field of a record
+   */
+  CopyPlan copyPlan() {
+    CopyPlan result = copyPlan;
+    if (result == null) {
+      result = CopyPlan.of(this);
+      copyPlan = result;
+    }
+    return result;
+  }
+
+  /**
+   * Fixed-width layout of the class's leaf fields, computed the first time it's needed for a
+   * string length
+   *
+   * @param stringLength length of strings without a Size constraint
+   * @return off-heap layout
+   * @throws DataRizerException if the class has no field with a fixed-width representation
+   */
+  OffHeapLayout offHeapLayout(int stringLength) {
+    OffHeapLayout result = offHeapLayouts.get(stringLength);
+    if (result == null) {
+      result = OffHeapLayout.of(this, stringLength);
+      offHeapLayouts.putIfAbsent(stringLength, result);
+    }
+    return result;
+  }
+
+  /**
+   * Non-private methods whose name starts with "set"
+   *
+   * @return immutable list of setters
+   */
+  List<SetterPlan> setters() {
+    return setters;
+  }
+
+  /**
+   * Constants of an enum, read once since {@link Class#getEnumConstants()} clones them on every
+   * call. The array is shared, don't modify it.
+   *
+   * @return constants in ordinal order, null if the class isn't an enum
+   */
+  Object[] enumConstants() {
+    return enumConstants;
+  }
+
+  /**
+   * Instance fields of the class, superclass fields first, in declaration order. Fields that can't
+   * be made accessible (ie, JDK internals) are left out.
+   *
+   * @return immutable list of fields
+   */
+  List<FieldPlan> fields() {
+    return fields;
+  }
+
+  /**
+   * Compile-time generated generator of a class annotated with {@link Datarize}, looked up once
+   *
+   * @return generator, empty if the class isn't annotated or its generator wasn't compiled
+   */
+  Optional<Generator<T>> generator() {
+    Optional<Generator<T>> result = generator;
+    if (result == null) {
+      result = findGenerator(clazz);
+      generator = result;
+    }
+    return result;
+  }
+
+  /**
+   * Concrete classes an interface or abstract class is generated as, resolved once through {@link
+   * SubtypeIndex}. The array is shared, don't modify it.
+   *
+   * @return implementations sorted by name, empty if none were found or the class is concrete
+   */
+  Class<?>[] implementations() {
+    Class<?>[] result = implementations;
+    if (result == null) {
+      result =
+          clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())
+              ? SubtypeIndex.implementations(clazz).toArray(new Class<?>[0])
+              : new Class<?>[0];
+      implementations = result;
+    }
+    return result;
+  }
+
+  /**
+   * Remembered failure of a class that can't be instantiated under a config, thrown again instead
+   * of trying again. It is the first exception of its kind, so callers see the same type every
+   * time and no new stack trace is filled in.
+   *
+   * @param config config of the generation
+   * @return failure, null while the class hasn't failed or may still succeed
+   */
+  Throwable failure(GenerationConfig config) {
+    Failures recorded = failures.get(config);
+    return recorded == null ? null : recorded.remembered;
+  }
+
+  /**
+   * Record a failure to generate an instance. Only failures of the class itself count, one that
+   * was already recorded by the plan of a field's or argument's class is left to that plan.
+   * Failures of the generation (no enum constants, inaccessible members, unsupported constraints)
+   * are remembered. Exceptions thrown by a constructor, factory or setter never are, they may
+   * depend on the random arguments and the next ones may be fine.
+   *
+   * @param config config of the generation
+   * @param cause failure, recorded once even when it passes through several levels of recursion
+   */
+  void failed(GenerationConfig config, Throwable cause) {
+    for (Throwable nested = cause; nested != null; nested = nested.getCause()) {
+      if (RECORDED.contains(nested)) {
+        return;
+      }
+      if (nested.getCause() == nested) {
+        break;
+      }
+    }
+    RECORDED.add(cause);
+    Throwable root = cause;
+    while (!(root instanceof InvocationTargetException)) {
+      if (root.getCause() == null || root.getCause() == root) {
+        failures.putIfAbsent(
+            config, new Failures(clazz.getName() + " can't be instantiated: " + root, cause));
+        return;
+      }
+      root = root.getCause();
+    }
+  }
+
+  /**
+   * Classes whose failure is remembered under a config, with the diagnostic of their failure
+   *
+   * @param config config of the generation
+   * @return failure messages by class
+   */
+  static Map<Class<?>, String> failures(GenerationConfig config) {
+    Map<Class<?>, String> failures = new HashMap<>();
+    for (ClassPlan<?> plan : PLANS.values()) {
+      Failures recorded = plan.failures.get(config);
+      if (recorded != null) {
+        failures.put(plan.clazz, recorded.diagnostic);
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Forget every remembered failure, after the value sources changed and arguments that failed
+   * may now be fine
+   */
+  static void forgetFailures() {
+    for (ClassPlan<?> plan : PLANS.values()) {
+      plan.failures.clear();
+    }
+  }
+
+  /**
+   * Create an instance whose fields are about to be overwritten anyway (ie, decoding, copying),
+   * without generating anything: the session's random, clock and budget are left alone. The
+   * constructor with the fewest parameters that accepts placeholder arguments is used, see {@link
+   * #placeholder(Class)}, so non-null checks of Lombok's RequiredArgsConstructor, Value or Builder
+   * pass. A class no constructor accepts placeholders for is generated in a context of its own,
+   * and emptied if it's a collection or map.
+   *
+   * @return new instance
+   * @throws DataRizerException if no instance can be created
+   */
+  T newEmptyInstance() {
+    Optional<Constructor<?>> constructor = emptyConstructor;
+    if (constructor == null) {
+      constructor = findEmptyConstructor(clazz);
+      emptyConstructor = constructor;
+    }
+    try {
+      if (constructor.isPresent()) {
+        return clazz.cast(constructor.get().newInstance(placeholders(constructor.get())));
+      }
+      T instance = GenerationContext.independent().call(() -> DataRizer.instantiate(clazz));
+      if (instance == null) {
+        throw new DataRizerException("Can't create an instance of " + clazz.getName());
+      } else if (instance instanceof Collection) {
+        ((Collection<?>) instance).clear();
+      } else if (instance instanceof Map) {
+        ((Map<?, ?>) instance).clear();
+      }
+      return instance;
+    } catch (ReflectiveOperationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  /**
+   * Cheapest non-null value of a type that doesn't draw anything random: zero, false, the empty
+   * string, the epoch, the first enum constant, an empty collection, map or array, or an instance
+   * made by the type's declared no-argument constructor
+   *
+   * @param type declared type of a constructor parameter
+   * @return placeholder, null for interfaces, abstract classes and classes without a no-argument
+   *     constructor
+   */
+  static Object placeholder(Class<?> type) {
+    if (type.isPrimitive()) {
+      return Array.get(Array.newInstance(type, 1), 0);
+    } else if (type.isArray()) {
+      return Array.newInstance(type.getComponentType(), 0);
+    }
+    Object leaf = PLACEHOLDERS.get(type);
+    if (leaf != null) {
+      return leaf;
+    } else if (type.isEnum()) {
+      Object[] constants = of(type).enumConstants();
+      return constants.length == 0 ? null : constants[0];
+    } else if (type.isAssignableFrom(ArrayList.class)) {
+      return new ArrayList<>();
+    } else if (type.isAssignableFrom(HashSet.class)) {
+      return new HashSet<>();
+    } else if (type.isAssignableFrom(TreeSet.class)) {
+      return new TreeSet<>();
+    } else if (type.isAssignableFrom(HashMap.class)) {
+      return new HashMap<>();
+    } else if (type.isAssignableFrom(TreeMap.class)) {
+      return new TreeMap<>();
+    }
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      if (!Modifier.isAbstract(type.getModifiers()) && constructor.trySetAccessible()) {
+        return constructor.newInstance();
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // left null, the constructor may still accept it
+    }
+    return null;
+  }
+
+  private static Object[] placeholders(Constructor<?> constructor) {
+    Class<?>[] types = constructor.getParameterTypes();
+    Object[] arguments = new Object[types.length];
+    for (int i = 0; i < types.length; i++) {
+      arguments[i] = placeholder(types[i]);
+    }
+    return arguments;
+  }
+
+  /**
+   * Hash of the class shape: field names and declared types of this class and, recursively, of
+   * the classes it contains. Changes whenever a field is added, removed, renamed or retyped.
+   *
+   * @return 64 bit FNV-1a hash
+   */
+  long schemaHash() {
+    Long hash = schemaHash;
+    if (hash == null) {
+      hash = hashShape(clazz, FNV_OFFSET_BASIS, new HashSet<>());
+      schemaHash = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Whether values of the class are immutable leaves (text, numbers, dates, enums) rather than
+   * objects that have fields or elements of their own
+   *
+   * @param clazz class to check
+   * @return true if clazz is a leaf type
+   */
+  static boolean isLeaf(Class<?> clazz) {
+    return clazz.isPrimitive()
+        || Enum.class.isAssignableFrom(clazz)
+        || CharSequence.class.isAssignableFrom(clazz)
+        || Number.class.isAssignableFrom(clazz)
+        || Boolean.class == clazz
+        || Character.class == clazz
+        || TemporalAccessor.class.isAssignableFrom(clazz)
+        || TemporalAmount.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Erase a generic type to its class
+   *
+   * @param type declared type
+   * @return raw class, Object for type variables and wildcards
+   */
+  static Class<?> rawType(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    } else if (type instanceof GenericArrayType) {
+      return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0)
+          .getClass();
+    }
+    return Object.class;
+  }
+
+  /**
+   * Type argument of a parameterized type (ie, String in List&lt;String&gt;)
+   *
+   * @param type declared type
+   * @param index type argument position
+   * @return the type argument or Object if the type isn't parameterized
+   */
+  static Type typeArgument(Type type, int index) {
+    if (type instanceof ParameterizedType) {
+      Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+      if (index < arguments.length) {
+        return arguments[index];
+      }
+    }
+    return Object.class;
+  }
+
+  private static long hashShape(Class<?> clazz, long hash, Set<Class<?>> visited) {
+    hash = hash(hash, clazz.getName());
+    if (isLeaf(clazz) || !visited.add(clazz)) {
+      return hash;
+    }
+    for (FieldPlan field : of(clazz).fields()) {
+      hash = hash(hash, field.name());
+      hash = hash(hash, field.genericType().getTypeName());
+      if (!field.type().getName().startsWith("java.")) {
+        hash = hashShape(field.type(), hash, visited);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Add a string to a 64 bit FNV-1a hash, followed by a separator so consecutive values don't run
+   * into each other
+   *
+   * @param hash hash so far, {@link #FNV_OFFSET_BASIS} to start
+   * @param value value to add
+   * @return new hash
+   */
+  static long hash(long hash, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+    }
+    return (hash ^ ';') * FNV_PRIME;
+  }
+
+  /**
+   * Add the remaining bytes of a buffer to a 64 bit FNV-1a hash, followed by a separator
+   *
+   * @param hash hash so far, {@link #FNV_OFFSET_BASIS} to start
+   * @param bytes bytes to add, consumed
+   * @return new hash
+   */
+  static long hash(long hash, ByteBuffer bytes) {
+    while (bytes.hasRemaining()) {
+      hash = (hash ^ (bytes.get() & 0xff)) * FNV_PRIME;
+    }
+    return (hash ^ ';') * FNV_PRIME;
+  }
+
+  // the processor writes the generator of T as a Generator<T>
+  @SuppressWarnings("unchecked")
+  private static <T> Optional<Generator<T>> findGenerator(Class<T> clazz) {
+    if (!clazz.isAnnotationPresent(Datarize.class)) {
+      return Optional.empty();
+    }
+    try {
+      Class<?> generatorClass =
+          Class.forName(
+              Generator.generatorClassName(clazz.getName()), true, clazz.getClassLoader());
+      Constructor<?> constructor = generatorClass.getDeclaredConstructor();
+      if (Generator.class.isAssignableFrom(generatorClass) && constructor.trySetAccessible()) {
+        return Optional.of((Generator<T>) constructor.newInstance());
+      }
+    } catch (ReflectiveOperationException e) {
+      // annotation processor not run for this class, fall back to reflection
+    }
+    return Optional.empty();
+  }
+
+  // fewest parameters first; a constructor that rejects its placeholders is skipped
+  private static Optional<Constructor<?>> findEmptyConstructor(Class<?> clazz) {
+    if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+      return Optional.empty();
+    }
+    Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+    Arrays.sort(constructors, Comparator.comparingInt(Constructor::getParameterCount));
+    for (Constructor<?> constructor : constructors) {
+      if (!constructor.isSynthetic() && constructor.trySetAccessible()) {
+        try {
+          constructor.newInstance(placeholders(constructor));
+          return Optional.of(constructor);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+          // try the next one
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  // constraints of a setter's value come from its parameter and the field it sets
+  private static SetterPlan setterPlan(Method setter, List<FieldPlan> fields) {
+    if (setter.getParameterCount() != 1 || setter.getName().length() <= 3) {
+      return new SetterPlan(setter, null, Constraints.NONE);
+    }
+    String property = setter.getName().substring(3);
+    String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+    Annotation[] parameterAnnotations = setter.getParameterAnnotations()[0];
+    for (FieldPlan field : fields) {
+      if (field.name().equals(fieldName) || field.name().equals(property)) {
+        return new SetterPlan(
+            setter, field, Constraints.of(parameterAnnotations, field.field().getAnnotations()));
+      }
+    }
+    return new SetterPlan(setter, null, Constraints.of(parameterAnnotations));
+  }
+
+  /*
+   * Field each parameter of a constructor or factory initializes. Fields are matched by parameter
+   * name when compiled with -parameters, otherwise by position when the parameters are all the
+   * fields or all the final fields (ie, Lombok's AllArgsConstructor and RequiredArgsConstructor)
+   * with the same types.
+   */
+  private static FieldPlan[] parameterFields(Executable executable, List<FieldPlan> fields) {
+    Parameter[] parameters = executable.getParameters();
+    FieldPlan[] matched = matchFields(parameters, fields);
+    if (matched == null) {
+      matched =
+          matchFields(
+              parameters,
+              fields.stream()
+                  .filter(field -> Modifier.isFinal(field.field().getModifiers()))
+                  .collect(Collectors.toList()));
+    }
+    return matched == null ? new FieldPlan[parameters.length] : matched;
+  }
+
+  // constraints of each parameter, from the parameter and the field it initializes
+  private static Constraints[] parameterConstraints(
+      Executable executable, FieldPlan[] parameterFields) {
+    Parameter[] parameters = executable.getParameters();
+    Constraints[] constraints = new Constraints[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      constraints[i] =
+          parameterFields[i] == null
+              ? Constraints.of(parameters[i].getAnnotations())
+              : Constraints.of(
+                  parameters[i].getAnnotations(), parameterFields[i].field().getAnnotations());
+    }
+    return constraints;
+  }
+
+  private static FieldPlan[] matchFields(Parameter[] parameters, List<FieldPlan> fields) {
+    FieldPlan[] matched = new FieldPlan[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      Parameter parameter = parameters[i];
+      if (parameter.isNamePresent()) {
+        for (FieldPlan field : fields) {
+          if (field.name().equals(parameter.getName())
+              && field.genericType().equals(parameter.getParameterizedType())) {
+            matched[i] = field;
+          }
+        }
+      } else if (parameters.length == fields.size()
+          && fields.get(i).genericType().equals(parameter.getParameterizedType())) {
+        matched[i] = fields.get(i);
+      }
+      if (matched[i] == null) {
+        return null;
+      }
+    }
+    return matched;
+  }
+
+  private static List<FieldPlan> collectFields(Class<?> clazz) {
+    List<Class<?>> hierarchy = new ArrayList<>();
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      hierarchy.add(0, c);
+    }
+    List<FieldPlan> fields = new ArrayList<>();
+    for (Class<?> c : hierarchy) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())
+            && !field.isSynthetic()
+            && field.trySetAccessible()) {
+          fields.add(new FieldPlan(field));
+        }
+      }
+    }
+    return fields;
+  }
+
+  // failures of the class under one config
+  private static final class Failures {
+    private final String diagnostic;
+    private final Throwable remembered;
+
+    private Failures(String diagnostic, Throwable remembered) {
+      this.diagnostic = diagnostic;
+      this.remembered = remembered;
+    }
+  }
+}
@@ -0,0 +1,446 @@
+package com.test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of generated records stored as one array per field (struct of arrays) instead of one
+ * object per record, for analytics engines and vectorized code. Columns are the fixed-width fields
+ * of the {@link OffHeapLayout} of the class:
+ *
+ * <ul>
+ *   <li>primitives and their wrappers get an array of the primitive type
+ *   <li>enums are dictionary encoded: an int[] of ordinals and the constants as the dictionary
+ *   <li>strings get a {@link StringColumn}: count + 1 offsets into one byte[] of UTF-8 bytes
+ *   <li>LocalDate gets an int[] of epoch days; Instant and LocalDateTime (at UTC) a long[] of epoch
+ *       milliseconds, LocalTime a long[] of nanos of day and Duration a long[] of milliseconds
+ * </ul>
+ *
+ * <p>Each column is filled by its own loop over the rows. The value of a row is a SplitMix64 mix
+ * of a per-column seed and the row index rather than the next number of a shared Random, so no
+ * iteration depends on the previous one and the JIT is free to unroll and vectorize the loops.
+ * Values are drawn in the same ranges as {@link OffHeapLayout}'s. The arrays are returned as they
+ * are, without copies, so they shouldn't be modified.
+ *
+ * <pre>
+ * ColumnarBatch batch = DataRizer.instantiateColumns(Trade.class, 1_000_000);
+ * double[] prices = batch.doubles("price");
+ * </pre>
+ */
+final class ColumnarBatch {
+
+  private final Class<?> type;
+  private final int size;
+  // field name to array, or StringColumn for strings
+  private final Map<String, Object> columns;
+  private final Map<String, OffHeapLayout.Column> layoutColumns;
+
+  private ColumnarBatch(
+      Class<?> type,
+      int size,
+      Map<String, Object> columns,
+      Map<String, OffHeapLayout.Column> layoutColumns) {
+    this.type = type;
+    this.size = size;
+    this.columns = columns;
+    this.layoutColumns = layoutColumns;
+  }
+
+  /**
+   * Generate a batch. Seeds of the columns are drawn from the current {@link GenerationContext}, so
+   * a seeded context gives the same batch every time.
+   *
+   * @param type class whose fixed-width fields become columns
+   * @param size number of rows
+   * @return batch
+   * @throws DataRizerException if the class has no fixed-width fields, the size is negative or the
+   *     strings of a column need more than 2GB
+   */
+  static ColumnarBatch generate(Class<?> type, int size) {
+    if (size < 0) {
+      throw new DataRizerException("Invalid batch size " + size);
+    }
+    GenerationContext context = GenerationContext.current();
+    Clock clock = context.clock();
+    long nowMillis = clock.millis();
+    long today = LocalDate.now(clock).toEpochDay();
+    long nowLocalMillis = LocalDateTime.now(clock).toInstant(ZoneOffset.UTC).toEpochMilli();
+    long nowNanoOfDay = LocalTime.now(clock).toNanoOfDay();
+    Map<String, Object> columns = new LinkedHashMap<>();
+    Map<String, OffHeapLayout.Column> layoutColumns = new LinkedHashMap<>();
+    for (OffHeapLayout.Column column : OffHeapLayout.of(type).columns()) {
+      long seed = context.random().nextLong();
+      Object values;
+      switch (column.kind()) {
+        case BOOLEAN:
+          values = booleans(seed, size);
+          break;
+        case BYTE:
+          values = bytes(seed, size);
+          break;
+        case SHORT:
+          values = shorts(seed, size);
+          break;
+        case CHAR:
+          values = chars(seed, size);
+          break;
+        case INT:
+          values = ints(seed, size, 0, Integer.MAX_VALUE);
+          break;
+        case FLOAT:
+          values = floats(seed, size);
+          break;
+        case LONG:
+          values = longs(seed, size, 0, 0, 1);
+          break;
+        case DOUBLE:
+          values = doubles(seed, size);
+          break;
+        case ENUM:
+          values = ints(seed, size, 0, column.enumConstants().length);
+          break;
+        case STRING:
+          values = strings(seed, size, column.minLength(), column.maxLength());
+          break;
+        case INSTANT:
+          values = longs(seed, size, nowMillis, 86_400, 1_000);
+          break;
+        case LOCAL_DATE:
+          values = ints(seed, size, (int) today, 365);
+          break;
+        case LOCAL_DATE_TIME:
+          values = longs(seed, size, nowLocalMillis, 86_400, 1_000);
+          break;
+        case LOCAL_TIME:
+          values = localTimes(seed, size, nowNanoOfDay);
+          break;
+        case DURATION:
+          values = longs(seed, size, 0, 10_000, 1);
+          break;
+        default:
+          throw new IllegalStateException(column.kind().name());
+      }
+      columns.put(column.name(), values);
+      layoutColumns.put(column.name(), column);
+    }
+    return new ColumnarBatch(type, size, columns, layoutColumns);
+  }
+
+  Class<?> type() {
+    return type;
+  }
+
+  /**
+   * Number of rows
+   *
+   * @return size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Names of the columns, in layout order
+   *
+   * @return immutable list of field names
+   */
+  List<String> names() {
+    return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+  }
+
+  boolean[] booleans(String name) {
+    return column(name, boolean[].class);
+  }
+
+  byte[] bytes(String name) {
+    return column(name, byte[].class);
+  }
+
+  short[] shorts(String name) {
+    return column(name, short[].class);
+  }
+
+  char[] chars(String name) {
+    return column(name, char[].class);
+  }
+
+  /**
+   * Column of an int field, of an enum field's ordinals or of a LocalDate field's epoch days
+   *
+   * @param name field name
+   * @return values, not copied
+   * @throws DataRizerException if there's no int column of that name
+   */
+  int[] ints(String name) {
+    return column(name, int[].class);
+  }
+
+  float[] floats(String name) {
+    return column(name, float[].class);
+  }
+
+  /**
+   * Column of a long field or of a time field's millisecond or nanosecond values
+   *
+   * @param name field name
+   * @return values, not copied
+   * @throws DataRizerException if there's no long column of that name
+   */
+  long[] longs(String name) {
+    return column(name, long[].class);
+  }
+
+  double[] doubles(String name) {
+    return column(name, double[].class);
+  }
+
+  StringColumn strings(String name) {
+    return column(name, StringColumn.class);
+  }
+
+  /**
+   * Dictionary of an enum column, indexed by the codes in {@link #ints(String)}
+   *
+   * @param name field name
+   * @return enum constants
+   * @throws DataRizerException if the field isn't an enum column
+   */
+  Object[] dictionary(String name) {
+    OffHeapLayout.Column column = layoutColumn(name);
+    if (column.kind() != OffHeapLayout.Kind.ENUM) {
+      throw new DataRizerException(name + " isn't an enum column");
+    }
+    return column.enumConstants();
+  }
+
+  /**
+   * Decode one value
+   *
+   * @param row row index
+   * @param name field name
+   * @return value as the field's type would hold it
+   * @throws DataRizerException if the field isn't a column
+   */
+  Object get(int row, String name) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException(row);
+    }
+    OffHeapLayout.Column column = layoutColumn(name);
+    Object values = columns.get(name);
+    switch (column.kind()) {
+      case BOOLEAN:
+        return ((boolean[]) values)[row];
+      case BYTE:
+        return ((byte[]) values)[row];
+      case SHORT:
+        return ((short[]) values)[row];
+      case CHAR:
+        return ((char[]) values)[row];
+      case INT:
+        return ((int[]) values)[row];
+      case FLOAT:
+        return ((float[]) values)[row];
+      case LONG:
+        return ((long[]) values)[row];
+      case DOUBLE:
+        return ((double[]) values)[row];
+      case ENUM:
+        return column.enumConstants()[((int[]) values)[row]];
+      case STRING:
+        return ((StringColumn) values).get(row);
+      case INSTANT:
+        return Instant.ofEpochMilli(((long[]) values)[row]);
+      case LOCAL_DATE:
+        return LocalDate.ofEpochDay(((int[]) values)[row]);
+      case LOCAL_DATE_TIME:
+        return LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(((long[]) values)[row]), ZoneOffset.UTC);
+      case LOCAL_TIME:
+        return LocalTime.ofNanoOfDay(((long[]) values)[row]);
+      case DURATION:
+        return Duration.ofMillis(((long[]) values)[row]);
+      default:
+        throw new IllegalStateException(column.kind().name());
+    }
+  }
+
+  private OffHeapLayout.Column layoutColumn(String name) {
+    OffHeapLayout.Column column = layoutColumns.get(name);
+    if (column == null) {
+      throw new DataRizerException(type.getName() + " has no column " + name);
+    }
+    return column;
+  }
+
+  private <A> A column(String name, Class<A> arrayType) {
+    Object values = columns.get(layoutColumn(name).name());
+    if (!arrayType.isInstance(values)) {
+      throw new DataRizerException(name + " isn't a " + arrayType.getSimpleName() + " column");
+    }
+    return arrayType.cast(values);
+  }
+
+  // from 0 to bound - 1, taken from the high bits which mix best
+  private static int below(long bits, int bound) {
+    return (int) ((bits >>> 1) % bound);
+  }
+
+  private static boolean[] booleans(long seed, int size) {
+    boolean[] values = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = Shard.recordSeed(seed, i) < 0;
+    }
+    return values;
+  }
+
+  private static byte[] bytes(long seed, int size) {
+    byte[] values = new byte[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = (byte) (Shard.recordSeed(seed, i) >>> 57);
+    }
+    return values;
+  }
+
+  private static short[] shorts(long seed, int size) {
+    short[] values = new short[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = (short) (Shard.recordSeed(seed, i) >>> 49);
+    }
+    return values;
+  }
+
+  private static char[] chars(long seed, int size) {
+    byte[] alphabet = OffHeapLayout.ALPHANUMERIC;
+    char[] values = new char[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = (char) alphabet[below(Shard.recordSeed(seed, i), alphabet.length)];
+    }
+    return values;
+  }
+
+  private static int[] ints(long seed, int size, int origin, int bound) {
+    int[] values = new int[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = origin + below(Shard.recordSeed(seed, i), bound);
+    }
+    return values;
+  }
+
+  private static float[] floats(long seed, int size) {
+    float[] values = new float[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = (Shard.recordSeed(seed, i) >>> 40) * 0x1.0p-24f;
+    }
+    return values;
+  }
+
+  // origin + a value below bound times unit, or any long if bound is 0
+  private static long[] longs(long seed, int size, long origin, int bound, long unit) {
+    long[] values = new long[size];
+    if (bound == 0) {
+      for (int i = 0; i < size; i++) {
+        values[i] = Shard.recordSeed(seed, i);
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        values[i] = origin + below(Shard.recordSeed(seed, i), bound) * unit;
+      }
+    }
+    return values;
+  }
+
+  private static double[] doubles(long seed, int size) {
+    double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = (Shard.recordSeed(seed, i) >>> 11) * 0x1.0p-53;
+    }
+    return values;
+  }
+
+  // up to an hour after now, wrapping past midnight and truncated to minutes
+  private static long[] localTimes(long seed, int size, long nowNanoOfDay) {
+    long[] values = new long[size];
+    for (int i = 0; i < size; i++) {
+      long nanos =
+          (nowNanoOfDay + below(Shard.recordSeed(seed, i), 3_600) * 1_000_000_000L)
+              % 86_400_000_000_000L;
+      values[i] = nanos - nanos % 60_000_000_000L;
+    }
+    return values;
+  }
+
+  // lengths first, then their running sum as offsets, then one pass over all the bytes
+  private static StringColumn strings(long seed, int size, int minLength, int maxLength) {
+    int[] offsets = new int[size + 1];
+    int span = maxLength - minLength + 1;
+    for (int i = 0; i < size; i++) {
+      offsets[i + 1] = minLength + below(Shard.recordSeed(seed, i), span);
+    }
+    long total = 0;
+    for (int i = 1; i <= size; i++) {
+      total += offsets[i];
+      if (total > Integer.MAX_VALUE) {
+        throw new DataRizerException("Strings of " + size + " rows don't fit in one column");
+      }
+      offsets[i] = (int) total;
+    }
+    byte[] alphabet = OffHeapLayout.ALPHANUMERIC;
+    long byteSeed = Shard.recordSeed(seed, -2);
+    byte[] bytes = new byte[(int) total];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = alphabet[below(Shard.recordSeed(byteSeed, i), alphabet.length)];
+    }
+    return new StringColumn(offsets, bytes);
+  }
+
+  /** Strings of a column: the bytes of row i run from offsets[i] to offsets[i + 1]. */
+  static final class StringColumn {
+    private final int[] offsets;
+    private final byte[] bytes;
+
+    private StringColumn(int[] offsets, byte[] bytes) {
+      this.offsets = offsets;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Start of every row's bytes, followed by the end of the last row
+     *
+     * @return size + 1 offsets, not copied
+     */
+    int[] offsets() {
+      return offsets;
+    }
+
+    /**
+     * UTF-8 bytes of all rows, back to back
+     *
+     * @return bytes, not copied
+     */
+    byte[] bytes() {
+      return bytes;
+    }
+
+    /**
+     * Decode one row
+     *
+     * @param row row index
+     * @return string
+     */
+    String get(int row) {
+      return new String(
+          bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+  }
+}
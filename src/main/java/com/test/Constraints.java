@@ -0,0 +1,214 @@
+package com.test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+
+/**
+ * Bean Validation constraints of a field or parameter, read once when the class is planned so
+ * values can be generated inside them instead of generated and validated. Annotations are matched
+ * by simple name in the javax.validation.constraints or jakarta.validation.constraints package, so
+ * neither API has to be on the class path.
+ *
+ * <p>Supported: NotNull, Null, NotEmpty, NotBlank, Size, Min, Max, DecimalMin, DecimalMax,
+ * Positive, PositiveOrZero, Negative, NegativeOrZero, Pattern, Email, Past, PastOrPresent, Future
+ * and FutureOrPresent.
+ */
+final class Constraints {
+
+  /** No constraints at all. */
+  static final Constraints NONE = new Constraints();
+
+  /** Length of the shortest generated email, "a@b.com". */
+  static final int MIN_EMAIL_LENGTH = 7;
+
+  enum Time {
+    ANY,
+    PAST,
+    FUTURE
+  }
+
+  private boolean notNull;
+  private boolean isNull;
+  private int minSize;
+  private int maxSize = Integer.MAX_VALUE;
+  private BigDecimal min;
+  private BigDecimal max;
+  private RegexGenerator pattern;
+  private boolean email;
+  private Time time = Time.ANY;
+
+  private Constraints() {}
+
+  /**
+   * Read the constraints from annotations, earlier arrays win when the same constraint appears
+   * more than once (ie, parameter annotations before field annotations)
+   *
+   * @param sources annotations of the parameter, field, ...
+   * @return constraints, {@link #NONE} if there aren't any
+   * @throws DataRizerException if Size leaves no room for a Pattern or Email value
+   */
+  static Constraints of(Annotation[]... sources) {
+    Constraints constraints = new Constraints();
+    boolean found = false;
+    for (int i = sources.length - 1; i >= 0; i--) {
+      for (Annotation annotation : sources[i]) {
+        found |= constraints.apply(annotation);
+      }
+    }
+    int minSize = constraints.minSize;
+    int maxSize = constraints.maxSize;
+    if (constraints.pattern != null && !constraints.pattern.fits(minSize, maxSize)) {
+      throw new DataRizerException(
+          "No value of pattern \""
+              + constraints.pattern.regex()
+              + "\" is "
+              + minSize
+              + " to "
+              + maxSize
+              + " long");
+    } else if (constraints.email && maxSize < MIN_EMAIL_LENGTH) {
+      throw new DataRizerException("Size max " + maxSize + " is too short for an email");
+    }
+    return found ? constraints : NONE;
+  }
+
+  private boolean apply(Annotation annotation) {
+    String packageName = annotation.annotationType().getPackageName();
+    if (!packageName.equals("javax.validation.constraints")
+        && !packageName.equals("jakarta.validation.constraints")) {
+      return false;
+    }
+    switch (annotation.annotationType().getSimpleName()) {
+      case "NotNull":
+        notNull = true;
+        return true;
+      case "Null":
+        isNull = true;
+        return true;
+      case "NotEmpty":
+      case "NotBlank":
+        notNull = true;
+        minSize = Math.max(minSize, 1);
+        return true;
+      case "Size":
+        minSize = (Integer) attribute(annotation, "min");
+        maxSize = (Integer) attribute(annotation, "max");
+        return true;
+      case "Min":
+        min = BigDecimal.valueOf((Long) attribute(annotation, "value"));
+        return true;
+      case "Max":
+        max = BigDecimal.valueOf((Long) attribute(annotation, "value"));
+        return true;
+      case "DecimalMin":
+        min = new BigDecimal((String) attribute(annotation, "value"));
+        return true;
+      case "DecimalMax":
+        max = new BigDecimal((String) attribute(annotation, "value"));
+        return true;
+      case "Positive":
+        min = BigDecimal.ONE;
+        return true;
+      case "PositiveOrZero":
+        min = BigDecimal.ZERO;
+        return true;
+      case "Negative":
+        max = BigDecimal.ONE.negate();
+        return true;
+      case "NegativeOrZero":
+        max = BigDecimal.ZERO;
+        return true;
+      case "Pattern":
+        pattern = RegexGenerator.compile((String) attribute(annotation, "regexp"));
+        return true;
+      case "Email":
+        email = true;
+        return true;
+      case "Past":
+      case "PastOrPresent":
+        time = Time.PAST;
+        return true;
+      case "Future":
+      case "FutureOrPresent":
+        time = Time.FUTURE;
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static Object attribute(Annotation annotation, String name) {
+    try {
+      Method method = annotation.annotationType().getMethod(name);
+      method.trySetAccessible();
+      return method.invoke(annotation);
+    } catch (ReflectiveOperationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  boolean isNone() {
+    return this == NONE;
+  }
+
+  boolean notNull() {
+    return notNull;
+  }
+
+  boolean isNull() {
+    return isNull;
+  }
+
+  int minSize() {
+    return minSize;
+  }
+
+  int maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Lower bound of numbers
+   *
+   * @return inclusive minimum or null if unbounded
+   */
+  BigDecimal min() {
+    return min;
+  }
+
+  /**
+   * Upper bound of numbers
+   *
+   * @return inclusive maximum or null if unbounded
+   */
+  BigDecimal max() {
+    return max;
+  }
+
+  /**
+   * Generator for the Pattern constraint
+   *
+   * @return compiled pattern or null if there is none
+   */
+  RegexGenerator pattern() {
+    return pattern;
+  }
+
+  boolean email() {
+    return email;
+  }
+
+  Time time() {
+    return time;
+  }
+
+  /**
+   * Whether any bound applies to lengths or element counts
+   *
+   * @return true if a Size, NotEmpty or NotBlank constraint is present
+   */
+  boolean hasSize() {
+    return minSize > 0 || maxSize < Integer.MAX_VALUE;
+  }
+}
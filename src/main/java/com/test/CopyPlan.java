@@ -0,0 +1,375 @@
+package com.test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How instances of a planned class are copied: an instance is created the way {@link
+ * ClassPlan#newEmptyInstance()} does, without generating anything, then every field is read and
+ * written through a method handle. Fields whose declared type is a primitive, an enum or a final
+ * immutable leaf (ie, String, Integer, LocalDate) are marked shared, their values are copied as
+ * they are without looking at them.
+ *
+ * <p>{@link #copy(Object)} walks a graph with these plans. Immutable leaves are shared, arrays,
+ * collections and maps are rebuilt with the same class (unmodifiable ones stay unmodifiable) and
+ * objects reached twice, cycles included, are copied once.
+ */
+final class CopyPlan {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  // originals and their copies in the running copy call of each thread
+  private static final ThreadLocal<IdentityHashMap<Object, Object>> COPIES =
+      ThreadLocal.withInitial(IdentityHashMap::new);
+
+  private final ClassPlan<?> plan;
+  private final Slot[] slots;
+
+  private CopyPlan(ClassPlan<?> plan, Slot[] slots) {
+    this.plan = plan;
+    this.slots = slots;
+  }
+
+  /**
+   * Resolve the field handles of a class
+   *
+   * @param plan plan of the class
+   * @return copy plan
+   * @throws DataRizerException if a field can't be written, ie, a field of a record
+   */
+  static CopyPlan of(ClassPlan<?> plan) {
+    List<FieldPlan> fields = plan.fields();
+    Slot[] slots = new Slot[fields.size()];
+    for (int i = 0; i < slots.length; i++) {
+      FieldPlan field = fields.get(i);
+      try {
+        slots[i] =
+            new Slot(
+                LOOKUP.unreflectGetter(field.field()).asType(GETTER),
+                LOOKUP.unreflectSetter(field.field()).asType(SETTER),
+                field.type().isPrimitive()
+                    || field.type().isEnum()
+                    || (Modifier.isFinal(field.type().getModifiers())
+                        && isShared(field.type())));
+      } catch (IllegalAccessException e) {
+        throw new DataRizerException(
+            "Can't copy " + plan.type().getName() + "." + field.name(), e);
+      }
+    }
+    return new CopyPlan(plan, slots);
+  }
+
+  /**
+   * Whether values of a class are immutable leaves an original and its copy can share. Leaves
+   * that can change (StringBuilder, AtomicLong, LongAdder) aren't.
+   *
+   * @param clazz runtime class of a value
+   * @return true if values of clazz are never copied
+   */
+  static boolean isShared(Class<?> clazz) {
+    return ClassPlan.isLeaf(clazz)
+        && clazz != StringBuilder.class
+        && clazz != StringBuffer.class
+        && !clazz.getName().startsWith("java.util.concurrent.");
+  }
+
+  /**
+   * Deep copy of an object graph
+   *
+   * @param original root of the graph, null and immutable leaves are returned as they are
+   * @param <T> root type
+   * @return copy sharing nothing mutable with the original
+   * @throws DataRizerException if an object can't be copied, ie, a record
+   */
+  // a copy has the class of its original
+  @SuppressWarnings("unchecked")
+  static <T> T copy(T original) {
+    IdentityHashMap<Object, Object> copies = COPIES.get();
+    if (!copies.isEmpty()) {
+      // called from inside a copy, ie, from a hashCode, so the running copy keeps its table
+      copies = new IdentityHashMap<>();
+    }
+    try {
+      return (T) copyValue(original, copies);
+    } finally {
+      // clear keeps the table, so repeated calls don't allocate
+      copies.clear();
+    }
+  }
+
+  private static Object copyValue(Object original, IdentityHashMap<Object, Object> copies) {
+    if (original == null) {
+      return null;
+    }
+    Class<?> clazz = original.getClass();
+    if (isShared(clazz)) {
+      return original;
+    }
+    Object copy = copies.get(original);
+    if (copy != null) {
+      return copy;
+    } else if (clazz.isArray()) {
+      return copyArray(original, copies);
+    } else if (original instanceof Collection) {
+      return copyCollection((Collection<?>) original, copies);
+    } else if (original instanceof Map) {
+      return copyMap((Map<?, ?>) original, copies);
+    } else if (clazz.getName().startsWith("java.")) {
+      copy = copyJdkValue(original);
+      copies.put(original, copy);
+      return copy;
+    }
+    CopyPlan plan = ClassPlan.of(clazz).copyPlan();
+    copy = plan.newInstance();
+    copies.put(original, copy);
+    for (Slot slot : plan.slots) {
+      Object value = slot.get(original);
+      slot.set(copy, slot.shared || value == null ? value : copyValue(value, copies));
+    }
+    return copy;
+  }
+
+  private static Object copyArray(Object original, IdentityHashMap<Object, Object> copies) {
+    Class<?> component = original.getClass().getComponentType();
+    if (component.isPrimitive()) {
+      int length = Array.getLength(original);
+      Object copy = Array.newInstance(component, length);
+      System.arraycopy(original, 0, copy, 0, length);
+      copies.put(original, copy);
+      return copy;
+    }
+    Object[] copy = ((Object[]) original).clone();
+    copies.put(original, copy);
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = copyValue(copy[i], copies);
+    }
+    return copy;
+  }
+
+  private static Collection<?> copyCollection(
+      Collection<?> original, IdentityHashMap<Object, Object> copies) {
+    if (original instanceof EnumSet) {
+      // enum elements are shared
+      EnumSet<?> copy = ((EnumSet<?>) original).clone();
+      copies.put(original, copy);
+      return copy;
+    }
+    String name = original.getClass().getName();
+    boolean immutable = name.startsWith("java.util.ImmutableCollections$");
+    Collection<Object> target = newCollection(original);
+    Collection<?> copy = target;
+    if (name.startsWith("java.util.Collections$Unmodifiable")) {
+      copy =
+          original instanceof List
+              ? Collections.unmodifiableList((List<Object>) target)
+              : original instanceof SortedSet
+                  ? Collections.unmodifiableSortedSet((SortedSet<Object>) target)
+                  : original instanceof Set
+                      ? Collections.unmodifiableSet((Set<Object>) target)
+                      : Collections.unmodifiableCollection(target);
+    }
+    // an immutable collection can only be built once its elements are, a cycle back to it sees
+    // the mutable copy
+    copies.put(original, copy);
+    for (Object element : original) {
+      target.add(copyValue(element, copies));
+    }
+    if (immutable) {
+      copy = original instanceof List ? List.copyOf(target) : Set.copyOf(target);
+      copies.put(original, copy);
+    }
+    return copy;
+  }
+
+  private static Map<?, ?> copyMap(Map<?, ?> original, IdentityHashMap<Object, Object> copies) {
+    String name = original.getClass().getName();
+    Map<Object, Object> target = newMap(original);
+    Map<?, ?> copy =
+        !name.startsWith("java.util.Collections$Unmodifiable")
+            ? target
+            : original instanceof SortedMap
+                ? Collections.unmodifiableSortedMap((SortedMap<Object, Object>) target)
+                : Collections.unmodifiableMap(target);
+    copies.put(original, copy);
+    for (Map.Entry<?, ?> entry : original.entrySet()) {
+      target.put(copyValue(entry.getKey(), copies), copyValue(entry.getValue(), copies));
+    }
+    if (name.startsWith("java.util.ImmutableCollections$")) {
+      copy = Map.copyOf(target);
+      copies.put(original, copy);
+    }
+    return copy;
+  }
+
+  // an empty collection of the original's class, or the closest mutable one; it only ever holds
+  // copies of the original's elements, so its element type and comparator fit them
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> newCollection(Collection<?> original) {
+    Class<?> clazz = original.getClass();
+    int size = original.size();
+    if (clazz == ArrayList.class) {
+      return new ArrayList<>(size);
+    } else if (clazz == HashSet.class) {
+      return new HashSet<>(Math.max(2 * size, 16));
+    } else if (clazz == LinkedHashSet.class) {
+      return new LinkedHashSet<>(Math.max(2 * size, 16));
+    } else if (clazz == LinkedList.class) {
+      return new LinkedList<>();
+    } else if (clazz == ArrayDeque.class) {
+      return new ArrayDeque<>(size);
+    } else if (clazz == TreeSet.class) {
+      return new TreeSet<>(((TreeSet<Object>) original).comparator());
+    } else if (clazz == PriorityQueue.class) {
+      return new PriorityQueue<>(((PriorityQueue<Object>) original).comparator());
+    } else if (hasPublicNoArgConstructor(clazz)) {
+      return (Collection<Object>) ClassPlan.of(clazz).newEmptyInstance();
+    } else if (original instanceof SortedSet) {
+      return new TreeSet<>(((SortedSet<Object>) original).comparator());
+    } else if (original instanceof Set) {
+      return new LinkedHashSet<>(Math.max(2 * size, 16));
+    }
+    return new ArrayList<>(size);
+  }
+
+  // like newCollection, the map only ever holds copies of the original's keys and values
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Map<Object, Object> newMap(Map<?, ?> original) {
+    Class<?> clazz = original.getClass();
+    int size = original.size();
+    if (clazz == HashMap.class) {
+      return new HashMap<>(Math.max(2 * size, 16));
+    } else if (clazz == LinkedHashMap.class) {
+      return new LinkedHashMap<>(Math.max(2 * size, 16));
+    } else if (clazz == TreeMap.class) {
+      return new TreeMap<>(((TreeMap<Object, Object>) original).comparator());
+    } else if (original instanceof EnumMap) {
+      // the only way to an EnumMap of the same key type, every value is overwritten
+      return new EnumMap<>((EnumMap) original);
+    } else if (hasPublicNoArgConstructor(clazz)) {
+      return (Map<Object, Object>) ClassPlan.of(clazz).newEmptyInstance();
+    } else if (original instanceof SortedMap) {
+      return new TreeMap<>(((SortedMap<Object, Object>) original).comparator());
+    }
+    return new LinkedHashMap<>(Math.max(2 * size, 16));
+  }
+
+  private static boolean hasPublicNoArgConstructor(Class<?> clazz) {
+    Constructor<?> constructor = ClassPlan.of(clazz).noArgConstructor();
+    return constructor != null
+        && Modifier.isPublic(constructor.getModifiers())
+        && Modifier.isPublic(clazz.getModifiers());
+  }
+
+  // JDK classes other than leaves and collections have no fields we can reach
+  private static Object copyJdkValue(Object original) {
+    if (original instanceof StringBuilder) {
+      return new StringBuilder((StringBuilder) original);
+    } else if (original instanceof StringBuffer) {
+      return new StringBuffer((StringBuffer) original);
+    } else if (original instanceof AtomicInteger) {
+      return new AtomicInteger(((AtomicInteger) original).get());
+    } else if (original instanceof AtomicLong) {
+      return new AtomicLong(((AtomicLong) original).get());
+    } else if (original instanceof AtomicBoolean) {
+      return new AtomicBoolean(((AtomicBoolean) original).get());
+    } else if (original instanceof Cloneable) {
+      // ie, Date, Calendar, BitSet
+      try {
+        Method clone = original.getClass().getMethod("clone");
+        return clone.invoke(original);
+      } catch (ReflectiveOperationException e) {
+        throw new DataRizerException("Can't copy " + original.getClass().getName(), e);
+      }
+    }
+    // immutable values, ie, UUID, Locale, URI
+    return original;
+  }
+
+  /**
+   * Create an empty instance to copy into
+   *
+   * @return new instance whose fields haven't been set
+   */
+  Object newInstance() {
+    return plan.newEmptyInstance();
+  }
+
+  /**
+   * Fields of the class, in {@link ClassPlan#fields()} order. The array is shared, don't modify
+   * it.
+   *
+   * @return slots
+   */
+  Slot[] slots() {
+    return slots;
+  }
+
+  /** One field, read and written through handles. */
+  static final class Slot {
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final boolean shared;
+
+    private Slot(MethodHandle getter, MethodHandle setter, boolean shared) {
+      this.getter = getter;
+      this.setter = setter;
+      this.shared = shared;
+    }
+
+    /**
+     * Whether the field's values are copied as they are
+     *
+     * @return true if the declared type is a primitive, an enum or a final immutable leaf
+     */
+    boolean shared() {
+      return shared;
+    }
+
+    Object get(Object target) {
+      try {
+        return (Object) getter.invokeExact(target);
+      } catch (Throwable t) {
+        throw new DataRizerException(t);
+      }
+    }
+
+    void set(Object target, Object value) {
+      try {
+        setter.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw new DataRizerException(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.test;
+
+import java.math.BigDecimal;
+
+/**
+ * Writes records as RFC 4180 CSV. Leaf values are written as-is; nested objects and collections
+ * are written as quoted JSON text so every record stays on one row.
+ */
+final class CsvEncoder implements RecordEncoder {
+
+  private final StringBuilder row = new StringBuilder(256);
+  private final StringBuilder cell = new StringBuilder(64);
+
+  @Override
+  public void header(ClassPlan<?> plan, ByteSink sink) {
+    row.setLength(0);
+    for (FieldPlan field : plan.fields()) {
+      if (row.length() > 0) {
+        row.append(',');
+      }
+      appendCell(field.name(), row);
+    }
+    row.append("\r\n");
+    sink.putUtf8(row);
+  }
+
+  @Override
+  public void encode(Object record, ClassPlan<?> plan, ByteSink sink) {
+    row.setLength(0);
+    boolean first = true;
+    for (FieldPlan field : plan.fields()) {
+      if (!first) {
+        row.append(',');
+      }
+      Object value = field.get(record);
+      if (value instanceof BigDecimal) {
+        row.append(((BigDecimal) value).toPlainString());
+      } else if (value instanceof Enum) {
+        row.append(((Enum<?>) value).name());
+      } else if (value != null && ClassPlan.isLeaf(value.getClass())) {
+        appendCell(value.toString(), row);
+      } else if (value != null) {
+        cell.setLength(0);
+        JsonLinesEncoder.appendValue(value, cell);
+        appendCell(cell, row);
+      }
+      first = false;
+    }
+    row.append("\r\n");
+    sink.putUtf8(row);
+  }
+
+  private static void appendCell(CharSequence value, StringBuilder row) {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      row.append(value);
+      return;
+    }
+    row.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        row.append('"');
+      }
+      row.append(c);
+    }
+    row.append('"');
+  }
+}
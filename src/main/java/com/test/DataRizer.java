@@ -1,6 +1,9 @@
 package com.test;
 
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -8,7 +11,9 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -17,64 +22,108 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 final class DataRizer {
 
-  private static final Random RANDOM = new Random();
-
-  private static final int STRING_LENGTH = 10;
   private static final int SECONDS_IN_DAY = 86_400;
   private static final int SECONDS_IN_HOUR = 3600;
   private static final int DAYS_IN_YEAR_ROUGH = 365;
-  private static final int MAX_RANDOM_LIST_LENGTH = 10;
 
-  private static final Map<Class<?>, Supplier<?>> BASE_OBJECTS = new HashMap<>();
+  // values of the base types, drawn from the random source they're given, so compile-time
+  // generators with a Random of their own produce the same values, see AbstractGenerator
+  private static final Map<Class<?>, Function<Random, ?>> BASE_OBJECTS = new HashMap<>();
 
   static {
-    BASE_OBJECTS.put(String.class, () -> getRandomString(STRING_LENGTH));
-    BASE_OBJECTS.put(Integer.class, () -> RANDOM.nextInt(Integer.MAX_VALUE));
-    BASE_OBJECTS.put(Long.class, RANDOM::nextLong);
-    BASE_OBJECTS.put(Boolean.class, RANDOM::nextBoolean);
-    BASE_OBJECTS.put(Float.class, RANDOM::nextFloat);
-    BASE_OBJECTS.put(Double.class, RANDOM::nextDouble);
+    BASE_OBJECTS.put(String.class, random -> getRandomString(config().stringLength(), random));
+    BASE_OBJECTS.put(Integer.class, random -> random.nextInt(Integer.MAX_VALUE));
+    BASE_OBJECTS.put(Long.class, random -> random.nextLong());
+    BASE_OBJECTS.put(Boolean.class, random -> random.nextBoolean());
+    BASE_OBJECTS.put(Float.class, random -> random.nextFloat());
+    BASE_OBJECTS.put(Double.class, random -> random.nextDouble());
     // Scaled down to smaller precision
     BASE_OBJECTS.put(
         BigDecimal.class,
-        () -> BigDecimal.valueOf(RANDOM.nextDouble()).setScale(20, RoundingMode.DOWN));
+        random -> BigDecimal.valueOf(random.nextDouble()).setScale(20, RoundingMode.DOWN));
     BASE_OBJECTS.put(
         Instant.class,
-        () ->
-            Instant.now()
-                .plusSeconds(RANDOM.nextInt(SECONDS_IN_DAY))
+        random ->
+            Instant.now(clock())
+                .plusSeconds(random.nextInt(SECONDS_IN_DAY))
                 .truncatedTo(ChronoUnit.MILLIS));
     BASE_OBJECTS.put(
-        LocalDate.class, () -> LocalDate.now().plusDays(RANDOM.nextInt(DAYS_IN_YEAR_ROUGH)));
+        LocalDate.class,
+        random -> LocalDate.now(clock()).plusDays(random.nextInt(DAYS_IN_YEAR_ROUGH)));
     BASE_OBJECTS.put(
         LocalDateTime.class,
-        () ->
-            LocalDateTime.now()
-                .plusSeconds(RANDOM.nextInt(SECONDS_IN_DAY))
+        random ->
+            LocalDateTime.now(clock())
+                .plusSeconds(random.nextInt(SECONDS_IN_DAY))
                 .truncatedTo(ChronoUnit.MILLIS));
     BASE_OBJECTS.put(
         LocalTime.class,
-        () ->
-            LocalTime.now()
-                .plusSeconds(RANDOM.nextInt(SECONDS_IN_HOUR))
+        random ->
+            LocalTime.now(clock())
+                .plusSeconds(random.nextInt(SECONDS_IN_HOUR))
                 .truncatedTo(ChronoUnit.MINUTES));
-    BASE_OBJECTS.put(Duration.class, () -> Duration.ofMillis(RANDOM.nextInt(10_000)));
-    BASE_OBJECTS.put(Object.class, Object::new);
+    BASE_OBJECTS.put(Duration.class, random -> Duration.ofMillis(random.nextInt(10_000)));
+    BASE_OBJECTS.put(Object.class, random -> new Object());
+    BASE_OBJECTS.put(Short.class, random -> (short) random.nextInt(Short.MAX_VALUE + 1));
+    BASE_OBJECTS.put(Byte.class, random -> (byte) random.nextInt(Byte.MAX_VALUE + 1));
+    BASE_OBJECTS.put(Character.class, random -> getRandomString(1, random).charAt(0));
+    BASE_OBJECTS.put(int.class, BASE_OBJECTS.get(Integer.class));
+    BASE_OBJECTS.put(long.class, BASE_OBJECTS.get(Long.class));
+    BASE_OBJECTS.put(boolean.class, BASE_OBJECTS.get(Boolean.class));
+    BASE_OBJECTS.put(float.class, BASE_OBJECTS.get(Float.class));
+    BASE_OBJECTS.put(double.class, BASE_OBJECTS.get(Double.class));
+    BASE_OBJECTS.put(short.class, BASE_OBJECTS.get(Short.class));
+    BASE_OBJECTS.put(byte.class, BASE_OBJECTS.get(Byte.class));
+    BASE_OBJECTS.put(char.class, BASE_OBJECTS.get(Character.class));
+  }
+
+  // distributions and pools registered with distribute and pool, replacing new uniform values
+  private static final Map<Class<?>, ValueSource> TYPE_SOURCES = new ConcurrentHashMap<>();
+  private static final Map<Field, ValueSource> FIELD_SOURCES = new ConcurrentHashMap<>();
+
+  // returned by instantiateConstrained when the constraints don't apply to the type
+  private static final Object UNCONSTRAINED = new Object();
+
+  // objects visited by the running repopulate or mutate call of each thread
+  private static final ThreadLocal<IdentityHashMap<Object, Boolean>> VISITED =
+      ThreadLocal.withInitial(IdentityHashMap::new);
+
+  /**
+   * Random source of the generation running on this thread, see {@link GenerationContext}
+   *
+   * @return active Random
+   */
+  static Random random() {
+    return GenerationContext.current().random();
+  }
+
+  private static Clock clock() {
+    return GenerationContext.current().clock();
+  }
+
+  static GenerationConfig config() {
+    return GenerationContext.current().config();
   }
 
   /**
@@ -85,7 +134,33 @@ final class DataRizer {
    * @return (T) An instantiated object of Type T or null if nothing found in set
    */
   static <T> T instantiateFromBaseObjects(Class<T> clazz) {
-    return (T) BASE_OBJECTS.getOrDefault(clazz, () -> null).get();
+    Function<Random, ?> value = BASE_OBJECTS.get(clazz);
+    return value == null ? null : (T) value.apply(random());
+  }
+
+  /**
+   * Value of a base type for compile-time generators, see {@link AbstractGenerator}: from the
+   * distribution or pool registered for the type if there is one, otherwise the same value
+   * reflective generation draws. It's counted against the session's budget like any other value.
+   *
+   * @param clazz boxed base type, ie, String or Integer
+   * @param random random source of the generator
+   * @param <T> Class generic to instantiate
+   * @return value, null if the type isn't a base type
+   */
+  static <T> T baseValue(Class<T> clazz, Random random) {
+    GenerationBudget budget = GenerationContext.current().budget();
+    if (budget != null) {
+      budget.spend(clazz);
+    }
+    if (!TYPE_SOURCES.isEmpty()) {
+      ValueSource source = TYPE_SOURCES.get(clazz);
+      if (source != null) {
+        return clazz.cast(source.sample(clazz, random, clock()));
+      }
+    }
+    Function<Random, ?> value = BASE_OBJECTS.get(clazz);
+    return value == null ? null : clazz.cast(value.apply(random));
   }
 
   /**
@@ -95,10 +170,14 @@ final class DataRizer {
    * @return random string
    */
   static String getRandomString(int length) {
+    return getRandomString(length, random());
+  }
+
+  private static String getRandomString(int length, Random random) {
     final int leftLimit = 48; // numeral '0'
     final int rightLimit = 122; // letter 'z'
 
-    return RANDOM
+    return random
         .ints(leftLimit, rightLimit + 1)
         .filter(i -> (i <= 57 || i >= 65) && (i <= 90 || i >= 97))
         .limit(length)
@@ -115,13 +194,156 @@ final class DataRizer {
    * @return instantiated enum or null if not possible
    */
   static <T> T instantiateFromEnum(Class<T> clazz) {
-    if (clazz.isEnum() && clazz.getEnumConstants().length > 0) {
-      T[] vals = clazz.getEnumConstants();
-      return vals[RANDOM.nextInt(vals.length)];
-    } else if (clazz.isEnum() && clazz.getEnumConstants().length == 0) {
+    if (!clazz.isEnum()) {
+      return null;
+    }
+    Object[] vals = ClassPlan.of(clazz).enumConstants();
+    if (vals.length == 0) {
       throw new DataRizerException("Can't instantiate an enum with no values");
     }
-    return null;
+    return clazz.cast(vals[random().nextInt(vals.length)]);
+  }
+
+  /**
+   * Classes that can't be instantiated under the current config, remembered after they failed so
+   * that later requests throw the same exception again at once instead of searching
+   * constructors, factories and setters again. Changing the value sources forgets them.
+   *
+   * @return diagnostic of the remembered failure, by class
+   */
+  static Map<Class<?>, String> failures() {
+    return ClassPlan.failures(config());
+  }
+
+  /**
+   * Draw every generated value of a type from a distribution instead of uniformly, ie, weighted
+   * enum constants. Registering a primitive or its wrapper covers both. Bean Validation
+   * constraints of a field still take precedence.
+   *
+   * @param type generated type
+   * @param distribution distribution to draw from, null to go back to uniform values
+   */
+  static void distribute(Class<?> type, Distribution distribution) {
+    register(type, distribution);
+  }
+
+  /**
+   * Draw the values of one field from a distribution, ie, Zipf distributed customer ids. Applies
+   * whether the field is set through a setter, a constructor or "of" factory parameter matched to
+   * it, or by {@link #repopulate(Object)}, and replaces the field's Bean Validation constraints.
+   *
+   * @param owner class declaring the field, or a subclass
+   * @param fieldName field name
+   * @param distribution distribution to draw from, null to go back to uniform values
+   * @throws DataRizerException if the class has no such field
+   */
+  static void distribute(Class<?> owner, String fieldName, Distribution distribution) {
+    register(field(owner, fieldName), distribution);
+  }
+
+  /**
+   * Take every generated value of a type from a pool of shared values, see {@link ValuePool}.
+   * Registering a primitive or its wrapper covers both. Bean Validation constraints of a field
+   * still take precedence.
+   *
+   * @param type generated type
+   * @param pool pool to take values from, null to generate new values again
+   * @throws DataRizerException if the pooled values aren't of the type
+   */
+  static void pool(Class<?> type, ValuePool pool) {
+    if (pool != null && !pool.fits(type)) {
+      throw new DataRizerException(
+          "Can't pool " + pool.type().getName() + " values for " + type.getName());
+    }
+    register(type, pool);
+  }
+
+  /**
+   * Take the values of one field from a pool of shared values, see {@link ValuePool}. Applies
+   * wherever {@link #distribute(Class, String, Distribution)} does.
+   *
+   * @param owner class declaring the field, or a subclass
+   * @param fieldName field name
+   * @param pool pool to take values from, null to generate new values again
+   * @throws DataRizerException if the class has no such field or the pooled values don't fit it
+   */
+  static void pool(Class<?> owner, String fieldName, ValuePool pool) {
+    Field field = field(owner, fieldName);
+    if (pool != null && !pool.fits(field.getType())) {
+      throw new DataRizerException(
+          "Can't pool "
+              + pool.type().getName()
+              + " values for "
+              + owner.getName()
+              + "."
+              + fieldName);
+    }
+    register(field, pool);
+  }
+
+  /** Remove every registered distribution and pool, all values are new and uniform again */
+  static void clearValueSources() {
+    TYPE_SOURCES.clear();
+    FIELD_SOURCES.clear();
+    ClassPlan.forgetFailures();
+  }
+
+  /**
+   * Fingerprint of every registered distribution and pool, see {@link ValueSource#fingerprint()}
+   *
+   * @return 64 bit hash, the same on every run with the same registrations
+   */
+  static long valueSourceFingerprint() {
+    Map<String, ValueSource> sources = new TreeMap<>();
+    TYPE_SOURCES.forEach((type, source) -> sources.put(type.getName(), source));
+    FIELD_SOURCES.forEach(
+        (field, source) ->
+            sources.put(field.getDeclaringClass().getName() + "." + field.getName(), source));
+    long hash = ClassPlan.FNV_OFFSET_BASIS;
+    for (Map.Entry<String, ValueSource> entry : sources.entrySet()) {
+      hash = ClassPlan.hash(hash, entry.getKey());
+      hash = ClassPlan.hash(hash, Long.toHexString(entry.getValue().fingerprint()));
+    }
+    return hash;
+  }
+
+  private static void register(Class<?> type, ValueSource source) {
+    ClassPlan.forgetFailures();
+    MethodType boxing = MethodType.methodType(type);
+    for (Class<?> key : List.of(boxing.wrap().returnType(), boxing.unwrap().returnType())) {
+      if (source == null) {
+        TYPE_SOURCES.remove(key);
+      } else {
+        TYPE_SOURCES.put(key, source);
+      }
+    }
+  }
+
+  private static void register(Field field, ValueSource source) {
+    ClassPlan.forgetFailures();
+    if (source == null) {
+      FIELD_SOURCES.remove(field);
+    } else {
+      FIELD_SOURCES.put(field, source);
+    }
+  }
+
+  // the last field of that name, a subclass field hides its superclass's
+  private static Field field(Class<?> owner, String fieldName) {
+    return ClassPlan.of(owner).fields().stream()
+        .filter(candidate -> candidate.name().equals(fieldName))
+        .reduce((first, second) -> second)
+        .orElseThrow(() -> new DataRizerException(owner.getName() + " has no field " + fieldName))
+        .field();
+  }
+
+  // value from the distribution or pool registered for a field, or UNCONSTRAINED if there is none
+  private static Object instantiateFromSource(Class<?> clazz, FieldPlan field) {
+    if (field == null || FIELD_SOURCES.isEmpty()) {
+      return UNCONSTRAINED;
+    }
+    ValueSource source = FIELD_SOURCES.get(field.field());
+    return source == null ? UNCONSTRAINED : source.sample(clazz, random(), clock());
   }
 
   /**
@@ -172,17 +394,33 @@ final class DataRizer {
 
     Parameter[] parameters = method.getParameters();
     List<Object> instances = new ArrayList<>(parameters.length);
+    ClassPlan<?> plan = ClassPlan.of(method.getDeclaringClass());
+    boolean ofBuilder = method.equals(plan.ofBuilder());
 
     int counter = 0;
     for (Parameter parameter : parameters) {
       Class<?> parameterType = parameter.getType();
-      if (parameterType == method.getDeclaringClass()) {
+      Object constrained =
+          ofBuilder
+              ? instantiateFromSource(parameterType, plan.ofBuilderFields()[counter])
+              : UNCONSTRAINED;
+      if (ofBuilder && constrained == UNCONSTRAINED) {
+        constrained =
+            instantiateConstrained(
+                parameterType,
+                parameter.getParameterizedType(),
+                plan.ofBuilderConstraints()[counter]);
+      }
+      if (constrained != UNCONSTRAINED) {
+        instances.add(constrained);
+      } else if (parameterType == method.getDeclaringClass()) {
         instances.add(
             recursion > 0 ? instantiate(method.getDeclaringClass(), recursion - 1) : null);
       } else if (Collection.class.isAssignableFrom(parameterType)) {
         ParameterizedType genericParameterType =
             (ParameterizedType) method.getGenericParameterTypes()[counter];
-        instances.add(generateParameterizedTypeData(parameter.getType(), 2, genericParameterType));
+        instances.add(
+            generateParameterizedTypeData(parameter.getType(), recursion, genericParameterType));
       } else {
         instances.add(instantiate(parameterType));
       }
@@ -210,7 +448,11 @@ final class DataRizer {
     if (List.class == parameterizedType.getRawType()) {
       Type parameterizedTypeActualTypeArgument = parameterizedType.getActualTypeArguments()[0];
       var list = new ArrayList<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
+      if (parameterizedTypeActualTypeArgument instanceof Class) {
+        fill(list, parameterizedTypeActualTypeArgument);
+        return list;
+      }
+      for (int i = 0; another(i, parameterizedTypeActualTypeArgument); i++) {
         Class<?> rawType;
         Class<?> actualTypeArgument;
         try {
@@ -231,7 +473,9 @@ final class DataRizer {
             if (Objects.isNull(map)) {
               map = new java.util.HashMap();
             }
-            for (int j = 0; j < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; j++) {
+            Type keyType = ClassPlan.typeArgument(parameterizedTypeActualTypeArgument, 0);
+            Type valueType = ClassPlan.typeArgument(parameterizedTypeActualTypeArgument, 1);
+            for (int j = 0; another(j, keyType, valueType); j++) {
               var keyObject =
                   instantiate(
                       (Class<?>)
@@ -261,17 +505,12 @@ final class DataRizer {
               instantiateFromConstructor(
                   (Class<?>) parameterizedType.getRawType(), maxRecursion - 1);
 
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
-        list.add(instantiate((Class<?>) parameterizedType.getActualTypeArguments()[0]));
-      }
+      fill(list, parameterizedType.getActualTypeArguments()[0]);
       return list;
 
     } else if (Set.class == parameterizedType.getRawType()) {
-      var setType = (Class<?>) parameterizedType.getActualTypeArguments()[0];
       var set = new HashSet<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
-        set.add(instantiate(setType));
-      }
+      fill(set, parameterizedType.getActualTypeArguments()[0]);
       return set;
     } else if (Set.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())) {
       var set =
@@ -279,28 +518,24 @@ final class DataRizer {
               instantiateFromConstructor(
                   (Class<?>) parameterizedType.getRawType(), maxRecursion - 1);
 
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
-        set.add(instantiate((Class<?>) parameterizedType.getActualTypeArguments()[0]));
-      }
+      fill(set, parameterizedType.getActualTypeArguments()[0]);
       return set;
     } else if (Map.class == parameterizedType.getRawType()) {
       var map = new HashMap<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
-        var keyObject = instantiate((Class<?>) parameterizedType.getActualTypeArguments()[0]);
-        var valueObject = instantiate((Class<?>) parameterizedType.getActualTypeArguments()[1]);
-        map.put(keyObject, valueObject);
-      }
+      fill(
+          map,
+          parameterizedType.getActualTypeArguments()[0],
+          parameterizedType.getActualTypeArguments()[1]);
       return map;
     } else if (Map.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())) {
       var map =
           (Map)
               instantiateFromConstructor(
                   (Class<?>) parameterizedType.getRawType(), maxRecursion - 1);
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
-        var keyObject = instantiate((Class<?>) parameterizedType.getActualTypeArguments()[0]);
-        var valueObject = instantiate((Class<?>) parameterizedType.getActualTypeArguments()[1]);
-        map.put(keyObject, valueObject);
-      }
+      fill(
+          map,
+          parameterizedType.getActualTypeArguments()[0],
+          parameterizedType.getActualTypeArguments()[1]);
       return map;
     } else {
       return null;
@@ -309,40 +544,380 @@ final class DataRizer {
 
   // Given a list of setter methods and a clazz generate data for those setter methods
   private static <T> void setMethodParameters(
-          List<Method> methodList, Class<T> clazz, T finalObject, int sameClassRecursion)
+          List<SetterPlan> setterList, Class<T> clazz, T finalObject, int sameClassRecursion)
       throws InvocationTargetException, IllegalAccessException, InstantiationException {
     AtomicInteger v = new AtomicInteger();
     v.set(sameClassRecursion);
+    double nullRate = config().nullRate();
 
-    for (Method method : methodList) {
-      Type[] genericParameterTypes = method.getGenericParameterTypes();
-      List list = new ArrayList();
-      for (Type type : genericParameterTypes) {
+    for (SetterPlan setter : setterList) {
+      Type[] genericParameterTypes = setter.parameterTypes();
+      Object[] parameters = new Object[genericParameterTypes.length];
+      for (int i = 0; i < genericParameterTypes.length; i++) {
+        Type type = genericParameterTypes[i];
+        Class<?> rawType = ClassPlan.rawType(type);
         if (type == clazz) {
           v.decrementAndGet();
         }
-        list.add(v.get() != 0 ? DataRizer.instantiate((Class<?>) type, v.get()) : null);
+        Object constrained = instantiateFromSource(rawType, setter.field());
+        if (constrained == UNCONSTRAINED) {
+          constrained = instantiateConstrained(rawType, type, setter.constraints());
+        }
+        if (constrained != UNCONSTRAINED) {
+          parameters[i] = constrained;
+        } else if (v.get() == 0 && !rawType.isPrimitive()) {
+          parameters[i] = null;
+        } else if (nullRate > 0
+            && !rawType.isPrimitive()
+            && !setter.constraints().notNull()
+            && random().nextDouble() < nullRate) {
+          parameters[i] = null;
+        } else if (type instanceof ParameterizedType) {
+          parameters[i] = generateParameterizedTypeData(rawType, v.get(), (ParameterizedType) type);
+        } else {
+          parameters[i] = DataRizer.instantiate(rawType, v.get());
+        }
       }
-      method.invoke(finalObject, list.toArray());
+      setter.method().invoke(finalObject, parameters);
     }
   }
 
   /**
-   * Given a class get the methods starting with "set"
+   * Given an object get the cached setters of its class, the methods starting with "set"
    *
-   * @param object supplied class
+   * @param object supplied object
    * @param <T> Type of class
-   * @return List of methods
+   * @return List of setters
+   */
+  private static <T> List<SetterPlan> getSetterMethods(T object) {
+    return ClassPlan.of(object.getClass()).setters();
+  }
+
+  /**
+   * Generate a value inside the Bean Validation constraints of a field or parameter, see {@link
+   * Constraints}. Strings get lengths inside Size or a value of Pattern, numbers are drawn between
+   * their bounds, dates land in the past or future and collections get a Size element count.
+   *
+   * @param clazz declared class
+   * @param type declared generic type
+   * @param constraints constraints of the field or parameter
+   * @return generated value, or {@link #UNCONSTRAINED} when no constraint applies to the type and
+   *     the value should be generated as usual
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  private static Object instantiateConstrained(Class<?> clazz, Type type, Constraints constraints)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (constraints.isNone()) {
+      return UNCONSTRAINED;
+    } else if (constraints.isNull() && !clazz.isPrimitive()) {
+      return null;
+    } else if (clazz == String.class) {
+      return constrainedString(constraints);
+    } else if (constraints.min() != null || constraints.max() != null) {
+      return constrainedNumber(clazz, constraints);
+    } else if (constraints.time() != Constraints.Time.ANY) {
+      return constrainedTime(clazz, constraints.time());
+    } else if (constraints.hasSize()) {
+      return constrainedCollection(clazz, type, constraints);
+    }
+    return UNCONSTRAINED;
+  }
+
+  private static String constrainedString(Constraints constraints) {
+    if (constraints.pattern() != null && constraints.hasSize()) {
+      return constraints
+          .pattern()
+          .generate(random(), constraints.minSize(), constraints.maxSize());
+    } else if (constraints.pattern() != null) {
+      return constraints.pattern().generate(random());
+    } else if (constraints.email() && constraints.hasSize()) {
+      // "@" and ".com" take 5 characters, the rest is split between the name and the domain
+      int min = Math.max(constraints.minSize(), Constraints.MIN_EMAIL_LENGTH);
+      int usual = 2 * config().stringLength() + 5;
+      int max = Math.min(constraints.maxSize(), Math.max(min, usual));
+      int length = min + random().nextInt(max - min + 1);
+      int name = 1 + random().nextInt(length - 6);
+      return getRandomString(name) + "@" + getRandomString(length - 5 - name) + ".com";
+    } else if (constraints.email()) {
+      int length = config().stringLength();
+      return getRandomString(length) + "@" + getRandomString(length) + ".com";
+    }
+    return getRandomString(size(constraints, config().stringLength()));
+  }
+
+  // random length or element count inside Size, around the usual default when unbounded
+  private static int size(Constraints constraints, int defaultSize) {
+    int min = constraints.minSize();
+    int max = Math.min(constraints.maxSize(), Math.max(min, defaultSize));
+    if (max < min) {
+      throw new DataRizerException("Size max " + max + " is lower than min " + min);
+    }
+    return min + random().nextInt(max - min + 1);
+  }
+
+  private static Object constrainedNumber(Class<?> clazz, Constraints constraints) {
+    if (clazz == Integer.class || clazz == int.class) {
+      return (int)
+          constrainedLong(
+              constraints, 0, Integer.MAX_VALUE - 1L, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    } else if (clazz == Long.class || clazz == long.class) {
+      return constrainedLong(
+          constraints, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    } else if (clazz == Short.class || clazz == short.class) {
+      return (short)
+          constrainedLong(constraints, 0, Short.MAX_VALUE, Short.MIN_VALUE, Short.MAX_VALUE);
+    } else if (clazz == Byte.class || clazz == byte.class) {
+      return (byte) constrainedLong(constraints, 0, Byte.MAX_VALUE, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    } else if (clazz == BigInteger.class) {
+      return BigInteger.valueOf(
+          constrainedLong(constraints, 0, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE));
+    } else if (clazz == BigDecimal.class) {
+      return constrainedDecimal(constraints).setScale(20, RoundingMode.DOWN);
+    } else if (clazz == Double.class || clazz == double.class) {
+      return constrainedDecimal(constraints).doubleValue();
+    } else if (clazz == Float.class || clazz == float.class) {
+      return constrainedDecimal(constraints).floatValue();
+    }
+    return UNCONSTRAINED;
+  }
+
+  /*
+   * Uniform long between the constraint bounds. A missing bound falls back to the usual default
+   * range of the type, or to the type's limit when the default range lies outside the other bound.
+   */
+  private static long constrainedLong(
+      Constraints constraints, long defaultMin, long defaultMax, long typeMin, long typeMax) {
+    BigDecimal lowest = BigDecimal.valueOf(typeMin);
+    BigDecimal highest = BigDecimal.valueOf(typeMax);
+    long min =
+        constraints.min() == null
+            ? defaultMin
+            : constraints.min().setScale(0, RoundingMode.CEILING).max(lowest).longValue();
+    long max =
+        constraints.max() == null
+            ? defaultMax
+            : constraints.max().setScale(0, RoundingMode.FLOOR).min(highest).longValue();
+    if (constraints.min() == null && min > max) {
+      min = typeMin;
+    } else if (constraints.max() == null && min > max) {
+      max = typeMax;
+    }
+    if (min > max) {
+      throw new DataRizerException(
+          "No value between " + constraints.min() + " and " + constraints.max());
+    }
+    long span = max - min + 1;
+    if (span > 0) {
+      return min + Math.floorMod(random().nextLong(), span);
+    }
+    // the range covers more than half of all longs
+    long value = random().nextLong();
+    while (value < min || value > max) {
+      value = random().nextLong();
+    }
+    return value;
+  }
+
+  // uniform decimal between the constraint bounds, [0, 1) like unconstrained values otherwise
+  private static BigDecimal constrainedDecimal(Constraints constraints) {
+    BigDecimal min = constraints.min();
+    BigDecimal max = constraints.max();
+    if (min == null) {
+      min = max.signum() < 0 ? max.subtract(BigDecimal.ONE) : BigDecimal.ZERO;
+    }
+    if (max == null) {
+      max = min.max(BigDecimal.ZERO).add(BigDecimal.ONE);
+    }
+    if (min.compareTo(max) > 0) {
+      throw new DataRizerException("No value between " + min + " and " + max);
+    }
+    return min.add(max.subtract(min).multiply(BigDecimal.valueOf(random().nextDouble())));
+  }
+
+  private static Object constrainedTime(Class<?> clazz, Constraints.Time time) {
+    int sign = time == Constraints.Time.PAST ? -1 : 1;
+    if (clazz == Instant.class) {
+      return Instant.now(clock())
+          .plusSeconds(sign * (1L + random().nextInt(SECONDS_IN_DAY)))
+          .truncatedTo(ChronoUnit.MILLIS);
+    } else if (clazz == LocalDate.class) {
+      return LocalDate.now(clock()).plusDays(sign * (1L + random().nextInt(DAYS_IN_YEAR_ROUGH)));
+    } else if (clazz == LocalDateTime.class) {
+      return LocalDateTime.now(clock())
+          .plusSeconds(sign * (1L + random().nextInt(SECONDS_IN_DAY)))
+          .truncatedTo(ChronoUnit.MILLIS);
+    }
+    return UNCONSTRAINED;
+  }
+
+  // collection or map with a Size element count, elements generated as usual
+  private static Object constrainedCollection(Class<?> clazz, Type type, Constraints constraints)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    boolean isMap = Map.class.isAssignableFrom(clazz);
+    if (!isMap && !Collection.class.isAssignableFrom(clazz)) {
+      return UNCONSTRAINED;
+    }
+    Object container;
+    if (!clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers())) {
+      container = instantiateFromConstructor(clazz, config().maxDepth());
+    } else if (isMap) {
+      container = new HashMap<>();
+    } else if (Set.class.isAssignableFrom(clazz)) {
+      container = new HashSet<>();
+    } else {
+      container = new ArrayList<>();
+    }
+    if (!clazz.isInstance(container)) {
+      return UNCONSTRAINED;
+    }
+    int size = size(constraints, config().maxCollectionSize());
+    Type elementType = ClassPlan.typeArgument(type, 0);
+    Type valueType = isMap ? ClassPlan.typeArgument(type, 1) : null;
+    if (config().isParallel() && size >= config().parallelThreshold()) {
+      addAll(container, elementType, valueType, fittingBudget(size, elementType, valueType));
+    }
+    // sets and maps drop duplicates, give small value domains a few extra tries
+    for (int attempt = 0;
+        attempt < size * 4 && sizeOf(container) < size && fitsBudget(elementType, valueType);
+        attempt++) {
+      if (isMap) {
+        entries(container)
+            .put(
+                instantiateElement(ClassPlan.typeArgument(type, 0)),
+                instantiateElement(ClassPlan.typeArgument(type, 1)));
+      } else {
+        elements(container).add(instantiateElement(ClassPlan.typeArgument(type, 0)));
+      }
+    }
+    return container;
+  }
+
+  // a generated collection, which only ever gets values generated for its element type
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> elements(Object collection) {
+    return (Collection<Object>) collection;
+  }
+
+  // a generated map, which only ever gets keys and values generated for its type arguments
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> entries(Object map) {
+    return (Map<Object, Object>) map;
+  }
+
+  /*
+   * Fill a collection the usual way, element by element. With a parallel threshold set, the
+   * element count is drawn first, and a count at the threshold or above is generated as parallel
+   * subtrees, see SubtreeGeneration.
    */
-  private static <T> List<Method> getSetterMethods(T object) {
-    List<Method> methodList =
-        Arrays.asList(object.getClass().getMethods()).stream()
-            .filter(
-                method ->
-                    method.getName().startsWith("set")
-                        && (method.getModifiers() & Modifier.PRIVATE) == 0)
-            .collect(Collectors.toList());
-    return methodList;
+  private static void fill(Collection<?> collection, Type elementType)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (config().isParallel()) {
+      addAll(collection, elementType, null, count(elementType, null));
+      return;
+    }
+    for (int i = 0; another(i, elementType); i++) {
+      elements(collection).add(instantiateElement(elementType));
+    }
+  }
+
+  // the same for a map
+  private static void fill(Map<?, ?> map, Type keyType, Type valueType)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (config().isParallel()) {
+      addAll(map, keyType, valueType, count(keyType, valueType));
+      return;
+    }
+    for (int i = 0; another(i, keyType, valueType); i++) {
+      entries(map).put(instantiateElement(keyType), instantiateElement(valueType));
+    }
+  }
+
+  // element count drawn as the loop of fill stops, within what the budget is expected to fit
+  private static int count(Type elementType, Type valueType) {
+    int count = 0;
+    while (count < random().nextInt(config().maxCollectionSize()) + 1) {
+      count++;
+    }
+    return fittingBudget(count, elementType, valueType);
+  }
+
+  private static int fittingBudget(int count, Type elementType, Type valueType) {
+    GenerationBudget budget = GenerationContext.current().budget();
+    return budget == null ? count : budget.fitting(count, elementType, valueType);
+  }
+
+  // add count elements, or map entries if valueType isn't null, to a collection or map
+  private static void addAll(Object container, Type elementType, Type valueType, int count)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Object[] elements;
+    if (count >= config().parallelThreshold()) {
+      elements = SubtreeGeneration.generate(count, () -> element(elementType, valueType));
+    } else {
+      elements = new Object[count];
+      for (int i = 0; i < count; i++) {
+        elements[i] = element(elementType, valueType);
+      }
+    }
+    for (Object element : elements) {
+      if (valueType == null) {
+        elements(container).add(element);
+      } else {
+        entries(container).put(((Object[]) element)[0], ((Object[]) element)[1]);
+      }
+    }
+  }
+
+  // an element, or a key and value pair if valueType isn't null
+  private static Object element(Type elementType, Type valueType)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    return valueType == null
+        ? instantiateElement(elementType)
+        : new Object[] {instantiateElement(elementType), instantiateElement(valueType)};
+  }
+
+  /*
+   * Whether a collection being filled gets another element: while its index is below a bound
+   * drawn again for each element, as always, and the element is expected to fit the session's
+   * budget.
+   */
+  private static boolean another(int index, Type elementType) {
+    return another(index, elementType, null);
+  }
+
+  // the same for a map entry
+  private static boolean another(int index, Type keyType, Type valueType) {
+    return index < random().nextInt(config().maxCollectionSize()) + 1
+        && fitsBudget(keyType, valueType);
+  }
+
+  private static boolean fitsBudget(Type elementType) {
+    return fitsBudget(elementType, null);
+  }
+
+  /*
+   * Whether a collection element, or a map key and value, is expected to fit the session's budget,
+   * see GenerationBudget
+   */
+  private static boolean fitsBudget(Type elementType, Type valueType) {
+    GenerationBudget budget = GenerationContext.current().budget();
+    return budget == null || budget.fits(elementType, valueType);
+  }
+
+  private static int sizeOf(Object container) {
+    return container instanceof Map
+        ? ((Map<?, ?>) container).size()
+        : ((Collection<?>) container).size();
+  }
+
+  private static Object instantiateElement(Type type)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (type instanceof ParameterizedType) {
+      return generateParameterizedTypeData(
+          ClassPlan.rawType(type), config().maxDepth(), (ParameterizedType) type);
+    }
+    return instantiate(ClassPlan.rawType(type));
   }
 
   /**
@@ -355,7 +930,417 @@ final class DataRizer {
    */
   static <T> T instantiate(Class<T> clazz)
       throws InvocationTargetException, IllegalAccessException, InstantiationException {
-    return instantiate(clazz, 2);
+    return instantiate(clazz, config().maxDepth());
+  }
+
+  /**
+   * Instantiate with a fixed seed. The same seed and config always produce the same object,
+   * including date and time values, which are generated relative to {@link
+   * GenerationContext#SEEDED_REFERENCE_TIME} instead of now.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param seed random seed
+   * @param <T> Class generic to instantiate
+   * @return instantiated object
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static <T> T instantiateSeeded(Class<T> clazz, long seed)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    return GenerationContext.seeded(seed).withConfig(config()).call(() -> instantiate(clazz));
+  }
+
+  /**
+   * Instantiate with a session config instead of the default settings, see {@link
+   * GenerationConfig}. The random and clock of the current context are kept.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param config config of the session
+   * @param <T> Class generic to instantiate
+   * @return instantiated object
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static <T> T instantiate(Class<T> clazz, GenerationConfig config)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    return GenerationContext.current().withConfig(config).call(() -> instantiate(clazz));
+  }
+
+  /**
+   * Expected number of objects and bytes of an instance of a class, worked out from its plan and
+   * the size settings of the current config without generating anything, see {@link SizeEstimate}
+   *
+   * @param clazz class to estimate
+   * @return expected objects and shallow bytes
+   */
+  static SizeEstimate estimate(Class<?> clazz) {
+    return config().estimate(clazz);
+  }
+
+  /**
+   * Expected size of an instance generated with a session config, see {@link #estimate(Class)}
+   *
+   * @param clazz class to estimate
+   * @param config config of the session
+   * @return expected objects and shallow bytes
+   */
+  static SizeEstimate estimate(Class<?> clazz, GenerationConfig config) {
+    return config.estimate(clazz);
+  }
+
+  /**
+   * Generate records into native memory instead of the heap, see {@link OffHeapLayout}
+   *
+   * @param clazz class whose fixed-width fields are generated
+   * @param count number of records
+   * @return records in a direct buffer, strings in a direct arena
+   * @throws DataRizerException if the class has no fixed-width fields or the records need more
+   *     than 2GB
+   */
+  static OffHeapRecords instantiateOffHeap(Class<?> clazz, int count) {
+    return OffHeapLayout.of(clazz).generate(count);
+  }
+
+  /**
+   * Deep copy of a generated object graph, much cheaper than generating another graph or a
+   * serialization round trip, see {@link CopyPlan}. Immutable leaves (text, numbers, dates, enums)
+   * are shared with the original, everything else is copied, and objects reached twice, cycles
+   * included, are copied once.
+   *
+   * @param original object to copy, null and leaf values are returned as they are
+   * @param <T> Class generic
+   * @return independent copy
+   * @throws DataRizerException if an object of the graph can't be copied, ie, a record
+   */
+  static <T> T copy(T original) {
+    return CopyPlan.copy(original);
+  }
+
+  /**
+   * Generate records as one array per field instead of one object per record, see {@link
+   * ColumnarBatch}
+   *
+   * @param clazz class whose fixed-width fields are generated
+   * @param size number of rows
+   * @return batch of columns
+   * @throws DataRizerException if the class has no fixed-width fields
+   */
+  static ColumnarBatch instantiateColumns(Class<?> clazz, int size) {
+    return ColumnarBatch.generate(clazz, size);
+  }
+
+  /**
+   * Write new random values into an existing instance instead of allocating a new one. Leaf fields
+   * (text, numbers, dates, enums) get new values, inside their Bean Validation constraints, while
+   * nested objects, list and array elements and map values are repopulated in place, so the object
+   * graph keeps its shape and, apart from new leaf values, nothing is allocated. Null fields stay
+   * null and collections keep their size. Set elements are taken out and re-added since their hash
+   * codes change; unmodifiable collections are left as they are.
+   *
+   * @param existing object to repopulate, null and leaf values are returned as they are
+   * @param <T> Class generic
+   * @return existing
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static <T> T repopulate(T existing)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (existing == null || ClassPlan.isLeaf(existing.getClass())) {
+      return existing;
+    }
+    IdentityHashMap<Object, Boolean> visited = VISITED.get();
+    try {
+      repopulateValue(existing, existing.getClass(), existing.getClass(), visited);
+    } finally {
+      // clear keeps the table, so repeated calls don't allocate
+      visited.clear();
+    }
+    return existing;
+  }
+
+  private static void repopulateFields(Object target, IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (FieldPlan field : ClassPlan.of(target.getClass()).fields()) {
+      Object current = field.get(target);
+      Object next =
+          current != null && ClassPlan.isLeaf(current.getClass())
+              ? replacementLeaf(current, field)
+              : repopulateValue(current, field.type(), field.genericType(), visited);
+      if (next != current) {
+        field.set(target, next);
+      }
+    }
+  }
+
+  /*
+   * New value for a slot holding current: a new leaf, or current itself after repopulating its
+   * fields or elements. Objects already visited in this call are returned as they are, so cycles
+   * end.
+   */
+  private static Object repopulateValue(
+      Object current, Class<?> declared, Type type, IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (current == null) {
+      return null;
+    } else if (ClassPlan.isLeaf(current.getClass())) {
+      return instantiate(leafClass(current, declared));
+    } else if (visited.put(current, Boolean.TRUE) != null) {
+      return current;
+    }
+    try {
+      if (current instanceof List) {
+        repopulateList((List<Object>) elements(current), ClassPlan.typeArgument(type, 0), visited);
+      } else if (current instanceof Collection) {
+        repopulateCollection(elements(current), ClassPlan.typeArgument(type, 0), visited);
+      } else if (current instanceof Map) {
+        Type valueType = ClassPlan.typeArgument(type, 1);
+        for (Map.Entry<Object, Object> entry : entries(current).entrySet()) {
+          Object value = entry.getValue();
+          Object next = repopulateValue(value, ClassPlan.rawType(valueType), valueType, visited);
+          if (next != value) {
+            entry.setValue(next);
+          }
+        }
+      } else if (current.getClass().isArray()) {
+        Class<?> component = current.getClass().getComponentType();
+        for (int i = 0; i < Array.getLength(current); i++) {
+          Object element = Array.get(current, i);
+          Object next = repopulateValue(element, component, component, visited);
+          if (next != element) {
+            Array.set(current, i, next);
+          }
+        }
+      } else {
+        repopulateFields(current, visited);
+      }
+    } catch (UnsupportedOperationException e) {
+      // unmodifiable collection, keep its elements
+    }
+    return current;
+  }
+
+  private static void repopulateList(
+      List<Object> list, Type elementType, IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Class<?> elementClass = ClassPlan.rawType(elementType);
+    if (list instanceof RandomAccess) {
+      for (int i = 0; i < list.size(); i++) {
+        Object element = list.get(i);
+        Object next = repopulateValue(element, elementClass, elementType, visited);
+        if (next != element) {
+          list.set(i, next);
+        }
+      }
+    } else {
+      for (ListIterator<Object> elements = list.listIterator(); elements.hasNext(); ) {
+        Object element = elements.next();
+        Object next = repopulateValue(element, elementClass, elementType, visited);
+        if (next != element) {
+          elements.set(next);
+        }
+      }
+    }
+  }
+
+  private static void repopulateCollection(
+      Collection<Object> collection, Type elementType, IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Object[] elements = collection.toArray();
+    collection.clear();
+    Class<?> elementClass = ClassPlan.rawType(elementType);
+    for (Object element : elements) {
+      collection.add(repopulateValue(element, elementClass, elementType, visited));
+    }
+  }
+
+  // new value for a leaf field, inside the field's constraints
+  private static Object replacementLeaf(Object current, FieldPlan field)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Class<?> leafClass = leafClass(current, field.type());
+    Object next = instantiateFromSource(leafClass, field);
+    if (next == UNCONSTRAINED) {
+      next = instantiateConstrained(leafClass, field.genericType(), field.constraints());
+    }
+    return next == UNCONSTRAINED ? instantiate(leafClass) : next;
+  }
+
+  /**
+   * Simulate an update: give a random fraction of an object's fields new values, in place. Leaf
+   * fields are replaced; for chosen collections, arrays, maps and nested objects the same fraction
+   * of their elements, values or fields is mutated in turn. Only chosen fields and elements are
+   * visited, so the cost is proportional to what changes rather than to the size of the graph,
+   * except that reaching the chosen entries of maps and sets walks their iterators. The number of
+   * mutated fields is rounded up or down at random so that on average exactly the fraction
+   * changes. Null values stay null.
+   *
+   * @param existing object to mutate, null and leaf values are returned as they are
+   * @param fraction fraction of fields and elements to change, from 0 to 1
+   * @param <T> Class generic
+   * @return existing
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static <T> T mutate(T existing, double fraction)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new DataRizerException("Mutation fraction must be between 0 and 1: " + fraction);
+    }
+    if (existing == null || ClassPlan.isLeaf(existing.getClass())) {
+      return existing;
+    }
+    IdentityHashMap<Object, Boolean> visited = VISITED.get();
+    try {
+      mutateValue(existing, existing.getClass(), existing.getClass(), fraction, visited);
+    } finally {
+      visited.clear();
+    }
+    return existing;
+  }
+
+  private static Object mutateValue(
+      Object current,
+      Class<?> declared,
+      Type type,
+      double fraction,
+      IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (current == null) {
+      return null;
+    } else if (ClassPlan.isLeaf(current.getClass())) {
+      return instantiate(leafClass(current, declared));
+    } else if (visited.put(current, Boolean.TRUE) != null) {
+      return current;
+    }
+    try {
+      if (current instanceof List) {
+        List<Object> list = (List<Object>) elements(current);
+        Type elementType = ClassPlan.typeArgument(type, 0);
+        int[] indexes = sample(list.size(), fraction);
+        // walked once in order, a LinkedList doesn't seek from its head for every index
+        ListIterator<Object> elements = list.listIterator();
+        for (int position = 0, next = 0; next < indexes.length; position++) {
+          Object element = elements.next();
+          if (position == indexes[next]) {
+            next++;
+            Object mutated =
+                mutateValue(
+                    element, ClassPlan.rawType(elementType), elementType, fraction, visited);
+            if (mutated != element) {
+              elements.set(mutated);
+            }
+          }
+        }
+      } else if (current instanceof Collection) {
+        mutateCollection(elements(current), ClassPlan.typeArgument(type, 0), fraction, visited);
+      } else if (current instanceof Map) {
+        mutateMap(entries(current), ClassPlan.typeArgument(type, 1), fraction, visited);
+      } else if (current.getClass().isArray()) {
+        Class<?> component = current.getClass().getComponentType();
+        for (int index : sample(Array.getLength(current), fraction)) {
+          Object element = Array.get(current, index);
+          Object next = mutateValue(element, component, component, fraction, visited);
+          if (next != element) {
+            Array.set(current, index, next);
+          }
+        }
+      } else {
+        List<FieldPlan> fields = ClassPlan.of(current.getClass()).fields();
+        for (int index : sample(fields.size(), fraction)) {
+          FieldPlan field = fields.get(index);
+          Object value = field.get(current);
+          Object next =
+              value != null && ClassPlan.isLeaf(value.getClass())
+                  ? replacementLeaf(value, field)
+                  : mutateValue(value, field.type(), field.genericType(), fraction, visited);
+          if (next != value) {
+            field.set(current, next);
+          }
+        }
+      }
+    } catch (UnsupportedOperationException e) {
+      // unmodifiable collection, keep its elements
+    }
+    return current;
+  }
+
+  // chosen elements are taken out and re-added, their hash codes change
+  private static void mutateCollection(
+      Collection<Object> collection,
+      Type elementType,
+      double fraction,
+      IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    int[] indexes = sample(collection.size(), fraction);
+    Object[] chosen = new Object[indexes.length];
+    Iterator<Object> elements = collection.iterator();
+    for (int position = 0, next = 0; next < indexes.length; position++) {
+      Object element = elements.next();
+      if (position == indexes[next]) {
+        chosen[next++] = element;
+        elements.remove();
+      }
+    }
+    Class<?> elementClass = ClassPlan.rawType(elementType);
+    for (Object element : chosen) {
+      collection.add(mutateValue(element, elementClass, elementType, fraction, visited));
+    }
+  }
+
+  // values of the chosen entries change, keys stay
+  private static void mutateMap(
+      Map<Object, Object> map,
+      Type valueType,
+      double fraction,
+      IdentityHashMap<Object, Boolean> visited)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    int[] indexes = sample(map.size(), fraction);
+    Class<?> valueClass = ClassPlan.rawType(valueType);
+    Iterator<Map.Entry<Object, Object>> entries = map.entrySet().iterator();
+    for (int position = 0, next = 0; next < indexes.length; position++) {
+      Map.Entry<Object, Object> entry = entries.next();
+      if (position == indexes[next]) {
+        next++;
+        Object value = entry.getValue();
+        Object mutated = mutateValue(value, valueClass, valueType, fraction, visited);
+        if (mutated != value) {
+          entry.setValue(mutated);
+        }
+      }
+    }
+  }
+
+  /*
+   * Sorted random sample of fraction * size distinct indexes, the count rounded up with a
+   * probability equal to its fractional part. Floyd's algorithm draws exactly one random number
+   * per chosen index; a bit set keeps the membership test constant and hands the indexes back in
+   * order.
+   */
+  private static int[] sample(int size, double fraction) {
+    double exact = fraction * size;
+    int count = (int) exact;
+    if (count < size && random().nextDouble() < exact - count) {
+      count++;
+    }
+    BitSet chosen = new BitSet(size);
+    for (int j = size - count; j < size; j++) {
+      int candidate = random().nextInt(j + 1);
+      chosen.set(chosen.get(candidate) ? j : candidate);
+    }
+    return chosen.stream().toArray();
+  }
+
+  // class of a replacement leaf: the primitive for primitive fields, else the current value's
+  private static Class<?> leafClass(Object current, Class<?> declared) {
+    if (declared.isPrimitive()) {
+      return declared;
+    } else if (current instanceof Enum) {
+      return ((Enum<?>) current).getDeclaringClass();
+    }
+    return current.getClass();
   }
 
   /**
@@ -369,28 +1354,108 @@ final class DataRizer {
    */
   private static <T> T instantiate(Class<T> clazz, int sameClassRecursion)
       throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationBudget budget = GenerationContext.current().budget();
+    if (budget != null) {
+      budget.spend(clazz);
+    }
+    if (!TYPE_SOURCES.isEmpty()) {
+      ValueSource source = TYPE_SOURCES.get(clazz);
+      if (source != null) {
+        // sources of a primitive type hand out its box, which Class.cast would reject
+        @SuppressWarnings("unchecked")
+        T value = (T) source.sample(clazz, random(), clock());
+        return value;
+      }
+    }
     T object = instantiateFromBaseObjects(clazz);
 
     if (Objects.isNull(object)) {
-      object = instantiateFromEnum(clazz);
-
-      // instantiate from constructor
-      if (Objects.isNull(object)) {
-        object = instantiateFromConstructor(clazz, sameClassRecursion);
+      ClassPlan<T> plan = ClassPlan.of(clazz);
+      GenerationConfig config = config();
+      // a class that failed before fails again at once, without a new stack trace
+      Throwable failure = plan.failure(config);
+      if (failure != null) {
+        rethrow(failure);
+      }
+      try {
+        object = instantiateFromPlan(plan, sameClassRecursion);
+      } catch (InvocationTargetException
+          | IllegalAccessException
+          | InstantiationException
+          | RuntimeException e) {
+        // running out of budget says nothing about the class
+        if (!(e instanceof GenerationBudget.Exceeded)) {
+          plan.failed(config, e);
+        }
+        throw e;
       }
+    }
+
+    return object;
+  }
+
+  // one of the exceptions instantiate throws, remembered by a plan
+  private static void rethrow(Throwable failure)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (failure instanceof InvocationTargetException) {
+      throw (InvocationTargetException) failure;
+    } else if (failure instanceof IllegalAccessException) {
+      throw (IllegalAccessException) failure;
+    } else if (failure instanceof InstantiationException) {
+      throw (InstantiationException) failure;
+    }
+    throw (RuntimeException) failure;
+  }
 
-      // builder pattern
-      if (Objects.isNull(object)) {
-        object = instantiateFromBuilderPattern(clazz, sameClassRecursion, "of");
+  private static <T> T instantiateFromPlan(ClassPlan<T> plan, int sameClassRecursion)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Class<T> clazz = plan.type();
+    T object = instantiateFromEnum(clazz);
+
+    // interfaces and abstract classes, as one of their implementations
+    if (Objects.isNull(object) && !clazz.getName().startsWith("java.")) {
+      Class<?>[] implementations = plan.implementations();
+      if (implementations.length > 0) {
+        // each resolution counts as a level so self-referencing hierarchies end
+        return sameClassRecursion > 0
+            ? clazz.cast(
+                instantiate(
+                    implementations[random().nextInt(implementations.length)],
+                    sameClassRecursion - 1))
+            : null;
       }
+    }
 
-      //     get setter methods and invoke
-      if (!(object instanceof Collection)) {
-        List<Method> methodList = getSetterMethods(object);
-        setMethodParameters(methodList, clazz, object, sameClassRecursion);
+    // the ways of creating the class that apply to it, in the order of the session's config
+    if (Objects.isNull(object)) {
+      for (GenerationConfig.Strategy strategy : config().strategies(plan)) {
+        switch (strategy) {
+          case GENERATOR:
+            // compile-time generated generator, see Datarize
+            return plan.generator().get().generate();
+          case CONSTRUCTOR:
+            object = instantiateFromConstructor(clazz, sameClassRecursion);
+            break;
+          case OF_FACTORY:
+            object = instantiateFromBuilderPattern(clazz, sameClassRecursion);
+            break;
+          case FLUENT_BUILDER:
+            // fluent builder, ie, Lombok's Builder
+            object = instantiateFromFluentBuilder(plan, sameClassRecursion);
+            break;
+          default:
+            throw new IllegalStateException(strategy.name());
+        }
+        if (!Objects.isNull(object)) {
+          break;
+        }
       }
     }
 
+    //     get setter methods and invoke
+    if (!Objects.isNull(object) && !(object instanceof Collection)) {
+      setMethodParameters(getSetterMethods(object), clazz, object, sameClassRecursion);
+    }
     return object;
   }
 
@@ -409,67 +1474,109 @@ final class DataRizer {
    */
   private static <T> T instantiateFromConstructor(Class<T> clazz, int sameClassRecursion)
       throws InvocationTargetException, InstantiationException, IllegalAccessException {
+    ClassPlan<T> plan = ClassPlan.of(clazz);
     // look for public empty constructors
-    Optional<Constructor<?>> any =
-        Arrays.stream(clazz.getDeclaredConstructors())
-            .filter(
-                constructor ->
-                    constructor.getParameterCount() == 0
-                        && (constructor.getModifiers() & Modifier.PRIVATE) != Modifier.PRIVATE)
-            .findAny();
-    if (any.isPresent()) {
-      return (T) any.get().newInstance();
+    if (plan.noArgConstructor() != null) {
+      return (T) plan.noArgConstructor().newInstance();
     }
 
     // if empty constructors are not found then look for other options
-    for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
-      if ((constructor.getModifiers() & Modifier.PUBLIC) != 0) {
-        Type[] types = constructor.getGenericParameterTypes();
-        Object[] constructorParameters = new Object[constructor.getParameterCount()];
-        for (int i = 0; i < constructorParameters.length; i++) {
-          Class<?> basicType = constructor.getParameters()[i].getType();
-          Type possibleParameterizedType = types[i];
-          if (possibleParameterizedType instanceof ParameterizedType) {
-            constructorParameters[i] =
-                generateParameterizedTypeData(
-                    clazz, sameClassRecursion, (ParameterizedType) possibleParameterizedType);
-          } else {
-            constructorParameters[i] = instantiate(basicType);
-          }
+    Constructor<?> constructor = plan.publicConstructor();
+    if (constructor != null) {
+      Type[] types = plan.constructorGenericParameterTypes();
+      Class<?>[] basicTypes = plan.constructorParameterTypes();
+      Constraints[] constraints = plan.constructorConstraints();
+      FieldPlan[] fields = plan.constructorFields();
+      Object[] constructorParameters = new Object[basicTypes.length];
+      for (int i = 0; i < constructorParameters.length; i++) {
+        Type possibleParameterizedType = types[i];
+        Object constrained = instantiateFromSource(basicTypes[i], fields[i]);
+        if (constrained == UNCONSTRAINED) {
+          constrained =
+              instantiateConstrained(basicTypes[i], possibleParameterizedType, constraints[i]);
+        }
+        if (constrained != UNCONSTRAINED) {
+          constructorParameters[i] = constrained;
+        } else if (possibleParameterizedType instanceof ParameterizedType) {
+          constructorParameters[i] =
+              generateParameterizedTypeData(
+                  clazz, sameClassRecursion, (ParameterizedType) possibleParameterizedType);
+        } else {
+          constructorParameters[i] = instantiate(basicTypes[i]);
         }
-        return (T) constructor.newInstance(constructorParameters);
       }
+      return (T) constructor.newInstance(constructorParameters);
     }
     return null;
   }
 
   /**
-   * Instantiate following a builder pattern.
+   * Instantiate following a builder pattern, using the static "of" factory of the class.
    *
    * @param clazz Class object wrapping the generic
    * @param sameClassRecursion number of times to run recursion. Throws exception if runs past
    *     recursion number
-   * @param args Builder methods names to use
    * @param <T> Generic class
    * @return Instantiated class
    */
-  private static <T> T instantiateFromBuilderPattern(
-          Class<T> clazz, int sameClassRecursion, String... args) {
-    Method method = getStaticBuilderMethods(clazz, List.of(args));
+  private static <T> T instantiateFromBuilderPattern(Class<T> clazz, int sameClassRecursion) {
+    Method method = ClassPlan.of(clazz).ofBuilder();
     if (!Objects.isNull(method)) {
       try {
         return (T) method.invoke(null, generateMethodParametersData(method, sameClassRecursion));
       } catch (InvocationTargetException | IllegalAccessException | InstantiationException ite) {
+        // chained rather than appended to the message, the cause keeps its own stack trace
         throw new DataRizerException(
-            "Recursion value: "
-                + sameClassRecursion
-                + ", if zero may have been cause by NPE, "
-                + ite);
+            "Recursion value: " + sameClassRecursion + ", if zero may have been cause by NPE", ite);
       }
     }
     return null;
   }
 
+  /**
+   * Instantiate through the fluent builder of the class: builder(), one generated value per field
+   * method, then build(). The chain is discovered once, see {@link ClassPlan#fluentBuilder()}.
+   *
+   * @param plan plan of the class
+   * @param sameClassRecursion if the class is self-referential how many recursive calls should be
+   *     made before returning null
+   * @param <T> Generic class
+   * @return built instance, null if the class has no fluent builder
+   * @throws InvocationTargetException if the builder throws
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  private static <T> T instantiateFromFluentBuilder(ClassPlan<T> plan, int sameClassRecursion)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Optional<BuilderPlan> builderPlan = plan.fluentBuilder();
+    if (builderPlan.isEmpty()) {
+      return null;
+    }
+    Class<T> clazz = plan.type();
+    Object builder = builderPlan.get().newBuilder();
+    for (BuilderPlan.Step step : builderPlan.get().steps()) {
+      Class<?> type = step.field().type();
+      Type genericType = step.parameterType();
+      Object value = instantiateFromSource(type, step.field());
+      if (value == UNCONSTRAINED) {
+        value = instantiateConstrained(type, genericType, step.constraints());
+      }
+      if (value == UNCONSTRAINED) {
+        if (type == clazz) {
+          value = sameClassRecursion > 0 ? instantiate(clazz, sameClassRecursion - 1) : null;
+        } else if (genericType instanceof ParameterizedType) {
+          value =
+              generateParameterizedTypeData(
+                  clazz, sameClassRecursion, (ParameterizedType) genericType);
+        } else {
+          value = instantiate(type);
+        }
+      }
+      builder = step.apply(builder, value);
+    }
+    return clazz.cast(builderPlan.get().build(builder));
+  }
+
   /**
    * Designed to get a Map with supplied key and value types
    *
@@ -489,19 +1596,21 @@ final class DataRizer {
       throws InvocationTargetException, InstantiationException, IllegalAccessException {
     if (Map.class == collectionClazz) {
       var map = new HashMap<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
+      for (int i = 0; another(i, clazzKey, clazzValue); i++) {
         map.put(instantiate(clazzKey), instantiate(clazzValue));
       }
       return map;
     } else if (Map.class.isAssignableFrom(collectionClazz)) {
-      Map map = (Map) instantiateFromConstructor(collectionClazz, 2);
+      Map map = (Map) instantiateFromConstructor(collectionClazz, config().maxDepth());
       Optional<Method> put =
           Arrays.stream(map.getClass().getMethods())
               .filter(method -> method.getName().equals("put"))
               .filter(method -> (method.getModifiers() & Modifier.PUBLIC) == Modifier.PUBLIC)
               .findAny();
       if (put.isPresent()) {
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0;
+            i < config().maxCollectionSize() && fitsBudget(clazzKey, clazzValue);
+            i++) {
           put.get()
               .invoke(
                   map,
@@ -531,13 +1640,13 @@ final class DataRizer {
       throws InvocationTargetException, InstantiationException, IllegalAccessException {
     if (List.class == collectionClazz) {
       var list = new ArrayList<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
+      for (int i = 0; another(i, valueClazz); i++) {
         var setData = instantiate(valueClazz);
         list.add(setData);
       }
       return (Collection) list;
     } else if (List.class.isAssignableFrom(collectionClazz)) {
-      List list = (List) instantiateFromConstructor(collectionClazz, 2);
+      List list = (List) instantiateFromConstructor(collectionClazz, config().maxDepth());
       Optional<Method> add =
           Arrays.stream(list.getClass().getMethods())
               .filter(method -> method.getName().equals("add"))
@@ -547,7 +1656,7 @@ final class DataRizer {
                           && method.getParameters().length == 1)
               .findAny();
       if (add.isPresent()) {
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < config().maxCollectionSize() && fitsBudget(valueClazz); i++) {
           add.get().invoke(list, DataRizer.instantiate(valueClazz));
         }
       }
@@ -555,12 +1664,12 @@ final class DataRizer {
 
     } else if (Set.class == collectionClazz) {
       var set = new HashSet<>();
-      for (int i = 0; i < RANDOM.nextInt(MAX_RANDOM_LIST_LENGTH) + 1; i++) {
+      for (int i = 0; another(i, valueClazz); i++) {
         set.add(instantiate(valueClazz));
       }
       return (Collection) set;
     } else if (Set.class.isAssignableFrom(collectionClazz)) {
-      Set list = (Set) instantiateFromConstructor(collectionClazz, 2);
+      Set list = (Set) instantiateFromConstructor(collectionClazz, config().maxDepth());
       Optional<Method> add =
           Arrays.stream(list.getClass().getMethods())
               .filter(method -> method.getName().equals("add"))
@@ -570,7 +1679,7 @@ final class DataRizer {
                           && method.getParameters().length == 1)
               .findAny();
       if (add.isPresent()) {
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < config().maxCollectionSize() && fitsBudget(valueClazz); i++) {
           add.get().invoke(list, DataRizer.instantiate(valueClazz));
         }
       }
@@ -579,6 +1688,75 @@ final class DataRizer {
     throw new DataRizerException("Unknown Collection and type to instantiate:");
   }
 
+  /**
+   * Build and cache the plans of classes ahead of time, together with the plans of the classes
+   * their constructors, setters and fields refer to, so the first real generation doesn't pay for
+   * reflection scans. Optionally run throw-away generations so the JIT has compiled the generation
+   * path before it matters. Failures of the throw-away generations are ignored.
+   *
+   * @param classes classes to warm up
+   * @param iterations throw-away generations per class, 0 to only build plans
+   * @param parallel warm classes up in parallel on the common fork-join pool
+   * @return number of classes planned, including referenced classes
+   */
+  static int warmUp(java.util.Collection<Class<?>> classes, int iterations, boolean parallel) {
+    Set<Class<?>> planned = ConcurrentHashMap.newKeySet();
+    (parallel ? classes.parallelStream() : classes.stream())
+        .forEach(
+            clazz -> {
+              plan(clazz, planned);
+              for (int i = 0; i < iterations; i++) {
+                try {
+                  instantiate(clazz);
+                } catch (Exception e) {
+                  // warm-up only, the class may not be instantiable
+                }
+              }
+            });
+    return planned.size();
+  }
+
+  /**
+   * Warm up every named class of a package and its sub-packages, see {@link
+   * #warmUp(java.util.Collection, int, boolean)}. Throw-away generations run constructors and
+   * setters of every class found, so only use iterations on packages of data classes.
+   *
+   * @param packageName package to scan (ie, com.acme.model)
+   * @param iterations throw-away generations per class, 0 to only build plans
+   * @param parallel warm classes up in parallel on the common fork-join pool
+   * @return classes found in the package
+   */
+  static List<Class<?>> warmUp(String packageName, int iterations, boolean parallel) {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    List<Class<?>> classes =
+        ClassPathScanner.classes(
+            loader == null ? DataRizer.class.getClassLoader() : loader, packageName);
+    warmUp(classes, iterations, parallel);
+    return classes;
+  }
+
+  // Plan a class and, outside of the JDK, the classes it is built from
+  private static void plan(Class<?> clazz, Set<Class<?>> planned) {
+    if (clazz.isPrimitive() || clazz.isArray() || !planned.add(clazz)) {
+      return;
+    }
+    ClassPlan<?> plan = ClassPlan.of(clazz);
+    if (clazz.getName().startsWith("java.") || ClassPlan.isLeaf(clazz)) {
+      return;
+    }
+    List<Type> references = new ArrayList<>();
+    references.addAll(Arrays.asList(plan.constructorGenericParameterTypes()));
+    plan.setters().forEach(setter -> references.addAll(Arrays.asList(setter.parameterTypes())));
+    plan.fields().forEach(field -> references.add(field.genericType()));
+    while (!references.isEmpty()) {
+      Type type = references.remove(references.size() - 1);
+      if (type instanceof ParameterizedType) {
+        references.addAll(Arrays.asList(((ParameterizedType) type).getActualTypeArguments()));
+      }
+      plan(ClassPlan.rawType(type), planned);
+    }
+  }
+
   private static <Z> List<Z> visitCollection(Class<Z> clazz) {
     return null;
   }
@@ -0,0 +1,133 @@
+package com.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client of a {@link DataRizerServer}, mirroring {@link DataRizer#instantiate(Class)}. Records are
+ * generated by the server and decoded here, so the generated classes must be on both class paths.
+ * A client holds one connection; calls are serialized.
+ *
+ * <pre>
+ * try (DataRizerClient client = DataRizerClient.connect(socket)) {
+ *   List&lt;Order&gt; orders = client.instantiate(Order.class, 500);
+ * }
+ * </pre>
+ */
+final class DataRizerClient implements Closeable {
+
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+
+  private final SocketChannel channel;
+  private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+  private ByteBuffer response = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+  private DataRizerClient(SocketChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Connect to a running server
+   *
+   * @param socket socket file of the server
+   * @return connected client
+   * @throws IOException if no server is listening
+   */
+  static DataRizerClient connect(Path socket) throws IOException {
+    return new DataRizerClient(SocketChannel.open(UnixDomainSocketAddress.of(socket)));
+  }
+
+  /**
+   * Generate one object on the server
+   *
+   * @param clazz Class object wrapping the generic
+   * @param <T> Class generic to instantiate
+   * @return instantiated object
+   * @throws IOException if the connection fails
+   * @throws DataRizerException if the server couldn't generate the class
+   */
+  <T> T instantiate(Class<T> clazz) throws IOException {
+    return instantiate(clazz, 1).get(0);
+  }
+
+  /**
+   * Generate a batch on the server
+   *
+   * @param clazz Class object wrapping the generic
+   * @param count number of objects, at most {@link DataRizerServer#MAX_BATCH}
+   * @param <T> Class generic to instantiate
+   * @return instantiated objects
+   * @throws IOException if the connection fails
+   * @throws DataRizerException if the server couldn't generate the class
+   */
+  <T> List<T> instantiate(Class<T> clazz, int count) throws IOException {
+    return request(clazz, count, false, 0);
+  }
+
+  /**
+   * Generate a batch on the server with a fixed seed. The batch is the same as generating count
+   * objects one after the other inside {@link GenerationContext#seeded(long)}.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param count number of objects, at most {@link DataRizerServer#MAX_BATCH}
+   * @param seed random seed
+   * @param <T> Class generic to instantiate
+   * @return instantiated objects
+   * @throws IOException if the connection fails
+   * @throws DataRizerException if the server couldn't generate the class
+   */
+  <T> List<T> instantiateSeeded(Class<T> clazz, int count, long seed) throws IOException {
+    return request(clazz, count, true, seed);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private synchronized <T> List<T> request(Class<T> clazz, int count, boolean seeded, long seed)
+      throws IOException {
+    byte[] name = clazz.getName().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer request =
+        ByteBuffer.allocate(
+            Integer.BYTES + Short.BYTES + name.length + Integer.BYTES + 1 + Long.BYTES);
+    request.putInt(request.capacity() - Integer.BYTES);
+    request.putShort((short) name.length).put(name);
+    request.putInt(count).put((byte) (seeded ? 1 : 0)).putLong(seed);
+    request.flip();
+    while (request.hasRemaining()) {
+      channel.write(request);
+    }
+
+    if (!DataRizerServer.readFully(channel, header.clear())) {
+      throw new IOException("Server closed the connection");
+    }
+    int length = header.flip().getInt();
+    if (response.capacity() < length) {
+      response = ByteBuffer.allocate(Math.max(length, response.capacity() * 2));
+    }
+    response.clear().limit(length);
+    if (!DataRizerServer.readFully(channel, response)) {
+      throw new IOException("Server closed the connection");
+    }
+    response.flip();
+    if (response.get() == DataRizerServer.ERROR) {
+      byte[] message = new byte[response.getInt()];
+      response.get(message);
+      throw new DataRizerException(new String(message, StandardCharsets.UTF_8));
+    }
+    int records = response.getInt();
+    List<T> decoded = new ArrayList<>(records);
+    for (int i = 0; i < records; i++) {
+      decoded.add(BinaryRecordDecoder.readRecord(response, clazz));
+    }
+    return decoded;
+  }
+}
@@ -9,4 +9,8 @@ public class DataRizerException extends RuntimeException {
   DataRizerException(Throwable cause) {
     super(cause);
   }
+
+  DataRizerException(String message, Throwable cause) {
+    super(message, cause);
+  }
 }
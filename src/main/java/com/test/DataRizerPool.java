@@ -0,0 +1,110 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+
+/**
+ * Recycles generated objects for long running tests. {@link #acquire()} hands out a released
+ * object after {@link DataRizer#repopulate(Object)} gave it new values, and only generates a new
+ * one when the pool is empty; so once enough objects circulate, steady-state generation allocates
+ * nothing but new leaf values (strings, boxed numbers, dates).
+ *
+ * <pre>
+ * DataRizerPool&lt;Order&gt; orders = new DataRizerPool&lt;&gt;(Order.class, 1_024);
+ * Order order = orders.acquire();
+ * send(order);
+ * orders.release(order);
+ * </pre>
+ *
+ * <p>Safe to share between threads; repopulation runs outside of the pool's lock.
+ *
+ * @param <T> pooled class
+ */
+final class DataRizerPool<T> {
+
+  private final Class<T> clazz;
+  private final int capacity;
+  private final ArrayDeque<T> free;
+  private long created;
+  private long reused;
+
+  /**
+   * @param clazz Class object wrapping the generic
+   * @param capacity most released objects kept, extra ones are left to the garbage collector
+   */
+  DataRizerPool(Class<T> clazz, int capacity) {
+    if (capacity < 1) {
+      throw new DataRizerException("Pool capacity must be positive: " + capacity);
+    }
+    this.clazz = clazz;
+    this.capacity = capacity;
+    this.free = new ArrayDeque<>(capacity);
+  }
+
+  /**
+   * Take a repopulated object from the pool, or generate one if the pool is empty
+   *
+   * @return object with fresh random values
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  T acquire() throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    T object;
+    synchronized (this) {
+      object = free.pollFirst();
+      if (object == null) {
+        created++;
+      } else {
+        reused++;
+      }
+    }
+    return object == null ? DataRizer.instantiate(clazz) : DataRizer.repopulate(object);
+  }
+
+  /**
+   * Hand an object back once the caller no longer uses it
+   *
+   * @param object object from {@link #acquire()}
+   * @return true if it was kept, false if the pool was full
+   */
+  boolean release(T object) {
+    if (object == null) {
+      return false;
+    }
+    synchronized (this) {
+      if (free.size() == capacity) {
+        return false;
+      }
+      free.addFirst(object);
+      return true;
+    }
+  }
+
+  /**
+   * Number of released objects waiting in the pool
+   *
+   * @return pooled object count
+   */
+  synchronized int size() {
+    return free.size();
+  }
+
+  /**
+   * Number of objects generated because the pool was empty
+   *
+   * @return created count
+   */
+  synchronized long created() {
+    return created;
+  }
+
+  /**
+   * Number of acquisitions served by repopulating a released object
+   *
+   * @return reused count
+   */
+  synchronized long reused() {
+    return reused;
+  }
+}
@@ -0,0 +1,175 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} of generated objects. Nothing is generated ahead of demand: every
+ * subscriber gets its own stream of {@code count} objects, generated on the executor in batches
+ * of at most {@code maxBatchSize} objects, or of the outstanding demand if that is smaller, and
+ * delivered before the next batch is generated. At most one batch per subscriber is buffered.
+ *
+ * <pre>
+ * DataRizerPublisher&lt;Cat&gt; cats = new DataRizerPublisher&lt;&gt;(Cat.class, 1_000_000);
+ * cats.subscribe(subscriber);
+ * </pre>
+ *
+ * @param <T> published class
+ */
+final class DataRizerPublisher<T> implements Flow.Publisher<T> {
+
+  static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+  private final Class<T> clazz;
+  private final long count;
+  private final Executor executor;
+  private final int maxBatchSize;
+
+  /**
+   * Publisher generating on the common fork-join pool with the default batch size
+   *
+   * @param clazz Class object wrapping the generic
+   * @param count objects per subscriber, Long.MAX_VALUE for an endless stream
+   */
+  DataRizerPublisher(Class<T> clazz, long count) {
+    this(clazz, count, ForkJoinPool.commonPool(), DEFAULT_MAX_BATCH_SIZE);
+  }
+
+  /**
+   * @param clazz Class object wrapping the generic
+   * @param count objects per subscriber, Long.MAX_VALUE for an endless stream
+   * @param executor runs generation and delivery
+   * @param maxBatchSize most objects generated, and buffered, at once per subscriber
+   */
+  DataRizerPublisher(Class<T> clazz, long count, Executor executor, int maxBatchSize) {
+    if (count < 0 || maxBatchSize < 1) {
+      throw new DataRizerException(
+          "Invalid count " + count + " or batch size " + maxBatchSize + " of publisher");
+    }
+    this.clazz = Objects.requireNonNull(clazz);
+    this.count = count;
+    this.executor = Objects.requireNonNull(executor);
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber);
+    GenerationSubscription subscription = new GenerationSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    if (count == 0) {
+      subscription.schedule();
+    }
+  }
+
+  /*
+   * Demand is accumulated in requested and drained by a single task at a time: whoever moves wip
+   * from 0 schedules the drain, everyone else only increments it so the running drain loops again.
+   */
+  private final class GenerationSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    // reused for every batch, cleared as it's delivered
+    private final List<T> batch = new ArrayList<>();
+    private long emitted;
+    private boolean done;
+
+    GenerationSubscription(Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+      } else {
+        requested.getAndAccumulate(n, (current, add) -> addCapped(current, add));
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+
+    void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          executor.execute(this::drain);
+        } catch (RuntimeException e) {
+          cancelled = true;
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      do {
+        if (!done && !cancelled) {
+          emit();
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      if (invalidRequest != null) {
+        terminate(invalidRequest);
+        return;
+      }
+      long demand = requested.get();
+      while (demand > 0 && emitted < count && !cancelled) {
+        int size = (int) Math.min(Math.min(demand, count - emitted), maxBatchSize);
+        try {
+          for (int i = 0; i < size; i++) {
+            batch.add(DataRizer.instantiate(clazz));
+          }
+        } catch (InvocationTargetException
+            | IllegalAccessException
+            | InstantiationException
+            | RuntimeException e) {
+          terminate(e);
+          return;
+        }
+        for (T next : batch) {
+          if (!cancelled) {
+            subscriber.onNext(next);
+          }
+        }
+        batch.clear();
+        emitted += size;
+        demand = requested.addAndGet(-size);
+      }
+      if (emitted == count && !cancelled) {
+        done = true;
+        subscriber.onComplete();
+      }
+    }
+
+    private void terminate(Throwable error) {
+      done = true;
+      cancelled = true;
+      batch.clear();
+      subscriber.onError(error);
+    }
+  }
+
+  // demand saturates at Long.MAX_VALUE, which means unbounded
+  private static long addCapped(long current, long add) {
+    long sum = current + add;
+    return sum < 0 ? Long.MAX_VALUE : sum;
+  }
+}
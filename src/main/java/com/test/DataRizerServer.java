@@ -0,0 +1,275 @@
+package com.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived local generation service. Short-lived processes (ie, CI jobs) pay class loading,
+ * reflection scans and JIT warm-up on every start; the server pays them once and keeps its class
+ * plans and generators warm, and clients get batches of records from it over a Unix domain socket,
+ * see {@link DataRizerClient}.
+ *
+ * <p>Only classes of the packages the server was started with are generated. The socket file is
+ * created with the process's umask, so it should live in a directory only the intended users can
+ * reach.
+ *
+ * <p>Each request is a length-prefixed frame: the class name (short length and UTF-8 bytes), the
+ * record count, a seeded flag byte and the seed. Each response is a length-prefixed frame: {@link
+ * #OK}, the record count and the records in {@link RecordFormat#BINARY} format, or {@link #ERROR}
+ * and a message (int length and UTF-8 bytes). A connection can send any number of requests, one
+ * at a time.
+ *
+ * <pre>
+ * java -cp app.jar:datarizer.jar com.test.DataRizerServer /run/user/1000/datarizer.sock com.acme
+ * </pre>
+ */
+final class DataRizerServer implements Closeable {
+
+  static final byte OK = 0;
+  static final byte ERROR = 1;
+  /** Largest number of records in one response. */
+  static final int MAX_BATCH = 1_000_000;
+
+  // a class name, a count and a seed, anything larger isn't a request
+  private static final int MAX_REQUEST_BYTES = 64 * 1024;
+  private static final int SINK_CAPACITY = 64 * 1024;
+
+  private final Path socket;
+  private final List<String> packages;
+  private final ClassLoader loader;
+  // config of the thread that started the server, connections generate under it
+  private final GenerationConfig config;
+  private final ServerSocketChannel server;
+  private final Thread acceptor;
+  private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+  private volatile boolean running = true;
+
+  private DataRizerServer(Path socket, List<String> packages, ServerSocketChannel server) {
+    this.socket = socket;
+    this.packages = packages;
+    this.loader = DataRizerServer.class.getClassLoader();
+    this.config = GenerationContext.current().config();
+    this.server = server;
+    this.acceptor = new Thread(this::accept, "datarizer-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Start serving on a socket file. A file left behind by a server that's gone is replaced.
+   *
+   * @param socket socket file path
+   * @param packages packages whose classes (sub-packages included) may be generated
+   * @return running server
+   * @throws IOException if the socket can't be bound
+   * @throws DataRizerException if there are no packages or another server is listening already
+   */
+  static DataRizerServer start(Path socket, List<String> packages) throws IOException {
+    if (packages.isEmpty()) {
+      throw new DataRizerException("At least one package must be served");
+    }
+    if (Files.exists(socket)) {
+      boolean listening;
+      try (SocketChannel probe = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+        listening = probe.isConnected();
+      } catch (IOException e) {
+        listening = false;
+      }
+      if (listening) {
+        throw new DataRizerException("A server is already listening on " + socket);
+      }
+      // nobody is listening, the file is stale
+      Files.delete(socket);
+    }
+    ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    try {
+      server.bind(UnixDomainSocketAddress.of(socket));
+    } catch (IOException e) {
+      server.close();
+      throw e;
+    }
+    return new DataRizerServer(socket, List.copyOf(packages), server);
+  }
+
+  /**
+   * Run a server until the process is stopped
+   *
+   * @param args socket file path followed by the served packages
+   * @throws IOException if the socket can't be bound
+   * @throws InterruptedException if interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 2) {
+      System.err.println("Usage: DataRizerServer <socket> <package>...");
+      System.exit(2);
+    }
+    DataRizerServer server =
+        start(Path.of(args[0]), Arrays.asList(args).subList(1, args.length));
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    server.acceptor.join();
+  }
+
+  Path socket() {
+    return socket;
+  }
+
+  /** Stop accepting, disconnect the clients and remove the socket file. */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      server.close();
+      for (SocketChannel client : clients) {
+        client.close();
+      }
+      acceptor.join();
+      Files.deleteIfExists(socket);
+    } catch (IOException e) {
+      throw new DataRizerException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void accept() {
+    while (running) {
+      SocketChannel client;
+      try {
+        client = server.accept();
+      } catch (IOException e) {
+        // closed
+        return;
+      }
+      clients.add(client);
+      Thread connection = new Thread(() -> serve(client), "datarizer-server-client");
+      connection.setDaemon(true);
+      connection.start();
+    }
+  }
+
+  private void serve(SocketChannel client) {
+    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    ByteSink sink = new ByteSink(SINK_CAPACITY);
+    RecordEncoder encoder = RecordFormat.BINARY.newEncoder();
+    // a random per connection, so clients don't contend on the shared one
+    GenerationContext context = GenerationContext.independent();
+    try (client) {
+      while (running && readFully(client, header.clear())) {
+        int length = header.flip().getInt();
+        if (length < 0 || length > MAX_REQUEST_BYTES) {
+          respondError(client, sink, "Invalid request length " + length);
+          return;
+        }
+        ByteBuffer request = ByteBuffer.allocate(length);
+        if (!readFully(client, request)) {
+          return;
+        }
+        respond(client, request.flip(), sink, encoder, context);
+      }
+    } catch (IOException e) {
+      // the client went away or the server closed, nothing to answer
+    } finally {
+      clients.remove(client);
+    }
+  }
+
+  private void respond(
+      SocketChannel client,
+      ByteBuffer request,
+      ByteSink sink,
+      RecordEncoder encoder,
+      GenerationContext context)
+      throws IOException {
+    sink.clear();
+    sink.putInt(0);
+    try {
+      byte[] name = new byte[Short.toUnsignedInt(request.getShort())];
+      request.get(name);
+      Class<?> clazz = served(new String(name, StandardCharsets.UTF_8));
+      int count = request.getInt();
+      boolean seeded = request.get() != 0;
+      long seed = request.getLong();
+      if (count < 0 || count > MAX_BATCH) {
+        throw new DataRizerException("Batch size must be between 0 and " + MAX_BATCH);
+      }
+      ClassPlan<?> plan = ClassPlan.of(clazz);
+      sink.put(OK);
+      sink.putInt(count);
+      (seeded ? GenerationContext.seeded(seed) : context)
+          .withConfig(config)
+          .call(
+              () -> {
+                for (int i = 0; i < count; i++) {
+                  encoder.encode(DataRizer.instantiate(clazz), plan, sink);
+                }
+                return null;
+              });
+    } catch (Exception | LinkageError e) {
+      respondError(client, sink, e.toString());
+      return;
+    }
+    send(client, sink);
+  }
+
+  private void respondError(SocketChannel client, ByteSink sink, String message)
+      throws IOException {
+    sink.clear();
+    sink.putInt(0);
+    sink.put(ERROR);
+    sink.putInt(ByteSink.utf8Length(message));
+    sink.putUtf8(message);
+    send(client, sink);
+  }
+
+  private static void send(SocketChannel client, ByteSink sink) throws IOException {
+    int length = sink.position() - Integer.BYTES;
+    sink.putInt(0, length);
+    ByteBuffer frame = sink.flip();
+    while (frame.hasRemaining()) {
+      client.write(frame);
+    }
+    sink.clear();
+  }
+
+  private Class<?> served(String name) throws ClassNotFoundException {
+    for (String served : packages) {
+      if (name.startsWith(served + ".")) {
+        return Class.forName(name, true, loader);
+      }
+    }
+    throw new DataRizerException(name + " isn't in a served package");
+  }
+
+  /**
+   * Fill a buffer from a channel
+   *
+   * @param channel source
+   * @param buffer buffer to fill
+   * @return false if the channel ended before the first byte
+   * @throws IOException if the channel fails or ends in the middle of the buffer
+   */
+  static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        if (buffer.position() > 0) {
+          throw new IOException("Connection closed in the middle of a frame");
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+}
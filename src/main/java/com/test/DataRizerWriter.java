@@ -0,0 +1,186 @@
+package com.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams generated records straight to a file. Each record is generated, encoded into a reusable
+ * direct buffer and dropped, and the buffer is written to a {@link FileChannel} every {@code
+ * batchSize} records, so no more than one batch is ever held in memory. A file holds records of
+ * one class, the class of the first record written, under a single header.
+ *
+ * <pre>
+ * try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.JSON_LINES)) {
+ *   writer.write(Cat.class, 1_000_000);
+ * }
+ * </pre>
+ */
+final class DataRizerWriter implements Closeable {
+
+  static final int DEFAULT_BATCH_SIZE = 1_000;
+  private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+
+  private final WritableByteChannel channel;
+  private final RecordEncoder encoder;
+  private final int batchSize;
+  private final ByteSink sink = new ByteSink(INITIAL_BUFFER_SIZE);
+  private ClassPlan<?> plan;
+  private boolean headerWritten;
+  private int pending;
+  private long written;
+
+  /**
+   * Writer with the default batch size and no compression
+   *
+   * @param path file to create or truncate
+   * @param format output format
+   * @throws IOException if the file can't be opened
+   */
+  DataRizerWriter(Path path, RecordFormat format) throws IOException {
+    this(path, format, DEFAULT_BATCH_SIZE, false);
+  }
+
+  /**
+   * @param path file to create or truncate
+   * @param format output format
+   * @param batchSize number of records encoded before the buffer is written to disk
+   * @param gzip gzip the output
+   * @throws IOException if the file can't be opened
+   */
+  DataRizerWriter(Path path, RecordFormat format, int batchSize, boolean gzip)
+      throws IOException {
+    if (batchSize < 1) {
+      throw new DataRizerException("Batch size must be positive: " + batchSize);
+    }
+    FileChannel file =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    this.channel = gzip ? new GzipChannel(file) : file;
+    this.encoder = format.newEncoder();
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Generate and write records of the given class
+   *
+   * @param clazz Class object wrapping the generic
+   * @param count number of records to generate
+   * @param <T> Class generic to instantiate
+   * @return number of records written
+   * @throws IOException if writing fails
+   * @throws DataRizerException if records of another class were written before
+   */
+  <T> long write(Class<T> clazz, long count) throws IOException {
+    ClassPlan<T> plan = ClassPlan.of(clazz);
+    for (long i = 0; i < count; i++) {
+      write(generate(clazz), plan);
+    }
+    return count;
+  }
+
+  /**
+   * Generate and write the records of one shard of a global generation. Only the first shard
+   * writes the format header, so the uncompressed files of all shards, concatenated in shard
+   * order, are byte for byte the output of {@link Shard#single(long, long)}. Gzipped shard files
+   * concatenate into a valid multi-member gzip file instead.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param shard range of records to generate
+   * @param <T> Class generic to instantiate
+   * @return number of records written
+   * @throws IOException if writing fails
+   * @throws DataRizerException if records of another class were written before
+   */
+  <T> long write(Class<T> clazz, Shard shard) throws IOException {
+    ClassPlan<T> plan = ClassPlan.of(clazz);
+    if (shard.index() > 0) {
+      headerWritten = true;
+    }
+    for (long i = shard.from(); i < shard.to(); i++) {
+      write(shard.generate(clazz, i), plan);
+    }
+    return shard.size();
+  }
+
+  /**
+   * Write an already generated record
+   *
+   * @param record object to write
+   * @throws IOException if writing fails
+   * @throws DataRizerException if the record's class isn't the class of the records written before
+   */
+  void write(Object record) throws IOException {
+    write(record, ClassPlan.of(record.getClass()));
+  }
+
+  private void write(Object record, ClassPlan<?> plan) throws IOException {
+    if (this.plan == null) {
+      this.plan = plan;
+    } else if (this.plan != plan) {
+      // the rows would end up under the header of another class
+      throw new DataRizerException(
+          "Writer of "
+              + this.plan.type().getName()
+              + " records can't write "
+              + plan.type().getName());
+    }
+    if (!headerWritten) {
+      encoder.header(plan, sink);
+      headerWritten = true;
+    }
+    encoder.encode(record, plan, sink);
+    written++;
+    if (++pending >= batchSize) {
+      flush();
+    }
+  }
+
+  /**
+   * Number of records written so far
+   *
+   * @return record count
+   */
+  long written() {
+    return written;
+  }
+
+  /**
+   * Write the current batch to the channel
+   *
+   * @throws IOException if writing fails
+   */
+  void flush() throws IOException {
+    ByteBuffer buffer = sink.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    sink.clear();
+    pending = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static <T> T generate(Class<T> clazz) {
+    try {
+      return DataRizer.instantiate(clazz);
+    } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+}
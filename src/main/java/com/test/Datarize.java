@@ -0,0 +1,18 @@
+package com.test;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for compile-time generator generation. With the datarizer-processor module on the
+ * annotation processor path, a reflection-free {@link Generator} named {@code <Class>Generator} is
+ * written next to each annotated class, and {@link DataRizer#instantiate(Class)} uses it instead of
+ * reflection.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Datarize {}
@@ -0,0 +1,326 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Related tables whose foreign keys join without any lookup. Every table has a key field whose
+ * value is a function of the row index, and every declared reference sets its child field to the
+ * key of a parent row whose index is computed from the child's index. Rows are generated like
+ * {@link Shard} records, from a seed derived from the dataset seed, the table and the row index,
+ * so any row of any table can be generated on its own: tables can be written in parallel, in
+ * ranges, on different machines, and still join.
+ *
+ * <pre>
+ * Dataset shop =
+ *     new Dataset(42)
+ *         .table(Customer.class, 10_000, "id")
+ *         .table(Order.class, 100_000, "id")
+ *         .table(LineItem.class, 1_000_000, "id")
+ *         .reference(Order.class, "customerId", Customer.class, Dataset.Placement.SCATTERED)
+ *         .reference(LineItem.class, "orderId", Order.class, Dataset.Placement.CLUSTERED);
+ * shop.rows(LineItem.class).parallel().forEach(sink);
+ * </pre>
+ *
+ * <p>Keys of long and int fields are the row index plus one. Keys of String fields are 11
+ * alphanumeric characters and keys of UUID fields two mixed longs, both a bijection of the row
+ * index, so they never repeat within a table. A dataset is immutable; table and reference return
+ * a changed copy.
+ */
+final class Dataset {
+
+  private static final int STRING_KEY_LENGTH = 11;
+  private static final long UUID_SALT = 0x6A09E667F3BCC909L;
+  private static final char[] KEY_CHARACTERS =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private final long seed;
+  private final Map<Class<?>, Table> tables;
+
+  /**
+   * Empty dataset
+   *
+   * @param seed seed every table and row seed is derived from
+   */
+  Dataset(long seed) {
+    this(seed, Map.of());
+  }
+
+  private Dataset(long seed, Map<Class<?>, Table> tables) {
+    this.seed = seed;
+    this.tables = tables;
+  }
+
+  /**
+   * Copy with another table
+   *
+   * @param type row class
+   * @param count number of rows
+   * @param keyField field holding the row's key, a long, int, String or UUID
+   * @return new dataset
+   * @throws DataRizerException if the table exists already, the count is negative or the key field
+   *     is missing or of another type
+   */
+  Dataset table(Class<?> type, long count, String keyField) {
+    if (tables.containsKey(type)) {
+      throw new DataRizerException(type.getName() + " is already a table");
+    }
+    if (count < 0) {
+      throw new DataRizerException("Invalid row count " + count);
+    }
+    FieldPlan key = keyField(type, keyField);
+    if (count > Integer.MAX_VALUE && (key.type() == int.class || key.type() == Integer.class)) {
+      throw new DataRizerException(count + " rows don't fit int keys");
+    }
+    long tableSeed =
+        Shard.recordSeed(seed, ClassPlan.hash(ClassPlan.FNV_OFFSET_BASIS, type.getName()));
+    Map<Class<?>, Table> copy = new LinkedHashMap<>(tables);
+    copy.put(type, new Table(count, key, tableSeed, Map.of()));
+    return new Dataset(seed, Map.copyOf(copy));
+  }
+
+  /**
+   * Copy with a foreign key from one table to another. The parent may be the child table itself.
+   *
+   * @param child table holding the foreign key
+   * @param field foreign key field, of the same kind as the parent's key field
+   * @param parent referenced table
+   * @param placement how child rows are spread over the parent rows
+   * @return new dataset
+   * @throws DataRizerException if a table is missing, the field is missing, is the child's key or
+   *     doesn't match the parent's key, or the parent table is empty while the child isn't
+   */
+  Dataset reference(Class<?> child, String field, Class<?> parent, Placement placement) {
+    Table childTable = table(child);
+    Table parentTable = table(parent);
+    FieldPlan foreignKey = keyField(child, field);
+    if (foreignKey.name().equals(childTable.key.name())) {
+      throw new DataRizerException(child.getName() + "." + field + " is the table's own key");
+    }
+    if (!Key.of(foreignKey.type()).equals(Key.of(parentTable.key.type()))) {
+      throw new DataRizerException(
+          child.getName() + "." + field + " can't hold keys of " + parent.getName());
+    }
+    if (parentTable.count == 0 && childTable.count > 0) {
+      throw new DataRizerException(parent.getName() + " has no rows to reference");
+    }
+    Map<String, Reference> references = new LinkedHashMap<>(childTable.references);
+    references.put(
+        field,
+        new Reference(
+            foreignKey,
+            parent,
+            placement,
+            Shard.recordSeed(childTable.seed, ClassPlan.hash(ClassPlan.FNV_OFFSET_BASIS, field))));
+    Map<Class<?>, Table> copy = new LinkedHashMap<>(tables);
+    copy.put(
+        child,
+        new Table(childTable.count, childTable.key, childTable.seed, Map.copyOf(references)));
+    return new Dataset(seed, Map.copyOf(copy));
+  }
+
+  /**
+   * Number of rows of a table
+   *
+   * @param type row class
+   * @return row count
+   * @throws DataRizerException if the class isn't a table
+   */
+  long count(Class<?> type) {
+    return table(type).count;
+  }
+
+  /**
+   * Generate one row. The same index always gives the same row.
+   *
+   * @param type row class
+   * @param index row index, from 0 to count - 1
+   * @param <T> row type
+   * @return row with its key and foreign keys set
+   * @throws DataRizerException if the class isn't a table or the row can't be generated
+   */
+  <T> T row(Class<T> type, long index) {
+    Table table = table(type);
+    if (index < 0 || index >= table.count) {
+      throw new IndexOutOfBoundsException(
+          "Row " + index + " of " + table.count + " in " + type.getName());
+    }
+    T row;
+    try {
+      row = DataRizer.instantiateSeeded(type, Shard.recordSeed(table.seed, index));
+    } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+      throw new DataRizerException(e);
+    }
+    table.key.set(row, key(table, index, table.key.type()));
+    for (Reference reference : table.references.values()) {
+      Table parent = tables.get(reference.parent);
+      long parentIndex = parentIndex(reference, table.count, parent.count, index);
+      reference.field.set(row, key(parent, parentIndex, reference.field.type()));
+    }
+    return row;
+  }
+
+  /**
+   * All rows of a table, generated lazily in index order. The stream can be made parallel, each
+   * row is generated on its own.
+   *
+   * @param type row class
+   * @param <T> row type
+   * @return stream of count rows
+   * @throws DataRizerException if the class isn't a table
+   */
+  <T> Stream<T> rows(Class<T> type) {
+    return rows(type, 0, count(type));
+  }
+
+  /**
+   * Rows of an index range, ie, one shard of a table
+   *
+   * @param type row class
+   * @param from first row index, inclusive
+   * @param to last row index, exclusive
+   * @param <T> row type
+   * @return stream of the rows
+   * @throws DataRizerException if the class isn't a table
+   */
+  <T> Stream<T> rows(Class<T> type, long from, long to) {
+    table(type);
+    return LongStream.range(from, to).mapToObj(index -> row(type, index));
+  }
+
+  /**
+   * Index of the parent row a child row references
+   *
+   * @param child child table
+   * @param field foreign key field
+   * @param childIndex child row index
+   * @return parent row index
+   * @throws DataRizerException if there's no such reference
+   */
+  long parentIndex(Class<?> child, String field, long childIndex) {
+    Table table = table(child);
+    Reference reference = table.references.get(field);
+    if (reference == null) {
+      throw new DataRizerException(child.getName() + "." + field + " isn't a reference");
+    }
+    return parentIndex(reference, table.count, tables.get(reference.parent).count, childIndex);
+  }
+
+  private Table table(Class<?> type) {
+    Table table = tables.get(type);
+    if (table == null) {
+      throw new DataRizerException(type.getName() + " isn't a table of the dataset");
+    }
+    return table;
+  }
+
+  private static FieldPlan keyField(Class<?> type, String name) {
+    for (FieldPlan field : ClassPlan.of(type).fields()) {
+      if (field.name().equals(name)) {
+        Key.of(field.type());
+        return field;
+      }
+    }
+    throw new DataRizerException(type.getName() + " has no field " + name);
+  }
+
+  private static long parentIndex(
+      Reference reference, long childCount, long parentCount, long childIndex) {
+    if (reference.placement == Placement.SCATTERED) {
+      return Long.remainderUnsigned(Shard.recordSeed(reference.seed, childIndex), parentCount);
+    }
+    // contiguous runs of children per parent, their sizes differ by at most one like shards
+    long perParent = childCount / parentCount;
+    long larger = childCount % parentCount;
+    long inLargerRuns = larger * (perParent + 1);
+    return childIndex < inLargerRuns
+        ? childIndex / (perParent + 1)
+        : larger + (childIndex - inLargerRuns) / perParent;
+  }
+
+  private static Object key(Table table, long index, Class<?> type) {
+    switch (Key.of(type)) {
+      case LONG:
+        return index + 1;
+      case INT:
+        return (int) (index + 1);
+      case STRING:
+        // the 64 bits of a bijective mix in base 62, 11 digits hold them all
+        long bits = Shard.recordSeed(table.seed, index);
+        char[] key = new char[STRING_KEY_LENGTH];
+        for (int i = 0; i < STRING_KEY_LENGTH; i++) {
+          key[i] = KEY_CHARACTERS[(int) Long.remainderUnsigned(bits, KEY_CHARACTERS.length)];
+          bits = Long.divideUnsigned(bits, KEY_CHARACTERS.length);
+        }
+        return new String(key);
+      case UUID:
+        return new UUID(
+            Shard.recordSeed(table.seed, index), Shard.recordSeed(table.seed ^ UUID_SALT, index));
+      default:
+        throw new IllegalStateException(type.getName());
+    }
+  }
+
+  /** How child rows are spread over parent rows. */
+  enum Placement {
+    /**
+     * Children come in contiguous runs per parent, so both tables are sorted by the key and can be
+     * merge-joined, ie, the line items of an order
+     */
+    CLUSTERED,
+    /** Each child picks a parent uniformly at random, ie, the customer of an order */
+    SCATTERED
+  }
+
+  private enum Key {
+    LONG,
+    INT,
+    STRING,
+    UUID;
+
+    static Key of(Class<?> type) {
+      if (type == long.class || type == Long.class) {
+        return LONG;
+      } else if (type == int.class || type == Integer.class) {
+        return INT;
+      } else if (type == String.class) {
+        return STRING;
+      } else if (type == java.util.UUID.class) {
+        return UUID;
+      }
+      throw new DataRizerException(type.getName() + " can't be a key");
+    }
+  }
+
+  private static final class Table {
+    private final long count;
+    private final FieldPlan key;
+    private final long seed;
+    private final Map<String, Reference> references;
+
+    private Table(long count, FieldPlan key, long seed, Map<String, Reference> references) {
+      this.count = count;
+      this.key = key;
+      this.seed = seed;
+      this.references = references;
+    }
+  }
+
+  private static final class Reference {
+    private final FieldPlan field;
+    private final Class<?> parent;
+    private final Placement placement;
+    private final long seed;
+
+    private Reference(FieldPlan field, Class<?> parent, Placement placement, long seed) {
+      this.field = field;
+      this.parent = parent;
+      this.placement = placement;
+      this.seed = seed;
+    }
+  }
+}
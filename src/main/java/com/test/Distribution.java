@@ -0,0 +1,260 @@
+package com.test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A skewed distribution of generated values, registered for a type or a field with {@link
+ * DataRizer#distribute(Class, Distribution)} or {@link DataRizer#distribute(Class, String,
+ * Distribution)}. Every distribution draws a number which is then turned into the generated type:
+ *
+ * <ul>
+ *   <li>numbers get the number, rounded for integral types
+ *   <li>enums get the constant with the drawn ordinal
+ *   <li>strings get a 10 character alphanumeric key, the same one every time the same whole number
+ *       is drawn
+ *   <li>Instant and LocalDateTime get now plus the number in seconds, LocalDate in days and
+ *       Duration in milliseconds
+ * </ul>
+ *
+ * <p>Discrete distributions ({@link #zipf(int, double)}, {@link #weighted(double...)}) are
+ * sampled from a Walker alias table built once, so a draw costs one random number and two array
+ * reads whatever the number of values, about the same as a uniform draw. Continuous ones invert
+ * their CDF directly.
+ *
+ * <pre>
+ * DataRizer.distribute(Order.class, "customerId", Distribution.zipf(10_000, 1.1));
+ * DataRizer.distribute(Status.class, Distribution.weighted(90, 9, 1));
+ * </pre>
+ */
+final class Distribution implements ValueSource {
+
+  private static final int KEY_LENGTH = 10;
+  private static final long KEY_SEED = 0x5DEECE66DL;
+  private static final char[] KEY_CHARACTERS =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private final Sampler sampler;
+  private final String description;
+
+  private Distribution(Sampler sampler, String description) {
+    this.sampler = sampler;
+    this.description = description;
+  }
+
+  /**
+   * Zipf distribution over the values 0 to size - 1: value k is drawn with a probability
+   * proportional to 1 / (k + 1)^exponent, so 0 is the most frequent. The alias table takes 12
+   * bytes per value.
+   *
+   * @param size number of distinct values
+   * @param exponent skew, 0 is uniform and around 1 matches real key popularity
+   * @return distribution
+   * @throws DataRizerException if size isn't positive or exponent is negative
+   */
+  static Distribution zipf(int size, double exponent) {
+    if (size < 1 || !(exponent >= 0)) {
+      throw new DataRizerException("Invalid zipf size " + size + " or exponent " + exponent);
+    }
+    double[] weights = new double[size];
+    for (int k = 0; k < size; k++) {
+      weights[k] = Math.pow(k + 1, -exponent);
+    }
+    return new Distribution(new AliasTable(weights), "zipf(" + size + ", " + exponent + ")");
+  }
+
+  /**
+   * Discrete distribution over the values 0 to weights.length - 1, ie, the ordinals of an enum
+   *
+   * @param weights relative weight of each value, they don't need to add up to anything
+   * @return distribution
+   * @throws DataRizerException if there are no weights, a weight is negative or all are zero
+   */
+  static Distribution weighted(double... weights) {
+    return new Distribution(
+        new AliasTable(weights.clone()), "weighted" + Arrays.toString(weights));
+  }
+
+  /**
+   * Normal distribution
+   *
+   * @param mean mean
+   * @param standardDeviation standard deviation
+   * @return distribution
+   * @throws DataRizerException if the standard deviation is negative
+   */
+  static Distribution gaussian(double mean, double standardDeviation) {
+    if (!(standardDeviation >= 0)) {
+      throw new DataRizerException("Invalid standard deviation " + standardDeviation);
+    }
+    return new Distribution(
+        random -> mean + standardDeviation * random.nextGaussian(),
+        "gaussian(" + mean + ", " + standardDeviation + ")");
+  }
+
+  /**
+   * Exponential distribution, ie, the time between events or how long ago something happened
+   *
+   * @param mean mean, 1 / rate
+   * @return distribution
+   * @throws DataRizerException if the mean isn't positive
+   */
+  static Distribution exponential(double mean) {
+    if (!(mean > 0)) {
+      throw new DataRizerException("Invalid exponential mean " + mean);
+    }
+    // inverse CDF, 1 - u keeps the argument of log away from 0
+    return new Distribution(
+        random -> -mean * Math.log(1 - random.nextDouble()), "exponential(" + mean + ")");
+  }
+
+  /**
+   * Draw a number
+   *
+   * @param random random source
+   * @return drawn number, a whole number for discrete distributions
+   */
+  double draw(Random random) {
+    return sampler.draw(random);
+  }
+
+  /**
+   * Draw a value of the given type
+   *
+   * @param type generated type
+   * @param random random source
+   * @param clock clock dates are relative to
+   * @return drawn value
+   * @throws DataRizerException if the type can't be drawn from a number, or the drawn number isn't
+   *     an ordinal of the enum
+   */
+  @Override
+  public Object sample(Class<?> type, Random random, Clock clock) {
+    double value = sampler.draw(random);
+    if (type == Integer.class || type == int.class) {
+      return (int) Math.round(value);
+    } else if (type == Long.class || type == long.class) {
+      return Math.round(value);
+    } else if (type == Double.class || type == double.class) {
+      return value;
+    } else if (type == Float.class || type == float.class) {
+      return (float) value;
+    } else if (type == Short.class || type == short.class) {
+      return (short) Math.round(value);
+    } else if (type == Byte.class || type == byte.class) {
+      return (byte) Math.round(value);
+    } else if (type == BigDecimal.class) {
+      return BigDecimal.valueOf(value);
+    } else if (type == String.class) {
+      return key(Math.round(value));
+    } else if (type.isEnum()) {
+      Object[] constants = ClassPlan.of(type).enumConstants();
+      long ordinal = Math.round(value);
+      if (ordinal < 0 || ordinal >= constants.length) {
+        throw new DataRizerException(
+            description + " drew " + value + ", not an ordinal of " + type.getName());
+      }
+      return constants[(int) ordinal];
+    } else if (type == Instant.class) {
+      return Instant.now(clock).plusMillis(Math.round(value * 1_000));
+    } else if (type == LocalDateTime.class) {
+      return LocalDateTime.now(clock).plusNanos(Math.round(value * 1_000_000_000));
+    } else if (type == LocalDate.class) {
+      return LocalDate.now(clock).plusDays(Math.round(value));
+    } else if (type == Duration.class) {
+      return Duration.ofMillis(Math.round(value));
+    }
+    throw new DataRizerException("Can't draw " + type.getName() + " from " + description);
+  }
+
+  // the same alphanumeric string for the same number, spread by a SplitMix64 mix
+  private static String key(long value) {
+    long bits = Shard.recordSeed(KEY_SEED, value);
+    char[] key = new char[KEY_LENGTH];
+    for (int i = 0; i < KEY_LENGTH; i++) {
+      key[i] = KEY_CHARACTERS[(int) Long.remainderUnsigned(bits, KEY_CHARACTERS.length)];
+      bits = Long.divideUnsigned(bits, KEY_CHARACTERS.length);
+    }
+    return new String(key);
+  }
+
+  @Override
+  public long fingerprint() {
+    return ClassPlan.hash(ClassPlan.FNV_OFFSET_BASIS, description);
+  }
+
+  @Override
+  public String toString() {
+    return description;
+  }
+
+  @FunctionalInterface
+  private interface Sampler {
+    double draw(Random random);
+  }
+
+  /*
+   * Walker's alias method, built with Vose's algorithm. Each of the n columns holds the
+   * probability of keeping its own value and the value it otherwise aliases to; a draw picks a
+   * column and a threshold from a single uniform number.
+   */
+  private static final class AliasTable implements Sampler {
+    private final double[] keep;
+    private final int[] alias;
+
+    AliasTable(double[] weights) {
+      int n = weights.length;
+      double total = 0;
+      for (double weight : weights) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+          throw new DataRizerException("Invalid weight " + weight);
+        }
+        total += weight;
+      }
+      if (n == 0 || total == 0) {
+        throw new DataRizerException("Weights must have at least one positive value");
+      }
+      this.keep = new double[n];
+      this.alias = new int[n];
+      // scaled so the average column is exactly full
+      double[] scaled = weights;
+      ArrayDeque<Integer> small = new ArrayDeque<>();
+      ArrayDeque<Integer> large = new ArrayDeque<>();
+      for (int i = 0; i < n; i++) {
+        scaled[i] = scaled[i] * n / total;
+        (scaled[i] < 1 ? small : large).add(i);
+      }
+      while (!small.isEmpty() && !large.isEmpty()) {
+        int less = small.poll();
+        int more = large.poll();
+        keep[less] = scaled[less];
+        alias[less] = more;
+        scaled[more] = scaled[more] + scaled[less] - 1;
+        (scaled[more] < 1 ? small : large).add(more);
+      }
+      // what's left is full up to rounding errors
+      for (Integer i : large) {
+        keep[i] = 1;
+        alias[i] = i;
+      }
+      for (Integer i : small) {
+        keep[i] = 1;
+        alias[i] = i;
+      }
+    }
+
+    @Override
+    public double draw(Random random) {
+      double u = random.nextDouble() * keep.length;
+      int column = Math.min((int) u, keep.length - 1);
+      return u - column < keep[column] ? column : alias[column];
+    }
+  }
+}
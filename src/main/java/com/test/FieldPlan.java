@@ -0,0 +1,69 @@
+package com.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+
+/** A single instance field of a planned class, resolved and made accessible once. */
+final class FieldPlan {
+
+  private final Field field;
+  private final Constraints constraints;
+
+  FieldPlan(Field field) {
+    this.field = field;
+    this.constraints = Constraints.of(field.getAnnotations());
+  }
+
+  String name() {
+    return field.getName();
+  }
+
+  Class<?> type() {
+    return field.getType();
+  }
+
+  Type genericType() {
+    return field.getGenericType();
+  }
+
+  Field field() {
+    return field;
+  }
+
+  /**
+   * Bean Validation constraints declared on the field
+   *
+   * @return constraints, {@link Constraints#NONE} if there aren't any
+   */
+  Constraints constraints() {
+    return constraints;
+  }
+
+  /**
+   * Read the value of this field from the supplied instance
+   *
+   * @param target instance of the declaring class
+   * @return current field value
+   */
+  Object get(Object target) {
+    try {
+      return field.get(target);
+    } catch (IllegalAccessException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  /**
+   * Write a value into this field of the supplied instance
+   *
+   * @param target instance of the declaring class
+   * @param value new field value
+   */
+  void set(Object target, Object value) {
+    try {
+      field.set(target, value);
+    } catch (IllegalAccessException e) {
+      throw new DataRizerException(e);
+    }
+  }
+}
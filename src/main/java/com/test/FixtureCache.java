@@ -0,0 +1,212 @@
+package com.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Persistent cache of generated fixtures. A batch is generated once per (class, seed, count) into a
+ * file in the binary record format, and later runs memory-map the file and decode records only
+ * when they're read. Files record the {@link ClassPlan#schemaHash()} of the class combined with
+ * the {@link DataRizer#valueSourceFingerprint()}, and are regenerated when the class shape or the
+ * registered distributions and pools change.
+ *
+ * <p>File layout: header (magic, version, key hash, seed, count), count + 1 absolute record
+ * offsets, then the tagged record values.
+ */
+final class FixtureCache {
+
+  private static final int MAGIC = 0x44525A43; // "DRZC"
+  private static final byte VERSION = 2;
+  private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 4;
+  private static final int BATCH_SIZE = 1_000;
+  private static final long CHUNK_SIZE = 1L << 30;
+  // records may run past the end of a chunk by this much, larger records are rejected
+  private static final long MAX_RECORD_SIZE = 1L << 26;
+
+  private final Path directory;
+
+  /**
+   * @param directory directory holding the cache files, created if missing
+   * @throws IOException if the directory can't be created
+   */
+  FixtureCache(Path directory) throws IOException {
+    this.directory = Files.createDirectories(directory);
+  }
+
+  /**
+   * Get a batch of seeded fixtures, generating and caching it if no valid cache file exists. The
+   * returned list is backed by the mapped file and decodes a new object on every {@link
+   * List#get(int)}.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param seed random seed, the same seed always gives the same fixtures
+   * @param count number of fixtures
+   * @param <T> Class generic to instantiate
+   * @return read-only list of fixtures
+   * @throws IOException if the cache file can't be read or written
+   */
+  <T> List<T> get(Class<T> clazz, long seed, int count) throws IOException {
+    if (count < 0 || (count + 1L) * Long.BYTES > Integer.MAX_VALUE) {
+      throw new DataRizerException("Unsupported fixture count: " + count);
+    }
+    Path file = file(clazz, seed, count);
+    long keyHash =
+        ClassPlan.hash(
+            ClassPlan.of(clazz).schemaHash(), Long.toHexString(DataRizer.valueSourceFingerprint()));
+    if (!isValid(file, keyHash, seed, count)) {
+      generate(file, clazz, keyHash, seed, count);
+    }
+    return new MappedFixtureList<>(file, clazz, count);
+  }
+
+  /**
+   * Location of the cache file for a batch
+   *
+   * @param clazz fixture class
+   * @param seed random seed
+   * @param count number of fixtures
+   * @return cache file path
+   */
+  Path file(Class<?> clazz, long seed, int count) {
+    return directory.resolve(clazz.getName() + "-" + seed + "-" + count + ".drzc");
+  }
+
+  private static boolean isValid(Path file, long keyHash, long seed, int count)
+      throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // keep reading
+      }
+      header.flip();
+      return header.remaining() == HEADER_SIZE
+          && header.getInt() == MAGIC
+          && header.get() == VERSION
+          && header.getLong() == keyHash
+          && header.getLong() == seed
+          && header.getInt() == count
+          && channel.size() >= dataStart(count);
+    }
+  }
+
+  private static <T> void generate(Path file, Class<T> clazz, long keyHash, long seed, int count)
+      throws IOException {
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        writeRecords(channel, clazz, seed, count);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put(VERSION).putLong(keyHash).putLong(seed).putInt(count).flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static <T> void writeRecords(FileChannel channel, Class<T> clazz, long seed, int count)
+      throws IOException {
+    GenerationContext context = GenerationContext.seeded(seed);
+    ByteSink records = new ByteSink(256 * 1024);
+    ByteBuffer offsets = ByteBuffer.allocateDirect(BATCH_SIZE * Long.BYTES);
+    long offsetPosition = HEADER_SIZE;
+    long recordPosition = dataStart(count);
+    for (int i = 0; i < count; i++) {
+      T record;
+      try {
+        record = context.call(() -> DataRizer.instantiate(clazz));
+      } catch (ReflectiveOperationException e) {
+        throw new DataRizerException(e);
+      }
+      int start = records.position();
+      offsets.putLong(recordPosition + start);
+      BinaryRecordEncoder.writeValue(record, clazz, records);
+      if (records.position() - start > MAX_RECORD_SIZE) {
+        throw new DataRizerException("Fixture of " + clazz.getName() + " is too large to cache");
+      }
+      if (!offsets.hasRemaining()) {
+        offsetPosition += writeFully(channel, offsets.flip(), offsetPosition);
+        offsets.clear();
+        recordPosition += writeFully(channel, records.flip(), recordPosition);
+        records.clear();
+      }
+    }
+    offsets.putLong(recordPosition + records.position());
+    writeFully(channel, offsets.flip(), offsetPosition);
+    writeFully(channel, records.flip(), recordPosition);
+  }
+
+  private static int writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int written = 0;
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer, position + written);
+    }
+    return written;
+  }
+
+  private static long dataStart(int count) {
+    return HEADER_SIZE + (count + 1L) * Long.BYTES;
+  }
+
+  /**
+   * List view over a mapped cache file. The file is mapped in 1 GiB chunks, each extended by
+   * {@link #MAX_RECORD_SIZE} so a record never has to be stitched together from two mappings.
+   */
+  private static final class MappedFixtureList<T> extends AbstractList<T>
+      implements RandomAccess {
+
+    private final Class<T> clazz;
+    private final int count;
+    private final MappedByteBuffer offsets;
+    private final MappedByteBuffer[] chunks;
+
+    MappedFixtureList(Path file, Class<T> clazz, int count) throws IOException {
+      this.clazz = clazz;
+      this.count = count;
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        long size = channel.size();
+        offsets =
+            channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (count + 1L) * Long.BYTES);
+        chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+        for (int i = 0; i < chunks.length; i++) {
+          long start = i * CHUNK_SIZE;
+          long length = Math.min(size - start, CHUNK_SIZE + MAX_RECORD_SIZE);
+          chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+      }
+    }
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= count) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+      }
+      long start = offsets.getLong(index * Long.BYTES);
+      long end = offsets.getLong((index + 1) * Long.BYTES);
+      int chunk = (int) (start / CHUNK_SIZE);
+      ByteBuffer record = chunks[chunk].duplicate();
+      record.limit((int) (end - chunk * CHUNK_SIZE)).position((int) (start - chunk * CHUNK_SIZE));
+      return clazz.cast(BinaryRecordDecoder.readValue(record, clazz));
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.test;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Objects and bytes generated so far in one {@link GenerationContext}, against the budget of its
+ * {@link GenerationConfig}. Every value created by reflective generation is counted at its
+ * estimated shallow size, see {@link SizeEstimate#shallow(Class, GenerationConfig)}. Collections
+ * ask before each element whether its expected size still fits, so they come out shorter as the
+ * budget runs low, and a value that doesn't fit at all stops the generation with {@link
+ * Exceeded} rather than filling the heap. Values made by compile-time generators aren't counted.
+ *
+ * <p>A budget belongs to one context and is shared with the subtrees the context generates in
+ * parallel, see {@link SubtreeGeneration}.
+ */
+final class GenerationBudget {
+
+  private final GenerationConfig config;
+  private final AtomicLong objects = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+
+  /**
+   * @param config config whose limits apply
+   */
+  GenerationBudget(GenerationConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Count a value about to be generated
+   *
+   * @param clazz class of the value
+   * @throws Exceeded if the object or byte budget is used up
+   */
+  void spend(Class<?> clazz) {
+    SizeEstimate value = config.shallowEstimate(clazz);
+    long objects = this.objects.addAndGet((long) Math.ceil(value.objects()));
+    long bytes = this.bytes.addAndGet((long) Math.ceil(value.bytes()));
+    if (objects > config.maxObjects() || bytes > config.maxBytes()) {
+      throw new Exceeded(
+          "Generation budget of "
+              + config.maxObjects()
+              + " objects and "
+              + config.maxBytes()
+              + " bytes exceeded at "
+              + clazz.getName()
+              + ": "
+              + objects
+              + " objects, "
+              + bytes
+              + " bytes");
+    }
+  }
+
+  /**
+   * Whether another collection element or map entry is expected to fit
+   *
+   * @param elementType declared element type, or key type of a map
+   * @param valueType declared value type of a map, null for other collections
+   * @return true if the expected size of the element or entry is within what's left
+   */
+  boolean fits(Type elementType, Type valueType) {
+    return fits(elementType, valueType, 1);
+  }
+
+  /**
+   * How many of a number of collection elements or map entries are expected to fit, for
+   * collections whose element count is drawn before the elements are generated
+   *
+   * @param count elements wanted
+   * @param elementType declared element type, or key type of a map
+   * @param valueType declared value type of a map, null for other collections
+   * @return count, or fewer if the expected size of all of them isn't within what's left
+   */
+  int fitting(int count, Type elementType, Type valueType) {
+    int fitting = 0;
+    while (fitting < count && fits(elementType, valueType, fitting + 1)) {
+      fitting++;
+    }
+    return fitting;
+  }
+
+  private boolean fits(Type elementType, Type valueType, int count) {
+    SizeEstimate element = config.estimate(elementType);
+    double elementObjects = element.objects();
+    double elementBytes = element.bytes();
+    if (valueType != null) {
+      SizeEstimate value = config.estimate(valueType);
+      elementObjects += value.objects();
+      elementBytes += value.bytes();
+    }
+    return objects.get() + elementObjects * count <= config.maxObjects()
+        && bytes.get() + elementBytes * count <= config.maxBytes();
+  }
+
+  long objects() {
+    return objects.get();
+  }
+
+  long bytes() {
+    return bytes.get();
+  }
+
+  /**
+   * Thrown when a session runs out of budget. It isn't a failure of the class being generated,
+   * so it's never remembered as one.
+   */
+  static final class Exceeded extends DataRizerException {
+    private static final long serialVersionUID = 1L;
+
+    private Exceeded(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,411 @@
+package com.test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tuning of a generation session: how deep self references go, how long strings and collections
+ * are, how often optional values are null, in which order the ways of creating an object are
+ * tried, how much a session may allocate and which collections are generated in parallel. A
+ * config is immutable; each with method returns a changed copy, so sessions with different
+ * settings can run side by side in one JVM.
+ *
+ * <pre>
+ * GenerationConfig small = GenerationConfig.DEFAULT.withMaxCollectionSize(3).withStringLength(5);
+ * Order order = DataRizer.instantiate(Order.class, small);
+ * </pre>
+ *
+ * <p>The config is carried by the {@link GenerationContext} of the session. Strategies that don't
+ * apply to a class are dropped once per class and config, so generation walks a short
+ * precomputed array instead of checking every strategy on every object. The other settings,
+ * depth, null rate and sizes, are still read from the current config for each value.
+ */
+final class GenerationConfig {
+
+  /** The settings generation has always used. */
+  static final GenerationConfig DEFAULT =
+      new GenerationConfig(
+          2, 10, 10, 0, Strategy.values(), Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+  private final int maxDepth;
+  private final int stringLength;
+  private final int maxCollectionSize;
+  private final double nullRate;
+  private final Strategy[] strategies;
+  private final long maxObjects;
+  private final long maxBytes;
+  private final int parallelThreshold;
+  // strategies that apply to each class, in the configured order
+  private final Map<Class<?>, Strategy[]> resolved = new ConcurrentHashMap<>();
+  // expected sizes of declared types and of single values of classes under these settings
+  private final Map<Type, SizeEstimate> estimates = new ConcurrentHashMap<>();
+  private final Map<Class<?>, SizeEstimate> shallowEstimates = new ConcurrentHashMap<>();
+
+  private GenerationConfig(
+      int maxDepth,
+      int stringLength,
+      int maxCollectionSize,
+      double nullRate,
+      Strategy[] strategies,
+      long maxObjects,
+      long maxBytes,
+      int parallelThreshold) {
+    if (maxDepth < 1 || stringLength < 0 || maxCollectionSize < 1) {
+      throw new DataRizerException(
+          "Invalid depth "
+              + maxDepth
+              + ", string length "
+              + stringLength
+              + " or collection size "
+              + maxCollectionSize);
+    }
+    if (!(nullRate >= 0 && nullRate <= 1)) {
+      throw new DataRizerException("Null rate must be between 0 and 1: " + nullRate);
+    }
+    if (strategies.length == 0
+        || EnumSet.copyOf(Arrays.asList(strategies)).size() < strategies.length) {
+      throw new DataRizerException("Strategies must be distinct and not empty");
+    }
+    if (maxObjects < 1 || maxBytes < 1) {
+      throw new DataRizerException(
+          "Budget must be positive: " + maxObjects + " objects, " + maxBytes + " bytes");
+    }
+    if (parallelThreshold < 1) {
+      throw new DataRizerException("Parallel threshold must be positive: " + parallelThreshold);
+    }
+    this.maxDepth = maxDepth;
+    this.stringLength = stringLength;
+    this.maxCollectionSize = maxCollectionSize;
+    this.nullRate = nullRate;
+    this.strategies = strategies;
+    this.maxObjects = maxObjects;
+    this.maxBytes = maxBytes;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Copy with another recursion depth
+   *
+   * @param maxDepth how many instances of a class are nested in each other before null is used, 2
+   *     by default
+   * @return new config
+   * @throws DataRizerException if the depth isn't positive
+   */
+  GenerationConfig withMaxDepth(int maxDepth) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with another string length
+   *
+   * @param stringLength length of generated strings without a Size constraint, 10 by default
+   * @return new config
+   * @throws DataRizerException if the length is negative
+   */
+  GenerationConfig withStringLength(int stringLength) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with another collection size. Collections get from 1 to this many elements, and
+   * collections created through their own class are filled with exactly this many.
+   *
+   * @param maxCollectionSize largest collection size, 10 by default
+   * @return new config
+   * @throws DataRizerException if the size isn't positive
+   */
+  GenerationConfig withMaxCollectionSize(int maxCollectionSize) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with another null rate
+   *
+   * @param nullRate probability that a value set through a setter is left null, 0 by default.
+   *     Primitives and NotNull values are never null.
+   * @return new config
+   * @throws DataRizerException if the rate isn't between 0 and 1
+   */
+  GenerationConfig withNullRate(double nullRate) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with another strategy order. Strategies left out aren't used.
+   *
+   * @param strategies ways of creating an object, tried in order until one applies
+   * @return new config
+   * @throws DataRizerException if there are no strategies or one is repeated
+   */
+  GenerationConfig withStrategies(Strategy... strategies) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies.clone(),
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with an object budget. Everything generated in one {@link GenerationContext} counts
+   * against it, see {@link GenerationBudget}: collections stop growing when their next element
+   * isn't expected to fit, and generation fails with a {@link GenerationBudget.Exceeded} when the
+   * budget runs out anyway.
+   *
+   * @param maxObjects most objects a session may generate, unlimited by default
+   * @return new config
+   * @throws DataRizerException if the budget isn't positive
+   */
+  GenerationConfig withMaxObjects(long maxObjects) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy with a byte budget, counted in estimated shallow sizes, see {@link
+   * #withMaxObjects(long)}
+   *
+   * @param maxBytes most bytes a session may generate, unlimited by default
+   * @return new config
+   * @throws DataRizerException if the budget isn't positive
+   */
+  GenerationConfig withMaxBytes(long maxBytes) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  /**
+   * Copy that generates large collections in parallel. A collection with at least this many
+   * elements gets each element as an independent subtree on the common fork-join pool, with a
+   * random stream of its own, see {@link SubtreeGeneration}, so one huge object can use every
+   * core. Element counts are then drawn before the elements are generated, so results differ from
+   * sequential ones, but the same seed still always gives the same object.
+   *
+   * @param parallelThreshold smallest collection generated in parallel, off by default
+   * @return new config
+   * @throws DataRizerException if the threshold isn't positive
+   */
+  GenerationConfig withParallelThreshold(int parallelThreshold) {
+    return new GenerationConfig(
+        maxDepth,
+        stringLength,
+        maxCollectionSize,
+        nullRate,
+        strategies,
+        maxObjects,
+        maxBytes,
+        parallelThreshold);
+  }
+
+  int maxDepth() {
+    return maxDepth;
+  }
+
+  int stringLength() {
+    return stringLength;
+  }
+
+  int maxCollectionSize() {
+    return maxCollectionSize;
+  }
+
+  double nullRate() {
+    return nullRate;
+  }
+
+  long maxObjects() {
+    return maxObjects;
+  }
+
+  long maxBytes() {
+    return maxBytes;
+  }
+
+  int parallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * Whether collections may be generated in parallel
+   *
+   * @return true if a parallel threshold is set
+   */
+  boolean isParallel() {
+    return parallelThreshold != Integer.MAX_VALUE;
+  }
+
+  /**
+   * Whether sessions with this config count what they generate
+   *
+   * @return true if an object or byte budget is set
+   */
+  boolean hasBudget() {
+    return maxObjects != Long.MAX_VALUE || maxBytes != Long.MAX_VALUE;
+  }
+
+  /**
+   * Configured strategy order
+   *
+   * @return immutable list of strategies
+   */
+  List<Strategy> strategies() {
+    return List.of(strategies);
+  }
+
+  /**
+   * Strategies that apply to a class, resolved once per class
+   *
+   * @param plan plan of the class
+   * @return strategies in the configured order. The array is shared, don't modify it.
+   */
+  Strategy[] strategies(ClassPlan<?> plan) {
+    Strategy[] result = resolved.get(plan.type());
+    if (result == null) {
+      result =
+          Arrays.stream(strategies)
+              .filter(strategy -> strategy.applies(plan))
+              .toArray(Strategy[]::new);
+      resolved.putIfAbsent(plan.type(), result);
+    }
+    return result;
+  }
+
+  /**
+   * Expected size of a value of a declared type under these settings, worked out once per type
+   *
+   * @param type declared type
+   * @return estimate, see {@link SizeEstimate#of(Type, GenerationConfig)}
+   */
+  SizeEstimate estimate(Type type) {
+    SizeEstimate result = estimates.get(type);
+    if (result == null) {
+      result = SizeEstimate.of(type, this);
+      estimates.putIfAbsent(type, result);
+    }
+    return result;
+  }
+
+  /**
+   * Expected size of a single value of a class, without what it refers to, worked out once per
+   * class
+   *
+   * @param clazz class of the value
+   * @return estimate, see {@link SizeEstimate#shallow(Class, GenerationConfig)}
+   */
+  SizeEstimate shallowEstimate(Class<?> clazz) {
+    SizeEstimate result = shallowEstimates.get(clazz);
+    if (result == null) {
+      result = SizeEstimate.shallow(clazz, this);
+      shallowEstimates.putIfAbsent(clazz, result);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "GenerationConfig{maxDepth="
+        + maxDepth
+        + ", stringLength="
+        + stringLength
+        + ", maxCollectionSize="
+        + maxCollectionSize
+        + ", nullRate="
+        + nullRate
+        + ", strategies="
+        + Arrays.toString(strategies)
+        + ", maxObjects="
+        + maxObjects
+        + ", maxBytes="
+        + maxBytes
+        + ", parallelThreshold="
+        + parallelThreshold
+        + "}";
+  }
+
+  /** A way of creating an object of a concrete class. */
+  enum Strategy {
+    /** Compile-time generated generator, see {@link Datarize}. */
+    GENERATOR {
+      @Override
+      boolean applies(ClassPlan<?> plan) {
+        return plan.generator().isPresent();
+      }
+    },
+    /** Constructor without arguments, or else the first public constructor. */
+    CONSTRUCTOR {
+      @Override
+      boolean applies(ClassPlan<?> plan) {
+        return plan.noArgConstructor() != null || plan.publicConstructor() != null;
+      }
+    },
+    /** Static "of" factory. */
+    OF_FACTORY {
+      @Override
+      boolean applies(ClassPlan<?> plan) {
+        return plan.ofBuilder() != null;
+      }
+    },
+    /** builder() then one call per field then build(), ie, Lombok's Builder. */
+    FLUENT_BUILDER {
+      @Override
+      boolean applies(ClassPlan<?> plan) {
+        return plan.fluentBuilder().isPresent();
+      }
+    };
+
+    abstract boolean applies(ClassPlan<?> plan);
+  }
+}
@@ -0,0 +1,152 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Source of randomness and time for the generation running on the current thread, along with its
+ * {@link GenerationConfig}. Outside of {@link #call(Generation)} a shared random, the system clock
+ * and the default config are used; a seeded context makes generation repeatable by also pinning
+ * the clock, since base objects like Instant are relative to now. A context whose config sets a
+ * budget counts what's generated in it, see {@link GenerationBudget}.
+ */
+final class GenerationContext {
+
+  /** Clock instant used by seeded contexts so dates don't depend on when generation runs. */
+  static final Instant SEEDED_REFERENCE_TIME = Instant.parse("2020-01-01T00:00:00Z");
+
+  private static final GenerationContext DEFAULT =
+      new GenerationContext(new Random(), Clock.systemDefaultZone(), GenerationConfig.DEFAULT);
+  private static final ThreadLocal<GenerationContext> CURRENT = new ThreadLocal<>();
+
+  private final Random random;
+  private final Clock clock;
+  private final GenerationConfig config;
+  private final GenerationBudget budget;
+
+  private GenerationContext(Random random, Clock clock, GenerationConfig config) {
+    this(random, clock, config, config.hasBudget() ? new GenerationBudget(config) : null);
+  }
+
+  private GenerationContext(
+      Random random, Clock clock, GenerationConfig config, GenerationBudget budget) {
+    this.random = random;
+    this.clock = clock;
+    this.config = config;
+    this.budget = budget;
+  }
+
+  /**
+   * Context that always produces the same values for the same seed
+   *
+   * @param seed random seed
+   * @return new seeded context
+   */
+  static GenerationContext seeded(long seed) {
+    return new GenerationContext(
+        new Random(seed),
+        Clock.fixed(SEEDED_REFERENCE_TIME, ZoneOffset.UTC),
+        GenerationConfig.DEFAULT);
+  }
+
+  /**
+   * Context with its own Random and the system clock, for long running threads that shouldn't
+   * contend with others on the shared random
+   *
+   * @return new unseeded context
+   */
+  static GenerationContext independent() {
+    return new GenerationContext(new Random(), Clock.systemDefaultZone(), GenerationConfig.DEFAULT);
+  }
+
+  /**
+   * The same random and clock with another config, and a budget of its own if the config sets one
+   *
+   * @param config config of the session
+   * @return new context
+   */
+  GenerationContext withConfig(GenerationConfig config) {
+    return new GenerationContext(random, clock, config);
+  }
+
+  /**
+   * Context of one subtree generated in parallel, see {@link SubtreeGeneration}: its own seeded
+   * random, and the clock, config and budget of this context
+   *
+   * @param seed random seed of the subtree
+   * @return new context
+   */
+  GenerationContext subtree(long seed) {
+    return new GenerationContext(new Random(seed), clock, config, budget);
+  }
+
+  /**
+   * Context active on the calling thread
+   *
+   * @return active context, the shared default one if none was set
+   */
+  static GenerationContext current() {
+    GenerationContext context = CURRENT.get();
+    return context == null ? DEFAULT : context;
+  }
+
+  Random random() {
+    return random;
+  }
+
+  Clock clock() {
+    return clock;
+  }
+
+  GenerationConfig config() {
+    return config;
+  }
+
+  /**
+   * What the context has generated so far
+   *
+   * @return budget, null if the config doesn't set one
+   */
+  GenerationBudget budget() {
+    return budget;
+  }
+
+  /**
+   * Run a generation with this context active on the calling thread, restoring the previous one
+   * afterwards
+   *
+   * @param generation work to run
+   * @param <T> generated type
+   * @return result of the generation
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  <T> T call(Generation<T> generation)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return generation.generate();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Work run inside a context
+   *
+   * @param <T> generated type
+   */
+  @FunctionalInterface
+  interface Generation<T> {
+    T generate() throws InvocationTargetException, IllegalAccessException, InstantiationException;
+  }
+}
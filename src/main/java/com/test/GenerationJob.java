@@ -0,0 +1,299 @@
+package com.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Long-running generation of one {@link Shard} to a file that survives the process dying. Every
+ * {@code checkpointInterval} records the output is written and synced with {@link
+ * FileChannel#force(boolean)}, then a checkpoint of the next record index and the output length is
+ * synced next to it, in {@code <output>.checkpoint}. Between checkpoints the output is written in
+ * batches like {@link DataRizerWriter} does. Running the same job again, after a crash or on
+ * another worker sharing the disk, cuts the output back to the last checkpoint and carries on from
+ * there. Since record i is always generated from the shard seed and i, see {@link
+ * Shard#recordSeed(long, long)}, the index is all the random state there is, and the finished file
+ * is byte for byte the one an uninterrupted run writes.
+ *
+ * <pre>
+ * GenerationJob job = new GenerationJob(path, RecordFormat.CSV, Shard.single(42, 500_000_000L));
+ * job.run(Cat.class); // again after a crash to resume, a no-op once done
+ * </pre>
+ *
+ * <p>The checkpoint file has two fixed-size slots written in turn, each with a sequence number and
+ * a CRC, so a checkpoint torn by a crash leaves the previous one to resume from. A run holds a
+ * lock on it until it returns, so two workers can't run the same job at once; the second one
+ * fails instead of cutting back what the first is writing.
+ */
+final class GenerationJob {
+
+  static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+  private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+  private static final int MAGIC = 0x44524A43;
+  private static final int SLOT_SIZE = 64;
+  private static final int CRC_OFFSET = SLOT_SIZE - 4;
+
+  private final Path output;
+  private final Path checkpointFile;
+  private final RecordFormat format;
+  private final Shard shard;
+  private final int checkpointInterval;
+
+  /**
+   * Job with the default checkpoint interval
+   *
+   * @param output file to write, kept if a checkpoint of the same job exists
+   * @param format output format
+   * @param shard records to generate
+   */
+  GenerationJob(Path output, RecordFormat format, Shard shard) {
+    this(output, format, shard, DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /**
+   * @param output file to write, kept if a checkpoint of the same job exists
+   * @param format output format
+   * @param shard records to generate
+   * @param checkpointInterval number of records between checkpoints
+   */
+  GenerationJob(Path output, RecordFormat format, Shard shard, int checkpointInterval) {
+    if (checkpointInterval < 1) {
+      throw new DataRizerException("Checkpoint interval must be positive: " + checkpointInterval);
+    }
+    this.output = output;
+    this.checkpointFile = output.resolveSibling(output.getFileName() + ".checkpoint");
+    this.format = format;
+    this.shard = shard;
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  /**
+   * Generate the rest of the shard, from the last checkpoint if there is one
+   *
+   * @param clazz Class object wrapping the generic
+   * @param <T> Class generic to instantiate
+   * @return number of records written by this run
+   * @throws IOException if reading or writing fails
+   * @throws DataRizerException if the checkpoint belongs to another job, the output is shorter
+   *     than the checkpoint says, or another run holds the checkpoint file
+   */
+  <T> long run(Class<T> clazz) throws IOException {
+    return run(clazz, Long.MAX_VALUE);
+  }
+
+  /**
+   * Generate at most a number of records, from the last checkpoint if there is one, and
+   * checkpoint where this run stopped. Lets a worker with a time slice do its share and leave the
+   * rest to the next run.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param maxRecords most records to generate in this run
+   * @param <T> Class generic to instantiate
+   * @return number of records written by this run
+   * @throws IOException if reading or writing fails
+   * @throws DataRizerException if the checkpoint belongs to another job, the output is shorter
+   *     than the checkpoint says, or another run holds the checkpoint file
+   */
+  <T> long run(Class<T> clazz, long maxRecords) throws IOException {
+    ClassPlan<T> plan = ClassPlan.of(clazz);
+    RecordEncoder encoder = format.newEncoder();
+    ByteSink sink = new ByteSink(INITIAL_BUFFER_SIZE);
+    try (FileChannel checkpoints =
+            FileChannel.open(
+                checkpointFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileChannel file =
+            FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      lock(checkpoints);
+      Checkpoint last = read(checkpoints, clazz);
+      long next = shard.from();
+      long sequence = 0;
+      if (last != null && file.size() < last.offset) {
+        // truncate would grow the file with zeros where checkpointed records were
+        throw new DataRizerException(
+            "Output "
+                + output
+                + " is "
+                + file.size()
+                + " bytes but its checkpoint is at "
+                + last.offset
+                + ", delete "
+                + checkpointFile
+                + " to start over");
+      } else if (last != null) {
+        next = last.next;
+        sequence = last.sequence;
+        // records written after the checkpoint may be torn, they're generated again
+        file.truncate(last.offset);
+      } else {
+        file.truncate(0);
+        if (shard.index() == 0) {
+          encoder.header(plan, sink);
+        }
+      }
+      file.position(file.size());
+      long end = shard.to() - next <= maxRecords ? shard.to() : next + maxRecords;
+      long start = next;
+      while (next < end) {
+        encoder.encode(shard.generate(clazz, next++), plan, sink);
+        if ((next - shard.from()) % checkpointInterval == 0 || next == end) {
+          write(sink, file);
+          file.force(false);
+          write(checkpoints, ++sequence, clazz, next, file.position());
+        } else if ((next - shard.from()) % DataRizerWriter.DEFAULT_BATCH_SIZE == 0) {
+          write(sink, file);
+        }
+      }
+      if (last == null && start == end) {
+        // an empty shard still gets its header and a checkpoint
+        write(sink, file);
+        file.force(false);
+        write(checkpoints, ++sequence, clazz, next, file.position());
+      }
+      return end - start;
+    }
+  }
+
+  /**
+   * Index of the next record to generate according to the last checkpoint
+   *
+   * @param clazz class of the records
+   * @return global record index, the start of the shard if there is no checkpoint
+   * @throws IOException if the checkpoint can't be read
+   * @throws DataRizerException if the checkpoint belongs to another job
+   */
+  long resumeIndex(Class<?> clazz) throws IOException {
+    if (!Files.exists(checkpointFile)) {
+      return shard.from();
+    }
+    try (FileChannel checkpoints = FileChannel.open(checkpointFile, StandardOpenOption.READ)) {
+      Checkpoint last = read(checkpoints, clazz);
+      return last == null ? shard.from() : last.next;
+    }
+  }
+
+  /**
+   * Whether every record of the shard has been written and checkpointed
+   *
+   * @param clazz class of the records
+   * @return true once a run has finished the shard
+   * @throws IOException if the checkpoint can't be read
+   */
+  boolean isDone(Class<?> clazz) throws IOException {
+    return Files.exists(checkpointFile) && resumeIndex(clazz) == shard.to();
+  }
+
+  Path checkpointFile() {
+    return checkpointFile;
+  }
+
+  // held until the channel is closed at the end of the run
+  private void lock(FileChannel checkpoints) throws IOException {
+    boolean locked;
+    try {
+      locked = checkpoints.tryLock() != null;
+    } catch (OverlappingFileLockException e) {
+      locked = false;
+    }
+    if (!locked) {
+      throw new DataRizerException("Another run of " + this + " holds " + checkpointFile);
+    }
+  }
+
+  private static void write(ByteSink sink, FileChannel file) throws IOException {
+    ByteBuffer buffer = sink.flip();
+    while (buffer.hasRemaining()) {
+      file.write(buffer);
+    }
+    sink.clear();
+  }
+
+  // slots alternate by sequence number, the other slot keeps the previous checkpoint
+  private void write(FileChannel checkpoints, long sequence, Class<?> clazz, long next, long offset)
+      throws IOException {
+    ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+    slot.putInt(MAGIC)
+        .putLong(sequence)
+        .putLong(shard.seed())
+        .putLong(shard.totalCount())
+        .putInt(shard.index())
+        .putInt(shard.shardCount())
+        .putInt(format.ordinal())
+        .putInt(clazz.getName().hashCode())
+        .putLong(next)
+        .putLong(offset);
+    CRC32 crc = new CRC32();
+    crc.update(slot.array(), 0, CRC_OFFSET);
+    slot.putInt(CRC_OFFSET, (int) crc.getValue());
+    slot.position(SLOT_SIZE);
+    slot.flip();
+    long position = (sequence % 2) * SLOT_SIZE;
+    while (slot.hasRemaining()) {
+      position += checkpoints.write(slot, position);
+    }
+    checkpoints.force(false);
+  }
+
+  private Checkpoint read(FileChannel checkpoints, Class<?> clazz) throws IOException {
+    Checkpoint last = null;
+    for (int i = 0; i < 2; i++) {
+      ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+      long position = (long) i * SLOT_SIZE;
+      while (slot.hasRemaining()) {
+        if (checkpoints.read(slot, position + slot.position()) < 0) {
+          break;
+        }
+      }
+      Checkpoint checkpoint = slot.hasRemaining() ? null : parse(slot, clazz);
+      if (checkpoint != null && (last == null || checkpoint.sequence > last.sequence)) {
+        last = checkpoint;
+      }
+    }
+    return last;
+  }
+
+  // null if the slot is empty or torn
+  private Checkpoint parse(ByteBuffer slot, Class<?> clazz) {
+    slot.flip();
+    CRC32 crc = new CRC32();
+    crc.update(slot.array(), 0, CRC_OFFSET);
+    if (slot.getInt() != MAGIC || slot.getInt(CRC_OFFSET) != (int) crc.getValue()) {
+      return null;
+    }
+    long sequence = slot.getLong();
+    if (slot.getLong() != shard.seed()
+        || slot.getLong() != shard.totalCount()
+        || slot.getInt() != shard.index()
+        || slot.getInt() != shard.shardCount()
+        || slot.getInt() != format.ordinal()
+        || slot.getInt() != clazz.getName().hashCode()) {
+      throw new DataRizerException(
+          "Checkpoint " + checkpointFile + " belongs to another job than " + this);
+    }
+    return new Checkpoint(sequence, slot.getLong(), slot.getLong());
+  }
+
+  @Override
+  public String toString() {
+    return "GenerationJob " + output + " " + format + " " + shard;
+  }
+
+  private static final class Checkpoint {
+    private final long sequence;
+    private final long next;
+    private final long offset;
+
+    private Checkpoint(long sequence, long next, long offset) {
+      this.sequence = sequence;
+      this.next = next;
+      this.offset = offset;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.test;
+
+/**
+ * Produces random instances of a single type without reflection. Implementations are written by
+ * the datarizer-processor module for classes annotated with {@link Datarize}.
+ *
+ * @param <T> generated type
+ */
+@FunctionalInterface
+public interface Generator<T> {
+
+  /**
+   * Generate a new random instance
+   *
+   * @return new instance
+   */
+  T generate();
+
+  /**
+   * Name of the generated generator class for a class: the binary name with nested class
+   * separators replaced by underscores, followed by "Generator"
+   *
+   * @param className binary name of the generated class (ie, com.acme.Outer$Inner)
+   * @return binary name of its generator (ie, com.acme.Outer_InnerGenerator)
+   */
+  static String generatorClassName(String className) {
+    return className.replace('$', '_') + "Generator";
+  }
+}
@@ -0,0 +1,87 @@
+package com.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Channel that gzips everything written to it into another channel. Compression works directly on
+ * ByteBuffers so direct buffers never have to be copied onto the heap.
+ */
+final class GzipChannel implements WritableByteChannel {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final byte[] NO_INPUT = new byte[0];
+
+  private final WritableByteChannel target;
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final CRC32 crc = new CRC32();
+  private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private long uncompressed;
+  private boolean open = true;
+
+  GzipChannel(WritableByteChannel target) throws IOException {
+    this.target = target;
+    ByteBuffer header = ByteBuffer.allocate(10);
+    header.put(new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+    header.flip();
+    drain(header);
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    int length = src.remaining();
+    crc.update(src.duplicate());
+    uncompressed += length;
+    deflater.setInput(src);
+    while (!deflater.needsInput()) {
+      deflate();
+    }
+    // the deflater keeps a reference to src, drop it before the caller reuses the buffer
+    deflater.setInput(NO_INPUT);
+    return length;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!open) {
+      return;
+    }
+    open = false;
+    try {
+      deflater.finish();
+      while (!deflater.finished()) {
+        deflate();
+      }
+      ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+      trailer.putInt((int) crc.getValue());
+      trailer.putInt((int) uncompressed);
+      trailer.flip();
+      drain(trailer);
+    } finally {
+      deflater.end();
+      target.close();
+    }
+  }
+
+  private void deflate() throws IOException {
+    deflater.deflate(out, Deflater.NO_FLUSH);
+    out.flip();
+    drain(out);
+    out.clear();
+  }
+
+  private void drain(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      target.write(buffer);
+    }
+  }
+}
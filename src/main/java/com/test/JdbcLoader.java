@@ -0,0 +1,368 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts generated rows into a table with JDBC batches. The columns are the leaf fields of the
+ * class's {@link ClassPlan} (text, numbers, dates, enums), named in snake_case (ie, createdAt goes
+ * to created_at); collections and nested objects are skipped. Rows are generated straight into
+ * {@link PreparedStatement} batches, so no more than one batch, or three when pipelined, is held
+ * in memory whatever the row count.
+ *
+ * <p>When pipelined, a background thread generates the next batch while the calling thread binds
+ * and executes the current one. When the connection is in auto-commit mode every batch is
+ * committed on its own; otherwise the caller's transaction is left alone.
+ *
+ * <pre>
+ * try (Connection connection = dataSource.getConnection()) {
+ *   new JdbcLoader&lt;&gt;(connection, Order.class, "orders", 5_000, true).load(100_000_000L);
+ * }
+ * </pre>
+ *
+ * @param <T> loaded class
+ */
+final class JdbcLoader<T> {
+
+  static final int DEFAULT_BATCH_SIZE = 1_000;
+  // batches in flight when pipelined: one being generated, one queued, one being executed
+  private static final int PIPELINE_BATCHES = 3;
+
+  private final Connection connection;
+  private final Class<T> clazz;
+  private final String table;
+  private final int batchSize;
+  private final boolean pipelined;
+  private final List<FieldPlan> columns;
+  private final ColumnBinder[] binders;
+
+  /**
+   * Loader with the default batch size, generating on the calling thread
+   *
+   * @param connection open connection, not closed by the loader
+   * @param clazz Class object wrapping the generic
+   * @param table table to insert into
+   */
+  JdbcLoader(Connection connection, Class<T> clazz, String table) {
+    this(connection, clazz, table, DEFAULT_BATCH_SIZE, false);
+  }
+
+  /**
+   * @param connection open connection, not closed by the loader
+   * @param clazz Class object wrapping the generic
+   * @param table table to insert into
+   * @param batchSize rows per executeBatch
+   * @param pipelined generate on a background thread while batches execute
+   */
+  JdbcLoader(
+      Connection connection, Class<T> clazz, String table, int batchSize, boolean pipelined) {
+    if (batchSize < 1) {
+      throw new DataRizerException("Batch size must be positive: " + batchSize);
+    }
+    this.connection = connection;
+    this.clazz = clazz;
+    this.table = table;
+    this.batchSize = batchSize;
+    this.pipelined = pipelined;
+    this.columns =
+        ClassPlan.of(clazz).fields().stream()
+            .filter(field -> ClassPlan.isLeaf(field.type()))
+            .collect(Collectors.toUnmodifiableList());
+    if (columns.isEmpty()) {
+      throw new DataRizerException(clazz.getName() + " has no fields to map to columns");
+    }
+    this.binders =
+        columns.stream().map(field -> binder(field.type())).toArray(ColumnBinder[]::new);
+  }
+
+  /**
+   * The insert statement used for every row
+   *
+   * @return INSERT INTO table (columns) VALUES (?, ...)
+   */
+  String insertSql() {
+    return "INSERT INTO "
+        + table
+        + " ("
+        + columns.stream().map(field -> columnName(field.name())).collect(Collectors.joining(", "))
+        + ") VALUES ("
+        + columns.stream().map(field -> "?").collect(Collectors.joining(", "))
+        + ")";
+  }
+
+  /**
+   * Generate and insert rows
+   *
+   * @param count number of rows
+   * @return number of rows inserted
+   * @throws SQLException if an insert fails
+   */
+  long load(long count) throws SQLException {
+    return load(0, count, index -> DataRizer.instantiate(clazz));
+  }
+
+  /**
+   * Generate and insert the rows of one shard, the same rows whichever process loads them
+   *
+   * @param shard range of rows to generate
+   * @return number of rows inserted
+   * @throws SQLException if an insert fails
+   */
+  long load(Shard shard) throws SQLException {
+    return load(shard.from(), shard.to(), index -> shard.generate(clazz, index));
+  }
+
+  private long load(long from, long to, RowSource<T> source) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    if (autoCommit) {
+      connection.setAutoCommit(false);
+    }
+    try (PreparedStatement statement = connection.prepareStatement(insertSql())) {
+      return pipelined
+          ? loadPipelined(statement, from, to, source, autoCommit)
+          : loadDirect(statement, from, to, source, autoCommit);
+    } catch (Throwable e) {
+      // turning auto-commit back on would commit the rows of the failed batch
+      if (autoCommit) {
+        try {
+          connection.rollback();
+        } catch (SQLException rollback) {
+          e.addSuppressed(rollback);
+        }
+      }
+      throw e;
+    } finally {
+      if (autoCommit) {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+  private long loadDirect(
+      PreparedStatement statement, long from, long to, RowSource<T> source, boolean commit)
+      throws SQLException {
+    GenerationContext context = GenerationContext.current();
+    int pending = 0;
+    for (long i = from; i < to; i++) {
+      bind(statement, generate(context, source, i));
+      statement.addBatch();
+      if (++pending == batchSize) {
+        execute(statement, commit);
+        pending = 0;
+      }
+    }
+    if (pending > 0) {
+      execute(statement, commit);
+    }
+    return to - from;
+  }
+
+  /*
+   * Batches cycle between two queues: the generator takes an empty one from free, fills it and
+   * puts it in full; the calling thread binds and executes it and hands it back to free. A batch
+   * with size -1 ends the stream, carrying the generator's failure if there was one.
+   */
+  private long loadPipelined(
+      PreparedStatement statement, long from, long to, RowSource<T> source, boolean commit)
+      throws SQLException {
+    BlockingQueue<Batch> free = new ArrayBlockingQueue<>(PIPELINE_BATCHES);
+    BlockingQueue<Batch> full = new ArrayBlockingQueue<>(PIPELINE_BATCHES + 1);
+    for (int i = 0; i < PIPELINE_BATCHES; i++) {
+      free.add(new Batch(batchSize));
+    }
+    // the generator continues the caller's session: same random, config and budget
+    GenerationContext context = GenerationContext.current();
+    Thread generator =
+        new Thread(
+            () -> generateBatches(context, from, to, source, free, full), "datarizer-jdbc-loader");
+    generator.setDaemon(true);
+    generator.start();
+    try {
+      while (true) {
+        Batch batch = full.take();
+        if (batch.size < 0) {
+          if (batch.failure instanceof Error) {
+            throw (Error) batch.failure;
+          } else if (batch.failure != null) {
+            throw (RuntimeException) batch.failure;
+          }
+          return to - from;
+        }
+        for (int i = 0; i < batch.size; i++) {
+          bind(statement, batch.rows[i]);
+          statement.addBatch();
+          batch.rows[i] = null;
+        }
+        execute(statement, commit);
+        free.put(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataRizerException(e);
+    } finally {
+      generator.interrupt();
+    }
+  }
+
+  private void generateBatches(
+      GenerationContext context,
+      long from,
+      long to,
+      RowSource<T> source,
+      BlockingQueue<Batch> free,
+      BlockingQueue<Batch> full) {
+    try {
+      Throwable failure = null;
+      try {
+        long i = from;
+        while (i < to) {
+          Batch batch = free.take();
+          batch.size = 0;
+          while (batch.size < batchSize && i < to) {
+            batch.rows[batch.size++] = generate(context, source, i++);
+          }
+          full.put(batch);
+        }
+      } catch (RuntimeException | Error e) {
+        // the loader would otherwise wait for the next batch forever
+        failure = e;
+      }
+      full.put(Batch.end(failure));
+    } catch (InterruptedException e) {
+      // the loader stopped, nobody is waiting for more batches
+    }
+  }
+
+  private void execute(PreparedStatement statement, boolean commit) throws SQLException {
+    statement.executeBatch();
+    if (commit) {
+      connection.commit();
+    }
+  }
+
+  private void bind(PreparedStatement statement, Object row) throws SQLException {
+    for (int i = 0; i < binders.length; i++) {
+      binders[i].bind(statement, i + 1, columns.get(i).get(row));
+    }
+  }
+
+  private static <T> T generate(GenerationContext context, RowSource<T> source, long index) {
+    try {
+      return context.call(() -> source.row(index));
+    } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  /**
+   * Column name of a field, camelCase to snake_case
+   *
+   * @param fieldName field name (ie, createdAt)
+   * @return column name (ie, created_at)
+   */
+  static String columnName(String fieldName) {
+    StringBuilder column = new StringBuilder(fieldName.length() + 4);
+    for (int i = 0; i < fieldName.length(); i++) {
+      char c = fieldName.charAt(i);
+      if (Character.isUpperCase(c)) {
+        if (i > 0) {
+          column.append('_');
+        }
+        column.append(Character.toLowerCase(c));
+      } else {
+        column.append(c);
+      }
+    }
+    return column.toString();
+  }
+
+  // chosen once per column so binding a row doesn't test types
+  private static ColumnBinder binder(Class<?> type) {
+    if (type == String.class) {
+      return nullable(Types.VARCHAR, (s, i, v) -> s.setString(i, (String) v));
+    } else if (type == Integer.class || type == int.class) {
+      return nullable(Types.INTEGER, (s, i, v) -> s.setInt(i, (Integer) v));
+    } else if (type == Long.class || type == long.class) {
+      return nullable(Types.BIGINT, (s, i, v) -> s.setLong(i, (Long) v));
+    } else if (type == Short.class || type == short.class) {
+      return nullable(Types.SMALLINT, (s, i, v) -> s.setShort(i, (Short) v));
+    } else if (type == Byte.class || type == byte.class) {
+      return nullable(Types.TINYINT, (s, i, v) -> s.setByte(i, (Byte) v));
+    } else if (type == Boolean.class || type == boolean.class) {
+      return nullable(Types.BOOLEAN, (s, i, v) -> s.setBoolean(i, (Boolean) v));
+    } else if (type == Double.class || type == double.class) {
+      return nullable(Types.DOUBLE, (s, i, v) -> s.setDouble(i, (Double) v));
+    } else if (type == Float.class || type == float.class) {
+      return nullable(Types.REAL, (s, i, v) -> s.setFloat(i, (Float) v));
+    } else if (type == BigDecimal.class) {
+      return nullable(Types.DECIMAL, (s, i, v) -> s.setBigDecimal(i, (BigDecimal) v));
+    } else if (type == Instant.class) {
+      return nullable(
+          Types.TIMESTAMP, (s, i, v) -> s.setTimestamp(i, Timestamp.from((Instant) v)));
+    } else if (type == LocalDate.class) {
+      return nullable(Types.DATE, (s, i, v) -> s.setObject(i, v, Types.DATE));
+    } else if (type == LocalDateTime.class) {
+      return nullable(Types.TIMESTAMP, (s, i, v) -> s.setObject(i, v, Types.TIMESTAMP));
+    } else if (type == LocalTime.class) {
+      return nullable(Types.TIME, (s, i, v) -> s.setObject(i, v, Types.TIME));
+    } else if (type == Duration.class) {
+      return nullable(Types.BIGINT, (s, i, v) -> s.setLong(i, ((Duration) v).toMillis()));
+    } else if (type.isEnum()) {
+      return nullable(Types.VARCHAR, (s, i, v) -> s.setString(i, ((Enum<?>) v).name()));
+    }
+    return nullable(Types.VARCHAR, (s, i, v) -> s.setString(i, v.toString()));
+  }
+
+  private static ColumnBinder nullable(int sqlType, ColumnBinder binder) {
+    return (statement, index, value) -> {
+      if (value == null) {
+        statement.setNull(index, sqlType);
+      } else {
+        binder.bind(statement, index, value);
+      }
+    };
+  }
+
+  @FunctionalInterface
+  private interface ColumnBinder {
+    void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+  }
+
+  @FunctionalInterface
+  private interface RowSource<T> {
+    T row(long index)
+        throws InvocationTargetException, IllegalAccessException, InstantiationException;
+  }
+
+  private static final class Batch {
+    private final Object[] rows;
+    private int size;
+    // a RuntimeException or an Error
+    private Throwable failure;
+
+    Batch(int capacity) {
+      this.rows = new Object[capacity];
+    }
+
+    static Batch end(Throwable failure) {
+      Batch batch = new Batch(0);
+      batch.size = -1;
+      batch.failure = failure;
+      return batch;
+    }
+  }
+}
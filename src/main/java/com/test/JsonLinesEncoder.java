@@ -0,0 +1,134 @@
+package com.test;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/** Writes each record as a JSON object on its own line. */
+final class JsonLinesEncoder implements RecordEncoder {
+
+  private final StringBuilder line = new StringBuilder(256);
+
+  @Override
+  public void header(ClassPlan<?> plan, ByteSink sink) {
+    // JSON Lines has no header
+  }
+
+  @Override
+  public void encode(Object record, ClassPlan<?> plan, ByteSink sink) {
+    line.setLength(0);
+    appendObject(record, plan, line);
+    line.append('\n');
+    sink.putUtf8(line);
+  }
+
+  /**
+   * Append the JSON representation of any generated value
+   *
+   * @param value value to append, may be null
+   * @param json destination
+   */
+  static void appendValue(Object value, StringBuilder json) {
+    if (value == null) {
+      json.append("null");
+    } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+        || value instanceof Short || value instanceof Byte) {
+      json.append(value);
+    } else if (value instanceof Double || value instanceof Float) {
+      double d = ((Number) value).doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d)) {
+        json.append("null");
+      } else {
+        json.append(value);
+      }
+    } else if (value instanceof BigDecimal) {
+      json.append(((BigDecimal) value).toPlainString());
+    } else if (value instanceof Enum) {
+      appendString(((Enum<?>) value).name(), json);
+    } else if (ClassPlan.isLeaf(value.getClass())) {
+      appendString(value.toString(), json);
+    } else if (value instanceof Collection) {
+      json.append('[');
+      boolean first = true;
+      for (Object element : (Collection<?>) value) {
+        if (!first) {
+          json.append(',');
+        }
+        appendValue(element, json);
+        first = false;
+      }
+      json.append(']');
+    } else if (value.getClass().isArray()) {
+      json.append('[');
+      for (int i = 0; i < Array.getLength(value); i++) {
+        if (i > 0) {
+          json.append(',');
+        }
+        appendValue(Array.get(value, i), json);
+      }
+      json.append(']');
+    } else if (value instanceof Map) {
+      json.append('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        if (!first) {
+          json.append(',');
+        }
+        appendString(String.valueOf(entry.getKey()), json);
+        json.append(':');
+        appendValue(entry.getValue(), json);
+        first = false;
+      }
+      json.append('}');
+    } else {
+      appendObject(value, ClassPlan.of(value.getClass()), json);
+    }
+  }
+
+  private static void appendObject(Object value, ClassPlan<?> plan, StringBuilder json) {
+    json.append('{');
+    boolean first = true;
+    for (FieldPlan field : plan.fields()) {
+      if (!first) {
+        json.append(',');
+      }
+      appendString(field.name(), json);
+      json.append(':');
+      appendValue(field.get(value), json);
+      first = false;
+    }
+    json.append('}');
+  }
+
+  private static void appendString(String value, StringBuilder json) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+}
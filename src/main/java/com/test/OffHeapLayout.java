@@ -0,0 +1,375 @@
+package com.test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Flat fixed-width layout of a class's leaf fields, for generating records straight into direct
+ * ByteBuffers instead of onto the heap. Columns are ordered by width, widest first, so each is
+ * naturally aligned, and records are padded to 8 bytes. Values are written in native byte order:
+ *
+ * <ul>
+ *   <li>boolean and byte take 1 byte, short and char 2, int and float 4, long and double 8
+ *   <li>enums take their int ordinal
+ *   <li>strings take an int offset and an int length of their UTF-8 bytes in a separate arena
+ *       buffer
+ *   <li>LocalDate takes an int epoch day; Instant and LocalDateTime (at UTC) long epoch
+ *       milliseconds, LocalTime a long nano of day and Duration long milliseconds
+ * </ul>
+ *
+ * <p>Other fields (BigDecimal, collections, nested objects) have no fixed width and are left out,
+ * see {@link #columns()}. Values are drawn in the same ranges as {@link DataRizer#instantiate}'s
+ * and strings honour Size constraints and the config's string length, but registered
+ * distributions and pools aren't used since they produce heap objects. Primitive values are never
+ * null.
+ *
+ * <pre>
+ * OffHeapRecords trades = OffHeapLayout.of(Trade.class).generate(10_000_000);
+ * trades.writeTo(channel);
+ * </pre>
+ */
+final class OffHeapLayout {
+
+  private static final int RECORD_ALIGNMENT = 8;
+  static final byte[] ALPHANUMERIC =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+          .getBytes(StandardCharsets.US_ASCII);
+
+  private final Class<?> type;
+  private final List<Column> columns;
+  // iterated per record without an iterator
+  private final Column[] columnArray;
+  private final int recordSize;
+  private final int arenaBytesPerRecord;
+
+  private OffHeapLayout(ClassPlan<?> plan, int stringLength) {
+    Class<?> type = plan.type();
+    List<Column> found = new ArrayList<>();
+    for (FieldPlan field : plan.fields()) {
+      Kind kind = Kind.of(field.type());
+      if (kind != null) {
+        found.add(new Column(field, kind, stringLength));
+      }
+    }
+    if (found.isEmpty()) {
+      throw new DataRizerException(type.getName() + " has no fixed-width fields");
+    }
+    // stable, so columns of the same width keep their declaration order
+    found.sort(Comparator.comparingInt((Column column) -> column.kind.width).reversed());
+    int offset = 0;
+    int arenaBytes = 0;
+    for (Column column : found) {
+      column.offset = offset;
+      offset += column.kind.width;
+      arenaBytes += column.kind == Kind.STRING ? column.maxLength : 0;
+    }
+    this.type = type;
+    this.columns = Collections.unmodifiableList(found);
+    this.columnArray = found.toArray(new Column[0]);
+    this.recordSize = (offset + RECORD_ALIGNMENT - 1) / RECORD_ALIGNMENT * RECORD_ALIGNMENT;
+    this.arenaBytesPerRecord = arenaBytes;
+  }
+
+  /**
+   * Cached layout of a class for the string length of the current config, see {@link
+   * ClassPlan#offHeapLayout(int)}
+   *
+   * @param type class whose leaf fields become columns
+   * @return layout
+   * @throws DataRizerException if the class has no field with a fixed-width representation
+   */
+  static OffHeapLayout of(Class<?> type) {
+    return ClassPlan.of(type).offHeapLayout(DataRizer.config().stringLength());
+  }
+
+  /**
+   * Lay out the leaf fields of a class
+   *
+   * @param plan plan of the class whose leaf fields become columns
+   * @param stringLength length of strings without a Size constraint
+   * @return new layout
+   * @throws DataRizerException if the class has no field with a fixed-width representation
+   */
+  static OffHeapLayout of(ClassPlan<?> plan, int stringLength) {
+    return new OffHeapLayout(plan, stringLength);
+  }
+
+  Class<?> type() {
+    return type;
+  }
+
+  /**
+   * Columns in layout order
+   *
+   * @return immutable list of columns
+   */
+  List<Column> columns() {
+    return columns;
+  }
+
+  /**
+   * Bytes taken by one record, padding included
+   *
+   * @return record size
+   */
+  int recordSize() {
+    return recordSize;
+  }
+
+  /**
+   * Column of a field
+   *
+   * @param name field name
+   * @return column
+   * @throws DataRizerException if the field isn't part of the layout
+   */
+  Column column(String name) {
+    for (Column column : columns) {
+      if (column.name().equals(name)) {
+        return column;
+      }
+    }
+    throw new DataRizerException(type.getName() + " has no column " + name);
+  }
+
+  /**
+   * Generate records into two new direct buffers, one for the records and one for string bytes.
+   * The loop writes random bits straight into the buffers, so apart from the buffers themselves
+   * nothing is allocated whatever the count.
+   *
+   * @param count number of records
+   * @return generated records
+   * @throws DataRizerException if the records or the string arena wouldn't fit in 2GB
+   */
+  OffHeapRecords generate(int count) {
+    long recordBytes = (long) count * recordSize;
+    long arenaBytes = (long) count * arenaBytesPerRecord;
+    if (count < 0 || recordBytes > Integer.MAX_VALUE || arenaBytes > Integer.MAX_VALUE) {
+      throw new DataRizerException("Can't lay out " + count + " records of " + type.getName());
+    }
+    ByteBuffer records =
+        ByteBuffer.allocateDirect((int) recordBytes).order(ByteOrder.nativeOrder());
+    ByteBuffer arena = ByteBuffer.allocateDirect((int) arenaBytes).order(ByteOrder.nativeOrder());
+    GenerationContext context = GenerationContext.current();
+    Random random = context.random();
+    Clock clock = context.clock();
+    // the reference times of base objects, read once rather than per value
+    long nowMillis = clock.millis();
+    long today = LocalDate.now(clock).toEpochDay();
+    long nowLocalMillis = LocalDateTime.now(clock).toInstant(ZoneOffset.UTC).toEpochMilli();
+    long nowNanoOfDay = LocalTime.now(clock).toNanoOfDay();
+    int arenaPosition = 0;
+    for (int i = 0; i < count; i++) {
+      int base = i * recordSize;
+      for (Column column : columnArray) {
+        int at = base + column.offset;
+        switch (column.kind) {
+          case BOOLEAN:
+            records.put(at, (byte) (random.nextBoolean() ? 1 : 0));
+            break;
+          case BYTE:
+            records.put(at, (byte) random.nextInt(Byte.MAX_VALUE + 1));
+            break;
+          case SHORT:
+            records.putShort(at, (short) random.nextInt(Short.MAX_VALUE + 1));
+            break;
+          case CHAR:
+            records.putChar(at, (char) ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)]);
+            break;
+          case INT:
+            records.putInt(at, random.nextInt(Integer.MAX_VALUE));
+            break;
+          case FLOAT:
+            records.putFloat(at, random.nextFloat());
+            break;
+          case LONG:
+            records.putLong(at, random.nextLong());
+            break;
+          case DOUBLE:
+            records.putDouble(at, random.nextDouble());
+            break;
+          case ENUM:
+            records.putInt(at, random.nextInt(column.enumConstants.length));
+            break;
+          case STRING:
+            int length =
+                column.minLength + random.nextInt(column.maxLength - column.minLength + 1);
+            for (int c = 0; c < length; c++) {
+              arena.put(arenaPosition + c, ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)]);
+            }
+            records.putInt(at, arenaPosition);
+            records.putInt(at + Integer.BYTES, length);
+            arenaPosition += length;
+            break;
+          case INSTANT:
+            // truncated to milliseconds, like generated Instants
+            records.putLong(at, nowMillis + random.nextInt(86_400) * 1_000L);
+            break;
+          case LOCAL_DATE:
+            records.putInt(at, (int) (today + random.nextInt(365)));
+            break;
+          case LOCAL_DATE_TIME:
+            records.putLong(at, nowLocalMillis + random.nextInt(86_400) * 1_000L);
+            break;
+          case LOCAL_TIME:
+            long nanos = nowNanoOfDay + random.nextInt(3_600) * 1_000_000_000L;
+            // wraps past midnight and is truncated to minutes, like generated LocalTimes
+            nanos = nanos % 86_400_000_000_000L;
+            records.putLong(at, nanos - nanos % 60_000_000_000L);
+            break;
+          case DURATION:
+            records.putLong(at, random.nextInt(10_000));
+            break;
+          default:
+            throw new IllegalStateException(column.kind.name());
+        }
+      }
+    }
+    arena.limit(arenaPosition);
+    return new OffHeapRecords(this, records, arena, count);
+  }
+
+  /** Fixed-width representation of a field type. */
+  enum Kind {
+    BOOLEAN(1),
+    BYTE(1),
+    SHORT(2),
+    CHAR(2),
+    INT(4),
+    FLOAT(4),
+    LONG(8),
+    DOUBLE(8),
+    ENUM(4),
+    STRING(8),
+    INSTANT(8),
+    LOCAL_DATE(4),
+    LOCAL_DATE_TIME(8),
+    LOCAL_TIME(8),
+    DURATION(8);
+
+    private final int width;
+
+    Kind(int width) {
+      this.width = width;
+    }
+
+    int width() {
+      return width;
+    }
+
+    private static Kind of(Class<?> type) {
+      if (type == boolean.class || type == Boolean.class) {
+        return BOOLEAN;
+      } else if (type == byte.class || type == Byte.class) {
+        return BYTE;
+      } else if (type == short.class || type == Short.class) {
+        return SHORT;
+      } else if (type == char.class || type == Character.class) {
+        return CHAR;
+      } else if (type == int.class || type == Integer.class) {
+        return INT;
+      } else if (type == float.class || type == Float.class) {
+        return FLOAT;
+      } else if (type == long.class || type == Long.class) {
+        return LONG;
+      } else if (type == double.class || type == Double.class) {
+        return DOUBLE;
+      } else if (type.isEnum()) {
+        return ENUM;
+      } else if (type == String.class) {
+        return STRING;
+      } else if (type == Instant.class) {
+        return INSTANT;
+      } else if (type == LocalDate.class) {
+        return LOCAL_DATE;
+      } else if (type == LocalDateTime.class) {
+        return LOCAL_DATE_TIME;
+      } else if (type == LocalTime.class) {
+        return LOCAL_TIME;
+      } else if (type == Duration.class) {
+        return DURATION;
+      }
+      return null;
+    }
+  }
+
+  /** A field's place in the layout. */
+  static final class Column {
+    private final FieldPlan field;
+    private final Kind kind;
+    private final Object[] enumConstants;
+    private final int minLength;
+    private final int maxLength;
+    private int offset;
+
+    private Column(FieldPlan field, Kind kind, int stringLength) {
+      this.field = field;
+      this.kind = kind;
+      this.enumConstants = kind == Kind.ENUM ? ClassPlan.of(field.type()).enumConstants() : null;
+      if (kind == Kind.ENUM && enumConstants.length == 0) {
+        throw new DataRizerException("Can't instantiate an enum with no values");
+      }
+      Constraints constraints = field.constraints();
+      this.minLength = constraints.hasSize() ? constraints.minSize() : stringLength;
+      this.maxLength =
+          constraints.hasSize()
+              ? Math.min(constraints.maxSize(), Math.max(minLength, stringLength))
+              : stringLength;
+      if (kind == Kind.STRING && maxLength < minLength) {
+        throw new DataRizerException("Size max " + maxLength + " is lower than min " + minLength);
+      }
+    }
+
+    String name() {
+      return field.name();
+    }
+
+    Kind kind() {
+      return kind;
+    }
+
+    /**
+     * Byte offset of the column inside a record
+     *
+     * @return offset
+     */
+    int offset() {
+      return offset;
+    }
+
+    Object[] enumConstants() {
+      return enumConstants;
+    }
+
+    /**
+     * Shortest generated string, honouring Size
+     *
+     * @return minimum length
+     */
+    int minLength() {
+      return minLength;
+    }
+
+    /**
+     * Longest generated string, honouring Size
+     *
+     * @return maximum length
+     */
+    int maxLength() {
+      return maxLength;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Records generated by {@link OffHeapLayout#generate(int)}: a direct buffer of fixed-width records
+ * and a direct arena holding the bytes of their strings. The buffers can be handed to native code
+ * or written to a channel as they are; {@link #get(int, String)} decodes single values for checks
+ * and debugging.
+ */
+final class OffHeapRecords {
+
+  private final OffHeapLayout layout;
+  private final ByteBuffer records;
+  private final ByteBuffer arena;
+  private final int count;
+
+  OffHeapRecords(OffHeapLayout layout, ByteBuffer records, ByteBuffer arena, int count) {
+    this.layout = layout;
+    this.records = records;
+    this.arena = arena;
+    this.count = count;
+  }
+
+  OffHeapLayout layout() {
+    return layout;
+  }
+
+  int count() {
+    return count;
+  }
+
+  /**
+   * Record buffer, count * {@link OffHeapLayout#recordSize()} bytes in native byte order
+   *
+   * @return read-only view of the records
+   */
+  ByteBuffer records() {
+    return records.asReadOnlyBuffer().order(records.order());
+  }
+
+  /**
+   * String bytes referenced by the records' offset and length pairs
+   *
+   * @return read-only view of the arena
+   */
+  ByteBuffer arena() {
+    return arena.asReadOnlyBuffer().order(arena.order());
+  }
+
+  /**
+   * Write the records followed by the arena, straight from native memory
+   *
+   * @param channel destination
+   * @return bytes written
+   * @throws IOException if the channel fails
+   */
+  long writeTo(WritableByteChannel channel) throws IOException {
+    long written = 0;
+    for (ByteBuffer buffer : new ByteBuffer[] {records(), arena()}) {
+      while (buffer.hasRemaining()) {
+        written += channel.write(buffer);
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Decode one value
+   *
+   * @param index record index
+   * @param column field name
+   * @return value as the field's type would hold it
+   * @throws DataRizerException if the field isn't part of the layout
+   */
+  Object get(int index, String column) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    OffHeapLayout.Column found = layout.column(column);
+    int at = index * layout.recordSize() + found.offset();
+    switch (found.kind()) {
+      case BOOLEAN:
+        return records.get(at) != 0;
+      case BYTE:
+        return records.get(at);
+      case SHORT:
+        return records.getShort(at);
+      case CHAR:
+        return records.getChar(at);
+      case INT:
+        return records.getInt(at);
+      case FLOAT:
+        return records.getFloat(at);
+      case LONG:
+        return records.getLong(at);
+      case DOUBLE:
+        return records.getDouble(at);
+      case ENUM:
+        return found.enumConstants()[records.getInt(at)];
+      case STRING:
+        byte[] bytes = new byte[records.getInt(at + Integer.BYTES)];
+        arena.get(records.getInt(at), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      case INSTANT:
+        return Instant.ofEpochMilli(records.getLong(at));
+      case LOCAL_DATE:
+        return LocalDate.ofEpochDay(records.getInt(at));
+      case LOCAL_DATE_TIME:
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(records.getLong(at)), ZoneOffset.UTC);
+      case LOCAL_TIME:
+        return LocalTime.ofNanoOfDay(records.getLong(at));
+      case DURATION:
+        return Duration.ofMillis(records.getLong(at));
+      default:
+        throw new IllegalStateException(found.kind().name());
+    }
+  }
+}
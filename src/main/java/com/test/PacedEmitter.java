@@ -0,0 +1,314 @@
+package com.test;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands out generated objects at a fixed rate, for load generation. Background threads generate
+ * into one single-producer ring each; {@link #next()} waits for the next slot of the schedule and
+ * takes an object from a ring, so neither reflection nor allocation happens in the hand-off.
+ *
+ * <p>Slot n is due at {@code start + n / rate}, whatever happened to earlier slots. When the
+ * caller or the generators fall behind, objects are handed out immediately until the schedule is
+ * caught up and the delay is reported as lag, rather than silently stretching the schedule
+ * (coordinated omission). {@link #scheduledNanos()} gives the intended time of the last object so
+ * latencies can be measured from it.
+ *
+ * <pre>
+ * try (PacedEmitter&lt;Order&gt; orders = new PacedEmitter&lt;&gt;(Order.class, 200_000)) {
+ *   orders.awaitFilled(TimeUnit.SECONDS.toMillis(10));
+ *   for (int i = 0; i &lt; 1_000_000; i++) {
+ *     send(orders.next());
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>{@link #next()} must only be called by one thread at a time.
+ *
+ * @param <T> emitted class
+ */
+final class PacedEmitter<T> implements Closeable {
+
+  static final int DEFAULT_CAPACITY = 4096;
+
+  // park until this close to the due time, then spin
+  private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  // returned by a ring with nothing in it, generated objects may be null
+  private static final Object EMPTY = new Object();
+
+  private final double intervalNanos;
+  private final Ring[] rings;
+  private final Thread[] producers;
+  private volatile boolean running = true;
+  private volatile Throwable failure;
+  private int cursor;
+  private long startNanos;
+  private long scheduledNanos;
+  private volatile long emitted;
+  private volatile long underruns;
+  private volatile long totalLagNanos;
+  private volatile long maxLagNanos;
+
+  /**
+   * Emitter with one generating thread and the default ring capacity
+   *
+   * @param clazz Class object wrapping the generic
+   * @param ratePerSecond objects handed out per second
+   */
+  PacedEmitter(Class<T> clazz, double ratePerSecond) {
+    this(clazz, ratePerSecond, 1, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Start the generating threads, which fill their rings right away. They generate under the
+   * config of the calling thread, each with a random of its own.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param ratePerSecond objects handed out per second
+   * @param threads number of generating threads
+   * @param capacity objects buffered per thread, rounded up to a power of two
+   */
+  PacedEmitter(Class<T> clazz, double ratePerSecond, int threads, int capacity) {
+    if (!(ratePerSecond > 0) || threads < 1 || capacity < 1) {
+      throw new DataRizerException(
+          "Invalid rate " + ratePerSecond + ", threads " + threads + " or capacity " + capacity);
+    }
+    this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    this.rings = new Ring[threads];
+    this.producers = new Thread[threads];
+    GenerationConfig config = GenerationContext.current().config();
+    for (int i = 0; i < threads; i++) {
+      Ring ring = new Ring(capacity);
+      rings[i] = ring;
+      producers[i] = new Thread(() -> produce(clazz, config, ring), "datarizer-paced-" + i);
+      producers[i].setDaemon(true);
+      producers[i].start();
+    }
+  }
+
+  /**
+   * Wait until every ring is full, so the schedule starts with the most headroom
+   *
+   * @param timeoutMillis most time to wait
+   * @return true if the rings are full, false on timeout
+   */
+  boolean awaitFilled(long timeoutMillis) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    for (Ring ring : rings) {
+      while (!ring.isFull()) {
+        checkFailure();
+        if (System.nanoTime() - deadline > 0) {
+          return false;
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wait for the next slot of the schedule and hand out an object. The schedule starts with the
+   * first call.
+   *
+   * @return generated object, null if the class generates to null
+   * @throws DataRizerException if generation failed or the emitter is closed
+   * @throws Error the error a generating thread died of
+   */
+  T next() {
+    long now = System.nanoTime();
+    if (emitted == 0) {
+      startNanos = now;
+    }
+    long due = startNanos + (long) (emitted * intervalNanos);
+    while (due - now > 0) {
+      if (due - now > SPIN_NANOS) {
+        LockSupport.parkNanos(due - now - SPIN_NANOS);
+      } else {
+        Thread.onSpinWait();
+      }
+      now = System.nanoTime();
+    }
+    Object next = poll();
+    if (next == EMPTY) {
+      underruns++;
+      while (next == EMPTY) {
+        checkFailure();
+        Thread.onSpinWait();
+        next = poll();
+      }
+      now = System.nanoTime();
+    }
+    long lag = now - due;
+    totalLagNanos += lag;
+    if (lag > maxLagNanos) {
+      maxLagNanos = lag;
+    }
+    scheduledNanos = due;
+    emitted++;
+    // rings only hold what DataRizer.instantiate returned for the emitted class
+    @SuppressWarnings("unchecked")
+    T record = (T) next;
+    return record;
+  }
+
+  // take from the rings in turn, skipping empty ones
+  private Object poll() {
+    for (int i = 0; i < rings.length; i++) {
+      Ring ring = rings[cursor];
+      cursor = cursor + 1 == rings.length ? 0 : cursor + 1;
+      Object next = ring.poll();
+      if (next != EMPTY) {
+        return next;
+      }
+    }
+    return EMPTY;
+  }
+
+  private void checkFailure() {
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new DataRizerException(failure);
+    } else if (!running) {
+      throw new DataRizerException("Emitter is closed");
+    }
+  }
+
+  /**
+   * Intended hand-out time of the last object, in {@link System#nanoTime()} terms
+   *
+   * @return scheduled time of the last object
+   */
+  long scheduledNanos() {
+    return scheduledNanos;
+  }
+
+  /**
+   * Number of objects handed out
+   *
+   * @return emitted count
+   */
+  long emitted() {
+    return emitted;
+  }
+
+  /**
+   * Objects handed out per second since the first {@link #next()}
+   *
+   * @return achieved rate, 0 before the first object
+   */
+  double achievedRate() {
+    long count = emitted;
+    long elapsed = System.nanoTime() - startNanos;
+    return count == 0 || elapsed <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  /**
+   * Number of times no object was ready at its due time because generation fell behind
+   *
+   * @return underrun count
+   */
+  long underruns() {
+    return underruns;
+  }
+
+  /**
+   * Largest delay between the due time of an object and its hand-out
+   *
+   * @return lag in nanoseconds
+   */
+  long maxLagNanos() {
+    return maxLagNanos;
+  }
+
+  /**
+   * Mean delay between the due time of an object and its hand-out
+   *
+   * @return lag in nanoseconds, 0 before the first object
+   */
+  double meanLagNanos() {
+    long count = emitted;
+    return count == 0 ? 0 : totalLagNanos / (double) count;
+  }
+
+  /** Stop and wait for the generating threads. */
+  @Override
+  public void close() {
+    running = false;
+    for (Thread producer : producers) {
+      LockSupport.unpark(producer);
+    }
+    for (Thread producer : producers) {
+      try {
+        producer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  // each object is a session of its own under the creator's config, with its own budget
+  private void produce(Class<T> clazz, GenerationConfig config, Ring ring) {
+    GenerationContext context = GenerationContext.independent();
+    try {
+      while (running) {
+        Object next = context.withConfig(config).call(() -> DataRizer.instantiate(clazz));
+        while (!ring.offer(next)) {
+          if (!running) {
+            return;
+          }
+          LockSupport.parkNanos(SPIN_NANOS);
+        }
+      }
+    } catch (Throwable e) {
+      // the consumer would otherwise wait for this ring forever
+      failure = e;
+    }
+  }
+
+  /*
+   * Single-producer single-consumer ring. The producer owns tail and the consumer head; each
+   * publishes its index with an ordered write after touching the slot, so slots need no locking.
+   */
+  private static final class Ring {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    Ring(int capacity) {
+      this.slots = new Object[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+      this.mask = slots.length - 1;
+    }
+
+    boolean offer(Object value) {
+      long t = tail.get();
+      if (t - head.get() == slots.length) {
+        return false;
+      }
+      slots[(int) t & mask] = value;
+      tail.lazySet(t + 1);
+      return true;
+    }
+
+    // EMPTY when there's nothing to take, null is a value like any other
+    Object poll() {
+      long h = head.get();
+      if (h == tail.get()) {
+        return EMPTY;
+      }
+      int index = (int) h & mask;
+      Object value = slots[index];
+      slots[index] = null;
+      head.lazySet(h + 1);
+      return value;
+    }
+
+    boolean isFull() {
+      return tail.get() - head.get() == slots.length;
+    }
+  }
+}
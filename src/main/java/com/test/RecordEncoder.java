@@ -0,0 +1,25 @@
+package com.test;
+
+/**
+ * Turns generated objects into bytes for one output format. Encoders may keep scratch state between
+ * records, so an instance belongs to a single writer.
+ */
+interface RecordEncoder {
+
+  /**
+   * Write whatever the format needs once at the start of a file (column names, magic number)
+   *
+   * @param plan plan of the class being written
+   * @param sink destination buffer
+   */
+  void header(ClassPlan<?> plan, ByteSink sink);
+
+  /**
+   * Write a single record
+   *
+   * @param record generated object
+   * @param plan plan of the record's class
+   * @param sink destination buffer
+   */
+  void encode(Object record, ClassPlan<?> plan, ByteSink sink);
+}
@@ -0,0 +1,23 @@
+package com.test;
+
+import java.util.function.Supplier;
+
+/** Output formats understood by {@link DataRizerWriter}. */
+enum RecordFormat {
+  /** One JSON object per line. */
+  JSON_LINES(JsonLinesEncoder::new),
+  /** Header row of field names followed by one row per record, nested values as JSON text. */
+  CSV(CsvEncoder::new),
+  /** Length-prefixed, type-tagged records. See {@link BinaryRecordEncoder}. */
+  BINARY(BinaryRecordEncoder::new);
+
+  private final Supplier<RecordEncoder> encoderFactory;
+
+  RecordFormat(Supplier<RecordEncoder> encoderFactory) {
+    this.encoderFactory = encoderFactory;
+  }
+
+  RecordEncoder newEncoder() {
+    return encoderFactory.get();
+  }
+}
@@ -0,0 +1,567 @@
+package com.test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates strings matching a regular expression, so Pattern constrained values are valid on the
+ * first try. Supports literals, escapes, '.', character classes with ranges and negation, the
+ * predefined classes \d \w \s and their negations, groups, alternation and the greedy, lazy and
+ * possessive quantifiers. Anchors and word boundaries are accepted and ignored. Back-references,
+ * look-arounds and Unicode properties aren't supported. Generated characters are printable ASCII.
+ *
+ * <p>Every node knows the shortest and longest strings it matches, so a length range (ie, from a
+ * Size constraint) is split between the nodes as they generate: alternatives that can't fit are
+ * skipped and repetition counts, unbounded ones included, are drawn inside what is left.
+ */
+final class RegexGenerator {
+
+  /** Repetitions added above the minimum of the unbounded quantifiers '*', '+' and {n,}. */
+  static final int UNBOUNDED_EXTRA = 8;
+
+  // length of a node without an upper bound, small enough that sums of a few never overflow
+  private static final long UNBOUNDED = Long.MAX_VALUE / 4;
+  // a length range only bounds the nodes' lengths, repetitions of fixed-size nodes may still miss
+  private static final int LENGTH_ATTEMPTS = 100;
+
+  private static final char FIRST_PRINTABLE = ' ';
+  private static final char LAST_PRINTABLE = '~';
+
+  private final String regex;
+  private final Node root;
+
+  private RegexGenerator(String regex, Node root) {
+    this.regex = regex;
+    this.root = root;
+  }
+
+  /**
+   * Parse a regular expression
+   *
+   * @param regex java regular expression
+   * @return generator for the expression
+   * @throws DataRizerException if the expression uses unsupported syntax or is malformed
+   */
+  static RegexGenerator compile(String regex) {
+    Parser parser = new Parser(regex);
+    Node root = parser.alternation();
+    if (parser.position < regex.length()) {
+      throw parser.error("unbalanced ')'");
+    }
+    return new RegexGenerator(regex, root);
+  }
+
+  /**
+   * Generate a string matching the expression
+   *
+   * @param random random source
+   * @return matching string
+   */
+  String generate(Random random) {
+    StringBuilder builder = new StringBuilder();
+    root.append(random, builder, 0, UNBOUNDED);
+    return builder.toString();
+  }
+
+  /**
+   * Generate a string matching the expression with a length inside the given bounds
+   *
+   * @param random random source
+   * @param minLength shortest length
+   * @param maxLength longest length
+   * @return matching string
+   * @throws DataRizerException if no matching string of such a length was found
+   */
+  String generate(Random random, int minLength, int maxLength) {
+    StringBuilder builder = new StringBuilder();
+    for (int attempt = 0; attempt < LENGTH_ATTEMPTS; attempt++) {
+      builder.setLength(0);
+      root.append(random, builder, minLength, maxLength);
+      if (builder.length() >= minLength && builder.length() <= maxLength) {
+        return builder.toString();
+      }
+    }
+    throw new DataRizerException(
+        "No value of pattern \"" + regex + "\" is " + minLength + " to " + maxLength + " long");
+  }
+
+  /**
+   * Whether the lengths of the matching strings overlap a range, ie, Size and Pattern on the same
+   * field can both be met
+   *
+   * @param minLength shortest length
+   * @param maxLength longest length
+   * @return false if every matching string is too short or too long
+   */
+  boolean fits(int minLength, int maxLength) {
+    return root.minLength() <= maxLength && root.maxLength() >= minLength;
+  }
+
+  String regex() {
+    return regex;
+  }
+
+  // count times length, UNBOUNDED when that's too large
+  private static long times(long count, long length) {
+    return length == 0 ? 0 : count >= UNBOUNDED / length ? UNBOUNDED : count * length;
+  }
+
+  private static long plus(long a, long b) {
+    return Math.min(UNBOUNDED, a + b);
+  }
+
+  private interface Node {
+    long minLength();
+
+    long maxLength();
+
+    // append a string no shorter than shortest and no longer than longest where the node allows it
+    void append(Random random, StringBuilder builder, long shortest, long longest);
+  }
+
+  private static final Node EMPTY =
+      new Node() {
+        @Override
+        public long minLength() {
+          return 0;
+        }
+
+        @Override
+        public long maxLength() {
+          return 0;
+        }
+
+        @Override
+        public void append(Random random, StringBuilder builder, long shortest, long longest) {}
+      };
+
+  private abstract static class SingleChar implements Node {
+    @Override
+    public long minLength() {
+      return 1;
+    }
+
+    @Override
+    public long maxLength() {
+      return 1;
+    }
+  }
+
+  private static final class Literal extends SingleChar {
+    private final char value;
+
+    Literal(char value) {
+      this.value = value;
+    }
+
+    @Override
+    public void append(Random random, StringBuilder builder, long shortest, long longest) {
+      builder.append(value);
+    }
+  }
+
+  private static final class CharClass extends SingleChar {
+    private final char[] choices;
+
+    CharClass(BitSet set) {
+      choices = new char[set.cardinality()];
+      int index = 0;
+      for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+        choices[index++] = (char) c;
+      }
+    }
+
+    @Override
+    public void append(Random random, StringBuilder builder, long shortest, long longest) {
+      builder.append(choices[random.nextInt(choices.length)]);
+    }
+  }
+
+  private static final class Sequence implements Node {
+    private final Node[] nodes;
+    // lengths of the nodes after each one
+    private final long[] restMin;
+    private final long[] restMax;
+
+    Sequence(List<Node> nodes) {
+      this.nodes = nodes.toArray(new Node[0]);
+      this.restMin = new long[this.nodes.length + 1];
+      this.restMax = new long[this.nodes.length + 1];
+      for (int i = this.nodes.length - 1; i >= 0; i--) {
+        restMin[i] = plus(restMin[i + 1], this.nodes[i].minLength());
+        restMax[i] = plus(restMax[i + 1], this.nodes[i].maxLength());
+      }
+    }
+
+    @Override
+    public long minLength() {
+      return restMin[0];
+    }
+
+    @Override
+    public long maxLength() {
+      return restMax[0];
+    }
+
+    @Override
+    public void append(Random random, StringBuilder builder, long shortest, long longest) {
+      int start = builder.length();
+      for (int i = 0; i < nodes.length; i++) {
+        long used = builder.length() - start;
+        nodes[i].append(
+            random, builder, shortest - used - restMax[i + 1], longest - used - restMin[i + 1]);
+      }
+    }
+  }
+
+  private static final class Alternation implements Node {
+    private final Node[] options;
+    private final long minLength;
+    private final long maxLength;
+
+    Alternation(List<Node> options) {
+      this.options = options.toArray(new Node[0]);
+      this.minLength = options.stream().mapToLong(Node::minLength).min().orElse(0);
+      this.maxLength = options.stream().mapToLong(Node::maxLength).max().orElse(0);
+    }
+
+    @Override
+    public long minLength() {
+      return minLength;
+    }
+
+    @Override
+    public long maxLength() {
+      return maxLength;
+    }
+
+    @Override
+    public void append(Random random, StringBuilder builder, long shortest, long longest) {
+      Node[] fitting = new Node[options.length];
+      int count = 0;
+      for (Node option : options) {
+        if (option.minLength() <= longest && option.maxLength() >= shortest) {
+          fitting[count++] = option;
+        }
+      }
+      if (count == 0) {
+        fitting = options;
+        count = options.length;
+      }
+      fitting[random.nextInt(count)].append(random, builder, shortest, longest);
+    }
+  }
+
+  private static final class Repeat implements Node {
+    private final Node node;
+    private final int min;
+    // Integer.MAX_VALUE for '*', '+' and {n,}
+    private final int max;
+
+    Repeat(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public long minLength() {
+      return times(min, node.minLength());
+    }
+
+    @Override
+    public long maxLength() {
+      return times(max == Integer.MAX_VALUE ? UNBOUNDED : max, node.maxLength());
+    }
+
+    // without a length range the count is drawn as always, up to UNBOUNDED_EXTRA above min when
+    // unbounded, a range moves both ends of the draw
+    @Override
+    public void append(Random random, StringBuilder builder, long shortest, long longest) {
+      long lowest = min;
+      if (node.maxLength() > 0 && shortest > 0) {
+        lowest = Math.max(lowest, (shortest + node.maxLength() - 1) / node.maxLength());
+      }
+      long highest = max == Integer.MAX_VALUE ? Math.max(min + UNBOUNDED_EXTRA, lowest) : max;
+      if (node.minLength() > 0) {
+        highest = Math.min(highest, Math.max(longest, 0) / node.minLength());
+      }
+      highest = Math.max(lowest, highest);
+      long count = lowest + random.nextInt((int) (highest - lowest + 1));
+      int start = builder.length();
+      for (long i = count - 1; i >= 0; i--) {
+        long used = builder.length() - start;
+        node.append(
+            random,
+            builder,
+            shortest - used - times(i, node.maxLength()),
+            longest - used - times(i, node.minLength()));
+      }
+    }
+  }
+
+  private static final class Parser {
+    private final String regex;
+    private int position;
+
+    Parser(String regex) {
+      this.regex = regex;
+    }
+
+    Node alternation() {
+      List<Node> options = new ArrayList<>();
+      options.add(sequence());
+      while (peek('|')) {
+        position++;
+        options.add(sequence());
+      }
+      return options.size() == 1 ? options.get(0) : new Alternation(options);
+    }
+
+    private Node sequence() {
+      List<Node> nodes = new ArrayList<>();
+      while (position < regex.length() && !peek('|') && !peek(')')) {
+        nodes.add(quantified(atom()));
+      }
+      return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+    }
+
+    private Node quantified(Node atom) {
+      if (position >= regex.length()) {
+        return atom;
+      }
+      int min;
+      int max;
+      switch (regex.charAt(position)) {
+        case '?':
+          min = 0;
+          max = 1;
+          position++;
+          break;
+        case '*':
+          min = 0;
+          max = Integer.MAX_VALUE;
+          position++;
+          break;
+        case '+':
+          min = 1;
+          max = Integer.MAX_VALUE;
+          position++;
+          break;
+        case '{':
+          int close = regex.indexOf('}', position);
+          if (close < 0) {
+            throw error("unclosed '{'");
+          }
+          String[] bounds = regex.substring(position + 1, close).split(",", -1);
+          try {
+            min = Integer.parseInt(bounds[0].trim());
+            if (bounds.length == 1) {
+              max = min;
+            } else if (bounds[1].isBlank()) {
+              max = Integer.MAX_VALUE;
+            } else {
+              max = Integer.parseInt(bounds[1].trim());
+            }
+          } catch (NumberFormatException e) {
+            throw error("malformed quantifier");
+          }
+          if (bounds.length > 2 || max < min) {
+            throw error("malformed quantifier");
+          }
+          position = close + 1;
+          break;
+        default:
+          return atom;
+      }
+      // lazy and possessive quantifiers match the same strings
+      if (peek('?') || peek('+')) {
+        position++;
+      }
+      return new Repeat(atom, min, max);
+    }
+
+    private Node atom() {
+      char c = regex.charAt(position++);
+      switch (c) {
+        case '(':
+          if (peek('?')) {
+            group();
+          }
+          Node inner = alternation();
+          if (!peek(')')) {
+            throw error("unclosed '('");
+          }
+          position++;
+          return inner;
+        case '[':
+          return new CharClass(charClass());
+        case '.':
+          return new CharClass(printable());
+        case '^':
+        case '$':
+          return EMPTY;
+        case '\\':
+          return escape();
+        default:
+          return new Literal(c);
+      }
+    }
+
+    // skip the "?:" or "?<name>" of a group, anything else is a look-around or flag
+    private void group() {
+      position++;
+      if (peek(':')) {
+        position++;
+      } else if (peek('<')
+          && position + 1 < regex.length()
+          && Character.isLetter(regex.charAt(position + 1))) {
+        int close = regex.indexOf('>', position);
+        if (close < 0) {
+          throw error("unclosed group name");
+        }
+        position = close + 1;
+      } else {
+        throw error("unsupported group construct");
+      }
+    }
+
+    private Node escape() {
+      if (position >= regex.length()) {
+        throw error("trailing '\\'");
+      }
+      char c = regex.charAt(position++);
+      switch (c) {
+        case 'b':
+        case 'B':
+        case 'A':
+        case 'z':
+        case 'Z':
+        case 'G':
+          return EMPTY;
+        default:
+          BitSet predefined = predefined(c);
+          if (predefined != null) {
+            return new CharClass(predefined);
+          }
+          return new Literal(escapedLiteral(c));
+      }
+    }
+
+    private BitSet charClass() {
+      boolean negated = peek('^');
+      if (negated) {
+        position++;
+      }
+      BitSet set = new BitSet();
+      boolean first = true;
+      while (position < regex.length() && (first || !peek(']'))) {
+        first = false;
+        char c = regex.charAt(position++);
+        if (c == '[' || (c == '&' && peek('&'))) {
+          throw error("nested and intersected classes aren't supported");
+        }
+        if (c == '\\') {
+          if (position >= regex.length()) {
+            throw error("trailing '\\'");
+          }
+          char escaped = regex.charAt(position++);
+          BitSet predefined = predefined(escaped);
+          if (predefined != null) {
+            set.or(predefined);
+            continue;
+          }
+          c = escapedLiteral(escaped);
+        }
+        if (peek('-') && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+          position++;
+          char end = regex.charAt(position++);
+          if (end == '\\') {
+            end = escapedLiteral(regex.charAt(position++));
+          }
+          if (end < c) {
+            throw error("illegal character range");
+          }
+          set.set(c, end + 1);
+        } else {
+          set.set(c);
+        }
+      }
+      if (!peek(']')) {
+        throw error("unclosed '['");
+      }
+      position++;
+      if (negated) {
+        BitSet complement = printable();
+        complement.andNot(set);
+        set = complement;
+      }
+      if (set.isEmpty()) {
+        throw error("character class matches no printable character");
+      }
+      return set;
+    }
+
+    private BitSet predefined(char c) {
+      BitSet set = new BitSet();
+      switch (c) {
+        case 'd':
+          set.set('0', '9' + 1);
+          return set;
+        case 'w':
+          set.set('a', 'z' + 1);
+          set.set('A', 'Z' + 1);
+          set.set('0', '9' + 1);
+          set.set('_');
+          return set;
+        case 's':
+          set.set(' ');
+          set.set('\t');
+          return set;
+        case 'D':
+        case 'W':
+        case 'S':
+          BitSet complement = printable();
+          complement.andNot(predefined(Character.toLowerCase(c)));
+          return complement;
+        default:
+          return null;
+      }
+    }
+
+    private char escapedLiteral(char c) {
+      switch (c) {
+        case 't':
+          return '\t';
+        case 'n':
+          return '\n';
+        case 'r':
+          return '\r';
+        case 'f':
+          return '\f';
+        default:
+          if (Character.isLetterOrDigit(c)) {
+            throw error("unsupported escape '\\" + c + "'");
+          }
+          return c;
+      }
+    }
+
+    private static BitSet printable() {
+      BitSet set = new BitSet();
+      set.set(FIRST_PRINTABLE, LAST_PRINTABLE + 1);
+      return set;
+    }
+
+    private boolean peek(char c) {
+      return position < regex.length() && regex.charAt(position) == c;
+    }
+
+    private DataRizerException error(String message) {
+      return new DataRizerException(
+          "Can't generate values for pattern \"" + regex + "\": " + message + " at " + position);
+    }
+  }
+}
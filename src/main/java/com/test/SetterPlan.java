@@ -0,0 +1,52 @@
+package com.test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/** A public setter of a planned class with its parameter types resolved once. */
+final class SetterPlan {
+
+  private final Method method;
+  private final Type[] parameterTypes;
+  private final FieldPlan field;
+  private final Constraints constraints;
+
+  SetterPlan(Method method, FieldPlan field, Constraints constraints) {
+    this.method = method;
+    this.parameterTypes = method.getGenericParameterTypes();
+    this.field = field;
+    this.constraints = constraints;
+  }
+
+  Method method() {
+    return method;
+  }
+
+  /**
+   * Generic parameter types of the setter. The array is shared, don't modify it.
+   *
+   * @return parameter types
+   */
+  Type[] parameterTypes() {
+    return parameterTypes;
+  }
+
+  /**
+   * Field of the same name as the setter's property
+   *
+   * @return field, null if the class has none
+   */
+  FieldPlan field() {
+    return field;
+  }
+
+  /**
+   * Bean Validation constraints of the set value, from the parameter and the field of the same
+   * name
+   *
+   * @return constraints, {@link Constraints#NONE} if there aren't any
+   */
+  Constraints constraints() {
+    return constraints;
+  }
+}
@@ -0,0 +1,150 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * One of {@code shardCount} contiguous index ranges of a global (seed, totalCount) generation.
+ * Record {@code i} is always generated from its own seed, derived from the global seed and {@code
+ * i}, so a range produces the same records on any process regardless of how the rest of the
+ * dataset is split. Concatenating the output of shards 0 to shardCount - 1, in order, gives the
+ * same bytes as a single run, see {@link DataRizerWriter#write(Class, Shard)}.
+ *
+ * <pre>
+ * // on node 3 of 16
+ * try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.CSV)) {
+ *   writer.write(Cat.class, Shard.of(42, 1_000_000_000L, 3, 16));
+ * }
+ * </pre>
+ *
+ * <p>Records only come out the same on every JVM when their content doesn't depend on identity
+ * hash codes, ie, no sets or map keys of enums or classes without their own hashCode.
+ */
+final class Shard {
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final long seed;
+  private final long totalCount;
+  private final int index;
+  private final int shardCount;
+  private final long from;
+  private final long to;
+
+  private Shard(long seed, long totalCount, int index, int shardCount) {
+    this.seed = seed;
+    this.totalCount = totalCount;
+    this.index = index;
+    this.shardCount = shardCount;
+    this.from = start(index);
+    this.to = start(index + 1);
+  }
+
+  /**
+   * Shard of a global generation. Ranges differ in size by at most one record.
+   *
+   * @param seed global seed
+   * @param totalCount number of records across all shards
+   * @param index shard index, from 0 to shardCount - 1
+   * @param shardCount number of shards
+   * @return shard
+   * @throws DataRizerException if the count or index are out of range
+   */
+  static Shard of(long seed, long totalCount, int index, int shardCount) {
+    if (totalCount < 0 || shardCount < 1 || index < 0 || index >= shardCount) {
+      throw new DataRizerException(
+          "Invalid shard " + index + " of " + shardCount + " for " + totalCount + " records");
+    }
+    return new Shard(seed, totalCount, index, shardCount);
+  }
+
+  /**
+   * The whole generation as a single shard
+   *
+   * @param seed global seed
+   * @param totalCount number of records
+   * @return shard covering every record
+   */
+  static Shard single(long seed, long totalCount) {
+    return of(seed, totalCount, 0, 1);
+  }
+
+  /**
+   * Seed of one record, a SplitMix64 mix of the global seed and the record index so neighbouring
+   * records get unrelated random streams
+   *
+   * @param seed global seed
+   * @param recordIndex global record index
+   * @return record seed
+   */
+  static long recordSeed(long seed, long recordIndex) {
+    long z = seed + (recordIndex + 1) * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Generate the record at a global index. The result doesn't depend on the shard it's generated
+   * in.
+   *
+   * @param clazz Class object wrapping the generic
+   * @param recordIndex global record index
+   * @param <T> Class generic to instantiate
+   * @return generated record
+   */
+  <T> T generate(Class<T> clazz, long recordIndex) {
+    try {
+      return DataRizer.instantiateSeeded(clazz, recordSeed(seed, recordIndex));
+    } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+      throw new DataRizerException(e);
+    }
+  }
+
+  long seed() {
+    return seed;
+  }
+
+  long totalCount() {
+    return totalCount;
+  }
+
+  int index() {
+    return index;
+  }
+
+  int shardCount() {
+    return shardCount;
+  }
+
+  /**
+   * First global record index of the shard
+   *
+   * @return inclusive start
+   */
+  long from() {
+    return from;
+  }
+
+  /**
+   * End of the shard's range
+   *
+   * @return exclusive end
+   */
+  long to() {
+    return to;
+  }
+
+  long size() {
+    return to - from;
+  }
+
+  // the first totalCount % shardCount shards get one extra record
+  private long start(int shard) {
+    return (totalCount / shardCount) * shard + Math.min(shard, totalCount % shardCount);
+  }
+
+  @Override
+  public String toString() {
+    return "Shard " + index + "/" + shardCount + " [" + from + ", " + to + ") seed " + seed;
+  }
+}
@@ -0,0 +1,263 @@
+package com.test;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expected number of objects and bytes of a generated value, worked out from the class plans and
+ * the size settings of a {@link GenerationConfig} without generating anything. Collections count
+ * their expected element count, self references stop at the configured depth and nullable values
+ * count at their share of non-null values. Sizes are shallow heap sizes of a 64-bit JVM with
+ * compressed references: a 12 byte header, 4 byte references, 8 byte alignment.
+ *
+ * <p>It's an expectation, not a bound: a single value can be several times larger.
+ */
+final class SizeEstimate {
+
+  /** Nothing allocated, ie, primitives, enum constants and values cut off by the depth. */
+  static final SizeEstimate NONE = new SizeEstimate(0, 0);
+
+  private static final int HEADER = 12;
+  private static final int REFERENCE = 4;
+  private static final int ARRAY_HEADER = 16;
+  private static final int ARRAY_LIST_CAPACITY = 10;
+  private static final int HASH_TABLE_CAPACITY = 16;
+  private static final int HASH_MAP = 48;
+  private static final int HASH_SET = 16;
+  private static final int HASH_NODE = 32;
+
+  private final double objects;
+  private final double bytes;
+
+  private SizeEstimate(double objects, double bytes) {
+    this.objects = objects;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Estimate a value of a declared type
+   *
+   * @param type declared type, ie, List&lt;Order&gt;
+   * @param config settings the value would be generated with
+   * @return expected objects and bytes
+   */
+  static SizeEstimate of(Type type, GenerationConfig config) {
+    return estimate(type, Constraints.NONE, config, new HashMap<>());
+  }
+
+  /**
+   * Estimate a value on its own, without the values it refers to: the object with its fields, a
+   * string with its characters, a collection without its elements
+   *
+   * @param clazz class of the value
+   * @param config settings the value would be generated with
+   * @return expected objects and bytes
+   */
+  static SizeEstimate shallow(Class<?> clazz, GenerationConfig config) {
+    if (clazz.isPrimitive() || ClassPlan.isLeaf(clazz)) {
+      return leaf(clazz.isPrimitive() ? boxed(clazz) : clazz, config.stringLength());
+    } else if (Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+      return container(clazz, 0);
+    } else if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+      // counted as the implementation it's generated as
+      return NONE;
+    }
+    return new SizeEstimate(1, instanceSize(clazz));
+  }
+
+  /**
+   * Expected number of objects
+   *
+   * @return objects, not rounded
+   */
+  double objects() {
+    return objects;
+  }
+
+  /**
+   * Expected shallow heap size of all the objects
+   *
+   * @return bytes, not rounded
+   */
+  double bytes() {
+    return bytes;
+  }
+
+  /**
+   * Estimate of count independent values like this one
+   *
+   * @param count number of values
+   * @return scaled estimate
+   */
+  SizeEstimate times(double count) {
+    return new SizeEstimate(objects * count, bytes * count);
+  }
+
+  private SizeEstimate plus(SizeEstimate other) {
+    return new SizeEstimate(objects + other.objects, bytes + other.bytes);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("SizeEstimate{objects=%.1f, bytes=%.0f}", objects, bytes);
+  }
+
+  // depths counts the instances of each class on the way down, like the same class recursion
+  private static SizeEstimate estimate(
+      Type type, Constraints constraints, GenerationConfig config, Map<Class<?>, Integer> depths) {
+    Class<?> clazz = ClassPlan.rawType(type);
+    if (clazz.isPrimitive() || clazz.isEnum() || constraints.isNull()) {
+      return NONE;
+    } else if (ClassPlan.isLeaf(clazz)) {
+      return leaf(clazz, expectedSize(constraints, config.stringLength()));
+    } else if (Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+      double size =
+          constraints.minSize() > 0 || constraints.maxSize() < Integer.MAX_VALUE
+              ? expectedSize(constraints, config.maxCollectionSize())
+              : expectedLoopSize(config.maxCollectionSize());
+      SizeEstimate element = estimate(ClassPlan.typeArgument(type, 0), config, depths);
+      if (Map.class.isAssignableFrom(clazz)) {
+        element = element.plus(estimate(ClassPlan.typeArgument(type, 1), config, depths));
+      }
+      return container(clazz, size).plus(element.times(size));
+    } else if (clazz.isArray()) {
+      return new SizeEstimate(1, align(ARRAY_HEADER));
+    }
+    Class<?>[] implementations = ClassPlan.of(clazz).implementations();
+    if (implementations.length > 0) {
+      // one of them at random, and each resolution takes a level like the generation does
+      SizeEstimate sum = NONE;
+      for (Class<?> implementation : implementations) {
+        sum = sum.plus(nested(clazz, implementation, config, depths));
+      }
+      return sum.times(1.0 / implementations.length);
+    }
+    return nested(clazz, clazz, config, depths);
+  }
+
+  private static SizeEstimate estimate(
+      Type type, GenerationConfig config, Map<Class<?>, Integer> depths) {
+    return estimate(type, Constraints.NONE, config, depths);
+  }
+
+  private static SizeEstimate nested(
+      Class<?> counted, Class<?> clazz, GenerationConfig config, Map<Class<?>, Integer> depths) {
+    int depth = depths.getOrDefault(counted, 0);
+    if (depth >= config.maxDepth()) {
+      return NONE;
+    }
+    depths.put(counted, depth + 1);
+    try {
+      SizeEstimate total = new SizeEstimate(1, instanceSize(clazz));
+      for (FieldPlan field : ClassPlan.of(clazz).fields()) {
+        SizeEstimate value =
+            estimate(field.genericType(), field.constraints(), config, depths);
+        if (!field.type().isPrimitive() && !field.constraints().notNull()) {
+          value = value.times(1 - config.nullRate());
+        }
+        total = total.plus(value);
+      }
+      return total;
+    } finally {
+      depths.put(counted, depth);
+    }
+  }
+
+  private static SizeEstimate leaf(Class<?> clazz, double length) {
+    if (CharSequence.class.isAssignableFrom(clazz)) {
+      // compact strings hold generated alphanumerics in one byte per character
+      return new SizeEstimate(2, align(HEADER + REFERENCE + 8) + align(ARRAY_HEADER + length));
+    } else if (clazz == Long.class || clazz == Double.class) {
+      return new SizeEstimate(1, align(HEADER + 8));
+    } else if (clazz == BigDecimal.class || clazz == BigInteger.class) {
+      return new SizeEstimate(1, 40);
+    } else if (clazz == LocalDateTime.class) {
+      // a LocalDate and a LocalTime
+      return new SizeEstimate(3, 3 * 24);
+    } else if (Number.class.isAssignableFrom(clazz)
+        || clazz == Boolean.class
+        || clazz == Character.class) {
+      return new SizeEstimate(1, align(HEADER + 4));
+    } else if (clazz.isEnum()) {
+      return NONE;
+    }
+    return new SizeEstimate(1, 24);
+  }
+
+  private static SizeEstimate container(Class<?> clazz, double size) {
+    if (List.class.isAssignableFrom(clazz)
+        || (!Set.class.isAssignableFrom(clazz) && !Map.class.isAssignableFrom(clazz))) {
+      double capacity = Math.max(size, ARRAY_LIST_CAPACITY);
+      return new SizeEstimate(2, align(HEADER + 8) + align(ARRAY_HEADER + REFERENCE * capacity));
+    }
+    double table = HASH_TABLE_CAPACITY;
+    while (table * 0.75 < size) {
+      table *= 2;
+    }
+    double map = HASH_MAP + align(ARRAY_HEADER + REFERENCE * table) + HASH_NODE * size;
+    return Set.class.isAssignableFrom(clazz)
+        ? new SizeEstimate(3 + size, HASH_SET + map)
+        : new SizeEstimate(2 + size, map);
+  }
+
+  private static double instanceSize(Class<?> clazz) {
+    double size = HEADER;
+    for (FieldPlan field : ClassPlan.of(clazz).fields()) {
+      Class<?> type = field.type();
+      if (type == long.class || type == double.class) {
+        size += 8;
+      } else if (type == int.class || type == float.class) {
+        size += 4;
+      } else if (type == short.class || type == char.class) {
+        size += 2;
+      } else if (type == byte.class || type == boolean.class) {
+        size += 1;
+      } else {
+        size += REFERENCE;
+      }
+    }
+    return align(size);
+  }
+
+  // random lengths and element counts inside Size are uniform between the bounds
+  private static double expectedSize(Constraints constraints, int defaultSize) {
+    int min = constraints.minSize();
+    int max = Math.min(constraints.maxSize(), Math.max(min, defaultSize));
+    return (min + (double) max) / 2;
+  }
+
+  /*
+   * Collections are filled while the index is below a bound drawn again for each element, from 1
+   * to max: element k + 1 is added with probability (max - 1) / max * ... * (max - k) / max.
+   */
+  private static double expectedLoopSize(int max) {
+    double size = 0;
+    double reached = 1;
+    for (int k = 0; k < max; k++) {
+      size += reached;
+      reached *= (double) (max - k - 1) / max;
+    }
+    return size;
+  }
+
+  private static Class<?> boxed(Class<?> primitive) {
+    if (primitive == long.class) {
+      return Long.class;
+    } else if (primitive == double.class) {
+      return Double.class;
+    }
+    return Integer.class;
+  }
+
+  private static double align(double size) {
+    return Math.ceil(size / 8) * 8;
+  }
+}
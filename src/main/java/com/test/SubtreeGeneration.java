@@ -0,0 +1,102 @@
+package com.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Elements of one large collection generated as independent subtrees on the common fork-join
+ * pool. Element i runs in a context of its own, seeded with a {@link Shard#recordSeed(long, long)}
+ * mix of one seed drawn from the parent's random and i, with the parent's clock, config and
+ * budget. So the elements are the same whichever threads generate them and however the work is
+ * split, and a seeded parent still gives the same object.
+ *
+ * <p>Ranges are split in halves down to {@link #GRAIN} elements; a subtree that is itself large
+ * forks again from inside its task.
+ */
+final class SubtreeGeneration extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Elements generated by one task without splitting further. */
+  static final int GRAIN = 64;
+
+  private final GenerationContext parent;
+  private final long seed;
+  private final GenerationContext.Generation<?> element;
+  private final Object[] results;
+  private final int from;
+  private final int to;
+
+  private SubtreeGeneration(
+      GenerationContext parent,
+      long seed,
+      GenerationContext.Generation<?> element,
+      Object[] results,
+      int from,
+      int to) {
+    this.parent = parent;
+    this.seed = seed;
+    this.element = element;
+    this.results = results;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Generate elements in parallel, with the context active on the calling thread as parent
+   *
+   * @param count number of elements
+   * @param element generation of one element
+   * @return elements in index order
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static Object[] generate(int count, GenerationContext.Generation<?> element)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext parent = GenerationContext.current();
+    Object[] results = new Object[count];
+    SubtreeGeneration task =
+        new SubtreeGeneration(parent, parent.random().nextLong(), element, results, 0, count);
+    try {
+      // the calling thread takes part, forked halves go to the common pool
+      task.invoke();
+    } catch (Failure failure) {
+      Exception cause = (Exception) failure.getCause();
+      if (cause instanceof InvocationTargetException) {
+        throw (InvocationTargetException) cause;
+      } else if (cause instanceof IllegalAccessException) {
+        throw (IllegalAccessException) cause;
+      }
+      throw (InstantiationException) cause;
+    }
+    return results;
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from > GRAIN) {
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new SubtreeGeneration(parent, seed, element, results, from, middle),
+          new SubtreeGeneration(parent, seed, element, results, middle, to));
+      return;
+    }
+    for (int i = from; i < to; i++) {
+      try {
+        results[i] = parent.subtree(Shard.recordSeed(seed, i)).call(element);
+      } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
+        throw new Failure(e);
+      }
+    }
+  }
+
+  // carries a checked exception of an element out of the pool
+  private static final class Failure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private Failure(Exception cause) {
+      super(cause);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package com.test;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the concrete classes an interface or abstract class can be generated as. Sealed types list
+ * their permitted subclasses; for the others the package of the type, with its sub-packages, is
+ * indexed once: every concrete class is loaded, without initializing it, and recorded under each
+ * of its supertypes. The index is written to a file named after the package and a {@link
+ * ClassPathScanner#fingerprint(ClassLoader, String)} of its class files, so later runs read it
+ * back instead of loading the classes again, until a class file changes.
+ *
+ * <p>Only the type's own package tree is searched, an implementation in a sibling or unrelated
+ * package isn't found unless that package is listed, comma separated, in the {@value
+ * #PACKAGES_PROPERTY} system property. Index files are kept in a directory of the current user
+ * under {@code java.io.tmpdir}, or in the one named by {@value #DIRECTORY_PROPERTY}.
+ *
+ * <p>Callers cache the result per declared type, see {@link ClassPlan#implementations()}.
+ */
+final class SubtypeIndex {
+
+  /** System property overriding the directory index files are kept in. */
+  static final String DIRECTORY_PROPERTY = "datarizer.index.dir";
+
+  /** System property listing packages searched for implementations of types outside them. */
+  static final String PACKAGES_PROPERTY = "datarizer.index.packages";
+
+  private static final String HEADER = "# datarizer subtype index";
+  private static final String SUFFIX = ".idx";
+  // supertype name to implementation names, per package and class loader indexed by this JVM
+  private static final Map<String, Map<String, List<String>>> PACKAGES = new ConcurrentHashMap<>();
+
+  private SubtypeIndex() {}
+
+  /**
+   * Concrete classes that can stand in for a type
+   *
+   * @param type interface or abstract class
+   * @return implementations sorted by name, empty if none were found
+   */
+  static List<Class<?>> implementations(Class<?> type) {
+    Set<Class<?>> found = new LinkedHashSet<>();
+    collect(type, found);
+    List<Class<?>> implementations = new ArrayList<>(found);
+    implementations.sort(Comparator.comparing(Class::getName));
+    return implementations;
+  }
+
+  /**
+   * Index of a package, read from its index file if there is a current one, built and written
+   * otherwise
+   *
+   * @param loader class loader to search and load with
+   * @param packageName package name (ie, com.acme.model)
+   * @param directory directory of the index files
+   * @return supertype names mapped to the names of their concrete subclasses
+   * @throws IOException if the index file can't be read or written
+   */
+  static Map<String, List<String>> index(ClassLoader loader, String packageName, Path directory)
+      throws IOException {
+    Path file =
+        directory.resolve(
+            packageName
+                + "-"
+                + Long.toHexString(ClassPathScanner.fingerprint(loader, packageName))
+                + SUFFIX);
+    if (Files.isRegularFile(file)) {
+      return read(file);
+    }
+    List<String> lines = build(loader, packageName);
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, packageName, ".tmp");
+    try {
+      Files.write(temp, lines, StandardCharsets.UTF_8);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    deleteStale(directory, packageName, file);
+    return read(file);
+  }
+
+  private static void collect(Class<?> type, Set<Class<?>> found) {
+    if (isConcrete(type)) {
+      found.add(type);
+    } else if (type.isSealed()) {
+      for (Class<?> permitted : type.getPermittedSubclasses()) {
+        collect(permitted, found);
+      }
+    } else {
+      ClassLoader loader = type.getClassLoader();
+      if (loader == null) {
+        // JDK types, their implementations aren't ours to pick
+        return;
+      }
+      for (String packageName : packages(type)) {
+        for (String name : indexed(loader, packageName).getOrDefault(type.getName(), List.of())) {
+          try {
+            found.add(Class.forName(name, false, loader));
+          } catch (ClassNotFoundException | LinkageError e) {
+            // removed since the index was written, skip it
+          }
+        }
+      }
+    }
+  }
+
+  // the type's package first, then the configured ones
+  private static Set<String> packages(Class<?> type) {
+    Set<String> packages = new LinkedHashSet<>();
+    packages.add(type.getPackageName());
+    String extra = System.getProperty(PACKAGES_PROPERTY, "");
+    for (String packageName : extra.split(",")) {
+      if (!packageName.isBlank()) {
+        packages.add(packageName.trim());
+      }
+    }
+    return packages;
+  }
+
+  private static Map<String, List<String>> indexed(ClassLoader loader, String packageName) {
+    return PACKAGES.computeIfAbsent(
+        packageName + "@" + System.identityHashCode(loader),
+        key -> {
+          try {
+            return index(loader, packageName, directory());
+          } catch (IOException e) {
+            throw new DataRizerException(e);
+          }
+        });
+  }
+
+  // per user, another user's files in a shared tmpdir can't be trusted or replaced
+  private static Path directory() {
+    String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory != null) {
+      return Path.of(directory);
+    }
+    String user = System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_");
+    return Path.of(System.getProperty("java.io.tmpdir"), "datarizer-index-" + user);
+  }
+
+  // one line per concrete class: its name followed by the names of all its supertypes
+  private static List<String> build(ClassLoader loader, String packageName) {
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    for (Class<?> clazz : ClassPathScanner.classes(loader, packageName)) {
+      if (!isConcrete(clazz)) {
+        continue;
+      }
+      Set<String> supertypes = new LinkedHashSet<>();
+      try {
+        addSupertypes(clazz, supertypes);
+      } catch (LinkageError e) {
+        // a supertype is missing from the class path, the class can't be generated anyway
+        continue;
+      }
+      lines.add(clazz.getName() + " " + String.join(" ", supertypes));
+    }
+    return lines;
+  }
+
+  private static void addSupertypes(Class<?> clazz, Set<String> supertypes) {
+    Class<?> superclass = clazz.getSuperclass();
+    if (superclass != null && superclass != Object.class && supertypes.add(superclass.getName())) {
+      addSupertypes(superclass, supertypes);
+    }
+    for (Class<?> implemented : clazz.getInterfaces()) {
+      if (supertypes.add(implemented.getName())) {
+        addSupertypes(implemented, supertypes);
+      }
+    }
+  }
+
+  private static Map<String, List<String>> read(Path file) throws IOException {
+    Map<String, List<String>> index = new HashMap<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      String[] names = line.trim().split(" ");
+      for (String supertype : Arrays.asList(names).subList(1, names.length)) {
+        index.computeIfAbsent(supertype, key -> new ArrayList<>()).add(names[0]);
+      }
+    }
+    return index;
+  }
+
+  // index files of older versions of the package's classes
+  private static void deleteStale(Path directory, String packageName, Path current)
+      throws IOException {
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, packageName + "-*" + SUFFIX)) {
+      for (Path file : files) {
+        String fingerprint =
+            file.getFileName().toString().substring(packageName.length() + 1).replace(SUFFIX, "");
+        if (!file.equals(current) && fingerprint.matches("[0-9a-f]+")) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  // classes that can be instantiated: no interfaces, abstract classes or inner classes
+  private static boolean isConcrete(Class<?> clazz) {
+    return !clazz.isInterface()
+        && !Modifier.isAbstract(clazz.getModifiers())
+        && !clazz.isAnonymousClass()
+        && !clazz.isLocalClass()
+        && (!clazz.isMemberClass() || Modifier.isStatic(clazz.getModifiers()));
+  }
+}
@@ -0,0 +1,242 @@
+package com.test;
+
+import java.io.IOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A fixed dictionary of values handed out again and again instead of generating a new object each
+ * time, registered for a type or a field with {@link DataRizer#pool(Class, ValuePool)} or {@link
+ * DataRizer#pool(Class, String, ValuePool)}. Most real columns have few distinct values; a pool
+ * keeps that cardinality and makes millions of records share a few thousand String, BigDecimal or
+ * LocalDate instances, so fixtures take a fraction of the heap and give the garbage collector
+ * little to do.
+ *
+ * <pre>
+ * DataRizer.pool(Customer.class, "city", ValuePool.fromWords(Path.of("cities.txt")));
+ * DataRizer.pool(BigDecimal.class, ValuePool.of(BigDecimal.class, 500, 42));
+ * </pre>
+ *
+ * <p>Values are picked uniformly, or with a {@link Distribution} over their positions, see {@link
+ * #skewed(Distribution)}. Pooled values are shared, so only immutable types should be pooled.
+ */
+final class ValuePool implements ValueSource {
+
+  private final Class<?> type;
+  private final Object[] values;
+  private final Distribution distribution;
+  private volatile Long fingerprint;
+
+  private ValuePool(Class<?> type, Object[] values, Distribution distribution) {
+    this.type = type;
+    this.values = values;
+    this.distribution = distribution;
+  }
+
+  /**
+   * Pool of generated values. The pool is generated with a fixed seed, so the same arguments give
+   * the same values on every run.
+   *
+   * @param type pooled type
+   * @param size number of values generated, fewer remain if some come out equal
+   * @param seed random seed the values are generated with
+   * @return pool
+   * @throws DataRizerException if size isn't positive
+   * @throws InvocationTargetException exception thrown during reflection calls
+   * @throws IllegalAccessException exception thrown during reflection calls
+   * @throws InstantiationException exception thrown during reflection calls
+   */
+  static ValuePool of(Class<?> type, int size, long seed)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    if (size < 1) {
+      throw new DataRizerException("Pool size must be positive: " + size);
+    }
+    Object[] values = new Object[size];
+    GenerationContext context = GenerationContext.seeded(seed);
+    for (int i = 0; i < size; i++) {
+      values[i] = context.call(() -> DataRizer.instantiate(type));
+    }
+    return new ValuePool(type, dedupe(values), null);
+  }
+
+  /**
+   * Pool of the given values
+   *
+   * @param type pooled type
+   * @param values values, copied
+   * @return pool
+   * @throws DataRizerException if there are no values or one isn't a type
+   */
+  static ValuePool of(Class<?> type, List<?> values) {
+    if (values.isEmpty()) {
+      throw new DataRizerException("Pool needs at least one value");
+    }
+    Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+    for (Object value : values) {
+      if (!boxed.isInstance(value)) {
+        throw new DataRizerException(value + " isn't a " + type.getName());
+      }
+    }
+    return new ValuePool(type, values.toArray(), null);
+  }
+
+  /**
+   * Pool of the lines of a UTF-8 text file, one word or phrase per line. The file is memory
+   * mapped and split in place, so only the final strings are allocated, once each; blank lines
+   * are skipped.
+   *
+   * @param file word list, up to 2GB
+   * @return pool of String
+   * @throws IOException if the file can't be read
+   * @throws DataRizerException if the file has no words
+   */
+  static ValuePool fromWords(Path file) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new DataRizerException(file + " is too large for a word list");
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    List<String> words = new ArrayList<>();
+    byte[] scratch = new byte[64];
+    int start = 0;
+    int limit = mapped.limit();
+    for (int i = 0; i <= limit; i++) {
+      if (i == limit || mapped.get(i) == '\n') {
+        int end = i > start && mapped.get(i - 1) == '\r' ? i - 1 : i;
+        if (end > start) {
+          if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+          }
+          mapped.get(start, scratch, 0, end - start);
+          String word = new String(scratch, 0, end - start, StandardCharsets.UTF_8).strip();
+          if (!word.isEmpty()) {
+            words.add(word);
+          }
+        }
+        start = i + 1;
+      }
+    }
+    if (words.isEmpty()) {
+      throw new DataRizerException(file + " has no words");
+    }
+    return new ValuePool(String.class, dedupe(words.toArray()), null);
+  }
+
+  /**
+   * The same values, picked by a distribution over their positions instead of uniformly, ie, a
+   * Zipf distribution so that the first values are the most frequent
+   *
+   * @param distribution distribution drawing positions from 0 to size - 1
+   * @return new pool sharing this pool's values
+   */
+  ValuePool skewed(Distribution distribution) {
+    return new ValuePool(type, values, distribution);
+  }
+
+  /**
+   * Pooled type
+   *
+   * @return type of the values
+   */
+  Class<?> type() {
+    return type;
+  }
+
+  /**
+   * Number of distinct values
+   *
+   * @return size
+   */
+  int size() {
+    return values.length;
+  }
+
+  /**
+   * Value at a position
+   *
+   * @param index position, from 0 to size - 1
+   * @return pooled value
+   */
+  Object get(int index) {
+    return values[index];
+  }
+
+  /**
+   * Pick a pooled value
+   *
+   * @param type generated type, must accept the pooled type
+   * @param random random source
+   * @param clock unused, pooled values are fixed
+   * @return shared pooled value
+   * @throws DataRizerException if the distribution draws a position outside of the pool
+   */
+  @Override
+  public Object sample(Class<?> type, Random random, Clock clock) {
+    if (distribution == null) {
+      return values[random.nextInt(values.length)];
+    }
+    double drawn = distribution.draw(random);
+    long index = Math.round(drawn);
+    if (index < 0 || index >= values.length) {
+      throw new DataRizerException(
+          distribution + " drew " + drawn + ", outside of a pool of " + values.length);
+    }
+    return values[(int) index];
+  }
+
+  @Override
+  public long fingerprint() {
+    Long hash = fingerprint;
+    if (hash == null) {
+      ByteSink sink = new ByteSink(16 * 1024);
+      for (Object value : values) {
+        BinaryRecordEncoder.writeValue(value, type, sink);
+      }
+      hash = ClassPlan.hash(ClassPlan.FNV_OFFSET_BASIS, type.getName());
+      hash = ClassPlan.hash(hash, sink.flip());
+      if (distribution != null) {
+        hash = ClassPlan.hash(hash, distribution.toString());
+      }
+      fingerprint = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Whether pooled values can be assigned to a field or parameter of the given type
+   *
+   * @param target declared type
+   * @return true if the values fit
+   */
+  boolean fits(Class<?> target) {
+    return MethodType.methodType(target)
+        .wrap()
+        .returnType()
+        .isAssignableFrom(MethodType.methodType(type).wrap().returnType());
+  }
+
+  // equal values collapse to the first instance, so the pool holds distinct values only
+  private static Object[] dedupe(Object[] values) {
+    Set<Object> seen = new HashSet<>(values.length * 2);
+    List<Object> distinct = new ArrayList<>(values.length);
+    for (Object value : values) {
+      if (seen.add(value)) {
+        distinct.add(value);
+      }
+    }
+    return distinct.size() == values.length ? values : distinct.toArray();
+  }
+}
@@ -0,0 +1,30 @@
+package com.test;
+
+import java.time.Clock;
+import java.util.Random;
+
+/**
+ * Where the values of a type or field come from when they shouldn't be uniform, registered with
+ * {@link DataRizer#distribute(Class, Distribution)} or {@link DataRizer#pool(Class, ValuePool)}.
+ * Implementations are immutable and shared between threads.
+ */
+interface ValueSource {
+
+  /**
+   * Produce a value of the given type
+   *
+   * @param type generated type
+   * @param random random source of the running generation
+   * @param clock clock of the running generation, dates are relative to it
+   * @return value assignable to type
+   */
+  Object sample(Class<?> type, Random random, Clock clock);
+
+  /**
+   * Hash of what the source produces, the same on every run for sources built from the same
+   * arguments. Cached fixtures are only reused when the fingerprints of the sources match.
+   *
+   * @return 64 bit hash
+   */
+  long fingerprint();
+}
@@ -0,0 +1,12 @@
+package com.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AlwaysFailingConstructor {
+  static final AtomicInteger CALLS = new AtomicInteger();
+
+  public AlwaysFailingConstructor(String name) {
+    CALLS.incrementAndGet();
+    throw new IllegalStateException("always fails");
+  }
+}
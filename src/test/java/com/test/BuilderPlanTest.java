@@ -0,0 +1,88 @@
+package com.test;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuilderPlanTest {
+
+  @AfterEach
+  void clearValueSources() {
+    DataRizer.clearValueSources();
+  }
+
+  @Test
+  void testBuilderChainIsDiscoveredOnce() {
+    BuilderPlan plan = ClassPlan.of(BuiltOrder.class).fluentBuilder().orElseThrow();
+    assertSame(plan, ClassPlan.of(BuiltOrder.class).fluentBuilder().orElseThrow());
+    assertEquals(
+        List.of("id", "code", "quantity", "placed", "level", "tags", "parent"),
+        plan.steps().stream().map(step -> step.field().name()).collect(Collectors.toList()));
+    assertTrue(ClassPlan.of(SkewedRecord.class).fluentBuilder().isEmpty());
+  }
+
+  @Test
+  void testBuilderClassesAreGenerated()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (int i = 0; i < 100; i++) {
+      BuiltOrder order = DataRizer.instantiate(BuiltOrder.class);
+      assertEquals(10, order.getId().length());
+      assertEquals(3, order.getCode().length());
+      assertNotNull(order.getPlaced());
+      assertNotNull(order.getLevel());
+      assertFalse(order.getTags().isEmpty());
+      assertTrue(order.getTags().stream().allMatch(tag -> tag instanceof String));
+    }
+  }
+
+  @Test
+  void testSelfReferencesEndAtTheRecursionLimit()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    BuiltOrder order = DataRizer.instantiate(BuiltOrder.class);
+    int depth = 0;
+    while (order.getParent() != null) {
+      order = order.getParent();
+      depth++;
+    }
+    assertTrue(depth <= 2, "depth " + depth);
+  }
+
+  @Test
+  void testBuilderStepsUseFieldSources()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizer.distribute(BuiltOrder.class, "quantity", Distribution.gaussian(4, 0));
+    assertEquals(4, DataRizer.instantiate(BuiltOrder.class).getQuantity());
+  }
+
+  @Test
+  void testSeededBuilderGenerationIsRepeatable()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    BuiltOrder first = DataRizer.instantiateSeeded(BuiltOrder.class, 11);
+    BuiltOrder second = DataRizer.instantiateSeeded(BuiltOrder.class, 11);
+    assertEquals(first.getId(), second.getId());
+    assertEquals(first.getTags(), second.getTags());
+  }
+
+  @Test
+  void testFailingBuildersRaiseInvocationTargetException() {
+    assertThrows(
+        InvocationTargetException.class, () -> DataRizer.instantiate(RejectingBuiltOrder.class));
+  }
+}
+
+@Getter
+@Builder
+class RejectingBuiltOrder {
+  private final String id;
+
+  private RejectingBuiltOrder(String id) {
+    throw new IllegalStateException("rejected " + id);
+  }
+}
@@ -0,0 +1,23 @@
+package com.test;
+
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Value
+@Builder
+class BuiltOrder {
+  String id;
+
+  @Size(min = 3, max = 3)
+  String code;
+
+  int quantity;
+  LocalDate placed;
+  SkewedLevel level;
+  List<String> tags;
+  BuiltOrder parent;
+}
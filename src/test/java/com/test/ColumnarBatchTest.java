@@ -0,0 +1,110 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarBatchTest {
+
+  private static final int ROWS = 10_000;
+
+  @Test
+  void testEveryFixedWidthFieldIsAColumn() {
+    ColumnarBatch batch = DataRizer.instantiateColumns(NativeTrade.class, ROWS);
+    assertEquals(ROWS, batch.size());
+    assertEquals(
+        OffHeapLayout.of(NativeTrade.class).columns().stream()
+            .map(OffHeapLayout.Column::name)
+            .collect(Collectors.toList()),
+        batch.names());
+    assertFalse(batch.names().contains("notes"));
+    assertEquals(ROWS, batch.longs("id").length);
+    assertEquals(ROWS, batch.doubles("price").length);
+    assertEquals(ROWS, batch.ints("quantity").length);
+    assertEquals(ROWS, batch.shorts("flag").length);
+    assertEquals(ROWS, batch.booleans("active").length);
+    assertEquals(ROWS + 1, batch.strings("symbol").offsets().length);
+  }
+
+  @Test
+  void testValuesStayInTheirRanges()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ColumnarBatch batch =
+        GenerationContext.seeded(5)
+            .call(() -> DataRizer.instantiateColumns(NativeTrade.class, ROWS));
+    assertTrue(Arrays.stream(batch.ints("quantity")).allMatch(quantity -> quantity >= 0));
+    assertTrue(Arrays.stream(batch.doubles("price")).allMatch(price -> price >= 0 && price < 1));
+    for (short flag : batch.shorts("flag")) {
+      assertTrue(flag >= 0);
+    }
+    Object[] sides = batch.dictionary("side");
+    assertArrayEquals(EnumTestHasEnums.values(), sides);
+    Set<Integer> codes = new HashSet<>();
+    for (int code : batch.ints("side")) {
+      codes.add(code);
+    }
+    assertEquals(sides.length, codes.size());
+
+    ColumnarBatch.StringColumn venues = batch.strings("venue");
+    assertEquals(0, venues.offsets()[0]);
+    assertEquals(venues.bytes().length, venues.offsets()[ROWS]);
+    Instant reference = GenerationContext.SEEDED_REFERENCE_TIME;
+    for (int row = 0; row < ROWS; row++) {
+      String venue = venues.get(row);
+      assertTrue(venue.matches("[0-9A-Za-z]{2,4}"), venue);
+      assertEquals(10, ((String) batch.get(row, "symbol")).length());
+      Instant executed = (Instant) batch.get(row, "executedAt");
+      assertFalse(executed.isBefore(reference));
+      assertFalse(((LocalDate) batch.get(row, "tradeDate")).isBefore(LocalDate.of(2020, 1, 1)));
+      assertEquals(0, ((LocalTime) batch.get(row, "settle")).getSecond());
+      assertInstanceOf(EnumTestHasEnums.class, batch.get(row, "side"));
+    }
+  }
+
+  @Test
+  void testStringsFollowTheConfig()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext context =
+        GenerationContext.seeded(6).withConfig(GenerationConfig.DEFAULT.withStringLength(25));
+    ColumnarBatch batch = context.call(() -> DataRizer.instantiateColumns(NativeTrade.class, 20));
+    for (int row = 0; row < 20; row++) {
+      assertEquals(25, batch.strings("symbol").get(row).length());
+      assertTrue(batch.strings("venue").get(row).length() <= 4);
+    }
+  }
+
+  @Test
+  void testSeededBatchesAreRepeatableAndColumnsIndependent()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ColumnarBatch first =
+        GenerationContext.seeded(8)
+            .call(() -> DataRizer.instantiateColumns(NativeTrade.class, 100));
+    ColumnarBatch second =
+        GenerationContext.seeded(8)
+            .call(() -> DataRizer.instantiateColumns(NativeTrade.class, 100));
+    assertArrayEquals(first.longs("id"), second.longs("id"));
+    assertArrayEquals(first.strings("symbol").bytes(), second.strings("symbol").bytes());
+    assertFalse(Arrays.equals(first.longs("id"), first.longs("executedAt")));
+  }
+
+  @Test
+  void testWrongColumnTypesAreRejected() {
+    ColumnarBatch batch = DataRizer.instantiateColumns(NativeTrade.class, 1);
+    assertThrows(DataRizerException.class, () -> batch.ints("price"));
+    assertThrows(DataRizerException.class, () -> batch.longs("missing"));
+    assertThrows(DataRizerException.class, () -> batch.dictionary("quantity"));
+    assertThrows(DataRizerException.class, () -> batch.strings("id"));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.get(1, "id"));
+    assertThrows(
+        DataRizerException.class, () -> DataRizer.instantiateColumns(NativeTrade.class, -1));
+  }
+}
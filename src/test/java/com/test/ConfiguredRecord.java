@@ -0,0 +1,17 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ConfiguredRecord {
+  private String name;
+  private int count;
+  private List<String> tags;
+  private ConfiguredRecord parent;
+}
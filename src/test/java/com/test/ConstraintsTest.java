@@ -0,0 +1,164 @@
+package com.test;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstraintsTest {
+
+  private static final int SAMPLES = 200;
+
+  @Test
+  void testConstraintsAreReadOnceIntoThePlan() {
+    ClassPlan<ValidatedAccount> plan = ClassPlan.of(ValidatedAccount.class);
+    FieldPlan code =
+        plan.fields().stream().filter(field -> field.name().equals("code")).findAny().get();
+    assertTrue(code.constraints().notNull());
+    assertEquals(3, code.constraints().minSize());
+    assertEquals(5, code.constraints().maxSize());
+    SetterPlan setCode =
+        plan.setters().stream()
+            .filter(setter -> setter.method().getName().equals("setCode"))
+            .findAny()
+            .get();
+    assertEquals(3, setCode.constraints().minSize());
+    assertTrue(
+        plan.setters().stream()
+            .filter(setter -> setter.method().getName().equals("setPlain"))
+            .allMatch(setter -> setter.constraints().isNone()));
+  }
+
+  @Test
+  void testSetterValuesSatisfyConstraints()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    java.util.regex.Pattern reference = java.util.regex.Pattern.compile("[A-Z]{2}-\\d{4}");
+    for (int i = 0; i < SAMPLES; i++) {
+      ValidatedAccount account = DataRizer.instantiate(ValidatedAccount.class);
+      assertTrue(account.getCode().length() >= 3 && account.getCode().length() <= 5);
+      assertTrue(reference.matcher(account.getReference()).matches(), account.getReference());
+      assertTrue(account.getAge() >= 18 && account.getAge() <= 21);
+      assertTrue(account.getBalance().compareTo(new BigDecimal("10.5")) >= 0);
+      assertTrue(account.getBalance().compareTo(new BigDecimal("11.0")) <= 0);
+      assertTrue(account.getTags().size() >= 12 && account.getTags().size() <= 15);
+      assertTrue(account.getEmail().matches("\\w+@\\w+\\.com"));
+      assertTrue(account.getCreated().isBefore(Instant.now()));
+      assertTrue(account.getDue().isAfter(LocalDate.now()));
+      assertTrue(account.getPoints() > 0);
+      assertTrue(account.getRetries() >= 1 && account.getRetries() <= 3);
+      assertFalse(account.getScores().isEmpty());
+      assertNull(account.getIgnored());
+      assertNotNull(account.getPlain());
+    }
+  }
+
+  @Test
+  void testConstructorValuesSatisfyFieldConstraints()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (int i = 0; i < SAMPLES; i++) {
+      ValidatedCode code = DataRizer.instantiate(ValidatedCode.class);
+      assertEquals(20, code.getValue().length());
+      assertTrue(code.getDelta() >= -5 && code.getDelta() <= -1);
+    }
+  }
+
+  @Test
+  void testSeededConstrainedGenerationIsRepeatable()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertEquals(
+        DataRizer.instantiateSeeded(ValidatedAccount.class, 9).getReference(),
+        DataRizer.instantiateSeeded(ValidatedAccount.class, 9).getReference());
+  }
+
+  @Test
+  void testImpossibleBoundsAreReported() {
+    assertThrows(DataRizerException.class, () -> DataRizer.instantiate(ImpossibleBounds.class));
+  }
+
+  @Test
+  void testSizeBoundsPatternAndEmail()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (int i = 0; i < SAMPLES; i++) {
+      SizedText text = DataRizer.instantiate(SizedText.class);
+      assertTrue(text.getDigits().matches("\\d+"), text.getDigits());
+      assertTrue(text.getDigits().length() >= 30 && text.getDigits().length() <= 32);
+      assertTrue(text.getEmail().matches("\\w+@\\w+\\.com"), text.getEmail());
+      assertTrue(text.getEmail().length() >= 7 && text.getEmail().length() <= 9);
+      assertTrue(text.getLongEmail().length() >= 60 && text.getLongEmail().length() <= 64);
+    }
+  }
+
+  @Test
+  void testSizeThatNoValueFitsIsRejectedByThePlan() {
+    assertThrows(DataRizerException.class, () -> ClassPlan.of(UnfittingPattern.class));
+    assertThrows(DataRizerException.class, () -> ClassPlan.of(UnfittingEmail.class));
+  }
+}
+
+@Getter
+@RequiredArgsConstructor
+class ValidatedCode {
+  @Size(min = 20, max = 20)
+  private final String value;
+
+  @Min(-5)
+  @Max(-1)
+  private final Integer delta;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ImpossibleBounds {
+  @Min(10)
+  @Max(5)
+  private Integer value;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class SizedText {
+  @Pattern(regexp = "\\d+")
+  @Size(min = 30, max = 32)
+  private String digits;
+
+  @Email
+  @Size(max = 9)
+  private String email;
+
+  @Email
+  @Size(min = 60, max = 64)
+  private String longEmail;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class UnfittingPattern {
+  @Pattern(regexp = "[A-Z]{2}-\\d{4}")
+  @Size(max = 6)
+  private String reference;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class UnfittingEmail {
+  @Email
+  @Size(max = 6)
+  private String email;
+}
@@ -0,0 +1,163 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyPlanTest {
+
+  @Test
+  void testGeneratedGraphIsCopied()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    WriterRecord record = DataRizer.instantiate(WriterRecord.class);
+    WriterRecord copy = DataRizer.copy(record);
+
+    assertNotSame(record, copy);
+    assertEquals(encode(record), encode(copy));
+    // immutable leaves are shared, everything else isn't
+    assertSame(record.getName(), copy.getName());
+    assertSame(record.getDay(), copy.getDay());
+    assertSame(record.getChild().getAmount(), copy.getChild().getAmount());
+    assertNotSame(record.getTags(), copy.getTags());
+    assertNotSame(record.getChild(), copy.getChild());
+
+    copy.getTags().clear();
+    copy.getChild().setLabel("changed");
+    assertFalse(record.getTags().isEmpty());
+    assertNotEquals("changed", record.getChild().getLabel());
+  }
+
+  @Test
+  void testCopyLeavesSeededStreamUnchanged()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    WriterRecord record = DataRizer.instantiate(WriterRecord.class);
+    long expected = GenerationContext.seeded(5).random().nextLong();
+    GenerationContext context = GenerationContext.seeded(5);
+    WriterRecord copy = context.call(() -> DataRizer.copy(record));
+
+    assertEquals(encode(record), encode(copy));
+    assertEquals(expected, context.random().nextLong());
+  }
+
+  @Test
+  void testCollectionsKeepTheirClassAndOrdering() {
+    CopiedGraph graph = graph();
+    CopiedGraph copy = DataRizer.copy(graph);
+
+    assertEquals(TreeMap.class, copy.getByName().getClass());
+    assertEquals(List.of("c", "b", "a"), new ArrayList<>(copy.getByName().keySet()));
+    assertEquals(List.of("z", "y"), new ArrayList<>(copy.getSorted()));
+    assertThrows(UnsupportedOperationException.class, () -> copy.getSorted().add("x"));
+    assertEquals(List.of("frozen"), copy.getFrozen());
+    assertThrows(UnsupportedOperationException.class, () -> copy.getFrozen().add("x"));
+    assertEquals(Map.of(EnumTestHasEnums.A, 1), copy.getCounts());
+    assertNotSame(graph.getCounts(), copy.getCounts());
+    assertArrayEquals(new long[] {1, 2, 3}, copy.getValues());
+    assertNotSame(graph.getValues(), copy.getValues());
+    assertEquals(graph.getCreated(), copy.getCreated());
+    assertNotSame(graph.getCreated(), copy.getCreated());
+    assertEquals("note", copy.getNote().toString());
+    assertNotSame(graph.getNote(), copy.getNote());
+    assertSame(graph.getTotal(), copy.getTotal());
+    assertSame(graph.getAt(), copy.getAt());
+  }
+
+  @Test
+  void testSharedObjectsAndCyclesAreCopiedOnce() {
+    CopiedGraph graph = graph();
+    CopiedGraph copy = DataRizer.copy(graph);
+
+    assertSame(copy, copy.getParent());
+    WriterChild first = copy.getChildren()[0];
+    assertNotSame(graph.getChildren()[0], first);
+    assertSame(first, copy.getChildren()[1]);
+    assertSame(first, copy.getByName().get("a"));
+    assertEquals("a", first.getLabel());
+  }
+
+  @Test
+  void testLeavesAndNullAreReturnedAsTheyAre() {
+    assertNull(DataRizer.copy(null));
+    String text = "text";
+    assertSame(text, DataRizer.copy(text));
+    assertSame(EnumTestHasEnums.B, DataRizer.copy(EnumTestHasEnums.B));
+  }
+
+  @Test
+  void testCopyPlanIsCached() {
+    CopyPlan plan = ClassPlan.of(CopiedGraph.class).copyPlan();
+    assertSame(plan, ClassPlan.of(CopiedGraph.class).copyPlan());
+    // total (BigDecimal) isn't final, so values are checked when copying
+    long shared = Arrays.stream(plan.slots()).filter(CopyPlan.Slot::shared).count();
+    assertEquals(1, shared);
+  }
+
+  private static CopiedGraph graph() {
+    WriterChild child = new WriterChild();
+    child.setLabel("a");
+    child.setAmount(BigDecimal.TEN);
+    CopiedGraph graph = new CopiedGraph();
+    graph.setTotal(new BigDecimal("12.50"));
+    graph.setAt(Instant.parse("2024-01-02T03:04:05Z"));
+    graph.setCreated(new Date(1_000));
+    graph.setNote(new StringBuilder("note"));
+    Map<String, WriterChild> byName = new TreeMap<>(Comparator.reverseOrder());
+    byName.put("a", child);
+    byName.put("b", new WriterChild());
+    byName.put("c", new WriterChild());
+    graph.setByName(byName);
+    SortedSet<String> sorted = new TreeSet<>(Comparator.reverseOrder());
+    sorted.addAll(Set.of("y", "z"));
+    graph.setSorted(Collections.unmodifiableSortedSet(sorted));
+    graph.setFrozen(List.of("frozen"));
+    EnumMap<EnumTestHasEnums, Integer> counts = new EnumMap<>(EnumTestHasEnums.class);
+    counts.put(EnumTestHasEnums.A, 1);
+    graph.setCounts(counts);
+    graph.setValues(new long[] {1, 2, 3});
+    graph.setChildren(new WriterChild[] {child, child});
+    graph.setParent(graph);
+    return graph;
+  }
+
+  private static String encode(Object record) {
+    StringBuilder out = new StringBuilder();
+    JsonLinesEncoder.appendValue(record, out);
+    return out.toString();
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class CopiedGraph {
+  private BigDecimal total;
+  private Instant at;
+  private Date created;
+  private StringBuilder note;
+  private Map<String, WriterChild> byName;
+  private SortedSet<String> sorted;
+  private List<String> frozen;
+  private EnumMap<EnumTestHasEnums, Integer> counts;
+  private long[] values;
+  private WriterChild[] children;
+  private CopiedGraph parent;
+}
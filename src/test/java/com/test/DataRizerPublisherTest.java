@@ -0,0 +1,188 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataRizerPublisherTest {
+
+  @Test
+  void testDeliversNoMoreThanRequested() throws InterruptedException {
+    DataRizerPublisher<WriterRecord> publisher = new DataRizerPublisher<>(WriterRecord.class, 20);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(5);
+    assertTrue(subscriber.awaitItems(5));
+    Thread.sleep(100);
+    assertEquals(5, subscriber.items.size());
+    assertFalse(subscriber.completed.await(0, TimeUnit.MILLISECONDS));
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+    assertEquals(20, subscriber.items.size());
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  void testGeneratesInBatchesOnTheExecutor() throws InterruptedException {
+    AtomicInteger tasks = new AtomicInteger();
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      DataRizerPublisher<WriterRecord> publisher =
+          new DataRizerPublisher<>(
+              WriterRecord.class,
+              100,
+              task -> {
+                tasks.incrementAndGet();
+                pool.execute(task);
+              },
+              16);
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      publisher.subscribe(subscriber);
+      subscriber.subscription.request(100);
+      assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+      assertEquals(100, subscriber.items.size());
+      assertEquals(1, tasks.get());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void testOneAtATimeSubscriberCompletes() throws InterruptedException {
+    DataRizerPublisher<WriterRecord> publisher = new DataRizerPublisher<>(WriterRecord.class, 50);
+    RecordingSubscriber subscriber =
+        new RecordingSubscriber() {
+          @Override
+          public void onNext(WriterRecord item) {
+            super.onNext(item);
+            subscription.request(1);
+          }
+        };
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+    assertEquals(50, subscriber.items.size());
+  }
+
+  @Test
+  void testCancelStopsDelivery() throws InterruptedException {
+    DataRizerPublisher<WriterRecord> publisher =
+        new DataRizerPublisher<>(WriterRecord.class, Long.MAX_VALUE);
+    RecordingSubscriber subscriber =
+        new RecordingSubscriber() {
+          @Override
+          public void onNext(WriterRecord item) {
+            super.onNext(item);
+            if (items.size() == 10) {
+              subscription.cancel();
+            }
+          }
+        };
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertTrue(subscriber.awaitItems(10));
+    Thread.sleep(100);
+    assertEquals(10, subscriber.items.size());
+    assertEquals(1, subscriber.completed.getCount());
+  }
+
+  @Test
+  void testNonPositiveRequestSignalsError() throws InterruptedException {
+    DataRizerPublisher<WriterRecord> publisher = new DataRizerPublisher<>(WriterRecord.class, 5);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.failed.await(10, TimeUnit.SECONDS));
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  void testGenerationFailureSignalsError() throws InterruptedException {
+    DataRizerPublisher<EnumTestHasNoEnum> publisher =
+        new DataRizerPublisher<>(EnumTestHasNoEnum.class, 5);
+    CountDownLatch failed = new CountDownLatch(1);
+    publisher.subscribe(
+        new Flow.Subscriber<>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(5);
+          }
+
+          @Override
+          public void onNext(EnumTestHasNoEnum item) {}
+
+          @Override
+          public void onError(Throwable throwable) {
+            assertTrue(throwable instanceof DataRizerException);
+            failed.countDown();
+          }
+
+          @Override
+          public void onComplete() {}
+        });
+    assertTrue(failed.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testEmptyPublisherCompletesWithoutDemand() throws InterruptedException {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new DataRizerPublisher<>(WriterRecord.class, 0).subscribe(subscriber);
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testInvalidArgumentsAreRejected() {
+    assertThrows(
+        DataRizerException.class, () -> new DataRizerPublisher<>(WriterRecord.class, -1));
+    assertThrows(
+        DataRizerException.class,
+        () -> new DataRizerPublisher<>(WriterRecord.class, 1, Runnable::run, 0));
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<WriterRecord> {
+    final List<WriterRecord> items = new CopyOnWriteArrayList<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    final CountDownLatch failed = new CountDownLatch(1);
+    volatile Flow.Subscription subscription;
+    volatile Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(WriterRecord item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      failed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed.countDown();
+    }
+
+    boolean awaitItems(int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (items.size() < count && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      return items.size() >= count;
+    }
+  }
+}
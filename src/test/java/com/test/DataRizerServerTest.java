@@ -0,0 +1,195 @@
+package com.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataRizerServerTest {
+
+  @TempDir Path tempDir;
+
+  private DataRizerServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = DataRizerServer.start(tempDir.resolve("datarizer.sock"), List.of("com.test"));
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  @Test
+  void testBatchesAreServed() throws IOException {
+    try (DataRizerClient client = DataRizerClient.connect(server.socket())) {
+      List<WriterRecord> records = client.instantiate(WriterRecord.class, 200);
+      assertEquals(200, records.size());
+      for (WriterRecord record : records) {
+        assertEquals(10, record.getName().length());
+        assertFalse(record.getTags().isEmpty());
+        assertNotNull(record.getChild());
+      }
+      assertNotNull(client.instantiate(WriterChild.class));
+      assertTrue(client.instantiate(WriterRecord.class, 0).isEmpty());
+    }
+  }
+
+  @Test
+  void testSeededBatchesMatchLocalGeneration() throws Exception {
+    List<WriterRecord> local = new ArrayList<>();
+    GenerationContext.seeded(17)
+        .call(
+            () -> {
+              for (int i = 0; i < 20; i++) {
+                local.add(DataRizer.instantiate(WriterRecord.class));
+              }
+              return null;
+            });
+    try (DataRizerClient client = DataRizerClient.connect(server.socket())) {
+      List<WriterRecord> served = client.instantiateSeeded(WriterRecord.class, 20, 17);
+      for (int i = 0; i < local.size(); i++) {
+        assertEquals(json(local.get(i)), json(served.get(i)));
+      }
+    }
+  }
+
+  @Test
+  void testErrorsKeepTheConnectionUsable() throws IOException {
+    try (DataRizerClient client = DataRizerClient.connect(server.socket())) {
+      DataRizerException outside =
+          assertThrows(DataRizerException.class, () -> client.instantiate(String.class));
+      assertTrue(outside.getMessage().contains("served package"), outside.getMessage());
+      assertThrows(
+          DataRizerException.class,
+          () -> client.instantiate(WriterRecord.class, DataRizerServer.MAX_BATCH + 1));
+      assertThrows(
+          DataRizerException.class, () -> client.instantiate(AlwaysFailingConstructor.class));
+      assertNotNull(client.instantiate(WriterRecord.class));
+    }
+  }
+
+  @Test
+  void testClientsAreServedConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> sizes = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        sizes.add(
+            executor.submit(
+                () -> {
+                  try (DataRizerClient client = DataRizerClient.connect(server.socket())) {
+                    return client.instantiate(WriterRecord.class, 100).size();
+                  }
+                }));
+      }
+      for (Future<Integer> size : sizes) {
+        assertEquals(100, size.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testConnectionsUseTheConfigOfTheStartingThread() throws Exception {
+    GenerationConfig config = GenerationConfig.DEFAULT.withStringLength(4);
+    Path socket = tempDir.resolve("small.sock");
+    DataRizerServer small =
+        GenerationContext.current()
+            .withConfig(config)
+            .call(
+                () -> {
+                  try {
+                    return DataRizerServer.start(socket, List.of("com.test"));
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+    try (DataRizerClient client = DataRizerClient.connect(small.socket())) {
+      assertEquals(4, client.instantiate(WriterRecord.class).getName().length());
+      assertEquals(4, client.instantiateSeeded(WriterRecord.class, 1, 3).get(0).getName().length());
+    } finally {
+      small.close();
+    }
+  }
+
+  @Test
+  void testSocketFileLifecycle() throws IOException {
+    assertThrows(
+        DataRizerException.class,
+        () -> DataRizerServer.start(server.socket(), List.of("com.test")));
+    assertThrows(
+        DataRizerException.class, () -> DataRizerServer.start(tempDir.resolve("other"), List.of()));
+    server.close();
+    assertFalse(Files.exists(server.socket()));
+    assertThrows(IOException.class, () -> DataRizerClient.connect(server.socket()));
+
+    // a file left by a server that died is replaced
+    Files.createFile(server.socket());
+    server = DataRizerServer.start(server.socket(), List.of("com.test"));
+    try (DataRizerClient client = DataRizerClient.connect(server.socket())) {
+      assertNotNull(client.instantiate(WriterRecord.class));
+    }
+  }
+
+  @Test
+  void testServerRunsInItsOwnProcess() throws Exception {
+    Path socket = tempDir.resolve("daemon.sock");
+    Process daemon =
+        new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp",
+                System.getProperty("java.class.path"),
+                DataRizerServer.class.getName(),
+                socket.toString(),
+                "com.test")
+            .inheritIO()
+            .start();
+    try {
+      try (DataRizerClient client = connectWhenUp(socket)) {
+        assertEquals(50, client.instantiate(WriterRecord.class, 50).size());
+      }
+    } finally {
+      daemon.destroy();
+      assertTrue(daemon.waitFor(30, TimeUnit.SECONDS));
+    }
+  }
+
+  // the socket file appears when the server binds, a moment before it listens
+  private static DataRizerClient connectWhenUp(Path socket)
+      throws IOException, InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (true) {
+      try {
+        return DataRizerClient.connect(socket);
+      } catch (IOException e) {
+        if (System.nanoTime() > deadline) {
+          throw e;
+        }
+        Thread.sleep(20);
+      }
+    }
+  }
+
+  private static String json(Object record) {
+    StringBuilder builder = new StringBuilder();
+    JsonLinesEncoder.appendValue(record, builder);
+    return builder.toString();
+  }
+}
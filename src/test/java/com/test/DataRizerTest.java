@@ -33,13 +33,6 @@ import java.util.Vector;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-enum EnumTestHasEnums {
-  A,
-  B
-}
-
-enum EnumTestHasNoEnum {}
-
 class DataRizerTest {
 
   @DisplayName("Constructor")
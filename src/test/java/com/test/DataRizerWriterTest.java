@@ -0,0 +1,106 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataRizerWriterTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testJsonLinesWritesOneObjectPerLine() throws IOException {
+    Path path = tempDir.resolve("records.jsonl");
+    try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.JSON_LINES)) {
+      assertEquals(25, writer.write(WriterRecord.class, 25));
+    }
+    List<String> lines = Files.readAllLines(path);
+    assertEquals(25, lines.size());
+    assertTrue(lines.get(0).startsWith("{\"name\":\""));
+    assertTrue(lines.get(0).contains("\"tags\":[\""));
+    assertTrue(lines.get(0).contains("\"child\":{\"label\":\""));
+  }
+
+  @Test
+  void testCsvWritesHeaderAndRows() throws IOException {
+    Path path = tempDir.resolve("records.csv");
+    try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.CSV)) {
+      writer.write(WriterRecord.class, 10);
+    }
+    List<String> lines = Files.readAllLines(path);
+    assertEquals(11, lines.size());
+    assertEquals("name,count,day,letter,tags,child", lines.get(0));
+    assertTrue(lines.get(1).contains(",\"[\"\""));
+  }
+
+  @Test
+  void testBinaryRecordsAreLengthPrefixed() throws IOException {
+    Path path = tempDir.resolve("records.bin");
+    try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.BINARY, 3, false)) {
+      writer.write(WriterRecord.class, 10);
+      assertEquals(10, writer.written());
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    assertEquals(BinaryRecordEncoder.MAGIC, buffer.getInt());
+    assertEquals(BinaryRecordEncoder.VERSION, buffer.get());
+    int records = 0;
+    while (buffer.hasRemaining()) {
+      int length = buffer.getInt();
+      assertEquals(BinaryRecordEncoder.OBJECT, buffer.get(buffer.position()));
+      buffer.position(buffer.position() + length);
+      records++;
+    }
+    assertEquals(10, records);
+  }
+
+  @Test
+  void testGzipAcrossSeveralBatches() throws IOException {
+    Path path = tempDir.resolve("records.jsonl.gz");
+    try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.JSON_LINES, 7, true)) {
+      writer.write(WriterRecord.class, 50);
+    }
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+      List<String> lines = reader.lines().collect(Collectors.toList());
+      assertEquals(50, lines.size());
+      assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+  }
+
+  @Test
+  void testSecondClassIsRejected() throws IOException {
+    Path path = tempDir.resolve("records.csv");
+    try (DataRizerWriter writer = new DataRizerWriter(path, RecordFormat.CSV)) {
+      writer.write(WriterRecord.class, 3);
+      assertThrows(DataRizerException.class, () -> writer.write(WriterChild.class, 1));
+      assertThrows(DataRizerException.class, () -> writer.write(new WriterChild()));
+      writer.write(WriterRecord.class, 2);
+      assertEquals(5, writer.written());
+    }
+    List<String> lines = Files.readAllLines(path);
+    assertEquals(6, lines.size());
+    assertEquals("name,count,day,letter,tags,child", lines.get(0));
+    assertTrue(lines.stream().skip(1).noneMatch(line -> line.startsWith("label")));
+  }
+
+  @Test
+  void testInvalidBatchSizeThrows() {
+    assertThrows(
+        DataRizerException.class,
+        () -> new DataRizerWriter(tempDir.resolve("none"), RecordFormat.CSV, 0, false));
+  }
+}
@@ -0,0 +1,181 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetTest {
+
+  private static final Dataset SHOP =
+      new Dataset(42)
+          .table(DatasetCustomer.class, 300, "id")
+          .table(DatasetOrder.class, 2_000, "number")
+          .table(DatasetLineItem.class, 7_001, "id")
+          .reference(
+              DatasetOrder.class, "customerId", DatasetCustomer.class, Dataset.Placement.SCATTERED)
+          .reference(
+              DatasetLineItem.class,
+              "orderNumber",
+              DatasetOrder.class,
+              Dataset.Placement.CLUSTERED);
+
+  @Test
+  void testForeignKeysJoin() {
+    Set<Long> customers =
+        SHOP.rows(DatasetCustomer.class).map(DatasetCustomer::getId).collect(Collectors.toSet());
+    Map<String, DatasetOrder> orders =
+        SHOP.rows(DatasetOrder.class)
+            .collect(Collectors.toMap(DatasetOrder::getNumber, Function.identity()));
+    assertEquals(300, customers.size());
+    assertEquals(2_000, orders.size());
+    Set<Long> ordering = new HashSet<>();
+    for (DatasetOrder order : orders.values()) {
+      assertTrue(customers.contains(order.getCustomerId()));
+      assertEquals(11, order.getNumber().length());
+      ordering.add(order.getCustomerId());
+    }
+    // scattered over most of the customers
+    assertTrue(ordering.size() > 280, "customers with orders " + ordering.size());
+    List<DatasetLineItem> items = SHOP.rows(DatasetLineItem.class).collect(Collectors.toList());
+    assertTrue(items.stream().allMatch(item -> orders.containsKey(item.getOrderNumber())));
+    assertEquals(
+        2_000, items.stream().map(DatasetLineItem::getOrderNumber).distinct().count());
+  }
+
+  @Test
+  void testClusteredChildrenComeInBalancedRuns() {
+    int[] perOrder = new int[2_000];
+    long previous = 0;
+    for (long i = 0; i < SHOP.count(DatasetLineItem.class); i++) {
+      long order = SHOP.parentIndex(DatasetLineItem.class, "orderNumber", i);
+      assertTrue(order == previous || order == previous + 1, "item " + i);
+      perOrder[(int) order]++;
+      previous = order;
+    }
+    for (int count : perOrder) {
+      assertTrue(count == 3 || count == 4, "items per order " + count);
+    }
+    assertEquals(
+        SHOP.row(DatasetOrder.class, SHOP.parentIndex(DatasetLineItem.class, "orderNumber", 7_000))
+            .getNumber(),
+        SHOP.row(DatasetLineItem.class, 7_000).getOrderNumber());
+  }
+
+  @Test
+  void testRowsAreIndependentOfHowTheyAreGenerated() {
+    List<String> sequential =
+        SHOP.rows(DatasetOrder.class).map(DatasetOrder::toString).collect(Collectors.toList());
+    List<String> parallel =
+        SHOP.rows(DatasetOrder.class)
+            .parallel()
+            .map(DatasetOrder::toString)
+            .collect(Collectors.toList());
+    assertEquals(sequential, parallel);
+    List<String> range =
+        SHOP.rows(DatasetOrder.class, 500, 600)
+            .map(DatasetOrder::toString)
+            .collect(Collectors.toList());
+    assertEquals(sequential.subList(500, 600), range);
+    assertEquals(sequential.get(1_234), SHOP.row(DatasetOrder.class, 1_234).toString());
+  }
+
+  @Test
+  void testSelfReferencesAndUuidKeys() {
+    Dataset staff =
+        new Dataset(7)
+            .table(DatasetEmployee.class, 100, "id")
+            .reference(
+                DatasetEmployee.class,
+                "managerId",
+                DatasetEmployee.class,
+                Dataset.Placement.SCATTERED);
+    Set<UUID> ids =
+        staff.rows(DatasetEmployee.class).map(DatasetEmployee::getId).collect(Collectors.toSet());
+    assertEquals(100, ids.size());
+    assertTrue(
+        staff
+            .rows(DatasetEmployee.class)
+            .allMatch(employee -> ids.contains(employee.getManagerId())));
+  }
+
+  @Test
+  void testInvalidDeclarations() {
+    Dataset customers = new Dataset(1).table(DatasetCustomer.class, 10, "id");
+    assertThrows(
+        DataRizerException.class, () -> customers.table(DatasetCustomer.class, 10, "id"));
+    assertThrows(DataRizerException.class, () -> customers.table(DatasetOrder.class, -1, "number"));
+    assertThrows(DataRizerException.class, () -> customers.table(DatasetOrder.class, 1, "missing"));
+    assertThrows(DataRizerException.class, () -> customers.table(DatasetOrder.class, 1, "total"));
+    Dataset orders = customers.table(DatasetOrder.class, 10, "number");
+    assertThrows(
+        DataRizerException.class,
+        () ->
+            orders.reference(
+                DatasetOrder.class, "number", DatasetCustomer.class, Dataset.Placement.CLUSTERED));
+    assertThrows(
+        DataRizerException.class,
+        () ->
+            orders.reference(
+                DatasetLineItem.class,
+                "orderNumber",
+                DatasetOrder.class,
+                Dataset.Placement.CLUSTERED));
+    assertThrows(
+        DataRizerException.class,
+        () -> orders.parentIndex(DatasetOrder.class, "customerId", 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> orders.row(DatasetOrder.class, 10));
+    // the original is left unchanged
+    assertThrows(DataRizerException.class, () -> customers.count(DatasetOrder.class));
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class DatasetCustomer {
+  private long id;
+  private String name;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class DatasetOrder {
+  private String number;
+  private Long customerId;
+  private double total;
+
+  @Override
+  public String toString() {
+    return number + " " + customerId + " " + total;
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class DatasetLineItem {
+  private int id;
+  private String orderNumber;
+  private int quantity;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class DatasetEmployee {
+  private UUID id;
+  private UUID managerId;
+  private String name;
+}
@@ -0,0 +1,144 @@
+package com.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributionTest {
+
+  private static final int SAMPLES = 20_000;
+
+  @AfterEach
+  void clearValueSources() {
+    DataRizer.clearValueSources();
+  }
+
+  @Test
+  void testZipfFrequenciesFollowRank() {
+    Distribution zipf = Distribution.zipf(100, 1.0);
+    Random random = new Random(1);
+    int[] counts = new int[100];
+    for (int i = 0; i < 200_000; i++) {
+      counts[(int) zipf.draw(random)]++;
+    }
+    double harmonic = 0;
+    for (int k = 1; k <= 100; k++) {
+      harmonic += 1.0 / k;
+    }
+    assertEquals(1 / harmonic, counts[0] / 200_000.0, 0.005);
+    assertEquals(0.5, counts[1] / (double) counts[0], 0.03);
+    assertEquals(0.1, counts[9] / (double) counts[0], 0.01);
+  }
+
+  @Test
+  void testWeightedEnumConstants()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizer.distribute(SkewedLevel.class, Distribution.weighted(90, 9, 1));
+    int[] counts = new int[SkewedLevel.values().length];
+    for (int i = 0; i < SAMPLES; i++) {
+      counts[DataRizer.instantiate(SkewedRecord.class).getLevel().ordinal()]++;
+    }
+    assertEquals(0.90, counts[0] / (double) SAMPLES, 0.01);
+    assertEquals(0.09, counts[1] / (double) SAMPLES, 0.01);
+    assertEquals(0.01, counts[2] / (double) SAMPLES, 0.005);
+  }
+
+  @Test
+  void testFieldDistributions()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizer.distribute(SkewedRecord.class, "customerId", Distribution.zipf(10, 1));
+    DataRizer.distribute(SkewedRecord.class, "region", Distribution.zipf(5, 1.5));
+    DataRizer.distribute(SkewedRecord.class, "amount", Distribution.gaussian(100, 10));
+    DataRizer.distribute(SkewedRecord.class, "gap", Distribution.exponential(50));
+    Set<String> regions = new HashSet<>();
+    double amounts = 0;
+    double squares = 0;
+    double gaps = 0;
+    for (int i = 0; i < SAMPLES; i++) {
+      SkewedRecord record = DataRizer.instantiate(SkewedRecord.class);
+      assertTrue(record.getCustomerId() >= 0 && record.getCustomerId() < 10);
+      assertEquals(10, record.getRegion().length());
+      assertTrue(record.getGap() >= 0);
+      regions.add(record.getRegion());
+      amounts += record.getAmount();
+      squares += record.getAmount() * record.getAmount();
+      gaps += record.getGap();
+    }
+    double mean = amounts / SAMPLES;
+    assertEquals(5, regions.size());
+    assertEquals(100, mean, 0.5);
+    assertEquals(10, Math.sqrt(squares / SAMPLES - mean * mean), 0.5);
+    assertEquals(50, gaps / SAMPLES, 2);
+  }
+
+  @Test
+  void testConstructorParametersAndRepopulateUseFieldDistributions()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizer.distribute(WriterRecord.class, "count", Distribution.weighted(0, 0, 1));
+    WriterRecord record = DataRizer.instantiate(WriterRecord.class);
+    assertEquals(2, record.getCount());
+
+    DataRizer.distribute(SkewedRecord.class, "customerId", Distribution.gaussian(7, 0));
+    SkewedRecord skewed = new SkewedRecord();
+    skewed.setCustomerId(-1L);
+    DataRizer.repopulate(skewed);
+    assertEquals(7, skewed.getCustomerId());
+  }
+
+  @Test
+  void testPrimitiveAndWrapperShareADistribution()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizer.distribute(Short.class, Distribution.gaussian(3, 0));
+    assertEquals(3, DataRizer.instantiate(SkewedRecord.class).getPriority());
+    DataRizer.distribute(short.class, null);
+    Set<Short> priorities = new HashSet<>();
+    for (int i = 0; i < 20; i++) {
+      priorities.add(DataRizer.instantiate(SkewedRecord.class).getPriority());
+    }
+    assertTrue(priorities.size() > 1);
+  }
+
+  @Test
+  void testDatesAreOffsetFromTheClock() {
+    Clock clock = Clock.fixed(GenerationContext.SEEDED_REFERENCE_TIME, ZoneOffset.UTC);
+    Distribution days = Distribution.weighted(0, 0, 0, 1);
+    assertEquals(LocalDate.of(2020, 1, 4), days.sample(LocalDate.class, new Random(), clock));
+  }
+
+  @Test
+  void testEnumConstantsAreCached() {
+    assertSame(
+        ClassPlan.of(SkewedLevel.class).enumConstants(),
+        ClassPlan.of(SkewedLevel.class).enumConstants());
+    assertNull(ClassPlan.of(SkewedRecord.class).enumConstants());
+  }
+
+  @Test
+  void testInvalidDistributions() {
+    assertThrows(DataRizerException.class, () -> Distribution.weighted());
+    assertThrows(DataRizerException.class, () -> Distribution.weighted(1, -1));
+    assertThrows(DataRizerException.class, () -> Distribution.weighted(0, 0));
+    assertThrows(DataRizerException.class, () -> Distribution.zipf(0, 1));
+    assertThrows(DataRizerException.class, () -> Distribution.gaussian(0, -1));
+    assertThrows(DataRizerException.class, () -> Distribution.exponential(0));
+    assertThrows(
+        DataRizerException.class,
+        () -> DataRizer.distribute(SkewedRecord.class, "missing", Distribution.zipf(2, 1)));
+    Distribution tooMany = Distribution.weighted(0, 0, 0, 1);
+    assertThrows(
+        DataRizerException.class,
+        () -> tooMany.sample(SkewedLevel.class, new Random(), Clock.systemUTC()));
+    assertThrows(
+        DataRizerException.class,
+        () -> tooMany.sample(SkewedRecord.class, new Random(), Clock.systemUTC()));
+  }
+}
@@ -0,0 +1,6 @@
+package com.test;
+
+enum EnumTestHasEnums {
+  A,
+  B
+}
@@ -0,0 +1,3 @@
+package com.test;
+
+enum EnumTestHasNoEnum {}
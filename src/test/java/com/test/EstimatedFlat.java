@@ -0,0 +1,15 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class EstimatedFlat {
+  private String name;
+  private List<Integer> values;
+}
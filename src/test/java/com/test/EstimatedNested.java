@@ -0,0 +1,16 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class EstimatedNested {
+  private String name;
+  private List<Map<String, Integer>> values;
+}
@@ -0,0 +1,146 @@
+package com.test;
+
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailureCacheTest {
+
+  @Test
+  void testStructuralFailuresAreRememberedAtOnce() {
+    DataRizerException first =
+        assertThrows(DataRizerException.class, () -> DataRizer.instantiate(UnbuildableEnum.class));
+    assertTrue(first.getMessage().contains("enum with no values"));
+    assertSame(first, ClassPlan.of(UnbuildableEnum.class).failure(GenerationConfig.DEFAULT));
+    assertSame(
+        first,
+        assertThrows(
+            DataRizerException.class, () -> DataRizer.instantiate(UnbuildableEnum.class)));
+    assertTrue(DataRizer.failures().get(UnbuildableEnum.class).contains("enum with no values"));
+  }
+
+  @Test
+  void testFailuresOfFieldsAreNotRememberedForTheEnclosingClass() {
+    DataRizerException first =
+        assertThrows(
+            DataRizerException.class, () -> DataRizer.instantiate(UnbuildableHolder.class));
+    assertSame(
+        first,
+        assertThrows(
+            DataRizerException.class, () -> DataRizer.instantiate(UnbuildableHolder.class)));
+    assertNull(ClassPlan.of(UnbuildableHolder.class).failure(GenerationConfig.DEFAULT));
+    assertFalse(DataRizer.failures().containsKey(UnbuildableHolder.class));
+    assertTrue(DataRizer.failures().containsKey(UnbuildableEnum.class));
+  }
+
+  @Test
+  void testConstructorFailuresAreNeverRemembered() {
+    for (int i = 0; i < 10; i++) {
+      assertThrows(
+          InvocationTargetException.class,
+          () -> DataRizer.instantiate(AlwaysFailingConstructor.class));
+    }
+    assertEquals(10, AlwaysFailingConstructor.CALLS.get());
+    assertNull(ClassPlan.of(AlwaysFailingConstructor.class).failure(GenerationConfig.DEFAULT));
+    assertFalse(DataRizer.failures().containsKey(AlwaysFailingConstructor.class));
+  }
+
+  @Test
+  void testFailuresAreRememberedPerConfig() {
+    GenerationConfig config = GenerationConfig.DEFAULT.withStringLength(3);
+    GenerationContext context = GenerationContext.seeded(1).withConfig(config);
+    assertThrows(
+        DataRizerException.class,
+        () -> context.call(() -> DataRizer.instantiate(UnbuildableEnum.class)));
+    assertNotNull(ClassPlan.of(UnbuildableEnum.class).failure(config));
+    assertTrue(ClassPlan.failures(config).containsKey(UnbuildableEnum.class));
+    GenerationConfig other = GenerationConfig.DEFAULT.withStringLength(4);
+    assertNull(ClassPlan.of(UnbuildableEnum.class).failure(other));
+  }
+
+  @Test
+  void testRandomlyRejectedArgumentsAreRetried()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext context = GenerationContext.seeded(3);
+    int generated = 0;
+    for (int i = 0; i < 200; i++) {
+      try {
+        context.call(() -> DataRizer.instantiate(RandomlyRejectingConstructor.class));
+        generated++;
+      } catch (InvocationTargetException e) {
+        // rejected this time, the next arguments may be fine
+      }
+    }
+    // runs of three or more rejections are all but certain in 200 coin flips
+    assertTrue(generated > 50, "generated " + generated);
+    assertEquals(200, RandomlyRejectingConstructor.CALLS.get());
+    assertNull(ClassPlan.of(RandomlyRejectingConstructor.class).failure(GenerationConfig.DEFAULT));
+  }
+
+  @Test
+  void testFailuresDependingOnArgumentsAreNotRemembered()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (int i = 0; i < 20; i++) {
+      if (i % 2 == 0) {
+        assertThrows(
+            InvocationTargetException.class,
+            () -> DataRizer.instantiate(SometimesFailingConstructor.class));
+      } else {
+        assertNotNull(DataRizer.instantiate(SometimesFailingConstructor.class));
+      }
+    }
+    assertNull(ClassPlan.of(SometimesFailingConstructor.class).failure(GenerationConfig.DEFAULT));
+  }
+
+  @Test
+  void testFactoryFailureKeepsItsCause() {
+    DataRizerException failure =
+        assertThrows(
+            DataRizerException.class, () -> DataRizer.instantiate(RejectingFactory.class));
+    assertInstanceOf(InvocationTargetException.class, failure.getCause());
+    assertInstanceOf(IllegalArgumentException.class, failure.getCause().getCause());
+  }
+}
+
+enum UnbuildableEnum {}
+
+@NoArgsConstructor
+@Setter
+class UnbuildableHolder {
+  private String name;
+  private UnbuildableEnum kind;
+}
+
+class RandomlyRejectingConstructor {
+  static final AtomicInteger CALLS = new AtomicInteger();
+
+  public RandomlyRejectingConstructor(Integer number) {
+    CALLS.incrementAndGet();
+    if (number % 2 == 0) {
+      throw new IllegalArgumentException("rejected " + number);
+    }
+  }
+}
+
+class SometimesFailingConstructor {
+  private static final AtomicInteger CALLS = new AtomicInteger();
+
+  public SometimesFailingConstructor(String name) {
+    if (CALLS.getAndIncrement() % 2 == 0) {
+      throw new IllegalStateException("fails every other time");
+    }
+  }
+}
+
+class RejectingFactory {
+  private RejectingFactory() {}
+
+  public static RejectingFactory of(String name) {
+    throw new IllegalArgumentException("rejected " + name);
+  }
+}
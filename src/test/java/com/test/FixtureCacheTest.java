@@ -0,0 +1,151 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixtureCacheTest {
+
+  @TempDir Path tempDir;
+
+  private static String json(Object value) {
+    StringBuilder json = new StringBuilder();
+    JsonLinesEncoder.appendValue(value, json);
+    return json.toString();
+  }
+
+  @Test
+  void testCachedFixturesRoundTrip() throws IOException {
+    List<WriterRecord> fixtures = new FixtureCache(tempDir).get(WriterRecord.class, 42, 50);
+    assertEquals(50, fixtures.size());
+    WriterRecord record = fixtures.get(7);
+    assertNotNull(record.getName());
+    assertFalse(record.getTags().isEmpty());
+    assertNotNull(record.getChild().getLabel());
+    assertEquals(json(record), json(fixtures.get(7)));
+  }
+
+  @Test
+  void testSecondRunReusesFile() throws IOException {
+    FixtureCache cache = new FixtureCache(tempDir);
+    List<WriterRecord> first = cache.get(WriterRecord.class, 7, 20);
+    Path file = cache.file(WriterRecord.class, 7, 20);
+    FileTime marker = FileTime.from(Instant.parse("2001-01-01T00:00:00Z"));
+    Files.setLastModifiedTime(file, marker);
+
+    List<WriterRecord> second = new FixtureCache(tempDir).get(WriterRecord.class, 7, 20);
+    assertEquals(marker, Files.getLastModifiedTime(file));
+    for (int i = 0; i < 20; i++) {
+      assertEquals(json(first.get(i)), json(second.get(i)));
+    }
+  }
+
+  @Test
+  void testSameSeedGeneratesSameFixtures() throws IOException {
+    List<WriterRecord> first =
+        new FixtureCache(tempDir.resolve("a")).get(WriterRecord.class, 3, 10);
+    List<WriterRecord> second =
+        new FixtureCache(tempDir.resolve("b")).get(WriterRecord.class, 3, 10);
+    List<WriterRecord> other =
+        new FixtureCache(tempDir.resolve("c")).get(WriterRecord.class, 4, 10);
+    assertEquals(json(first), json(second));
+    assertNotEquals(json(first), json(other));
+  }
+
+  @Test
+  void testChangedSchemaHashRegenerates() throws IOException {
+    FixtureCache cache = new FixtureCache(tempDir);
+    cache.get(CacheRecord.class, 1, 5);
+    Path file = cache.file(CacheRecord.class, 1, 5);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(8).putLong(0, 12345L), 5);
+    }
+    FileTime marker = FileTime.from(Instant.parse("2001-01-01T00:00:00Z"));
+    Files.setLastModifiedTime(file, marker);
+
+    List<CacheRecord> fixtures = cache.get(CacheRecord.class, 1, 5);
+    assertNotEquals(marker, Files.getLastModifiedTime(file));
+    assertNotNull(fixtures.get(4).getLabel());
+  }
+
+  @Test
+  void testChangedValueSourcesRegenerate() throws IOException {
+    FixtureCache cache = new FixtureCache(tempDir);
+    assertNotEquals("pooled", cache.get(CacheRecord.class, 1, 5).get(0).getLabel());
+    DataRizer.pool(CacheRecord.class, "label", ValuePool.of(String.class, List.of("pooled")));
+    try {
+      assertEquals("pooled", cache.get(CacheRecord.class, 1, 5).get(0).getLabel());
+    } finally {
+      DataRizer.clearValueSources();
+    }
+    assertNotEquals("pooled", cache.get(CacheRecord.class, 1, 5).get(0).getLabel());
+  }
+
+  @Test
+  void testReadingLeavesSeededStreamUnchanged()
+      throws IOException, InvocationTargetException, IllegalAccessException,
+          InstantiationException {
+    List<WriterRecord> fixtures = new FixtureCache(tempDir).get(WriterRecord.class, 2, 5);
+    long expected = GenerationContext.seeded(9).random().nextLong();
+    GenerationContext context = GenerationContext.seeded(9);
+    context.call(() -> fixtures.get(3));
+    assertEquals(expected, context.random().nextLong());
+  }
+
+  @Test
+  void testEnumInObjectFieldRoundTrips() {
+    LooseEnumRecord record = new LooseEnumRecord();
+    record.setValue(EnumTestHasEnums.B);
+    ByteSink sink = new ByteSink(64);
+    BinaryRecordEncoder.writeValue(record, LooseEnumRecord.class, sink);
+    LooseEnumRecord read =
+        (LooseEnumRecord) BinaryRecordDecoder.readValue(sink.flip(), LooseEnumRecord.class);
+    assertEquals(EnumTestHasEnums.B, read.getValue());
+  }
+
+  @Test
+  void testSchemaHashFollowsClassShape() {
+    assertEquals(
+        ClassPlan.of(CacheRecord.class).schemaHash(), ClassPlan.of(CacheRecord.class).schemaHash());
+    assertNotEquals(
+        ClassPlan.of(CacheRecord.class).schemaHash(), ClassPlan.of(WriterChild.class).schemaHash());
+  }
+
+  @Test
+  void testSeededInstantiateIsRepeatable()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertEquals(
+        json(DataRizer.instantiateSeeded(WriterRecord.class, 11)),
+        json(DataRizer.instantiateSeeded(WriterRecord.class, 11)));
+  }
+}
+
+@NoArgsConstructor
+@Setter
+@Getter
+class CacheRecord {
+  private String label;
+  private Instant created;
+}
+
+@NoArgsConstructor
+@Setter
+@Getter
+class LooseEnumRecord {
+  private Object value;
+}
@@ -0,0 +1,95 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationBudgetTest {
+
+  @Test
+  void testCollectionsShrinkToFitTheBudget()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig wide = GenerationConfig.DEFAULT.withMaxCollectionSize(1_000);
+    GenerationConfig budgeted = wide.withMaxObjects(500);
+    assertTrue(DataRizer.estimate(EstimatedNested.class, wide).objects() > 2_000);
+    for (int i = 0; i < 20; i++) {
+      GenerationContext context = GenerationContext.seeded(i).withConfig(budgeted);
+      EstimatedNested nested = context.call(() -> DataRizer.instantiate(EstimatedNested.class));
+      assertNotNull(nested.getName());
+      assertTrue(context.budget().objects() <= 500, context.budget().objects() + " objects");
+      long entries = nested.getValues().stream().distinct().mapToLong(Map::size).sum();
+      assertTrue(entries < 250, entries + " entries");
+    }
+  }
+
+  @Test
+  void testByteBudget()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig budgeted =
+        GenerationConfig.DEFAULT.withMaxCollectionSize(1_000).withMaxBytes(10_000);
+    GenerationContext context = GenerationContext.seeded(3).withConfig(budgeted);
+    EstimatedFlat flat = context.call(() -> DataRizer.instantiate(EstimatedFlat.class));
+    assertFalse(flat.getValues().isEmpty());
+    assertTrue(context.budget().bytes() <= 10_000, context.budget().bytes() + " bytes");
+  }
+
+  @Test
+  void testValuesThatDontFitStopTheGeneration()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig tiny = GenerationConfig.DEFAULT.withMaxObjects(3);
+    for (int i = 0; i < 5; i++) {
+      assertThrows(
+          GenerationBudget.Exceeded.class,
+          () -> DataRizer.instantiate(BudgetedPair.class, tiny));
+    }
+    // running out of budget isn't remembered as a failure of the class
+    assertNotNull(DataRizer.instantiate(BudgetedPair.class).getSecond());
+    assertNull(ClassPlan.of(BudgetedPair.class).failure(GenerationConfig.DEFAULT));
+  }
+
+  @Test
+  void testBudgetCoversTheWholeSession()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext session =
+        GenerationContext.seeded(1).withConfig(GenerationConfig.DEFAULT.withMaxObjects(500));
+    assertThrows(
+        GenerationBudget.Exceeded.class,
+        () ->
+            session.call(
+                () -> {
+                  for (int i = 0; i < 1_000; i++) {
+                    DataRizer.instantiate(BudgetedPair.class);
+                  }
+                  return null;
+                }));
+    // each call with a config gets a budget of its own
+    for (int i = 0; i < 1_000; i++) {
+      DataRizer.instantiate(BudgetedPair.class, GenerationConfig.DEFAULT.withMaxObjects(500));
+    }
+    assertNull(GenerationContext.seeded(1).budget());
+  }
+
+  @Test
+  void testBudgetMustBePositive() {
+    assertThrows(DataRizerException.class, () -> GenerationConfig.DEFAULT.withMaxObjects(0));
+    assertThrows(DataRizerException.class, () -> GenerationConfig.DEFAULT.withMaxBytes(-1));
+    assertFalse(GenerationConfig.DEFAULT.hasBudget());
+    assertTrue(GenerationConfig.DEFAULT.withMaxBytes(1 << 20).hasBudget());
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class BudgetedPair {
+  private String first;
+  private String second;
+  private List<String> rest;
+}
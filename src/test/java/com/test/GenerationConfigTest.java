@@ -0,0 +1,164 @@
+package com.test;
+
+import lombok.Builder;
+import lombok.Value;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationConfigTest {
+
+  @Test
+  void testDefaultsMatchTheOriginalSettings()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig config = GenerationConfig.DEFAULT;
+    assertEquals(2, config.maxDepth());
+    assertEquals(10, config.stringLength());
+    assertEquals(10, config.maxCollectionSize());
+    assertEquals(0, config.nullRate());
+    assertEquals(List.of(GenerationConfig.Strategy.values()), config.strategies());
+    assertEquals(10, DataRizer.instantiate(String.class).length());
+    assertSame(config, DataRizer.config());
+  }
+
+  @Test
+  void testStringAndCollectionSizes()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig small = GenerationConfig.DEFAULT.withStringLength(3).withMaxCollectionSize(2);
+    for (int i = 0; i < 50; i++) {
+      ConfiguredRecord record = DataRizer.instantiate(ConfiguredRecord.class, small);
+      assertEquals(3, record.getName().length());
+      assertTrue(record.getTags().size() <= 2, record.getTags().toString());
+      assertTrue(record.getTags().stream().allMatch(tag -> tag.length() == 3));
+    }
+    assertEquals(10, DataRizer.instantiate(ConfiguredRecord.class).getName().length());
+  }
+
+  @Test
+  void testDepthLimitsSelfReferences()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertNull(
+        DataRizer.instantiate(ConfiguredRecord.class, GenerationConfig.DEFAULT.withMaxDepth(1))
+            .getParent());
+    ConfiguredRecord deep =
+        DataRizer.instantiate(ConfiguredRecord.class, GenerationConfig.DEFAULT.withMaxDepth(4));
+    int depth = 0;
+    while (deep.getParent() != null) {
+      deep = deep.getParent();
+      depth++;
+    }
+    assertEquals(3, depth);
+  }
+
+  @Test
+  void testNullRate()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig allNull = GenerationConfig.DEFAULT.withNullRate(1);
+    ConfiguredRecord record = DataRizer.instantiate(ConfiguredRecord.class, allNull);
+    assertNull(record.getName());
+    assertNull(record.getTags());
+
+    int nulls = 0;
+    GenerationConfig half = GenerationConfig.DEFAULT.withNullRate(0.5);
+    for (int i = 0; i < 1_000; i++) {
+      nulls += DataRizer.instantiate(ConfiguredRecord.class, half).getName() == null ? 1 : 0;
+    }
+    assertEquals(500, nulls, 75);
+  }
+
+  @Test
+  void testStrategyOrder()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ClassPlan<BuiltOrder> plan = ClassPlan.of(BuiltOrder.class);
+    assertArrayEquals(
+        new GenerationConfig.Strategy[] {GenerationConfig.Strategy.FLUENT_BUILDER},
+        GenerationConfig.DEFAULT.strategies(plan));
+
+    GenerationConfig constructorsOnly =
+        GenerationConfig.DEFAULT.withStrategies(GenerationConfig.Strategy.CONSTRUCTOR);
+    assertEquals(0, constructorsOnly.strategies(plan).length);
+    assertNull(DataRizer.instantiate(BuiltOrder.class, constructorsOnly));
+    assertNotNull(DataRizer.instantiate(BuiltOrder.class));
+
+    GenerationConfig builderFirst =
+        GenerationConfig.DEFAULT.withStrategies(
+            GenerationConfig.Strategy.FLUENT_BUILDER, GenerationConfig.Strategy.CONSTRUCTOR);
+    assertArrayEquals(
+        new GenerationConfig.Strategy[] {
+          GenerationConfig.Strategy.FLUENT_BUILDER, GenerationConfig.Strategy.CONSTRUCTOR
+        },
+        builderFirst.strategies(ClassPlan.of(BuiltAndConstructed.class)));
+    assertEquals(
+        "built", DataRizer.instantiate(BuiltAndConstructed.class, builderFirst).getOrigin());
+    assertEquals("constructed", DataRizer.instantiate(BuiltAndConstructed.class).getOrigin());
+  }
+
+  @Test
+  void testSessionsRunSideBySide() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<Integer>> lengths = new ArrayList<>();
+      for (int length : new int[] {4, 7, 4, 7}) {
+        GenerationConfig config = GenerationConfig.DEFAULT.withStringLength(length);
+        lengths.add(
+            executor.submit(
+                () -> DataRizer.instantiate(ConfiguredRecord.class, config).getName().length()));
+      }
+      List<Integer> results = new ArrayList<>();
+      for (Future<Integer> length : lengths) {
+        results.add(length.get());
+      }
+      assertEquals(List.of(4, 7, 4, 7), results);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testSeededGenerationKeepsTheSessionConfig()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig config = GenerationConfig.DEFAULT.withStringLength(5);
+    String name =
+        GenerationContext.current()
+            .withConfig(config)
+            .call(() -> DataRizer.instantiateSeeded(ConfiguredRecord.class, 3).getName());
+    assertEquals(5, name.length());
+  }
+
+  @Test
+  void testInvalidConfigs() {
+    GenerationConfig config = GenerationConfig.DEFAULT;
+    assertThrows(DataRizerException.class, () -> config.withMaxDepth(0));
+    assertThrows(DataRizerException.class, () -> config.withStringLength(-1));
+    assertThrows(DataRizerException.class, () -> config.withMaxCollectionSize(0));
+    assertThrows(DataRizerException.class, () -> config.withNullRate(1.5));
+    assertThrows(DataRizerException.class, () -> config.withStrategies());
+    assertThrows(
+        DataRizerException.class,
+        () ->
+            config.withStrategies(
+                GenerationConfig.Strategy.CONSTRUCTOR, GenerationConfig.Strategy.CONSTRUCTOR));
+  }
+}
+
+@Value
+@Builder
+class BuiltAndConstructed {
+  String origin;
+
+  // used by the builder only
+  BuiltAndConstructed(String origin) {
+    this.origin = "built";
+  }
+
+  public BuiltAndConstructed() {
+    this.origin = "constructed";
+  }
+}
@@ -0,0 +1,132 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationJobTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testOutputMatchesTheWriter() throws IOException {
+    Path expected = tempDir.resolve("writer.csv");
+    try (DataRizerWriter writer = new DataRizerWriter(expected, RecordFormat.CSV)) {
+      writer.write(WriterRecord.class, Shard.single(5, 120));
+    }
+    Path path = tempDir.resolve("job.csv");
+    GenerationJob job = new GenerationJob(path, RecordFormat.CSV, Shard.single(5, 120), 25);
+    assertEquals(120, job.run(WriterRecord.class));
+    assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(path));
+    assertTrue(job.isDone(WriterRecord.class));
+    // running a finished job again changes nothing
+    assertEquals(0, job.run(WriterRecord.class));
+    assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(path));
+  }
+
+  @Test
+  void testResumedRunWritesTheSameBytes() throws IOException {
+    Shard shard = Shard.of(9, 300, 1, 3);
+    Path expected = tempDir.resolve("expected.jsonl");
+    new GenerationJob(expected, RecordFormat.JSON_LINES, shard).run(WriterRecord.class);
+
+    Path path = tempDir.resolve("resumed.jsonl");
+    GenerationJob job = new GenerationJob(path, RecordFormat.JSON_LINES, shard, 10);
+    assertEquals(35, job.run(WriterRecord.class, 35));
+    assertEquals(135, job.resumeIndex(WriterRecord.class));
+    assertFalse(job.isDone(WriterRecord.class));
+    // half a record written after the checkpoint when the process died
+    Files.write(path, "{\"name\":\"to".getBytes(), StandardOpenOption.APPEND);
+
+    assertEquals(65, job.run(WriterRecord.class));
+    assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(path));
+    assertTrue(job.isDone(WriterRecord.class));
+  }
+
+  @Test
+  void testTornCheckpointFallsBackToThePreviousOne() throws IOException {
+    Shard shard = Shard.single(3, 50);
+    Path expected = tempDir.resolve("expected.bin");
+    new GenerationJob(expected, RecordFormat.BINARY, shard).run(WriterRecord.class);
+
+    Path path = tempDir.resolve("torn.bin");
+    GenerationJob job = new GenerationJob(path, RecordFormat.BINARY, shard, 10);
+    job.run(WriterRecord.class, 35);
+    // checkpoints at 30 and 35 sit in the two slots, tear the newer one
+    byte[] checkpoints = Files.readAllBytes(job.checkpointFile());
+    ByteBuffer slots = ByteBuffer.wrap(checkpoints);
+    // each slot starts with a magic number and a sequence number
+    int newer = slots.getLong(4) > slots.getLong(64 + 4) ? 0 : 64;
+    Arrays.fill(checkpoints, newer + 20, newer + 40, (byte) 0x5A);
+    Files.write(job.checkpointFile(), checkpoints);
+    assertEquals(30, job.resumeIndex(WriterRecord.class));
+
+    assertEquals(20, job.run(WriterRecord.class));
+    assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(path));
+  }
+
+  @Test
+  void testCheckpointOfAnotherJobIsRejected() throws IOException {
+    Path path = tempDir.resolve("records.csv");
+    new GenerationJob(path, RecordFormat.CSV, Shard.single(1, 10)).run(WriterRecord.class, 5);
+    GenerationJob other = new GenerationJob(path, RecordFormat.CSV, Shard.single(2, 10));
+    assertThrows(DataRizerException.class, () -> other.run(WriterRecord.class));
+    assertEquals(5, Files.readAllLines(path).size() - 1);
+  }
+
+  @Test
+  void testOutputShorterThanTheCheckpointIsRejected() throws IOException {
+    Path path = tempDir.resolve("records.csv");
+    GenerationJob job = new GenerationJob(path, RecordFormat.CSV, Shard.single(6, 20), 5);
+    job.run(WriterRecord.class, 10);
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      file.truncate(file.size() / 2);
+    }
+    assertThrows(DataRizerException.class, () -> job.run(WriterRecord.class));
+    assertEquals(10, job.resumeIndex(WriterRecord.class));
+  }
+
+  @Test
+  void testConcurrentRunIsRejected() throws IOException {
+    Path path = tempDir.resolve("records.csv");
+    GenerationJob job = new GenerationJob(path, RecordFormat.CSV, Shard.single(7, 20), 5);
+    job.run(WriterRecord.class, 10);
+    long size = Files.size(path);
+    try (FileChannel checkpoints =
+        FileChannel.open(job.checkpointFile(), StandardOpenOption.WRITE)) {
+      checkpoints.lock();
+      assertThrows(DataRizerException.class, () -> job.run(WriterRecord.class));
+    }
+    assertEquals(size, Files.size(path));
+    assertEquals(10, job.run(WriterRecord.class));
+  }
+
+  @Test
+  void testWithoutCheckpointStartsOver() throws IOException {
+    Path path = tempDir.resolve("records.jsonl");
+    Files.writeString(path, "left over from something else\n");
+    GenerationJob job = new GenerationJob(path, RecordFormat.JSON_LINES, Shard.single(4, 10));
+    assertEquals(0, job.resumeIndex(WriterRecord.class));
+    assertEquals(10, job.run(WriterRecord.class));
+    assertEquals(10, Files.readAllLines(path).size());
+    assertTrue(job.isDone(WriterRecord.class));
+  }
+
+  @Test
+  void testCheckpointIntervalMustBePositive() {
+    assertThrows(
+        DataRizerException.class,
+        () ->
+            new GenerationJob(
+                tempDir.resolve("records.csv"), RecordFormat.CSV, Shard.single(1, 10), 0));
+  }
+}
@@ -0,0 +1,121 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratorTest {
+
+  @Test
+  void testGeneratorClassNameOfNestedClass() {
+    assertEquals(
+        "com.acme.Outer_InnerGenerator", Generator.generatorClassName("com.acme.Outer$Inner"));
+  }
+
+  @Test
+  void testInstantiateUsesCompiledGenerator()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GeneratedFixture fixture = DataRizer.instantiate(GeneratedFixture.class);
+    assertTrue(fixture.getName().startsWith("generated-"));
+  }
+
+  @Test
+  void testGeneratorFollowsSeededContext()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertEquals(
+        DataRizer.instantiateSeeded(GeneratedFixture.class, 5).getName(),
+        DataRizer.instantiateSeeded(GeneratedFixture.class, 5).getName());
+  }
+
+  @Test
+  void testHelpersDrawLikeReflectiveGeneration()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    for (Class<?> type :
+        List.of(String.class, Short.class, Byte.class, Character.class, LocalDate.class)) {
+      GenerationContext context = GenerationContext.seeded(11);
+      GeneratedFixtureGenerator generator = new GeneratedFixtureGenerator(new Random(11));
+      Object expected = context.call(() -> DataRizer.instantiate(type));
+      Object generated = context.call(() -> helper(generator, type));
+      assertEquals(expected, generated, type.getName());
+    }
+  }
+
+  @Test
+  void testHelpersUseValueSourcesOfTheirType() {
+    try {
+      DataRizer.pool(String.class, ValuePool.of(String.class, List.of("pooled")));
+      assertEquals("pooled", new GeneratedFixtureGenerator(new Random(1)).nextString());
+    } finally {
+      DataRizer.clearValueSources();
+    }
+  }
+
+  @Test
+  void testHelpersCountAgainstTheBudget() {
+    GenerationContext context =
+        GenerationContext.seeded(1).withConfig(GenerationConfig.DEFAULT.withMaxObjects(10));
+    GeneratedFixtureGenerator generator = new GeneratedFixtureGenerator();
+    assertThrows(
+        GenerationBudget.Exceeded.class,
+        () ->
+            context.call(
+                () -> {
+                  for (int i = 0; i < 100; i++) {
+                    generator.nextString();
+                  }
+                  return null;
+                }));
+  }
+
+  private static Object helper(GeneratedFixtureGenerator generator, Class<?> type) {
+    if (type == String.class) {
+      return generator.nextString();
+    } else if (type == Short.class) {
+      return generator.nextShort();
+    } else if (type == Byte.class) {
+      return generator.nextByte();
+    } else if (type == Character.class) {
+      return generator.nextCharacter();
+    }
+    return generator.nextLocalDate();
+  }
+
+  @Test
+  void testAnnotatedClassWithoutGeneratorFallsBackToReflection() {
+    assertTrue(ClassPlan.of(UngeneratedFixture.class).generator().isEmpty());
+  }
+}
+
+@Datarize
+@Getter
+@RequiredArgsConstructor
+class GeneratedFixture {
+  private final String name;
+}
+
+// What the annotation processor writes for GeneratedFixture
+final class GeneratedFixtureGenerator extends AbstractGenerator<GeneratedFixture> {
+
+  GeneratedFixtureGenerator() {
+    super();
+  }
+
+  GeneratedFixtureGenerator(Random random) {
+    super(random);
+  }
+
+  @Override
+  public GeneratedFixture generate() {
+    return new GeneratedFixture("generated-" + nextString());
+  }
+}
+
+@Datarize
+class UngeneratedFixture {}
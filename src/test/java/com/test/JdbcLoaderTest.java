@@ -0,0 +1,207 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcLoaderTest {
+
+  private static final String COLUMNS =
+      "(name VARCHAR(20), quantity INT, unit_price DECIMAL(40, 20), ship_date DATE,"
+          + " created_at TIMESTAMP, status VARCHAR(10), active BOOLEAN, version BIGINT)";
+
+  private Connection connection;
+
+  @BeforeEach
+  void openDatabase() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:loader");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE load_record " + COLUMNS);
+      statement.execute("CREATE TABLE load_record_copy " + COLUMNS);
+      statement.execute("CREATE TABLE failing_row (level VARCHAR(10))");
+      // two statuses, so the third row of a batch always breaks the constraint
+      statement.execute(
+          "CREATE TABLE unique_record "
+              + COLUMNS.substring(0, COLUMNS.length() - 1)
+              + ", UNIQUE (status))");
+    }
+  }
+
+  @AfterEach
+  void closeDatabase() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  void testInsertSqlUsesLeafFieldsInSnakeCase() {
+    assertEquals(
+        "INSERT INTO load_record (name, quantity, unit_price, ship_date, created_at, status,"
+            + " active, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        new JdbcLoader<>(connection, LoadRecord.class, "load_record").insertSql());
+    assertEquals("created_at", JdbcLoader.columnName("createdAt"));
+    assertEquals("id", JdbcLoader.columnName("id"));
+  }
+
+  @Test
+  void testLoadsRowsInBatches() throws SQLException {
+    JdbcLoader<LoadRecord> loader =
+        new JdbcLoader<>(connection, LoadRecord.class, "load_record", 1_000, false);
+    assertEquals(2_500, loader.load(2_500));
+    assertEquals(2_500, count("load_record"));
+    assertTrue(connection.getAutoCommit());
+    try (Statement statement = connection.createStatement();
+        ResultSet rows = statement.executeQuery("SELECT * FROM load_record LIMIT 1")) {
+      assertTrue(rows.next());
+      assertEquals(10, rows.getString("name").length());
+      assertTrue(List.of("A", "B").contains(rows.getString("status")));
+      assertNotNull(rows.getObject("ship_date", LocalDate.class));
+      assertNotNull(rows.getBigDecimal("unit_price"));
+    }
+  }
+
+  @Test
+  void testPipelinedLoadInsertsEveryRow() throws SQLException {
+    JdbcLoader<LoadRecord> loader =
+        new JdbcLoader<>(connection, LoadRecord.class, "load_record", 64, true);
+    assertEquals(1_000, loader.load(1_000));
+    assertEquals(1_000, count("load_record"));
+  }
+
+  @Test
+  void testPipelinedLoadUsesTheCallersConfig() throws Exception {
+    JdbcLoader<LoadRecord> loader =
+        new JdbcLoader<>(connection, LoadRecord.class, "load_record", 16, true);
+    GenerationContext.current()
+        .withConfig(GenerationConfig.DEFAULT.withStringLength(4))
+        .call(
+            () -> {
+              try {
+                return loader.load(100);
+              } catch (SQLException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    try (Statement statement = connection.createStatement();
+        ResultSet rows =
+            statement.executeQuery("SELECT COUNT(*) FROM load_record WHERE LENGTH(name) = 4")) {
+      rows.next();
+      assertEquals(100, rows.getLong(1));
+    }
+  }
+
+  @Test
+  void testShardedLoadsMatchSingleLoad() throws SQLException {
+    for (int i = 0; i < 3; i++) {
+      new JdbcLoader<>(connection, LoadRecord.class, "load_record", 50, i % 2 == 0)
+          .load(Shard.of(7, 500, i, 3));
+    }
+    new JdbcLoader<>(connection, LoadRecord.class, "load_record_copy", 128, false)
+        .load(Shard.single(7, 500));
+    assertEquals(500, count("load_record"));
+    try (Statement statement = connection.createStatement();
+        ResultSet rows =
+            statement.executeQuery(
+                "SELECT COUNT(*) FROM (SELECT * FROM load_record"
+                    + " EXCEPT SELECT * FROM load_record_copy)")) {
+      rows.next();
+      assertEquals(0, rows.getInt(1));
+    }
+  }
+
+  @Test
+  void testCallerTransactionIsLeftAlone() throws SQLException {
+    connection.setAutoCommit(false);
+    new JdbcLoader<>(connection, LoadRecord.class, "load_record", 10, false).load(25);
+    connection.rollback();
+    assertEquals(0, count("load_record"));
+  }
+
+  @Test
+  void testPipelinedGenerationFailureIsRethrown() {
+    JdbcLoader<FailingRow> loader =
+        new JdbcLoader<>(connection, FailingRow.class, "failing_row", 10, true);
+    assertThrows(DataRizerException.class, () -> loader.load(5));
+  }
+
+  @Test
+  void testPipelinedGenerationErrorIsRethrown() {
+    JdbcLoader<BrokenInitializerRow> loader =
+        new JdbcLoader<>(connection, BrokenInitializerRow.class, "failing_row", 10, true);
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> assertThrows(ExceptionInInitializerError.class, () -> loader.load(5)));
+  }
+
+  @Test
+  void testFailedBatchIsRolledBack() throws SQLException {
+    JdbcLoader<LoadRecord> loader =
+        new JdbcLoader<>(connection, LoadRecord.class, "unique_record", 10, false);
+    assertThrows(SQLException.class, () -> loader.load(10));
+    assertTrue(connection.getAutoCommit());
+    assertEquals(0, count("unique_record"));
+  }
+
+  @Test
+  void testClassWithoutColumnsIsRejected() {
+    assertThrows(
+        DataRizerException.class,
+        () -> new JdbcLoader<>(connection, WriterChildHolder.class, "load_record"));
+  }
+
+  private long count(String table) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      rows.next();
+      return rows.getLong(1);
+    }
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class LoadRecord {
+  private String name;
+  private Integer quantity;
+  private BigDecimal unitPrice;
+  private LocalDate shipDate;
+  private Instant createdAt;
+  private EnumTestHasEnums status;
+  private Boolean active;
+  private long version;
+  private List<String> tags;
+}
+
+@NoArgsConstructor
+@Setter
+class FailingRow {
+  private EnumTestHasNoEnum level;
+}
+
+@NoArgsConstructor
+@Setter
+class BrokenInitializerRow {
+  private static final String DEFAULT_LEVEL = broken();
+
+  private String level;
+
+  private static String broken() {
+    throw new IllegalStateException("broken class initializer");
+  }
+}
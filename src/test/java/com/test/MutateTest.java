@@ -0,0 +1,144 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutateTest {
+
+  @Test
+  void testMutatesTheRequestedFractionOfFields()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    MutationTarget target = DataRizer.instantiate(MutationTarget.class);
+    List<Object> before = values(target);
+    DataRizer.mutate(target, 0.3);
+    assertEquals(3, changed(before, values(target)));
+  }
+
+  @Test
+  void testFractionIsExactOnAverage()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    MutationTarget target = DataRizer.instantiate(MutationTarget.class);
+    int total = 0;
+    for (int i = 0; i < 2_000; i++) {
+      List<Object> before = values(target);
+      DataRizer.mutate(target, 0.25);
+      int changed = changed(before, values(target));
+      assertTrue(changed == 2 || changed == 3);
+      total += changed;
+    }
+    assertEquals(2.5, total / 2_000.0, 0.1);
+  }
+
+  @Test
+  void testNoneAndAll()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    MutationTarget target = DataRizer.instantiate(MutationTarget.class);
+    List<Object> before = values(target);
+    DataRizer.mutate(target, 0);
+    assertEquals(0, changed(before, values(target)));
+    DataRizer.mutate(target, 1);
+    assertEquals(before.size(), changed(before, values(target)));
+  }
+
+  @Test
+  void testMutatesCollectionElements()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    List<String> list = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      list.add("element" + i);
+    }
+    List<String> listBefore = new ArrayList<>(list);
+    DataRizer.mutate(list, 0.25);
+    assertEquals(20, list.size());
+    assertEquals(5, changed(new ArrayList<>(listBefore), new ArrayList<>(list)));
+
+    List<String> linked = new LinkedList<>(listBefore);
+    DataRizer.mutate(linked, 0.5);
+    assertEquals(20, linked.size());
+    assertEquals(10, changed(new ArrayList<>(listBefore), new ArrayList<>(linked)));
+
+    Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 8; i++) {
+      map.put("key" + i, -i - 1);
+    }
+    DataRizer.mutate(map, 0.5);
+    assertEquals(8, map.size());
+    assertEquals(4, map.values().stream().filter(value -> value >= 0).count());
+
+    Set<String> set = new HashSet<>(List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"));
+    DataRizer.mutate(set, 0.3);
+    assertEquals(10, set.size());
+    assertEquals(3, set.stream().filter(value -> value.length() > 1).count());
+  }
+
+  @Test
+  void testMutatesNestedObjectsInPlace()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    WriterRecord record = DataRizer.instantiate(WriterRecord.class);
+    WriterChild child = record.getChild();
+    String label = child.getLabel();
+    DataRizer.mutate(record, 1);
+    assertSame(child, record.getChild());
+    assertNotEquals(label, child.getLabel());
+  }
+
+  @Test
+  void testCyclesEnd()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    RecycledShape shape = new RecycledShape();
+    shape.setSelf(shape);
+    DataRizer.mutate(shape, 1);
+    assertSame(shape, shape.getSelf());
+  }
+
+  @Test
+  void testInvalidFractionIsRejected() {
+    assertThrows(DataRizerException.class, () -> DataRizer.mutate(new MutationTarget(), 1.5));
+    assertThrows(DataRizerException.class, () -> DataRizer.mutate(new MutationTarget(), -0.1));
+  }
+
+  private static List<Object> values(MutationTarget target) {
+    return ClassPlan.of(MutationTarget.class).fields().stream()
+        .map(field -> field.get(target))
+        .collect(java.util.stream.Collectors.toList());
+  }
+
+  private static int changed(List<?> before, List<?> after) {
+    int changed = 0;
+    for (int i = 0; i < before.size(); i++) {
+      if (!before.get(i).equals(after.get(i))) {
+        changed++;
+      }
+    }
+    return changed;
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class MutationTarget {
+  private String first;
+  private String second;
+  private String third;
+  private String fourth;
+  private String fifth;
+  private Long sixth;
+  private Long seventh;
+  private Long eighth;
+  private String ninth;
+  private String tenth;
+}
@@ -0,0 +1,31 @@
+package com.test;
+
+import jakarta.validation.constraints.Size;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@NoArgsConstructor
+@Setter
+class NativeTrade {
+  private boolean active;
+  private long id;
+  private int quantity;
+  private String symbol;
+  private double price;
+  private EnumTestHasEnums side;
+  private Instant executedAt;
+  private LocalDate tradeDate;
+  private LocalDateTime bookedAt;
+  private LocalTime settle;
+  private short flag;
+  private List<String> notes;
+
+  @Size(min = 2, max = 4)
+  private String venue;
+}
@@ -0,0 +1,120 @@
+package com.test;
+
+import jakarta.validation.constraints.Size;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLayoutTest {
+
+  @Test
+  void testColumnsAreAlignedWidestFirst() {
+    OffHeapLayout layout = OffHeapLayout.of(NativeTrade.class);
+    assertEquals(
+        List.of(
+            "id", "symbol", "price", "executedAt", "bookedAt", "settle", "venue", "quantity",
+            "side", "tradeDate", "flag", "active"),
+        layout.columns().stream().map(OffHeapLayout.Column::name).collect(Collectors.toList()));
+    for (OffHeapLayout.Column column : layout.columns()) {
+      assertEquals(0, column.offset() % column.kind().width(), column.name());
+    }
+    // 7 * 8 + 3 * 4 + 2 + 1 = 71, padded to 72
+    assertEquals(72, layout.recordSize());
+    assertSame(layout, OffHeapLayout.of(NativeTrade.class));
+    assertSame(layout, ClassPlan.of(NativeTrade.class).offHeapLayout(10));
+    assertThrows(DataRizerException.class, () -> layout.column("notes"));
+  }
+
+  @Test
+  void testValuesMatchHeapGeneration()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    OffHeapRecords records =
+        GenerationContext.seeded(3)
+            .call(() -> DataRizer.instantiateOffHeap(NativeTrade.class, 500));
+    assertEquals(500, records.count());
+    assertEquals(500 * 72, records.records().remaining());
+    assertEquals(ByteOrder.nativeOrder(), records.records().order());
+    Instant reference = GenerationContext.SEEDED_REFERENCE_TIME;
+    int arenaBytes = 0;
+    for (int i = 0; i < records.count(); i++) {
+      String symbol = (String) records.get(i, "symbol");
+      String venue = (String) records.get(i, "venue");
+      assertTrue(symbol.matches("[0-9A-Za-z]{10}"));
+      assertTrue(venue.length() >= 2 && venue.length() <= 4);
+      arenaBytes += symbol.length() + venue.length();
+      assertTrue((Integer) records.get(i, "quantity") >= 0);
+      assertTrue((Short) records.get(i, "flag") >= 0);
+      assertInstanceOf(EnumTestHasEnums.class, records.get(i, "side"));
+      assertInstanceOf(Boolean.class, records.get(i, "active"));
+      Instant executed = (Instant) records.get(i, "executedAt");
+      assertFalse(executed.isBefore(reference));
+      assertTrue(executed.isBefore(reference.plus(Duration.ofDays(1))));
+      LocalDate tradeDate = (LocalDate) records.get(i, "tradeDate");
+      assertFalse(tradeDate.isBefore(LocalDate.of(2020, 1, 1)));
+      assertTrue(tradeDate.isBefore(LocalDate.of(2021, 1, 1)));
+      assertFalse(((LocalDateTime) records.get(i, "bookedAt")).isBefore(
+          LocalDateTime.of(2020, 1, 1, 0, 0)));
+      assertEquals(0, ((LocalTime) records.get(i, "settle")).getSecond());
+    }
+    assertEquals(arenaBytes, records.arena().remaining());
+  }
+
+  @Test
+  void testStringsFollowTheConfig()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext context =
+        GenerationContext.seeded(4).withConfig(GenerationConfig.DEFAULT.withStringLength(3));
+    OffHeapRecords records =
+        context.call(() -> DataRizer.instantiateOffHeap(NativeTrade.class, 50));
+    for (int i = 0; i < records.count(); i++) {
+      assertEquals(3, ((String) records.get(i, "symbol")).length());
+      // Size wins over the config, like on the heap
+      assertTrue(((String) records.get(i, "venue")).length() >= 2);
+    }
+    assertNotSame(
+        ClassPlan.of(NativeTrade.class).offHeapLayout(3), OffHeapLayout.of(NativeTrade.class));
+  }
+
+  @Test
+  void testSeededGenerationIsRepeatable()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    OffHeapRecords first =
+        GenerationContext.seeded(9)
+            .call(() -> DataRizer.instantiateOffHeap(NativeTrade.class, 100));
+    OffHeapRecords second =
+        GenerationContext.seeded(9)
+            .call(() -> DataRizer.instantiateOffHeap(NativeTrade.class, 100));
+    assertEquals(first.records(), second.records());
+    assertEquals(first.arena(), second.arena());
+  }
+
+  @Test
+  void testRecordsAreWrittenToChannels() throws IOException {
+    OffHeapRecords records = DataRizer.instantiateOffHeap(NativeTrade.class, 10);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long written = records.writeTo(Channels.newChannel(out));
+    assertEquals(10 * 72 + records.arena().remaining(), written);
+    assertEquals(written, out.size());
+  }
+
+  @Test
+  void testClassesWithoutFixedWidthFieldsAreRejected() {
+    assertThrows(
+        DataRizerException.class, () -> DataRizer.instantiateOffHeap(WriterChildHolder.class, 1));
+    assertThrows(
+        DataRizerException.class, () -> DataRizer.instantiateOffHeap(NativeTrade.class, -1));
+  }
+}
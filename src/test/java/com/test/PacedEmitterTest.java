@@ -0,0 +1,118 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacedEmitterTest {
+
+  @Test
+  void testHandsOutObjectsOnSchedule() {
+    try (PacedEmitter<WriterRecord> emitter =
+        new PacedEmitter<>(WriterRecord.class, 2_000, 2, 256)) {
+      assertTrue(emitter.awaitFilled(TimeUnit.SECONDS.toMillis(10)));
+      long start = System.nanoTime();
+      long previous = 0;
+      for (int i = 0; i < 200; i++) {
+        assertNotNull(emitter.next());
+        assertTrue(emitter.scheduledNanos() >= previous);
+        previous = emitter.scheduledNanos();
+      }
+      long elapsed = System.nanoTime() - start;
+      // 199 intervals of 0.5 ms after the first, immediate, object
+      assertTrue(elapsed >= TimeUnit.MICROSECONDS.toNanos(99_500), "elapsed " + elapsed);
+      assertEquals(200, emitter.emitted());
+      assertTrue(emitter.achievedRate() > 1_000 && emitter.achievedRate() <= 2_050);
+    }
+  }
+
+  @Test
+  void testReportsLagWhenGenerationFallsBehind() {
+    try (PacedEmitter<WriterRecord> emitter =
+        new PacedEmitter<>(WriterRecord.class, 50_000_000, 1, 4)) {
+      for (int i = 0; i < 1_000; i++) {
+        emitter.next();
+      }
+      assertTrue(emitter.underruns() > 0);
+      assertTrue(emitter.maxLagNanos() > 0);
+      assertTrue(emitter.meanLagNanos() > 0);
+    }
+  }
+
+  @Test
+  void testProducersUseTheConfigOfTheCreatingThread()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig config = GenerationConfig.DEFAULT.withStringLength(4);
+    try (PacedEmitter<WriterRecord> emitter =
+        GenerationContext.current()
+            .withConfig(config)
+            .call(() -> new PacedEmitter<>(WriterRecord.class, 10_000, 2, 8))) {
+      for (int i = 0; i < 20; i++) {
+        assertEquals(4, emitter.next().getName().length());
+      }
+    }
+  }
+
+  @Test
+  void testGenerationFailureIsRethrown() {
+    try (PacedEmitter<EnumTestHasNoEnum> emitter =
+        new PacedEmitter<>(EnumTestHasNoEnum.class, 1_000)) {
+      assertThrows(DataRizerException.class, emitter::next);
+    }
+  }
+
+  @Test
+  void testGenerationErrorIsRethrown() {
+    try (PacedEmitter<PacedBrokenInitializer> emitter =
+        new PacedEmitter<>(PacedBrokenInitializer.class, 1_000)) {
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(10),
+          () -> assertThrows(ExceptionInInitializerError.class, emitter::next));
+    }
+  }
+
+  @Test
+  void testNullObjectsAreHandedOut()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertNull(DataRizer.instantiate(PacedUnimplemented.class));
+    try (PacedEmitter<PacedUnimplemented> emitter =
+        new PacedEmitter<>(PacedUnimplemented.class, 10_000, 1, 4)) {
+      assertTrue(emitter.awaitFilled(TimeUnit.SECONDS.toMillis(10)));
+      for (int i = 0; i < 20; i++) {
+        assertNull(emitter.next());
+      }
+      assertEquals(20, emitter.emitted());
+    }
+  }
+
+  @Test
+  void testClosedEmitterStopsHandingOut() {
+    PacedEmitter<WriterRecord> emitter = new PacedEmitter<>(WriterRecord.class, 1_000, 1, 1);
+    assertTrue(emitter.awaitFilled(TimeUnit.SECONDS.toMillis(10)));
+    emitter.close();
+    assertNotNull(emitter.next());
+    assertThrows(DataRizerException.class, emitter::next);
+  }
+
+  @Test
+  void testInvalidArgumentsAreRejected() {
+    assertThrows(DataRizerException.class, () -> new PacedEmitter<>(WriterRecord.class, 0));
+    assertThrows(
+        DataRizerException.class, () -> new PacedEmitter<>(WriterRecord.class, 10, 0, 16));
+  }
+}
+
+// no implementations anywhere, so it generates to null
+interface PacedUnimplemented {}
+
+class PacedBrokenInitializer {
+  private static final String NAME = broken();
+
+  private static String broken() {
+    throw new IllegalStateException("broken class initializer");
+  }
+}
@@ -0,0 +1,25 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class RecycledShape {
+  private int count;
+  private LinkedList<String> linked;
+  private Map<String, Long> scores;
+  private Set<String> letters;
+  private List<WriterChild> children;
+  private List<String> fixed;
+  private int[] numbers;
+  private WriterChild empty;
+  private RecycledShape self;
+}
@@ -0,0 +1,77 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexGeneratorTest {
+
+  @Test
+  void testGeneratedValuesMatch() {
+    Random random = new Random(3);
+    for (String regex :
+        List.of(
+            "[A-Z]{2}-\\d{4}",
+            "^(?:foo|bar)+baz?$",
+            "[^a-z0-9]{3,5}",
+            "\\w+@\\w+\\.(com|org)",
+            "a.c[\\-._]x*",
+            "(?<year>19|20)\\d\\d-[01]\\d",
+            "\\D\\W\\S{2,}?",
+            "[\\]a]\\??")) {
+      RegexGenerator generator = RegexGenerator.compile(regex);
+      Pattern pattern = Pattern.compile(regex);
+      for (int i = 0; i < 200; i++) {
+        String value = generator.generate(random);
+        assertTrue(pattern.matcher(value).matches(), regex + " didn't match " + value);
+      }
+    }
+  }
+
+  @Test
+  void testUnboundedQuantifiersAreCapped() {
+    RegexGenerator generator = RegexGenerator.compile("x+");
+    Random random = new Random(1);
+    for (int i = 0; i < 100; i++) {
+      int length = generator.generate(random).length();
+      assertTrue(length >= 1 && length <= 1 + RegexGenerator.UNBOUNDED_EXTRA);
+    }
+  }
+
+  @Test
+  void testLengthRangeBoundsRepetition() {
+    Random random = new Random(5);
+    for (String regex : List.of("x+", "[a-z]{2,40}", "(ab|c)*d", "^(?:foo|bar)+baz?$")) {
+      RegexGenerator generator = RegexGenerator.compile(regex);
+      Pattern pattern = Pattern.compile(regex);
+      for (int i = 0; i < 200; i++) {
+        String value = generator.generate(random, 20, 25);
+        assertTrue(pattern.matcher(value).matches(), regex + " didn't match " + value);
+        assertTrue(value.length() >= 20 && value.length() <= 25, value);
+      }
+    }
+  }
+
+  @Test
+  void testLengthRangeMustFit() {
+    RegexGenerator generator = RegexGenerator.compile("[A-Z]{2}-\\d{4}");
+    assertTrue(generator.fits(7, 7));
+    assertFalse(generator.fits(1, 6));
+    assertFalse(generator.fits(8, 100));
+    assertTrue(RegexGenerator.compile("x*").fits(1000, Integer.MAX_VALUE));
+    assertThrows(DataRizerException.class, () -> generator.generate(new Random(), 1, 6));
+  }
+
+  @Test
+  void testUnsupportedSyntaxIsRejected() {
+    assertThrows(DataRizerException.class, () -> RegexGenerator.compile("(a)\\1"));
+    assertThrows(DataRizerException.class, () -> RegexGenerator.compile("a(?=b)"));
+    assertThrows(DataRizerException.class, () -> RegexGenerator.compile("[a-z&&[^b]]"));
+    assertThrows(DataRizerException.class, () -> RegexGenerator.compile("(ab"));
+    assertThrows(DataRizerException.class, () -> RegexGenerator.compile("a{3,1}"));
+  }
+}
@@ -0,0 +1,117 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepopulateTest {
+
+  @Test
+  void testLeafFieldsGetNewValuesInPlace()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    WriterRecord record = DataRizer.instantiate(WriterRecord.class);
+    String name = record.getName();
+    List<String> tags = record.getTags();
+    List<String> oldTags = new ArrayList<>(tags);
+    WriterChild child = record.getChild();
+    String label = child.getLabel();
+
+    assertSame(record, DataRizer.repopulate(record));
+    assertNotEquals(name, record.getName());
+    assertSame(tags, record.getTags());
+    assertEquals(oldTags.size(), tags.size());
+    assertNotEquals(oldTags, tags);
+    assertSame(child, record.getChild());
+    assertNotEquals(label, child.getLabel());
+  }
+
+  @Test
+  void testCollectionsKeepTheirShape()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    RecycledShape shape = new RecycledShape();
+    shape.setCount(7);
+    shape.setLinked(new LinkedList<>(List.of("a", "b", "c")));
+    shape.setScores(new HashMap<>(Map.of("x", 1L, "y", 2L)));
+    shape.setLetters(new HashSet<>(Set.of("p", "q")));
+    shape.setChildren(
+        new ArrayList<>(
+            List.of(
+                DataRizer.instantiate(WriterChild.class),
+                DataRizer.instantiate(WriterChild.class))));
+    shape.setFixed(List.of("fixed"));
+    shape.setNumbers(new int[] {1, 2, 3});
+    shape.setEmpty(null);
+    WriterChild first = shape.getChildren().get(0);
+    String label = first.getLabel();
+
+    DataRizer.repopulate(shape);
+
+    assertEquals(3, shape.getLinked().size());
+    assertFalse(shape.getLinked().contains("a"));
+    assertEquals(Set.of("x", "y"), shape.getScores().keySet());
+    assertEquals(2, shape.getLetters().size());
+    assertFalse(shape.getLetters().contains("p"));
+    assertSame(first, shape.getChildren().get(0));
+    assertNotEquals(label, first.getLabel());
+    assertEquals(List.of("fixed"), shape.getFixed());
+    assertEquals(3, shape.getNumbers().length);
+    assertNull(shape.getEmpty());
+  }
+
+  @Test
+  void testCyclesEnd()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    RecycledShape shape = new RecycledShape();
+    shape.setSelf(shape);
+    shape.setCount(3);
+    DataRizer.repopulate(shape);
+    assertSame(shape, shape.getSelf());
+  }
+
+  @Test
+  void testConstraintsStillApply()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ValidatedAccount account = DataRizer.instantiate(ValidatedAccount.class);
+    for (int i = 0; i < 100; i++) {
+      DataRizer.repopulate(account);
+      assertTrue(account.getAge() >= 18 && account.getAge() <= 21);
+      assertTrue(account.getCode().length() >= 3 && account.getCode().length() <= 5);
+      assertTrue(account.getRetries() >= 1 && account.getRetries() <= 3);
+    }
+  }
+
+  @Test
+  void testNullAndLeafValuesAreReturnedAsIs()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    assertNull(DataRizer.repopulate(null));
+    assertEquals("same", DataRizer.repopulate("same"));
+  }
+
+  @Test
+  void testPoolReusesReleasedObjects()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    DataRizerPool<WriterRecord> pool = new DataRizerPool<>(WriterRecord.class, 1);
+    WriterRecord first = pool.acquire();
+    WriterRecord second = pool.acquire();
+    assertTrue(pool.release(first));
+    assertFalse(pool.release(second));
+    assertEquals(1, pool.size());
+
+    String name = first.getName();
+    assertSame(first, pool.acquire());
+    assertNotEquals(name, first.getName());
+    assertEquals(2, pool.created());
+    assertEquals(1, pool.reused());
+    assertEquals(0, pool.size());
+    assertThrows(DataRizerException.class, () -> new DataRizerPool<>(WriterRecord.class, 0));
+  }
+}
@@ -0,0 +1,133 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardTest {
+
+  private static final long SEED = 20_231_105L;
+  private static final long TOTAL = 1_001;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testRangesCoverEveryIndexOnce() {
+    long expected = 0;
+    for (int i = 0; i < 7; i++) {
+      Shard shard = Shard.of(SEED, TOTAL, i, 7);
+      assertEquals(expected, shard.from());
+      assertTrue(shard.size() == TOTAL / 7 || shard.size() == TOTAL / 7 + 1);
+      expected = shard.to();
+    }
+    assertEquals(TOTAL, expected);
+    assertEquals(0, Shard.of(SEED, 2, 3, 4).size());
+  }
+
+  @Test
+  void testInvalidShardsAreRejected() {
+    assertThrows(DataRizerException.class, () -> Shard.of(SEED, 10, 4, 4));
+    assertThrows(DataRizerException.class, () -> Shard.of(SEED, 10, 0, 0));
+    assertThrows(DataRizerException.class, () -> Shard.of(SEED, -1, 0, 1));
+  }
+
+  @Test
+  void testRecordDoesNotDependOnShard() {
+    String inSingle = json(Shard.single(SEED, TOTAL).generate(WriterRecord.class, 600));
+    String inShard = json(Shard.of(SEED, TOTAL, 4, 7).generate(WriterRecord.class, 600));
+    assertEquals(inSingle, inShard);
+    assertNotEquals(inSingle, json(Shard.single(SEED, TOTAL).generate(WriterRecord.class, 601)));
+  }
+
+  @Test
+  void testInProcessShardsConcatenateToSingleRun() throws IOException {
+    for (RecordFormat format : RecordFormat.values()) {
+      byte[] single = writeSingle(format);
+      ByteArrayOutputStream shards = new ByteArrayOutputStream();
+      for (int i = 0; i < 3; i++) {
+        Path path = tempDir.resolve(format + "-" + i);
+        try (DataRizerWriter writer = new DataRizerWriter(path, format)) {
+          writer.write(WriterRecord.class, Shard.of(SEED, TOTAL, i, 3));
+        }
+        shards.write(Files.readAllBytes(path));
+      }
+      assertArrayEquals(single, shards.toByteArray(), format.name());
+    }
+  }
+
+  @Test
+  void testShardsFromSeparateProcessesConcatenateToSingleRun() throws Exception {
+    int shardCount = 4;
+    for (RecordFormat format : List.of(RecordFormat.CSV, RecordFormat.BINARY)) {
+      List<Process> processes = new ArrayList<>();
+      List<Path> paths = new ArrayList<>();
+      for (int i = 0; i < shardCount; i++) {
+        Path path = tempDir.resolve("process-" + format + "-" + i);
+        paths.add(path);
+        processes.add(
+            new ProcessBuilder(
+                    System.getProperty("java.home") + File.separator + "bin" + File.separator
+                        + "java",
+                    "-cp",
+                    System.getProperty("java.class.path"),
+                    ShardWorker.class.getName(),
+                    Long.toString(SEED),
+                    Long.toString(TOTAL),
+                    Integer.toString(i),
+                    Integer.toString(shardCount),
+                    format.name(),
+                    path.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(tempDir.resolve("process-" + format + "-" + i + ".log").toFile())
+                .start());
+      }
+      ByteArrayOutputStream shards = new ByteArrayOutputStream();
+      for (int i = 0; i < shardCount; i++) {
+        assertTrue(processes.get(i).waitFor(2, TimeUnit.MINUTES));
+        assertEquals(0, processes.get(i).exitValue());
+        shards.write(Files.readAllBytes(paths.get(i)));
+      }
+      assertArrayEquals(writeSingle(format), shards.toByteArray(), format.name());
+    }
+  }
+
+  private byte[] writeSingle(RecordFormat format) throws IOException {
+    Path path = tempDir.resolve("single-" + format);
+    try (DataRizerWriter writer = new DataRizerWriter(path, format)) {
+      writer.write(WriterRecord.class, Shard.single(SEED, TOTAL));
+    }
+    return Files.readAllBytes(path);
+  }
+
+  private static String json(Object record) {
+    StringBuilder builder = new StringBuilder();
+    JsonLinesEncoder.appendValue(record, builder);
+    return builder.toString();
+  }
+}
+
+// Generates one shard in its own JVM: seed totalCount index shardCount format path
+class ShardWorker {
+  public static void main(String[] args) throws IOException {
+    Shard shard =
+        Shard.of(
+            Long.parseLong(args[0]),
+            Long.parseLong(args[1]),
+            Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]));
+    try (DataRizerWriter writer =
+        new DataRizerWriter(Path.of(args[5]), RecordFormat.valueOf(args[4]))) {
+      writer.write(WriterRecord.class, shard);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.test;
+
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeEstimateTest {
+
+  @Test
+  void testExpectedCollectionSizeMatchesGeneration()
+      throws NoSuchFieldException, InvocationTargetException, IllegalAccessException,
+          InstantiationException {
+    Type tags = ConfiguredRecord.class.getDeclaredField("tags").getGenericType();
+    SizeEstimate list = SizeEstimate.of(tags, GenerationConfig.DEFAULT);
+    // an ArrayList and its array, then a String and its bytes per element
+    double expectedSize = (list.objects() - 2) / 2;
+    assertEquals(3.66, expectedSize, 0.01);
+
+    long total = 0;
+    int records = 5_000;
+    for (int i = 0; i < records; i++) {
+      total += DataRizer.instantiate(ConfiguredRecord.class).getTags().size();
+    }
+    assertEquals(expectedSize, (double) total / records, 0.15);
+  }
+
+  @Test
+  void testNestedCollectionsMultiply() {
+    SizeEstimate flat = DataRizer.estimate(EstimatedFlat.class);
+    SizeEstimate nested = DataRizer.estimate(EstimatedNested.class);
+    assertTrue(nested.objects() > 3 * flat.objects(), flat + " " + nested);
+    assertTrue(nested.bytes() > 3 * flat.bytes(), flat + " " + nested);
+    GenerationConfig wide = GenerationConfig.DEFAULT.withMaxCollectionSize(100);
+    assertTrue(
+        DataRizer.estimate(EstimatedNested.class, wide).objects() > 8 * nested.objects(),
+        DataRizer.estimate(EstimatedNested.class, wide).toString());
+  }
+
+  @Test
+  void testDepthNullRateAndSizeConstraints() {
+    GenerationConfig config = GenerationConfig.DEFAULT;
+    SizeEstimate two = DataRizer.estimate(ConfiguredRecord.class, config);
+    SizeEstimate one = DataRizer.estimate(ConfiguredRecord.class, config.withMaxDepth(1));
+    SizeEstimate four = DataRizer.estimate(ConfiguredRecord.class, config.withMaxDepth(4));
+    // one record per level
+    assertEquals(2 * one.objects(), two.objects(), 1e-9);
+    assertEquals(4 * one.objects(), four.objects(), 1e-9);
+    assertTrue(
+        DataRizer.estimate(ConfiguredRecord.class, config.withNullRate(0.5)).objects()
+            < two.objects());
+    // a String of exactly 3 characters and the record with its 4 fields
+    SizeEstimate sized = DataRizer.estimate(EstimatedSized.class);
+    assertEquals(3, sized.objects(), 1e-9);
+    assertEquals(24 + 24 + 24, sized.bytes(), 1e-9);
+  }
+
+  @Test
+  void testShallowEstimates() {
+    GenerationConfig config = GenerationConfig.DEFAULT;
+    assertEquals(0, SizeEstimate.shallow(EnumTestHasEnums.class, config).objects());
+    assertEquals(1, SizeEstimate.shallow(int.class, config).objects());
+    assertEquals(2, SizeEstimate.shallow(String.class, config).objects());
+    assertEquals(0, SizeEstimate.shallow(Comparable.class, config).objects());
+    assertEquals(1, SizeEstimate.shallow(EstimatedSized.class, config).objects());
+    assertSame(config.estimate(EstimatedFlat.class), config.estimate(EstimatedFlat.class));
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class EstimatedSized {
+  @Size(min = 3, max = 3)
+  private String code;
+
+  private int count;
+  private EnumTestHasEnums letter;
+}
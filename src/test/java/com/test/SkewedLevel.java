@@ -0,0 +1,7 @@
+package com.test;
+
+enum SkewedLevel {
+  LOW,
+  MEDIUM,
+  HIGH
+}
@@ -0,0 +1,17 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class SkewedRecord {
+  private Long customerId;
+  private String region;
+  private double amount;
+  private long gap;
+  private SkewedLevel level;
+  private short priority;
+}
@@ -0,0 +1,123 @@
+package com.test;
+
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtreeGenerationTest {
+
+  private static final GenerationConfig PARALLEL =
+      GenerationConfig.DEFAULT.withMaxCollectionSize(500).withParallelThreshold(20);
+
+  @Test
+  void testLargeCollectionsAreGeneratedInParallel()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ParallelCatalog catalog = generate(1);
+    assertEquals(1_000, catalog.getItems().size());
+    assertEquals(300, catalog.getCodes().size());
+    assertTrue(catalog.getItems().stream().allMatch(item -> item.getName() != null));
+    assertTrue(catalog.getItems().stream().allMatch(item -> item.getTags() != null));
+  }
+
+  @Test
+  void testSameSeedGivesTheSameObject()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    String expected = encode(generate(7));
+    for (int i = 0; i < 5; i++) {
+      assertEquals(expected, encode(generate(7)));
+    }
+    assertNotEquals(expected, encode(generate(8)));
+  }
+
+  @Test
+  void testSubtreesGetRandomStreamsOfTheirOwn()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ParallelCatalog catalog = generate(2);
+    long distinct = catalog.getItems().stream().map(ParallelItem::getName).distinct().count();
+    assertTrue(distinct > 990, distinct + " distinct names");
+  }
+
+  @Test
+  void testBudgetIsSharedWithTheSubtrees()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationContext context =
+        GenerationContext.seeded(3).withConfig(PARALLEL.withMaxObjects(800));
+    ParallelBag bag = context.call(() -> DataRizer.instantiate(ParallelBag.class));
+    assertTrue(context.budget().objects() <= 800, context.budget().objects() + " objects");
+    assertTrue(bag.getValues().size() < 400, bag.getValues().size() + " values");
+  }
+
+  @Test
+  void testUnsizedCollectionsAndMaps()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    GenerationConfig config = PARALLEL.withParallelThreshold(1);
+    for (int i = 0; i < 10; i++) {
+      GenerationContext context = GenerationContext.seeded(i).withConfig(config);
+      ParallelBag bag = context.call(() -> DataRizer.instantiate(ParallelBag.class));
+      assertFalse(bag.getValues().isEmpty());
+      assertFalse(bag.getByName().isEmpty());
+      assertTrue(bag.getByName().values().stream().allMatch(list -> !list.isEmpty()));
+    }
+  }
+
+  @Test
+  void testThresholdMustBePositive() {
+    assertThrows(
+        DataRizerException.class, () -> GenerationConfig.DEFAULT.withParallelThreshold(0));
+    assertFalse(GenerationConfig.DEFAULT.isParallel());
+    assertTrue(PARALLEL.isParallel());
+    assertEquals(20, PARALLEL.withMaxDepth(3).parallelThreshold());
+  }
+
+  private static ParallelCatalog generate(long seed)
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    return GenerationContext.seeded(seed)
+        .withConfig(PARALLEL)
+        .call(() -> DataRizer.instantiate(ParallelCatalog.class));
+  }
+
+  private static String encode(Object record) {
+    StringBuilder out = new StringBuilder();
+    JsonLinesEncoder.appendValue(record, out);
+    return out.toString();
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ParallelCatalog {
+  private String title;
+
+  @Size(min = 1_000, max = 1_000)
+  private List<ParallelItem> items;
+
+  @Size(min = 300, max = 300)
+  private Set<Long> codes;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ParallelItem {
+  private String name;
+  private int quantity;
+  private List<String> tags;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ParallelBag {
+  private List<String> values;
+  private Map<String, List<Integer>> byName;
+}
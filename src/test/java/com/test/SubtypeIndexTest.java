@@ -0,0 +1,157 @@
+package com.test;
+
+import com.test.subtype.SubtypeEngine;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtypeIndexTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void testSealedTypesUsePermittedSubclasses() {
+    assertEquals(
+        List.of(SubtypeCircle.class, SubtypeSquare.class, SubtypeTriangle.class),
+        SubtypeIndex.implementations(SubtypeShape.class));
+  }
+
+  @Test
+  void testOtherTypesUseThePackageIndex() {
+    assertEquals(
+        List.of(SubtypeBike.class, SubtypeCar.class),
+        SubtypeIndex.implementations(SubtypeVehicle.class));
+    assertEquals(List.of(), SubtypeIndex.implementations(SubtypeUnimplemented.class));
+  }
+
+  @Test
+  void testOtherPackagesAreSearchedWhenListed() {
+    assertEquals(List.of(), SubtypeIndex.implementations(SubtypeEngine.class));
+    System.setProperty(SubtypeIndex.PACKAGES_PROPERTY, "com.test.warmup, com.test");
+    try {
+      assertEquals(
+          List.of(SubtypeDiesel.class), SubtypeIndex.implementations(SubtypeEngine.class));
+    } finally {
+      System.clearProperty(SubtypeIndex.PACKAGES_PROPERTY);
+    }
+  }
+
+  @Test
+  void testImplementationsAreCachedInThePlan() {
+    assertSame(
+        ClassPlan.of(SubtypeVehicle.class).implementations(),
+        ClassPlan.of(SubtypeVehicle.class).implementations());
+    assertEquals(0, ClassPlan.of(SubtypeCar.class).implementations().length);
+  }
+
+  @Test
+  void testAbstractFieldsAreGenerated()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    Set<Class<?>> shapes = new HashSet<>();
+    for (int i = 0; i < 200; i++) {
+      SubtypeHolder holder = DataRizer.instantiate(SubtypeHolder.class);
+      assertNotNull(holder.getShape());
+      assertNotNull(holder.getVehicle());
+      assertNull(holder.getMissing());
+      shapes.add(holder.getShape().getClass());
+    }
+    assertEquals(Set.of(SubtypeCircle.class, SubtypeSquare.class, SubtypeTriangle.class), shapes);
+    assertNotNull(DataRizer.instantiate(SubtypeTriangle.class).getName());
+    assertInstanceOf(SubtypeVehicle.class, DataRizer.instantiate(SubtypeVehicle.class));
+  }
+
+  @Test
+  void testIndexIsPersistedAndReadBack() throws IOException {
+    ClassLoader loader = getClass().getClassLoader();
+    Files.writeString(directory.resolve("com.test-0.idx"), "stale");
+    Map<String, List<String>> index = SubtypeIndex.index(loader, "com.test", directory);
+    assertEquals(
+        List.of("com.test.SubtypeBike", "com.test.SubtypeCar"),
+        index.get("com.test.SubtypeVehicle"));
+    assertTrue(index.get("com.test.SubtypePolygon").contains("com.test.SubtypeTriangle"));
+
+    List<Path> files;
+    try (Stream<Path> listed = Files.list(directory)) {
+      files = listed.collect(Collectors.toList());
+    }
+    assertEquals(1, files.size());
+    Files.writeString(files.get(0), "# edited\ncom.test.SubtypeBike com.test.Edited\n");
+    assertEquals(
+        Map.of("com.test.Edited", List.of("com.test.SubtypeBike")),
+        SubtypeIndex.index(loader, "com.test", directory));
+  }
+}
+
+sealed interface SubtypeShape permits SubtypeCircle, SubtypeSquare, SubtypePolygon {}
+
+@NoArgsConstructor
+@Getter
+@Setter
+final class SubtypeCircle implements SubtypeShape {
+  private double radius;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+final class SubtypeSquare implements SubtypeShape {
+  private double side;
+}
+
+@Getter
+@Setter
+abstract non-sealed class SubtypePolygon implements SubtypeShape {
+  private int corners;
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class SubtypeTriangle extends SubtypePolygon {
+  private String name;
+}
+
+interface SubtypeVehicle {}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class SubtypeCar implements SubtypeVehicle {
+  private String plate;
+  private SubtypeVehicle towed;
+}
+
+@NoArgsConstructor
+@Setter
+class SubtypeBike implements SubtypeVehicle {
+  private Integer gears;
+}
+
+interface SubtypeUnimplemented {}
+
+@NoArgsConstructor
+class SubtypeDiesel implements SubtypeEngine {}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class SubtypeHolder {
+  private SubtypeShape shape;
+  private SubtypeVehicle vehicle;
+  private SubtypeUnimplemented missing;
+}
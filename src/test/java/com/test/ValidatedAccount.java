@@ -0,0 +1,60 @@
+package com.test;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@NoArgsConstructor
+@Getter
+@Setter
+class ValidatedAccount {
+  @NotNull
+  @Size(min = 3, max = 5)
+  private String code;
+
+  @Pattern(regexp = "[A-Z]{2}-\\d{4}")
+  private String reference;
+
+  @Min(18)
+  @Max(21)
+  private Integer age;
+
+  @DecimalMin("10.5")
+  @DecimalMax("11.0")
+  private BigDecimal balance;
+
+  @Size(min = 12, max = 15)
+  private List<String> tags;
+
+  @Email private String email;
+  @Past private Instant created;
+  @Future private LocalDate due;
+  @Positive private Long points;
+
+  @Min(1)
+  @Max(3)
+  private int retries;
+
+  @NotEmpty private Map<String, Integer> scores;
+  @Null private String ignored;
+  private String plain;
+}
@@ -0,0 +1,136 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuePoolTest {
+
+  private static final int RECORDS = 10_000;
+
+  @TempDir Path directory;
+
+  @AfterEach
+  void clearValueSources() {
+    DataRizer.clearValueSources();
+  }
+
+  @Test
+  void testGeneratedPoolsAreRepeatable()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ValuePool first = ValuePool.of(LocalDate.class, 50, 7);
+    ValuePool second = ValuePool.of(LocalDate.class, 50, 7);
+    assertTrue(first.size() > 1 && first.size() <= 50);
+    assertEquals(first.size(), second.size());
+    for (int i = 0; i < first.size(); i++) {
+      assertEquals(first.get(i), second.get(i));
+    }
+  }
+
+  @Test
+  void testRecordsSharePooledInstances()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ValuePool cities = ValuePool.of(String.class, List.of("Oslo", "Lima", "Pune"));
+    ValuePool prices = ValuePool.of(BigDecimal.class, 20, 1);
+    DataRizer.pool(PooledRecord.class, "city", cities);
+    DataRizer.pool(BigDecimal.class, prices);
+    DataRizer.pool(int.class, ValuePool.of(Integer.class, List.of(5, 6)));
+    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < RECORDS; i++) {
+      PooledRecord record = DataRizer.instantiate(PooledRecord.class);
+      instances.add(record.getCity());
+      instances.add(record.getPrice());
+      assertTrue(record.getQuantity() == 5 || record.getQuantity() == 6);
+      assertNotNull(record.getDay());
+    }
+    assertEquals(cities.size() + prices.size(), instances.size());
+  }
+
+  @Test
+  void testRepopulateTakesPooledValues()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    PooledRecord record = DataRizer.instantiate(PooledRecord.class);
+    DataRizer.pool(PooledRecord.class, "city", ValuePool.of(String.class, List.of("Oslo")));
+    DataRizer.repopulate(record);
+    assertEquals("Oslo", record.getCity());
+  }
+
+  @Test
+  void testWordListIsMemoryMapped() throws IOException {
+    Path words = directory.resolve("words.txt");
+    Files.write(words, "alpha\r\nbeta\n\n  gamma \nbeta\nżółw".getBytes(StandardCharsets.UTF_8));
+    ValuePool pool = ValuePool.fromWords(words);
+    assertEquals(String.class, pool.type());
+    assertEquals(4, pool.size());
+    assertEquals(
+        List.of("alpha", "beta", "gamma", "żółw"),
+        List.of(pool.get(0), pool.get(1), pool.get(2), pool.get(3)));
+
+    Files.write(directory.resolve("empty.txt"), "\n \n".getBytes(StandardCharsets.UTF_8));
+    assertThrows(
+        DataRizerException.class, () -> ValuePool.fromWords(directory.resolve("empty.txt")));
+  }
+
+  @Test
+  void testSkewedPoolFavoursTheFirstValues()
+      throws InvocationTargetException, IllegalAccessException, InstantiationException {
+    ValuePool pool =
+        ValuePool.of(String.class, List.of("hot", "warm", "cold", "frozen"))
+            .skewed(Distribution.zipf(4, 2));
+    DataRizer.pool(PooledRecord.class, "city", pool);
+    int hot = 0;
+    for (int i = 0; i < RECORDS; i++) {
+      if (DataRizer.instantiate(PooledRecord.class).getCity().equals("hot")) {
+        hot++;
+      }
+    }
+    // 1 / (1 + 1/4 + 1/9 + 1/16)
+    assertEquals(0.702, hot / (double) RECORDS, 0.02);
+    assertThrows(
+        DataRizerException.class,
+        () ->
+            ValuePool.of(String.class, List.of("only"))
+                .skewed(Distribution.weighted(0, 1))
+                .sample(String.class, new Random(), null));
+  }
+
+  @Test
+  void testMismatchedPoolsAreRejected() {
+    ValuePool strings = ValuePool.of(String.class, List.of("text"));
+    assertThrows(DataRizerException.class, () -> DataRizer.pool(BigDecimal.class, strings));
+    assertThrows(
+        DataRizerException.class, () -> DataRizer.pool(PooledRecord.class, "price", strings));
+    assertThrows(
+        DataRizerException.class, () -> DataRizer.pool(PooledRecord.class, "missing", strings));
+    assertThrows(DataRizerException.class, () -> ValuePool.of(String.class, List.of(1)));
+    assertThrows(DataRizerException.class, () -> ValuePool.of(String.class, List.of()));
+  }
+}
+
+@NoArgsConstructor
+@Getter
+@Setter
+class PooledRecord {
+  private String city;
+  private BigDecimal price;
+  private LocalDate day;
+  private int quantity;
+}
@@ -0,0 +1,41 @@
+package com.test;
+
+import com.test.warmup.WarmUpCustomer;
+import com.test.warmup.WarmUpOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmUpTest {
+
+  @Test
+  void testWarmUpPlansReferencedClasses() {
+    int planned = DataRizer.warmUp(List.of(WriterRecord.class), 0, false);
+    assertTrue(planned >= 2);
+    assertTrue(ClassPlan.isPlanned(WriterRecord.class));
+    assertTrue(ClassPlan.isPlanned(WriterChild.class));
+  }
+
+  @Test
+  void testWarmUpPackageInParallelWithIterations() {
+    List<Class<?>> classes = DataRizer.warmUp("com.test.warmup", 5, true);
+    assertEquals(List.of(WarmUpCustomer.class, WarmUpOrder.class), classes);
+    assertTrue(ClassPlan.isPlanned(WarmUpOrder.class));
+    assertTrue(ClassPlan.isPlanned(WarmUpCustomer.class));
+  }
+
+  @Test
+  void testWarmUpIgnoresClassesThatCantBeInstantiated() {
+    assertEquals(1, DataRizer.warmUp(List.of(Runnable.class), 3, false));
+  }
+
+  @Test
+  void testScannerFindsNestedButNotAnonymousClasses() {
+    var names = ClassPathScanner.classNames(getClass().getClassLoader(), "com.test");
+    assertTrue(names.contains("com.test.DataRizerTest$Constructor"));
+    assertTrue(names.contains("com.test.warmup.WarmUpOrder"));
+    assertTrue(names.stream().noneMatch(name -> name.matches(".*\\$\\d.*")));
+  }
+}
@@ -0,0 +1,15 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@Setter
+@Getter
+class WriterChild {
+  private String label;
+  private BigDecimal amount;
+}
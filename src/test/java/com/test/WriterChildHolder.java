@@ -0,0 +1,10 @@
+package com.test;
+
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Setter
+class WriterChildHolder {
+  private WriterChild child;
+}
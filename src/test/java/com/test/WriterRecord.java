@@ -0,0 +1,19 @@
+package com.test;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+class WriterRecord {
+  @NonNull private final String name;
+  @NonNull private final Integer count;
+  @NonNull private final LocalDate day;
+  @NonNull private final EnumTestHasEnums letter;
+  @NonNull private final List<String> tags;
+  @NonNull private final WriterChild child;
+}
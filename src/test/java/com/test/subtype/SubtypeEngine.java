@@ -0,0 +1,3 @@
+package com.test.subtype;
+
+public interface SubtypeEngine {}
@@ -0,0 +1,12 @@
+package com.test.warmup;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Setter
+@Getter
+public class WarmUpCustomer {
+  private String name;
+}
@@ -0,0 +1,16 @@
+package com.test.warmup;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@Setter
+@Getter
+public class WarmUpOrder {
+  private String reference;
+  private BigDecimal total;
+  private WarmUpCustomer customer;
+}